@@ -17,6 +17,7 @@
 
 package fr.cnes.sonar.plugin.settings;
 
+import org.sonar.api.PropertyType;
 import org.sonar.api.config.PropertyDefinition;
 import org.sonar.api.resources.Qualifiers;
 
@@ -83,6 +84,24 @@ public class ReportSonarPluginProperties {
 	 **/
 	public static final String XLSX_PATH_DESC = "Path to the spreadsheet template. " + PATH_DESC_SUFFIX;
 
+    /**
+	 * Key for the size of the report cache property
+	 **/
+	public static final String CACHE_SIZE_KEY = PROPERTIES_PREFIX + "cache.size";
+    /**
+	 * Name for the size of the report cache property
+	 **/
+	public static final String CACHE_SIZE_NAME = "Report cache size (MB)";
+    /**
+	 * Description for the size of the report cache property
+	 **/
+	public static final String CACHE_SIZE_DESC = "Maximum size on disk of the reports kept for the next downloads of the same analysis. "
+			+ "The least recently used reports are removed first. 0 disables the cache. Taken into account at server startup.";
+    /**
+	 * Default value for the size of the report cache property
+	 **/
+	public static final long CACHE_SIZE_DEFAULT = 512;
+
     /**
 	 * Private constructor because it is a utility class.
 	 */
@@ -116,6 +135,14 @@ public class ReportSonarPluginProperties {
 					.name(XLSX_PATH_NAME)
 					.description(XLSX_PATH_DESC)
 					.onQualifiers(Qualifiers.APP)
+					.build()
+            ,
+            PropertyDefinition.builder(CACHE_SIZE_KEY)
+					.category(CNES_REPORT_NAME)
+					.name(CACHE_SIZE_NAME)
+					.description(CACHE_SIZE_DESC)
+					.type(PropertyType.INTEGER)
+					.defaultValue(String.valueOf(CACHE_SIZE_DEFAULT))
 					.build());
     }
 }
\ No newline at end of file
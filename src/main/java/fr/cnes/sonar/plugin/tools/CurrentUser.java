@@ -0,0 +1,55 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.plugin.tools;
+
+import org.sonarqube.ws.Users.CurrentWsResponse;
+import org.sonarqube.ws.client.WsClient;
+
+/**
+ * utility class used to identify the user of a web service call
+ */
+public class CurrentUser {
+
+    /**
+     * Key of the global "Administer System" permission
+     */
+    private static final String ADMINISTER = "admin";
+
+    private CurrentUser(){}
+
+    /**
+     * Method used to retrieve the login of the user calling SonarQube through a client
+     * @param wsClient Class needed to interact with SonarQube classes
+     * @return The login of the user, an empty string for an anonymous user
+     */
+    public static String getLogin(WsClient wsClient) {
+        CurrentWsResponse user = wsClient.users().current();
+        return user.getIsLoggedIn() ? user.getLogin() : "";
+    }
+
+    /**
+     * Method used to know whether the user calling SonarQube through a client administers the instance
+     * @param wsClient Class needed to interact with SonarQube classes
+     * @return True if the user has the global "Administer System" permission
+     */
+    public static boolean isSystemAdministrator(WsClient wsClient) {
+        CurrentWsResponse user = wsClient.users().current();
+        return user.getIsLoggedIn() && user.getPermissions().getGlobalList().contains(ADMINISTER);
+    }
+
+}
@@ -59,4 +59,18 @@ public class FileTools {
             LOGGER.warning(e.getMessage());
         }
     }
+
+    /**
+     * Give another file with the content of a file: a hard link when the file system supports it, a copy otherwise.
+     * @param source the file
+     * @param target the new file, which must not exist
+     * @throws IOException the new file cannot be created
+     */
+    public static void linkOrCopy(File source, File target) throws IOException {
+        try {
+            Files.createLink(target.toPath(), source.toPath());
+        } catch (IOException | UnsupportedOperationException e) {
+            Files.copy(source.toPath(), target.toPath());
+        }
+    }
 }
@@ -0,0 +1,60 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.plugin.ws;
+
+import fr.cnes.sonar.plugin.tools.PluginStringManager;
+import fr.cnes.sonar.report.factory.ReportFactory;
+import org.apache.commons.io.FileUtils;
+import org.sonar.api.server.ws.Request;
+import org.sonar.api.server.ws.RequestHandler;
+import org.sonar.api.server.ws.Response;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.text.ParseException;
+
+public class DownloadTask implements RequestHandler {
+
+    /**
+     * Writes the zip of a done report job of the user in the response stream, then forgets the job.
+     * @param request  The request object containing the details of the client's request.
+     * @param response The response object used to send the data back to the client.
+     */
+    @Override
+    public void handle(Request request, Response response) throws IOException, ParseException {
+        final ReportJob job = StatusTask.findJob(request);
+        final File zip = job != null ? job.getZip() : null;
+        if (zip == null) {
+            ExportTask.writeError(response, HttpURLConnection.HTTP_NOT_FOUND,
+                    PluginStringManager.getProperty("api.download.notReady"));
+            return;
+        }
+
+        // Getting stream and change headers
+        final Response.Stream stream = response.stream();
+        stream.setMediaType("application/zip");
+        String filename = ReportFactory.formatFilename("zip.report.output", "", "", job.getProjectKey());
+        response.setHeader("Content-Disposition", "attachment; filename=\"" + filename + '"');
+
+        // send the zip output
+        final long streamed = FileUtils.copyFile(zip, stream.output());
+        ReportMetrics.getInstance().reportGenerated(job.getPhase(), streamed);
+        ReportJobQueue.getInstance().remove(job);
+    }
+}
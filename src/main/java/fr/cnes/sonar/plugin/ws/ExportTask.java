@@ -27,6 +27,8 @@ import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
 import fr.cnes.sonar.report.exceptions.SonarQubeException;
 import fr.cnes.sonar.report.exceptions.UnknownQualityGateException;
 import fr.cnes.sonar.report.factory.ReportFactory;
+import fr.cnes.sonar.report.model.Report;
+import fr.cnes.sonar.report.utils.Profiler;
 import fr.cnes.sonar.report.utils.StringManager;
 import org.apache.commons.io.FileUtils;
 import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
@@ -38,12 +40,16 @@ import org.sonar.api.server.ws.Response;
 import org.sonarqube.ws.MediaTypes;
 import org.sonarqube.ws.client.WsClient;
 import org.sonarqube.ws.client.WsClientFactories;
+import org.sonarqube.ws.client.components.ShowRequest;
 import com.google.gson.stream.JsonWriter;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
 import java.util.Arrays;
@@ -55,6 +61,9 @@ public class ExportTask implements RequestHandler {
     // Sonarqube configuration
     private final Configuration config;
 
+    // Cache of the generated reports
+    private final ReportCache cache;
+
     /**
      * Value "false" of an api call parameter
      */
@@ -65,12 +74,29 @@ public class ExportTask implements RequestHandler {
      */
     private static final String NO = "no";
 
+    /**
+     * Options of the command line which do not change the content of a report: output, author and token
+     */
+    private static final List<String> KEY_EXCLUDED = Arrays.asList("-o", "-a", "-t");
+
+    /**
+     * Options of the command line giving the path of a template
+     */
+    private static final List<String> TEMPLATES = Arrays.asList("-r", "-n", "-x");
+
+    /**
+     * Name of the phase zipping a generated report, absent from the exports served without generating it
+     */
+    static final String ZIP_PHASE = "zip";
+
     /**
      * public constructor
      * @param config sonarqube configuration
+     * @param cache cache of the generated reports
      */
-    ExportTask(Configuration config){
+    ExportTask(Configuration config, ReportCache cache){
         this.config = config;
+        this.cache = cache;
     }
 
     /**
@@ -79,8 +105,28 @@ public class ExportTask implements RequestHandler {
      * @param response The response object used to send the data back to the client.
      */
     @Override
-    public void handle(Request request, Response response) throws BadExportationDataTypeException, IOException,
-            UnknownQualityGateException, OpenXML4JException, XmlException, SonarQubeException, ParseException {
+    public void handle(Request request, Response response) throws Exception {
+
+        // Measure the export for the metrics action
+        final ReportMetrics metrics = ReportMetrics.getInstance();
+        metrics.exportStarted();
+        try (Profiler.Phase export = Profiler.getInstance().start("api report")) {
+            export(request, response, export);
+        } catch (Exception e) {
+            metrics.reportFailed(e);
+            throw e;
+        } finally {
+            metrics.exportEnded();
+        }
+    }
+
+    /**
+     * Generates the report of the request and writes it in the response stream.
+     * @param request  The request object containing the details of the client's request.
+     * @param response The response object used to send the data back to the client.
+     * @param export   Phase measuring the export.
+     */
+    private void export(Request request, Response response, Profiler.Phase export) throws Exception {
 
         // Get project key
         String projectKey = request.getParam(PluginStringManager.getProperty("api.report.args.key")).getValue();
@@ -89,122 +135,306 @@ public class ExportTask implements RequestHandler {
         Response.Stream stream = response.stream();
 
         // Get a temp folder
+        final File outputDirectory = createOutputDirectory();
+
+        // Start generation, re-using standalone script
+        try {
+            // create a new client to talk with sonarqube's services
+            WsClient wsClient = WsClientFactories.getLocal().newClient(request.localConnector());
+
+            // Execute report generation, SonarQube is called in process with the session of the user
+            final String[] reportParams = reportParams(config, request, wsClient, outputDirectory);
+            final File zip = generateShared(cache, reportKey(wsClient, reportParams), outputDirectory,
+                    () -> generate(reportParams, wsClient, outputDirectory));
+
+            stream.setMediaType("application/zip");
+            String filename = ReportFactory.formatFilename("zip.report.output", "", "", projectKey);
+            response.setHeader("Content-Disposition", "attachment; filename=\"" + filename + '"');
+
+            // send the zip output
+            final long streamed = FileUtils.copyFile(zip, stream.output());
+            Files.deleteIfExists(zip.toPath());
+            ReportMetrics.getInstance().reportGenerated(export, streamed);
+        } catch (BadSonarQubeRequestException e) {          
+            ReportMetrics.getInstance().reportFailed(e);
+            writeError(response, PluginStringManager.getProperty("api.tokenerror"));
+        }
+
+        FileTools.deleteFolder(outputDirectory);
+    }
+
+    /**
+     * Create an empty temporary folder receiving the files of a report.
+     * @return The folder.
+     * @throws IOException The folder cannot be created.
+     */
+    static File createOutputDirectory() throws IOException {
         final File outputDirectory = File.createTempFile("cnesreport", Long.toString(System.nanoTime()));
 
         // Last line create file instead of folder, we delete file to put folder at the same place later
         Files.delete(outputDirectory.toPath());
+        return outputDirectory;
+    }
 
-        // Start generation, re-using standalone script
-        try {
-            final Request.StringParam pBranch =
-                    request.getParam(PluginStringManager.getProperty("api.report.args.branch"));
-            
-            final Request.StringParam pLanguage =
-                    request.getParam(PluginStringManager.getProperty("api.report.args.language"));
+    /**
+     * Prepare the arguments of the generation of the report asked by a request.
+     * @param config          SonarQube configuration.
+     * @param request         The request asking for a report.
+     * @param wsClient        Client calling SonarQube with the session of the user of the request.
+     * @param outputDirectory Folder receiving the files of the report.
+     * @return The arguments of the command line generating the report.
+     */
+    static String[] reportParams(final Configuration config, final Request request, final WsClient wsClient,
+                                 final File outputDirectory) {
+        // Get project key
+        String projectKey = request.getParam(PluginStringManager.getProperty("api.report.args.key")).getValue();
 
-            final Request.StringParam pEnableDocx =
-                    request.getParam(PluginStringManager.getProperty("api.report.args.enableDocx"));
+        final Request.StringParam pBranch =
+                request.getParam(PluginStringManager.getProperty("api.report.args.branch"));
 
-            final Request.StringParam pEnableMd =
-                    request.getParam(PluginStringManager.getProperty("api.report.args.enableMd"));
+        final Request.StringParam pLanguage =
+                request.getParam(PluginStringManager.getProperty("api.report.args.language"));
 
-            final Request.StringParam pEnableXlsx =
-                    request.getParam(PluginStringManager.getProperty("api.report.args.enableXlsx"));
+        final Request.StringParam pEnableDocx =
+                request.getParam(PluginStringManager.getProperty("api.report.args.enableDocx"));
 
-            final Request.StringParam pEnableCsv =
-                    request.getParam(PluginStringManager.getProperty("api.report.args.enableCsv"));
+        final Request.StringParam pEnableMd =
+                request.getParam(PluginStringManager.getProperty("api.report.args.enableMd"));
 
-            final Request.StringParam pEnableConf =
-                    request.getParam(PluginStringManager.getProperty("api.report.args.enableConf"));
+        final Request.StringParam pEnableXlsx =
+                request.getParam(PluginStringManager.getProperty("api.report.args.enableXlsx"));
 
-            // Build SonarQube local URL
-            String port = config.get("sonar.web.port").orElse(PluginStringManager.getProperty("plugin.defaultPort"));
-            String context = config.get("sonar.web.context").orElse(PluginStringManager.getProperty("plugin.defaultContext"));
-            String sonarUrl = String.format(PluginStringManager.getProperty("plugin.defaultHost"), port, context);
+        final Request.StringParam pEnableCsv =
+                request.getParam(PluginStringManager.getProperty("api.report.args.enableCsv"));
 
-            // Get files templates paths if defined in the decicated SonarQube configuration panel
-            String docxPath = config.get("sonar.cnesreport.docx.path").orElse(null);
-            String mdPath = config.get("sonar.cnesreport.md.path").orElse(null);
-            String xlsxPath = config.get("sonar.cnesreport.xlsx.path").orElse(null);
+        final Request.StringParam pEnableConf =
+                request.getParam(PluginStringManager.getProperty("api.report.args.enableConf"));
 
-            // create a new client to talk with sonarqube's services
-            WsClient wsClient = WsClientFactories.getLocal().newClient(request.localConnector());
+        // Build SonarQube local URL
+        String port = config.get("sonar.web.port").orElse(PluginStringManager.getProperty("plugin.defaultPort"));
+        String context = config.get("sonar.web.context").orElse(PluginStringManager.getProperty("plugin.defaultContext"));
+        String sonarUrl = String.format(PluginStringManager.getProperty("plugin.defaultHost"), port, context);
 
-            // prepare params for the report generation
-            List<String> reportParams = new ArrayList<>(Arrays.asList(
-                    "report",
-                    "-o", outputDirectory.getAbsolutePath(),
-                    "-s", sonarUrl,
-                    "-p", projectKey,
-                    "-b", pBranch.isPresent()?pBranch.getValue(): DefaultBranch.getDefaultBranchFromProject(wsClient, projectKey),
-                    "-a", request.getParam(PluginStringManager.getProperty("api.report.args.author")).getValue(),
-                    "-t", request.getParam(PluginStringManager.getProperty("api.report.args.token")).getValue(),
-                    "-l", pLanguage.isPresent()?pLanguage.getValue(): StringManager.getProperty(StringManager.DEFAULT_LANGUAGE)
-            ));
-
-            // add files templates paths to params if defined
-            if (docxPath != null) {
-                reportParams.add("-r");
-                reportParams.add(docxPath);
-            }
-            if (mdPath != null) {
-                reportParams.add("-n");
-                reportParams.add(mdPath);
-            }
-            if (xlsxPath != null) {
-                reportParams.add("-x");
-                reportParams.add(xlsxPath);
-            }
+        // Get files templates paths if defined in the decicated SonarQube configuration panel
+        String docxPath = config.get("sonar.cnesreport.docx.path").orElse(null);
+        String mdPath = config.get("sonar.cnesreport.md.path").orElse(null);
+        String xlsxPath = config.get("sonar.cnesreport.xlsx.path").orElse(null);
 
-            String pEnableDocxValue = pEnableDocx.getValue();
-            String pEnableMdValue = pEnableMd.getValue();
-            String pEnableXlsxValue = pEnableXlsx.getValue();
-            String pEnableCsvValue = pEnableCsv.getValue();
-            String pEnableConfValue = pEnableConf.getValue();
+        // prepare params for the report generation
+        List<String> reportParams = new ArrayList<>(Arrays.asList(
+                "report",
+                "-o", outputDirectory.getAbsolutePath(),
+                "-s", sonarUrl,
+                "-p", projectKey,
+                "-b", pBranch.isPresent()?pBranch.getValue(): DefaultBranch.getDefaultBranchFromProject(wsClient, projectKey),
+                "-a", request.getParam(PluginStringManager.getProperty("api.report.args.author")).getValue(),
+                "-t", request.getParam(PluginStringManager.getProperty("api.report.args.token")).getValue(),
+                "-l", pLanguage.isPresent()?pLanguage.getValue(): StringManager.getProperty(StringManager.DEFAULT_LANGUAGE)
+        ));
 
-            // add disable files generation params if requested
-            if(pEnableDocxValue != null && (pEnableDocxValue.equals(FALSE) || pEnableDocxValue.equals(NO))) {
-                reportParams.add("-w");
-            }
-            if(pEnableMdValue != null && (pEnableMdValue.equals(FALSE) || pEnableMdValue.equals(NO))) {
-                reportParams.add("-m");
+        // add files templates paths to params if defined
+        if (docxPath != null) {
+            reportParams.add("-r");
+            reportParams.add(docxPath);
+        }
+        if (mdPath != null) {
+            reportParams.add("-n");
+            reportParams.add(mdPath);
+        }
+        if (xlsxPath != null) {
+            reportParams.add("-x");
+            reportParams.add(xlsxPath);
+        }
+
+        String pEnableDocxValue = pEnableDocx.getValue();
+        String pEnableMdValue = pEnableMd.getValue();
+        String pEnableXlsxValue = pEnableXlsx.getValue();
+        String pEnableCsvValue = pEnableCsv.getValue();
+        String pEnableConfValue = pEnableConf.getValue();
+
+        // add disable files generation params if requested
+        if(pEnableDocxValue != null && (pEnableDocxValue.equals(FALSE) || pEnableDocxValue.equals(NO))) {
+            reportParams.add("-w");
+        }
+        if(pEnableMdValue != null && (pEnableMdValue.equals(FALSE) || pEnableMdValue.equals(NO))) {
+            reportParams.add("-m");
+        }
+        if(pEnableXlsxValue != null && (pEnableXlsxValue.equals(FALSE) || pEnableXlsxValue.equals(NO))) {
+            reportParams.add("-e");
+        }
+        if(pEnableCsvValue != null && (pEnableCsvValue.equals(FALSE) || pEnableCsvValue.equals(NO))) {
+            reportParams.add("-f");
+        }
+        if(pEnableConfValue != null && (pEnableConfValue.equals(FALSE) || pEnableConfValue.equals(NO))) {
+            reportParams.add("-c");
+        }
+
+        return reportParams.toArray(new String[reportParams.size()]);
+    }
+
+    /**
+     * Give the zip of a report: from the cache if it was generated for the same analysis, otherwise
+     * wait for the identical report in progress, or generate it and keep it in the cache.
+     * @param cache           Cache of the generated reports.
+     * @param key             Key of the report, given by {@link #reportKey(WsClient, String[])}.
+     * @param outputDirectory Folder receiving the files of the report.
+     * @param generation      Generation of the zip of the report, next to the folder.
+     * @return The zip of the report, to be deleted by the caller.
+     */
+    static File generateShared(final ReportCache cache, final String key, final File outputDirectory,
+                               final ReportJob.Generation generation) throws Exception {
+        return InFlightReports.getInstance().generate(key, () -> {
+            final File cached = new File(outputDirectory.getAbsolutePath() + ".zip");
+            if (cache.get(key, cached)) {
+                ReportMetrics.getInstance().reportCached();
+                return cached;
             }
-            if(pEnableXlsxValue != null && (pEnableXlsxValue.equals(FALSE) || pEnableXlsxValue.equals(NO))) {
-                reportParams.add("-e");
+            final File zip = generation.generate();
+            cache.put(key, zip);
+            return zip;
+        });
+    }
+
+    /**
+     * Key of a report, identical for the reports with the same content whoever asks for them: a hash of the
+     * project, branch, language, formats and templates of the report, of the content of the templates and
+     * of the date of the last analysis of the project. The output folder, the author and the token are not
+     * part of the key. As the report may be shared with other users, this also checks the user of the client
+     * can browse the project.
+     * @param wsClient     Client calling SonarQube with the session of the user asking for the report.
+     * @param reportParams Arguments of the command line generating the report.
+     * @return The key.
+     * @throws IOException A template cannot be read.
+     */
+    static String reportKey(final WsClient wsClient, final String[] reportParams) throws IOException {
+        final ShowRequest show = new ShowRequest().setComponent(option(reportParams, "-p"));
+        final String branch = option(reportParams, "-b");
+        if (branch != null && !branch.isEmpty()) {
+            show.setBranch(branch);
+        }
+        final String analysisDate = wsClient.components().show(show).getComponent().getAnalysisDate();
+
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((reportKey(reportParams) + '\n' + analysisDate).getBytes(StandardCharsets.UTF_8));
+            for (String template : TEMPLATES) {
+                final String path = option(reportParams, template);
+                if (path != null) {
+                    digest.update(Files.readAllBytes(Paths.get(path)));
+                }
             }
-            if(pEnableCsvValue != null && (pEnableCsvValue.equals(FALSE) || pEnableCsvValue.equals(NO))) {
-                reportParams.add("-f");
+            final StringBuilder key = new StringBuilder();
+            for (byte b : digest.digest()) {
+                key.append(String.format("%02x", b));
             }
-            if(pEnableConfValue != null && (pEnableConfValue.equals(FALSE) || pEnableConfValue.equals(NO))) {
-                reportParams.add("-c");
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by this JVM.", e);
+        }
+    }
+
+    /**
+     * Key of the arguments of a report: its arguments without the ones which do not change its content.
+     * @param reportParams Arguments of the command line generating the report.
+     * @return The key.
+     */
+    static String reportKey(final String[] reportParams) {
+        final List<String> key = new ArrayList<>();
+        for (int i = 0; i < reportParams.length; i++) {
+            if (KEY_EXCLUDED.contains(reportParams[i])) {
+                // skip the value of the option too
+                i++;
+            } else {
+                key.add(reportParams[i]);
             }
+        }
+        return String.join("\n", key);
+    }
 
-            // Execute report generation
-            ReportCommandLine.execute(reportParams.toArray(new String[reportParams.size()]));
+    /**
+     * Value of an option of the command line.
+     * @param reportParams Arguments of the command line generating the report.
+     * @param option       The option.
+     * @return The value, null if the option is not given.
+     */
+    private static String option(final String[] reportParams, final String option) {
+        for (int i = 0; i < reportParams.length - 1; i++) {
+            if (reportParams[i].equals(option)) {
+                return reportParams[i + 1];
+            }
+        }
+        return null;
+    }
 
-            stream.setMediaType("application/zip");
-            String filename = ReportFactory.formatFilename("zip.report.output", "", "", projectKey);
-            response.setHeader("Content-Disposition", "attachment; filename=\"" + filename + '"');
+    /**
+     * Generate the files of a report and zip them.
+     * @param reportParams    Arguments of the command line generating the report.
+     * @param wsClient        Client calling SonarQube in process, null to call it over http with the token of the arguments.
+     * @param outputDirectory Folder receiving the files of the report.
+     * @return The zip of the report, next to the folder.
+     */
+    static File generate(final String[] reportParams, final WsClient wsClient, final File outputDirectory)
+            throws BadExportationDataTypeException, BadSonarQubeRequestException, IOException,
+            UnknownQualityGateException, OpenXML4JException, XmlException, SonarQubeException, ParseException {
+        ReportCommandLine.execute(reportParams, wsClient);
+        return zip(outputDirectory);
+    }
 
+    /**
+     * Write the files of a report from its model, read beforehand in process, and zip them.
+     * @param reportParams    Arguments of the command line generating the report.
+     * @param model           Model of the report, given by {@link ReportCommandLine#model(String[], WsClient)}.
+     * @param outputDirectory Folder receiving the files of the report.
+     * @return The zip of the report, next to the folder.
+     */
+    static File render(final String[] reportParams, final Report model, final File outputDirectory)
+            throws BadExportationDataTypeException, IOException, OpenXML4JException, XmlException, ParseException {
+        ReportCommandLine.export(reportParams, model);
+        return zip(outputDirectory);
+    }
 
-            // generate zip output and send it
+    /**
+     * Zip the files of a report.
+     * @param outputDirectory Folder of the files of the report.
+     * @return The zip of the report, next to the folder.
+     * @throws IOException The zip cannot be written.
+     */
+    private static File zip(final File outputDirectory) throws IOException {
+        // generate zip output
+        try (Profiler.Phase phase = Profiler.getInstance().phase(ZIP_PHASE)) {
             ZipFolder.pack(outputDirectory.getAbsolutePath(), outputDirectory.getAbsolutePath() + ".zip");
-            File zip = new File(outputDirectory.getAbsolutePath() + ".zip");
-            FileUtils.copyFile(zip, stream.output());
-            Files.deleteIfExists(zip.toPath());
-        } catch (BadSonarQubeRequestException e) {          
-            response.stream().setMediaType(MediaTypes.JSON);
-            try (
-                OutputStreamWriter writer = new OutputStreamWriter(response.stream().output(), StandardCharsets.UTF_8);
-                JsonWriter jsonWriter = new JsonWriter(writer);
-            ) {
-                jsonWriter.beginObject();
-                jsonWriter.name("error").value(PluginStringManager.getProperty("api.tokenerror"));
-                jsonWriter.endObject();
-                jsonWriter.flush();
-            }
         }
+        return new File(outputDirectory.getAbsolutePath() + ".zip");
+    }
 
-        FileTools.deleteFolder(outputDirectory);
+    /**
+     * Write an error as a json object in a response, with an http status.
+     * @param response The response.
+     * @param status   Http status of the response.
+     * @param message  Message of the error.
+     * @throws IOException The response cannot be written.
+     */
+    static void writeError(final Response response, final int status, final String message) throws IOException {
+        response.stream().setStatus(status);
+        writeError(response, message);
+    }
+
+    /**
+     * Write an error as a json object in a response.
+     * @param response The response.
+     * @param message  Message of the error.
+     * @throws IOException The response cannot be written.
+     */
+    static void writeError(final Response response, final String message) throws IOException {
+        response.stream().setMediaType(MediaTypes.JSON);
+        try (
+            OutputStreamWriter writer = new OutputStreamWriter(response.stream().output(), StandardCharsets.UTF_8);
+            JsonWriter jsonWriter = new JsonWriter(writer);
+        ) {
+            jsonWriter.beginObject();
+            jsonWriter.name("error").value(message);
+            jsonWriter.endObject();
+            jsonWriter.flush();
+        }
     }
 }
@@ -0,0 +1,145 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.plugin.ws;
+
+import fr.cnes.sonar.plugin.tools.FileTools;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Generations of reports in progress, shared by identical requests.
+ * The first request of a report generates it, the identical requests made meanwhile wait for
+ * this generation instead of starting their own, then each one receives its own link to the zip
+ * so that it can delete it after use as the first request does.
+ */
+final class InFlightReports {
+
+    /** Reports in progress in the plugin. */
+    private static final InFlightReports INSTANCE = new InFlightReports();
+
+    /** Requests waiting for each report in progress, by key of the report. */
+    private final Map<String, List<CompletableFuture<File>>> inFlight = new HashMap<>();
+
+    /**
+     * Reports in progress in the plugin.
+     * @return The reports.
+     */
+    static InFlightReports getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Generate a report, or wait for the identical report in progress.
+     * Only a report which was generated is shared: when the identical generation fails, for instance
+     * because of the permissions of its user, each waiting request generates the report on its own.
+     * @param key Key of the report: identical reports have the same key.
+     * @param generation Generation of the report, only called if no identical report is in progress.
+     * @return The zip of the report, to be deleted by the caller.
+     * @throws Exception The report cannot be generated by this request.
+     */
+    File generate(final String key, final ReportJob.Generation generation) throws Exception {
+        while (true) {
+            final CompletableFuture<File> shared;
+            synchronized (this) {
+                final List<CompletableFuture<File>> waiting = inFlight.get(key);
+                if (waiting == null) {
+                    inFlight.put(key, new ArrayList<>());
+                    shared = null;
+                } else {
+                    shared = new CompletableFuture<>();
+                    waiting.add(shared);
+                }
+            }
+
+            if (shared == null) {
+                return generateAndShare(key, generation);
+            }
+            final File zip = shared.join();
+            if (zip != null) {
+                ReportMetrics.getInstance().reportShared();
+                return zip;
+            }
+            // the identical generation failed, this request tries again with its own generation
+        }
+    }
+
+    /**
+     * Generate a report and give it to the requests which waited for it meanwhile.
+     * @param key Key of the report.
+     * @param generation Generation of the report.
+     * @return The zip of the report, to be deleted by the caller.
+     * @throws Exception The report cannot be generated, the waiting requests are told to generate it again.
+     */
+    private File generateAndShare(final String key, final ReportJob.Generation generation) throws Exception {
+        File zip = null;
+        try {
+            zip = generation.generate();
+            return zip;
+        } finally {
+            final List<CompletableFuture<File>> waiting;
+            synchronized (this) {
+                waiting = inFlight.remove(key);
+            }
+            for (CompletableFuture<File> request : waiting) {
+                request.complete(zip != null ? shareOrNull(zip) : null);
+            }
+        }
+    }
+
+    /**
+     * Give another file of a zip to a waiting request.
+     * @param zip The zip.
+     * @return The new file, null if it cannot be created: the request then generates the report on its own.
+     */
+    private static File shareOrNull(final File zip) {
+        try {
+            return share(zip);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Give another file of a zip, next to it.
+     * @param zip The zip.
+     * @return The new file.
+     * @throws IOException The file cannot be created.
+     */
+    private static File share(final File zip) throws IOException {
+        final File target = new File(zip.getParentFile(), UUID.randomUUID() + "-" + zip.getName());
+        FileTools.linkOrCopy(zip, target);
+        return target;
+    }
+
+    /**
+     * Number of requests waiting for a report in progress.
+     * @param key Key of the report.
+     * @return The number of requests, -1 if the report is not in progress.
+     */
+    synchronized int waiting(final String key) {
+        final List<CompletableFuture<File>> waiting = inFlight.get(key);
+        return waiting != null ? waiting.size() : -1;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.plugin.ws;
+
+import fr.cnes.sonar.plugin.tools.CurrentUser;
+import fr.cnes.sonar.plugin.tools.PluginStringManager;
+import org.sonar.api.server.ws.Request;
+import org.sonar.api.server.ws.RequestHandler;
+import org.sonar.api.server.ws.Response;
+import org.sonarqube.ws.MediaTypes;
+import org.sonarqube.ws.client.WsClient;
+import org.sonarqube.ws.client.WsClientFactories;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+
+public class MetricsTask implements RequestHandler {
+
+    /**
+     * Media type of the Prometheus text format
+     */
+    private static final String PROMETHEUS = "text/plain; version=0.0.4; charset=utf-8";
+
+    /**
+     * Writes the metrics of the exports in the requested format, to system administrators only.
+     * @param request  The request object containing the details of the client's request.
+     * @param response The response object used to send the data back to the client.
+     */
+    @Override
+    public void handle(Request request, Response response) throws IOException {
+        // The metrics describe the exports of every user of the instance
+        final WsClient wsClient = WsClientFactories.getLocal().newClient(request.localConnector());
+        if (!CurrentUser.isSystemAdministrator(wsClient)) {
+            ExportTask.writeError(response, HttpURLConnection.HTTP_FORBIDDEN,
+                    PluginStringManager.getProperty("api.metrics.forbidden"));
+            return;
+        }
+
+        final String format = request.mandatoryParam(PluginStringManager.getProperty("api.metrics.args.format"));
+        final ReportMetrics metrics = ReportMetrics.getInstance();
+        final String content;
+        if (PluginStringManager.getProperty("api.metrics.args.possibleValue.format").equals(format)) {
+            response.stream().setMediaType(PROMETHEUS);
+            content = metrics.toPrometheus();
+        } else {
+            response.stream().setMediaType(MediaTypes.JSON);
+            content = metrics.toJson();
+        }
+        try (Writer writer = new OutputStreamWriter(response.stream().output(), StandardCharsets.UTF_8)) {
+            writer.write(content);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.plugin.ws;
+
+import fr.cnes.sonar.plugin.settings.ReportSonarPluginProperties;
+import fr.cnes.sonar.plugin.tools.FileTools;
+import org.sonar.api.config.Configuration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Cache of the zips of the reports on disk, keyed by everything that changes their content, the date of the
+ * last analysis of the project included: a report is generated once by analysis. The least recently used
+ * zips are evicted when the cache exceeds its size.
+ */
+final class ReportCache {
+
+    /** Logger of this class */
+    private static final Logger LOGGER = Logger.getLogger(ReportCache.class.getName());
+
+    /** Extension of the files holding the zips. */
+    private static final String ZIP = ".zip";
+
+    /** Number of bytes in a megabyte. */
+    private static final long MEGABYTE = 1024L * 1024L;
+
+    /** Directory of the cache. */
+    private final Path directory;
+    /** Maximum size of the cache in bytes, 0 to disable it. */
+    private final long maxSize;
+    /** Current size of the zips in bytes. */
+    private long size;
+
+    /**
+     * Constructor.
+     * @param pDirectory Directory of the cache, created if needed.
+     * @param pMaxSize Maximum size of the cache in bytes, 0 to disable it.
+     * @throws IOException When the directory cannot be created or read.
+     */
+    ReportCache(final Path pDirectory, final long pMaxSize) throws IOException {
+        this.directory = pDirectory;
+        this.maxSize = pMaxSize;
+        if (maxSize > 0) {
+            Files.createDirectories(directory);
+            try (Stream<Path> zips = listZips()) {
+                this.size = zips.mapToLong(ReportCache::sizeOf).sum();
+            }
+            evict();
+        }
+    }
+
+    /**
+     * Create the cache of the plugin, in the data directory of SonarQube.
+     * @param config SonarQube configuration.
+     * @return The cache, disabled if its directory cannot be used.
+     */
+    static ReportCache create(final Configuration config) {
+        final String data = config != null ? config.get("sonar.path.data").orElse(null) : null;
+        final Path directory = data != null ? Paths.get(data, "cnesreport")
+                : Paths.get(System.getProperty("java.io.tmpdir"), "cnesreport");
+        final long maxSize = config != null ? config.getLong(ReportSonarPluginProperties.CACHE_SIZE_KEY)
+                .orElse(ReportSonarPluginProperties.CACHE_SIZE_DEFAULT) : ReportSonarPluginProperties.CACHE_SIZE_DEFAULT;
+        try {
+            return new ReportCache(directory, Math.max(0, maxSize) * MEGABYTE);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Report cache is disabled.", e);
+            return disabled();
+        }
+    }
+
+    /**
+     * Create a cache which keeps nothing.
+     * @return The cache.
+     */
+    static ReportCache disabled() {
+        try {
+            return new ReportCache(null, 0);
+        } catch (IOException e) {
+            // a disabled cache does not use its directory
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Give the zip of a report kept in the cache and mark it as recently used.
+     * @param key Key of the report.
+     * @param target File receiving the zip, which must not exist, to be deleted by the caller.
+     * @return True if the zip was in the cache, false if the target was not created.
+     */
+    synchronized boolean get(final String key, final File target) {
+        if (maxSize <= 0) {
+            return false;
+        }
+        final Path zip = directory.resolve(key + ZIP);
+        if (!Files.exists(zip)) {
+            return false;
+        }
+        try {
+            FileTools.linkOrCopy(zip.toFile(), target);
+            Files.setLastModifiedTime(zip, FileTime.fromMillis(System.currentTimeMillis()));
+            return true;
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Cached report cannot be read.", e);
+            return false;
+        }
+    }
+
+    /**
+     * Keep the zip of a report in the cache, unless it is bigger than the cache.
+     * @param key Key of the report.
+     * @param zip Zip of the report, left in place.
+     */
+    synchronized void put(final String key, final File zip) {
+        if (maxSize <= 0 || zip.length() > maxSize) {
+            return;
+        }
+        final Path cached = directory.resolve(key + ZIP);
+        final Path temporary = directory.resolve(key + ".tmp");
+        try {
+            Files.deleteIfExists(temporary);
+            FileTools.linkOrCopy(zip, temporary.toFile());
+            final long previous = Files.exists(cached) ? sizeOf(cached) : 0;
+            Files.move(temporary, cached, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.setLastModifiedTime(cached, FileTime.fromMillis(System.currentTimeMillis()));
+            size += sizeOf(cached) - previous;
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Report cannot be cached.", e);
+        } finally {
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException e) {
+                LOGGER.warning(e.getMessage());
+            }
+        }
+        evict();
+    }
+
+    /**
+     * Remove the least recently used zips until the cache fits in its size.
+     */
+    private void evict() {
+        if (size <= maxSize) {
+            return;
+        }
+        try (Stream<Path> zips = listZips()) {
+            final List<Path> byUse = zips.sorted(Comparator.comparing(ReportCache::lastUse))
+                    .collect(Collectors.toList());
+            for (Path zip : byUse) {
+                if (size <= maxSize) {
+                    break;
+                }
+                final long length = sizeOf(zip);
+                Files.deleteIfExists(zip);
+                size -= length;
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Report cache cannot be evicted.", e);
+        }
+    }
+
+    /**
+     * List the zips kept in the cache.
+     * @return The paths of the zips, the stream has to be closed.
+     * @throws IOException When the directory cannot be read.
+     */
+    private Stream<Path> listZips() throws IOException {
+        return Files.list(directory).filter(path -> path.getFileName().toString().endsWith(ZIP));
+    }
+
+    /**
+     * Current size of the zips kept in the cache.
+     * @return The size in bytes.
+     */
+    synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Size of a file, 0 if it cannot be read.
+     * @param path The file.
+     * @return The size in bytes.
+     */
+    private static long sizeOf(final Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Time of the last use of a zip.
+     * @param path The zip.
+     * @return The time in milliseconds.
+     */
+    private static long lastUse(final Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
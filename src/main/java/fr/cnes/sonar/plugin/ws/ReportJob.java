@@ -0,0 +1,269 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.plugin.ws;
+
+import fr.cnes.sonar.plugin.tools.PluginStringManager;
+import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
+import fr.cnes.sonar.report.utils.Profiler;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A report generated by a worker of the {@link ReportJobQueue}, out of the web request which submitted it.
+ */
+class ReportJob implements Runnable {
+
+    /** Logger of this class */
+    private static final Logger LOGGER = Logger.getLogger(ReportJob.class.getName());
+
+    /**
+     * States of a job.
+     */
+    enum State {
+        /** Waiting for a worker. */
+        QUEUED,
+        /** Generated by a worker. */
+        RUNNING,
+        /** The zip of the report is ready to be downloaded. */
+        DONE,
+        /** The generation failed. */
+        FAILED
+    }
+
+    /**
+     * Generation of the zip of a report.
+     */
+    @FunctionalInterface
+    interface Generation {
+        /**
+         * Generate the report.
+         * @return The zip of the report.
+         * @throws Exception The report cannot be generated.
+         */
+        File generate() throws Exception;
+    }
+
+    /** Identifier of the job. */
+    private final String id;
+    /** Login of the user who submitted the job. */
+    private final String owner;
+    /** Key of the exported project. */
+    private final String projectKey;
+    /** Generation of the report. */
+    private final Generation generation;
+    /** Current state of the job. */
+    private volatile State state;
+    /** Phase measuring the generation, null before it starts. */
+    private volatile Profiler.Phase phase;
+    /** Zip of the report, null until the job is done. */
+    private volatile File zip;
+    /** Message of the error of a failed job. */
+    private volatile String error;
+    /** Submission time in milliseconds. */
+    private final long submitted;
+    /** End time of the generation in milliseconds, 0 while it is not finished. */
+    private volatile long finished;
+
+    /**
+     * Constructor.
+     * @param pOwner Login of the user who submits the job.
+     * @param pProjectKey Key of the exported project.
+     * @param pGeneration Generation of the report.
+     */
+    ReportJob(final String pOwner, final String pProjectKey, final Generation pGeneration) {
+        this(pOwner, pProjectKey, pGeneration, null);
+    }
+
+    /**
+     * Constructor of a job whose generation started in the web request which submitted it.
+     * @param pOwner Login of the user who submits the job.
+     * @param pProjectKey Key of the exported project.
+     * @param pGeneration Generation of the rest of the report, measured in the phase.
+     * @param pPhase Phase measuring the generation, detached from the thread of the request and closed by the job, null to start it in the worker.
+     */
+    ReportJob(final String pOwner, final String pProjectKey, final Generation pGeneration, final Profiler.Phase pPhase) {
+        this.id = UUID.randomUUID().toString();
+        this.owner = pOwner;
+        this.projectKey = pProjectKey;
+        this.generation = pGeneration;
+        this.phase = pPhase;
+        this.state = State.QUEUED;
+        this.submitted = System.currentTimeMillis();
+    }
+
+    /**
+     * Generate the report, in the thread of a worker.
+     */
+    @Override
+    public void run() {
+        final ReportMetrics metrics = ReportMetrics.getInstance();
+        state = State.RUNNING;
+        metrics.exportStarted();
+        try (Profiler.Phase export = phase != null ? phase : Profiler.getInstance().start("api report job")) {
+            phase = export;
+            zip = generation.generate();
+            state = State.DONE;
+        } catch (BadSonarQubeRequestException e) {
+            metrics.reportFailed(e);
+            error = PluginStringManager.getProperty("api.tokenerror");
+            state = State.FAILED;
+        } catch (Exception | Error e) {
+            // errors such as an OutOfMemoryError also end the job, which would be left running otherwise
+            LOGGER.log(Level.SEVERE, String.format("Report of %s failed", projectKey), e);
+            metrics.reportFailed(e);
+            error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            state = State.FAILED;
+        } finally {
+            finished = System.currentTimeMillis();
+            metrics.exportEnded();
+        }
+    }
+
+    /**
+     * Delete the zip of the report.
+     */
+    void delete() {
+        final File file = zip;
+        zip = null;
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file.toPath());
+            } catch (IOException e) {
+                LOGGER.warning(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Identifier of the job.
+     * @return The identifier.
+     */
+    String getId() {
+        return id;
+    }
+
+    /**
+     * Login of the user who submitted the job.
+     * @return The login.
+     */
+    String getOwner() {
+        return owner;
+    }
+
+    /**
+     * Key of the exported project.
+     * @return The key.
+     */
+    String getProjectKey() {
+        return projectKey;
+    }
+
+    /**
+     * Current state of the job.
+     * @return The state.
+     */
+    State getState() {
+        return state;
+    }
+
+    /**
+     * Whether the generation is over, successful or not.
+     * @return True for a done or failed job.
+     */
+    boolean isFinished() {
+        return finished != 0;
+    }
+
+    /**
+     * End time of the generation.
+     * @return The time in milliseconds, 0 while it is not finished.
+     */
+    long getFinished() {
+        return finished;
+    }
+
+    /**
+     * Phase measuring the generation.
+     * @return The phase, null before the generation starts.
+     */
+    Profiler.Phase getPhase() {
+        return phase;
+    }
+
+    /**
+     * Zip of the report.
+     * @return The zip, null until the job is done.
+     */
+    File getZip() {
+        return zip;
+    }
+
+    /**
+     * Message of the error of a failed job.
+     * @return The message, null if the job did not fail.
+     */
+    String getError() {
+        return error;
+    }
+
+    /**
+     * Time since the submission of the job, up to its end once finished.
+     * @return The time in milliseconds.
+     */
+    long getElapsed() {
+        return (finished != 0 ? finished : System.currentTimeMillis()) - submitted;
+    }
+
+    /**
+     * Number of calls sent to SonarQube by the generation so far.
+     * @return The number of calls.
+     */
+    long getSonarQubeCalls() {
+        final Profiler.Phase current = phase;
+        return current != null ? current.getHttpCalls() : 0;
+    }
+
+    /**
+     * Step of the generation in progress, as the path of its open phases, e.g. "report > export > export docx".
+     * @return The step, an empty string if the generation is not running.
+     */
+    String getStep() {
+        final List<String> steps = new ArrayList<>();
+        Profiler.Phase current = phase;
+        while (current != null && current.isOpen()) {
+            Profiler.Phase next = null;
+            for (Profiler.Phase child : current.getChildren()) {
+                if (child.isOpen()) {
+                    next = child;
+                }
+            }
+            if (next != null) {
+                steps.add(next.getName());
+            }
+            current = next;
+        }
+        return String.join(" > ", steps);
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.plugin.ws;
+
+import fr.cnes.sonar.plugin.tools.PluginStringManager;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queue of the report jobs, generated by a bounded pool of workers.
+ * Jobs wait in one queue per user and the users are served in turn, so that a user submitting
+ * many reports does not delay the reports of the others. The number of waiting jobs and the number
+ * of unfinished jobs of a user are limited. Finished jobs are kept until their report is downloaded,
+ * or forgotten after a retention delay.
+ */
+final class ReportJobQueue {
+
+    /** Queue of the plugin, configured by the plugin properties. */
+    private static final ReportJobQueue INSTANCE = new ReportJobQueue(
+            Integer.parseInt(PluginStringManager.getProperty("plugin.jobs.workers")),
+            Integer.parseInt(PluginStringManager.getProperty("plugin.jobs.queueSize")),
+            Integer.parseInt(PluginStringManager.getProperty("plugin.jobs.perUser")),
+            TimeUnit.SECONDS.toMillis(Long.parseLong(PluginStringManager.getProperty("plugin.jobs.retention"))));
+
+    /** Maximum number of workers. */
+    private final int workers;
+    /** Maximum number of waiting jobs. */
+    private final int queueSize;
+    /** Maximum number of unfinished jobs of a user. */
+    private final int perUser;
+    /** Delay in milliseconds after which a finished job is forgotten. */
+    private final long retention;
+    /** Waiting jobs of each user, users in serving order. */
+    private final Map<String, Deque<ReportJob>> waiting = new LinkedHashMap<>();
+    /** Known jobs by identifier. */
+    private final Map<String, ReportJob> jobs = new HashMap<>();
+    /** Number of waiting jobs. */
+    private int queued;
+    /** Number of workers started. */
+    private int started;
+
+    /**
+     * Constructor.
+     * @param pWorkers Maximum number of workers, 0 to only queue the jobs.
+     * @param pQueueSize Maximum number of waiting jobs.
+     * @param pPerUser Maximum number of unfinished jobs of a user.
+     * @param pRetention Delay in milliseconds after which a finished job is forgotten.
+     */
+    ReportJobQueue(final int pWorkers, final int pQueueSize, final int pPerUser, final long pRetention) {
+        this.workers = pWorkers;
+        this.queueSize = pQueueSize;
+        this.perUser = pPerUser;
+        this.retention = pRetention;
+    }
+
+    /**
+     * Queue of the plugin.
+     * @return The queue.
+     */
+    static ReportJobQueue getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Queue a job, starting a worker if the pool is not full.
+     * @param job The job.
+     * @throws RejectedExecutionException The queue is full or the user has too many unfinished jobs.
+     */
+    synchronized void submit(final ReportJob job) {
+        purge();
+        if (queued >= queueSize) {
+            throw new RejectedExecutionException(PluginStringManager.getProperty("api.submit.queueFull"));
+        }
+        final long unfinished = jobs.values().stream()
+                .filter(j -> j.getOwner().equals(job.getOwner()) && !j.isFinished()).count();
+        if (unfinished >= perUser) {
+            throw new RejectedExecutionException(PluginStringManager.getProperty("api.submit.userLimit"));
+        }
+        waiting.computeIfAbsent(job.getOwner(), owner -> new ArrayDeque<>()).add(job);
+        jobs.put(job.getId(), job);
+        queued++;
+        if (started < workers) {
+            startWorker();
+        }
+        notifyAll();
+    }
+
+    /**
+     * Start a worker.
+     */
+    private synchronized void startWorker() {
+        started++;
+        final Thread worker = new Thread(this::work, "cnesreport-worker-" + started);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Take the next job to generate: the first job of the next user in turn.
+     * @return The job, null if no job is waiting.
+     */
+    synchronized ReportJob next() {
+        final Iterator<Map.Entry<String, Deque<ReportJob>>> users = waiting.entrySet().iterator();
+        if (!users.hasNext()) {
+            return null;
+        }
+        final Map.Entry<String, Deque<ReportJob>> user = users.next();
+        users.remove();
+        final ReportJob job = user.getValue().poll();
+        if (!user.getValue().isEmpty()) {
+            // the user goes back to the end of the turn
+            waiting.put(user.getKey(), user.getValue());
+        }
+        queued--;
+        return job;
+    }
+
+    /**
+     * Number of jobs which will be taken before a waiting job.
+     * @param job The job.
+     * @return The number of jobs, -1 if the job is not waiting.
+     */
+    synchronized int position(final ReportJob job) {
+        final List<Iterator<ReportJob>> turns = new ArrayList<>();
+        for (Deque<ReportJob> jobsOfUser : waiting.values()) {
+            turns.add(jobsOfUser.iterator());
+        }
+        int position = 0;
+        while (!turns.isEmpty()) {
+            final Iterator<Iterator<ReportJob>> turn = turns.iterator();
+            while (turn.hasNext()) {
+                final Iterator<ReportJob> jobsOfUser = turn.next();
+                if (!jobsOfUser.hasNext()) {
+                    turn.remove();
+                } else if (jobsOfUser.next() == job) {
+                    return position;
+                } else {
+                    position++;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Find a job of a user.
+     * @param id Identifier of the job.
+     * @param owner Login of the user.
+     * @return The job, null if it is unknown or submitted by another user.
+     */
+    synchronized ReportJob get(final String id, final String owner) {
+        purge();
+        final ReportJob job = jobs.get(id);
+        return job != null && job.getOwner().equals(owner) ? job : null;
+    }
+
+    /**
+     * Forget a finished job and delete its report.
+     * @param job The job.
+     */
+    synchronized void remove(final ReportJob job) {
+        jobs.remove(job.getId());
+        job.delete();
+    }
+
+    /**
+     * Forget the jobs finished for longer than the retention delay.
+     */
+    private void purge() {
+        final long expiry = System.currentTimeMillis() - retention;
+        final Iterator<ReportJob> known = jobs.values().iterator();
+        while (known.hasNext()) {
+            final ReportJob job = known.next();
+            if (job.isFinished() && job.getFinished() < expiry) {
+                known.remove();
+                job.delete();
+            }
+        }
+    }
+
+    /**
+     * Loop of a worker: generate the waiting jobs until the worker is interrupted.
+     */
+    private void work() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                take().run();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            synchronized (this) {
+                // a worker which died is replaced, so that the waiting jobs are still generated
+                started--;
+                if (!Thread.currentThread().isInterrupted() && queued > 0) {
+                    startWorker();
+                }
+            }
+        }
+    }
+
+    /**
+     * Wait for the next job to generate.
+     * @return The job.
+     * @throws InterruptedException The worker is interrupted.
+     */
+    private synchronized ReportJob take() throws InterruptedException {
+        while (queued == 0) {
+            wait();
+        }
+        return next();
+    }
+}
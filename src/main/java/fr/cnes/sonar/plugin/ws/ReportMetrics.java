@@ -0,0 +1,367 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.plugin.ws;
+
+import fr.cnes.sonar.report.providers.RequestManager;
+import fr.cnes.sonar.report.utils.Profiler;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Metrics of the exports made by the plugin since SonarQube started:
+ * reports generated, durations by format, exports in progress, bytes streamed,
+ * SonarQube calls by report and failures by exception type.
+ * They are given as json or in the Prometheus text format.
+ */
+public final class ReportMetrics {
+
+    /** Format of the duration of a whole export. */
+    public static final String TOTAL = "total";
+    /** Formats measured by a phase of the generation, as named by the report factory. */
+    private static final String[] FORMATS = {"docx", "xlsx", "markdown", "csv", "conf"};
+    /** Prefix of the phases exporting a format. */
+    private static final String EXPORT_PHASE = "export ";
+
+    /** Upper bounds of the buckets of the durations, in seconds. */
+    private static final double[] DURATION_BUCKETS = {0.5, 1, 2.5, 5, 10, 30, 60, 120, 300};
+    /** Upper bounds of the buckets of the SonarQube calls of a report. */
+    private static final double[] CALLS_BUCKETS = {10, 25, 50, 100, 250, 500, 1000, 2500, 5000};
+    /** Number of milliseconds in a second. */
+    private static final double MILLISECONDS = 1000.0;
+
+    /** Unique instance of the metrics. */
+    private static final ReportMetrics INSTANCE = new ReportMetrics();
+
+    /** Reports generated, by outcome. */
+    private final Map<String, AtomicLong> reports = new ConcurrentSkipListMap<>();
+    /** Failures, by simple name of the exception. */
+    private final Map<String, AtomicLong> failures = new ConcurrentSkipListMap<>();
+    /** Durations of the exports, by format. */
+    private final Map<String, Histogram> durations = new ConcurrentHashMap<>();
+    /** SonarQube calls made by each report. */
+    private final Histogram calls = new Histogram(CALLS_BUCKETS);
+    /** Exports in progress. */
+    private final AtomicLong inFlight = new AtomicLong();
+    /** Bytes of the archives sent to the clients. */
+    private final AtomicLong bytesStreamed = new AtomicLong();
+    /** Exports which waited for an identical report in progress instead of generating it. */
+    private final AtomicLong shared = new AtomicLong();
+    /** Exports served from the report cache. */
+    private final AtomicLong cached = new AtomicLong();
+
+    /**
+     * Distribution of observed values in buckets of increasing upper bounds.
+     */
+    static final class Histogram {
+        /** Upper bounds of the buckets, the last bucket has no bound. */
+        private final double[] bounds;
+        /** Number of values of each bucket, not cumulated. */
+        private final AtomicLongArray counts;
+        /** Sum of the values. */
+        private final DoubleAdder sum = new DoubleAdder();
+
+        /**
+         * Constructor.
+         * @param pBounds Upper bounds of the buckets, in increasing order.
+         */
+        Histogram(final double[] pBounds) {
+            this.bounds = pBounds.clone();
+            this.counts = new AtomicLongArray(pBounds.length + 1);
+        }
+
+        /**
+         * Add a value to the distribution.
+         * @param value The value.
+         */
+        void observe(final double value) {
+            int bucket = 0;
+            while (bucket < bounds.length && value > bounds[bucket]) {
+                bucket++;
+            }
+            counts.incrementAndGet(bucket);
+            sum.add(value);
+        }
+
+        /**
+         * Number of values lower or equal to the bound of each bucket, the last one counts all values.
+         * @return The cumulated counts.
+         */
+        long[] getCumulativeCounts() {
+            final long[] res = new long[counts.length()];
+            long total = 0;
+            for (int i = 0; i < res.length; i++) {
+                total += counts.get(i);
+                res[i] = total;
+            }
+            return res;
+        }
+
+        /**
+         * Sum of the values.
+         * @return The sum.
+         */
+        double getSum() {
+            return sum.sum();
+        }
+
+        /**
+         * Label of the upper bound of a bucket.
+         * @param bucket Index of the bucket.
+         * @return The bound, +Inf for the last bucket.
+         */
+        String getBound(final int bucket) {
+            return bucket < bounds.length ? format(bounds[bucket]) : "+Inf";
+        }
+    }
+
+    /**
+     * Private constructor, use getInstance instead.
+     */
+    private ReportMetrics() {}
+
+    /**
+     * Give the unique instance of the metrics.
+     * @return The metrics.
+     */
+    public static ReportMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Count the start of an export.
+     */
+    void exportStarted() {
+        inFlight.incrementAndGet();
+    }
+
+    /**
+     * Count the end of an export, whatever its outcome.
+     */
+    void exportEnded() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Record a report sent to the client. The calls and durations are only observed when the export
+     * generated the report: a report served by the cache or by an identical export is counted by
+     * {@link #reportCached()} or {@link #reportShared()} instead.
+     * @param export Root phase measuring the export.
+     * @param streamed Bytes of the archive sent to the client.
+     */
+    void reportGenerated(final Profiler.Phase export, final long streamed) {
+        reports.computeIfAbsent("success", k -> new AtomicLong()).incrementAndGet();
+        bytesStreamed.addAndGet(streamed);
+        if (export.find(ExportTask.ZIP_PHASE) == null) {
+            return;
+        }
+        calls.observe(export.getHttpCalls());
+        duration(TOTAL).observe(export.getWallTime() / MILLISECONDS);
+        for (String format : FORMATS) {
+            final Profiler.Phase phase = export.find(EXPORT_PHASE + format);
+            if (phase != null) {
+                duration(format).observe(phase.getWallTime() / MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Count an export which waits for an identical report in progress instead of generating it.
+     */
+    void reportShared() {
+        shared.incrementAndGet();
+    }
+
+    /**
+     * Count an export served from the report cache.
+     */
+    void reportCached() {
+        cached.incrementAndGet();
+    }
+
+    /**
+     * Record an export which failed.
+     * @param exception Cause of the failure.
+     */
+    void reportFailed(final Throwable exception) {
+        reports.computeIfAbsent("failure", k -> new AtomicLong()).incrementAndGet();
+        failures.computeIfAbsent(exception.getClass().getSimpleName(), k -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Metrics as a json document.
+     * @return The json document.
+     */
+    public String toJson() {
+        final JsonObject json = new JsonObject();
+        json.add("reports", counters(reports));
+        json.addProperty("inFlight", inFlight.get());
+        json.addProperty("bytesStreamed", bytesStreamed.get());
+        json.addProperty("sharedReports", shared.get());
+        json.addProperty("cachedReports", cached.get());
+        json.add("failures", counters(failures));
+        json.addProperty("sonarQubeRetries", RequestManager.getInstance().getRetryCount());
+        json.addProperty("sonarQubeCircuitTrips", RequestManager.getInstance().getCircuitTripCount());
+        final JsonObject limits = new JsonObject();
+        RequestManager.getInstance().getConcurrencyLimits().forEach(limits::addProperty);
+        json.add("sonarQubeConcurrencyLimits", limits);
+        final JsonObject formats = new JsonObject();
+        new ConcurrentSkipListMap<>(durations).forEach((format, histogram) -> formats.add(format, toJson(histogram)));
+        json.add("durationSeconds", formats);
+        json.add("sonarQubeCallsPerReport", toJson(calls));
+        return new GsonBuilder().setPrettyPrinting().create().toJson(json);
+    }
+
+    /**
+     * Metrics in the Prometheus text exposition format.
+     * @return The metrics.
+     */
+    public String toPrometheus() {
+        final StringBuilder text = new StringBuilder();
+        header(text, "cnesreport_reports_total", "counter", "Reports generated by the plugin, by outcome.");
+        reports.forEach((outcome, count) ->
+                sample(text, "cnesreport_reports_total", "outcome=\"" + outcome + '"', count.get()));
+        header(text, "cnesreport_exports_in_flight", "gauge", "Exports in progress.");
+        sample(text, "cnesreport_exports_in_flight", null, inFlight.get());
+        header(text, "cnesreport_bytes_streamed_total", "counter", "Bytes of the archives sent to the clients.");
+        sample(text, "cnesreport_bytes_streamed_total", null, bytesStreamed.get());
+        header(text, "cnesreport_shared_reports_total", "counter",
+                "Exports which waited for an identical report in progress instead of generating it.");
+        sample(text, "cnesreport_shared_reports_total", null, shared.get());
+        header(text, "cnesreport_cached_reports_total", "counter", "Exports served from the report cache.");
+        sample(text, "cnesreport_cached_reports_total", null, cached.get());
+        header(text, "cnesreport_failures_total", "counter", "Failed exports, by exception type.");
+        failures.forEach((exception, count) ->
+                sample(text, "cnesreport_failures_total", "exception=\"" + exception + '"', count.get()));
+        header(text, "cnesreport_sonarqube_retries_total", "counter", "Requests to SonarQube sent again.");
+        sample(text, "cnesreport_sonarqube_retries_total", null, RequestManager.getInstance().getRetryCount());
+        header(text, "cnesreport_sonarqube_circuit_trips_total", "counter",
+                "Times the requests to SonarQube were stopped after consecutive failures.");
+        sample(text, "cnesreport_sonarqube_circuit_trips_total", null,
+                RequestManager.getInstance().getCircuitTripCount());
+        header(text, "cnesreport_sonarqube_concurrency_limit", "gauge",
+                "Current limit of requests in flight, by SonarQube server.");
+        RequestManager.getInstance().getConcurrencyLimits().forEach((server, limit) ->
+                sample(text, "cnesreport_sonarqube_concurrency_limit", "server=\"" + server + '"', limit));
+        header(text, "cnesreport_report_duration_seconds", "histogram", "Duration of the exports, by format.");
+        new ConcurrentSkipListMap<>(durations).forEach((format, histogram) ->
+                histogram(text, "cnesreport_report_duration_seconds", "format=\"" + format + "\",", histogram));
+        header(text, "cnesreport_sonarqube_calls", "histogram", "Requests sent to SonarQube by each report.");
+        histogram(text, "cnesreport_sonarqube_calls", "", calls);
+        return text.toString();
+    }
+
+    /**
+     * Histogram of the durations of a format, created at its first use.
+     * @param format The format.
+     * @return The histogram.
+     */
+    private Histogram duration(final String format) {
+        return durations.computeIfAbsent(format, k -> new Histogram(DURATION_BUCKETS));
+    }
+
+    /**
+     * Json object of counters.
+     * @param counters The counters by name.
+     * @return The json object.
+     */
+    private static JsonObject counters(final Map<String, AtomicLong> counters) {
+        final JsonObject json = new JsonObject();
+        counters.forEach((name, count) -> json.addProperty(name, count.get()));
+        return json;
+    }
+
+    /**
+     * Json object of a histogram, with cumulated buckets.
+     * @param histogram The histogram.
+     * @return The json object.
+     */
+    private static JsonObject toJson(final Histogram histogram) {
+        final long[] counts = histogram.getCumulativeCounts();
+        final JsonObject buckets = new JsonObject();
+        for (int i = 0; i < counts.length; i++) {
+            buckets.addProperty(histogram.getBound(i), counts[i]);
+        }
+        final JsonObject json = new JsonObject();
+        json.addProperty("count", counts[counts.length - 1]);
+        json.addProperty("sum", histogram.getSum());
+        json.add("buckets", buckets);
+        return json;
+    }
+
+    /**
+     * Write the help and type lines of a metric.
+     * @param text Text of the metrics.
+     * @param name Name of the metric.
+     * @param type Type of the metric.
+     * @param help Description of the metric.
+     */
+    private static void header(final StringBuilder text, final String name, final String type, final String help) {
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    /**
+     * Write a sample of a metric.
+     * @param text Text of the metrics.
+     * @param name Name of the metric.
+     * @param labels Labels of the sample, null if none.
+     * @param value Value of the sample.
+     */
+    private static void sample(final StringBuilder text, final String name, final String labels, final Object value) {
+        text.append(name);
+        if (labels != null) {
+            text.append('{').append(labels).append('}');
+        }
+        text.append(' ').append(value instanceof Double ? format((Double) value) : value).append('\n');
+    }
+
+    /**
+     * Write the buckets, sum and count of a histogram.
+     * @param text Text of the metrics.
+     * @param name Name of the metric.
+     * @param labels Labels of the histogram, each followed by a comma.
+     * @param histogram The histogram.
+     */
+    private static void histogram(final StringBuilder text, final String name, final String labels,
+                                  final Histogram histogram) {
+        final long[] counts = histogram.getCumulativeCounts();
+        for (int i = 0; i < counts.length; i++) {
+            sample(text, name + "_bucket", labels + "le=\"" + histogram.getBound(i) + '"', counts[i]);
+        }
+        final String others = labels.isEmpty() ? null : labels.substring(0, labels.length() - 1);
+        sample(text, name + "_sum", others, histogram.getSum());
+        sample(text, name + "_count", others, counts[counts.length - 1]);
+    }
+
+    /**
+     * Format a number without a useless decimal part.
+     * @param value The number.
+     * @return The formatted number.
+     */
+    private static String format(final double value) {
+        return value == Math.rint(value) ? Long.toString((long) value) : String.format(Locale.ROOT, "%s", value);
+    }
+}
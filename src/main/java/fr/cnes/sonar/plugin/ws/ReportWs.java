@@ -26,12 +26,16 @@ public class ReportWs implements WebService {
     // Sonarqube configuration
     private final Configuration config;
 
+    // Cache of the generated reports
+    private final ReportCache cache;
+
     /**
      * public constructor, called by sonarqube
      * @param config
      */
     public ReportWs(Configuration config){
         this.config = config;
+        this.cache = ReportCache.create(config);
     }
 
     /**
@@ -44,6 +48,10 @@ public class ReportWs implements WebService {
         controller.setSince(PluginStringManager.getProperty("plugin.since"));
         controller.setDescription(PluginStringManager.getProperty("api.description"));
         reportAction(controller);
+        metricsAction(controller);
+        submitAction(controller);
+        statusAction(controller);
+        downloadAction(controller);
         controller.done();
     }
 
@@ -58,8 +66,16 @@ public class ReportWs implements WebService {
         report.setSince(PluginStringManager.getProperty("plugin.since"));
 
         // Bind webservice to export task
-        report.setHandler(new ExportTask(config));
+        report.setHandler(new ExportTask(config, cache));
+
+        reportParams(report);
+    }
 
+    /**
+     * Define the arguments of a report
+     * @param report action generating a report
+     */
+    private static void reportParams(final WebService.NewAction report){
         // Adding key argument
         WebService.NewParam keyParam = report.createParam(PluginStringManager.getProperty("api.report.args.key"));
         keyParam.setDescription(PluginStringManager.getProperty("api.report.args.description.key"));
@@ -127,5 +143,87 @@ public class ReportWs implements WebService {
         enableConfParam.setBooleanPossibleValues();
         enableConfParam.setDefaultValue(PluginStringManager.getProperty("api.report.args.defaultValue.enableConf"));
     }
-}
 
+    /**
+     * Define action giving the metrics of the exports
+     * @param controller
+     */
+    private void metricsAction(final WebService.NewController controller){
+        // Create API entry point
+        final WebService.NewAction metrics = controller.createAction(PluginStringManager.getProperty("api.metrics.actionKey"));
+        metrics.setDescription(PluginStringManager.getProperty("api.metrics.description"));
+        metrics.setSince(PluginStringManager.getProperty("plugin.since"));
+
+        // Bind webservice to metrics task
+        metrics.setHandler(new MetricsTask());
+
+        // Adding format argument
+        WebService.NewParam formatParam = metrics.createParam(PluginStringManager.getProperty("api.metrics.args.format"));
+        formatParam.setDescription(PluginStringManager.getProperty("api.metrics.args.description.format"));
+        formatParam.setRequired(false);
+        formatParam.setPossibleValues(PluginStringManager.getProperty("api.metrics.args.defaultValue.format"),
+                PluginStringManager.getProperty("api.metrics.args.possibleValue.format"));
+        formatParam.setDefaultValue(PluginStringManager.getProperty("api.metrics.args.defaultValue.format"));
+    }
+
+    /**
+     * Define action queueing a report job
+     * @param controller
+     */
+    private void submitAction(final WebService.NewController controller){
+        // Create API entry point
+        final WebService.NewAction submit = controller.createAction(PluginStringManager.getProperty("api.submit.actionKey"));
+        submit.setDescription(PluginStringManager.getProperty("api.submit.description"));
+        submit.setSince(PluginStringManager.getProperty("plugin.since"));
+        submit.setPost(true);
+
+        // Bind webservice to submit task
+        submit.setHandler(new SubmitTask(config, cache));
+
+        reportParams(submit);
+    }
+
+    /**
+     * Define action giving the state of a report job
+     * @param controller
+     */
+    private void statusAction(final WebService.NewController controller){
+        // Create API entry point
+        final WebService.NewAction status = controller.createAction(PluginStringManager.getProperty("api.status.actionKey"));
+        status.setDescription(PluginStringManager.getProperty("api.status.description"));
+        status.setSince(PluginStringManager.getProperty("plugin.since"));
+
+        // Bind webservice to status task
+        status.setHandler(new StatusTask());
+
+        jobParam(status);
+    }
+
+    /**
+     * Define action downloading the report of a report job
+     * @param controller
+     */
+    private void downloadAction(final WebService.NewController controller){
+        // Create API entry point
+        final WebService.NewAction download = controller.createAction(PluginStringManager.getProperty("api.download.actionKey"));
+        download.setDescription(PluginStringManager.getProperty("api.download.description"));
+        download.setSince(PluginStringManager.getProperty("plugin.since"));
+
+        // Bind webservice to download task
+        download.setHandler(new DownloadTask());
+
+        jobParam(download);
+    }
+
+    /**
+     * Define the argument identifying a report job
+     * @param action action on a report job
+     */
+    private static void jobParam(final WebService.NewAction action){
+        // Adding id argument
+        WebService.NewParam idParam = action.createParam(PluginStringManager.getProperty("api.status.args.id"));
+        idParam.setDescription(PluginStringManager.getProperty("api.status.args.description.id"));
+        idParam.setRequired(true);
+        idParam.setExampleValue(PluginStringManager.getProperty("api.status.args.exampleValue.id"));
+    }
+}
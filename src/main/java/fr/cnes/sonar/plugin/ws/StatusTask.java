@@ -0,0 +1,84 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.plugin.ws;
+
+import fr.cnes.sonar.plugin.tools.CurrentUser;
+import fr.cnes.sonar.plugin.tools.PluginStringManager;
+import org.sonar.api.server.ws.Request;
+import org.sonar.api.server.ws.RequestHandler;
+import org.sonar.api.server.ws.Response;
+import org.sonarqube.ws.MediaTypes;
+import org.sonarqube.ws.client.WsClientFactories;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+
+public class StatusTask implements RequestHandler {
+
+    /**
+     * Writes the state and the progress of a report job of the user.
+     * @param request  The request object containing the details of the client's request.
+     * @param response The response object used to send the data back to the client.
+     */
+    @Override
+    public void handle(Request request, Response response) throws IOException {
+        final ReportJob job = findJob(request);
+        if (job == null) {
+            ExportTask.writeError(response, HttpURLConnection.HTTP_NOT_FOUND,
+                    PluginStringManager.getProperty("api.status.unknownJob"));
+            return;
+        }
+
+        final ReportJobQueue queue = ReportJobQueue.getInstance();
+        response.stream().setMediaType(MediaTypes.JSON);
+        try (
+            OutputStreamWriter writer = new OutputStreamWriter(response.stream().output(), StandardCharsets.UTF_8);
+            JsonWriter jsonWriter = new JsonWriter(writer);
+        ) {
+            jsonWriter.beginObject();
+            jsonWriter.name("id").value(job.getId());
+            jsonWriter.name("project").value(job.getProjectKey());
+            jsonWriter.name("state").value(job.getState().name());
+            if (job.getState() == ReportJob.State.QUEUED) {
+                jsonWriter.name("position").value(queue.position(job));
+            }
+            jsonWriter.name("step").value(job.getStep());
+            jsonWriter.name("elapsed").value(job.getElapsed());
+            jsonWriter.name("sonarQubeCalls").value(job.getSonarQubeCalls());
+            if (job.getError() != null) {
+                jsonWriter.name("error").value(job.getError());
+            }
+            jsonWriter.endObject();
+            jsonWriter.flush();
+        }
+    }
+
+    /**
+     * Find the job of the request among the jobs of the user.
+     * @param request The request giving the identifier of the job.
+     * @return The job, null if the user has no such job.
+     */
+    static ReportJob findJob(final Request request) {
+        final String id = request.mandatoryParam(PluginStringManager.getProperty("api.status.args.id"));
+        final String owner = CurrentUser.getLogin(WsClientFactories.getLocal().newClient(request.localConnector()));
+        return ReportJobQueue.getInstance().get(id, owner);
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.plugin.ws;
+
+import fr.cnes.sonar.plugin.tools.CurrentUser;
+import fr.cnes.sonar.plugin.tools.FileTools;
+import fr.cnes.sonar.plugin.tools.PluginStringManager;
+import fr.cnes.sonar.report.ReportCommandLine;
+import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
+import fr.cnes.sonar.report.model.Report;
+import fr.cnes.sonar.report.utils.Profiler;
+import org.sonar.api.config.Configuration;
+import org.sonar.api.server.ws.Request;
+import org.sonar.api.server.ws.RequestHandler;
+import org.sonar.api.server.ws.Response;
+import org.sonarqube.ws.MediaTypes;
+import org.sonarqube.ws.client.WsClient;
+import org.sonarqube.ws.client.WsClientFactories;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+
+public class SubmitTask implements RequestHandler {
+
+    // Sonarqube configuration
+    private final Configuration config;
+
+    // Cache of the generated reports
+    private final ReportCache cache;
+
+    /**
+     * public constructor
+     * @param config sonarqube configuration
+     * @param cache cache of the generated reports
+     */
+    SubmitTask(Configuration config, ReportCache cache){
+        this.config = config;
+        this.cache = cache;
+    }
+
+    /**
+     * Queues the generation of the report of the request and writes the identifier of the job.
+     * The user and the arguments are resolved with the session of the request, and SonarQube is read
+     * in process with this session before the job is queued: the local connector of the request cannot
+     * be used out of it. Only the writing of the files of the report is left to the job.
+     * @param request  The request object containing the details of the client's request.
+     * @param response The response object used to send the data back to the client.
+     */
+    @Override
+    public void handle(Request request, Response response) throws Exception {
+        final String projectKey = request.mandatoryParam(PluginStringManager.getProperty("api.report.args.key"));
+
+        // create a new client to talk with sonarqube's services
+        final WsClient wsClient = WsClientFactories.getLocal().newClient(request.localConnector());
+
+        final File outputDirectory = ExportTask.createOutputDirectory();
+        final String[] reportParams = ExportTask.reportParams(config, request, wsClient, outputDirectory);
+        final String key = ExportTask.reportKey(wsClient, reportParams);
+        final String owner = CurrentUser.getLogin(wsClient);
+
+        final ReportJob job;
+        final File cached = new File(outputDirectory.getAbsolutePath() + ".zip");
+        if (cache.get(key, cached)) {
+            ReportMetrics.getInstance().reportCached();
+            job = new ReportJob(owner, projectKey, () -> cached);
+        } else {
+            final Profiler profiler = Profiler.getInstance();
+            final Profiler.Phase export = profiler.start("api report job");
+            final Report model;
+            try {
+                model = ReportCommandLine.model(reportParams, wsClient);
+            } catch (BadSonarQubeRequestException e) {
+                export.close();
+                ReportMetrics.getInstance().reportFailed(e);
+                FileTools.deleteFolder(outputDirectory);
+                ExportTask.writeError(response, PluginStringManager.getProperty("api.tokenerror"));
+                return;
+            } catch (Exception e) {
+                export.close();
+                ReportMetrics.getInstance().reportFailed(e);
+                FileTools.deleteFolder(outputDirectory);
+                throw e;
+            }
+
+            // the files are written by the worker, measured in the phase of the job
+            final Callable<File> render = profiler.propagate(() -> {
+                try {
+                    return ExportTask.generateShared(cache, key, outputDirectory,
+                            () -> ExportTask.render(reportParams, model, outputDirectory));
+                } finally {
+                    FileTools.deleteFolder(outputDirectory);
+                }
+            });
+            profiler.detach(export);
+            job = new ReportJob(owner, projectKey, render::call, export);
+        }
+
+        try {
+            ReportJobQueue.getInstance().submit(job);
+        } catch (RejectedExecutionException e) {
+            final Profiler.Phase phase = job.getPhase();
+            if (phase != null) {
+                phase.close();
+            }
+            FileTools.deleteFolder(outputDirectory);
+            Files.deleteIfExists(cached.toPath());
+            ExportTask.writeError(response, HttpURLConnection.HTTP_UNAVAILABLE, e.getMessage());
+            return;
+        }
+
+        response.stream().setMediaType(MediaTypes.JSON);
+        try (
+            OutputStreamWriter writer = new OutputStreamWriter(response.stream().output(), StandardCharsets.UTF_8);
+            JsonWriter jsonWriter = new JsonWriter(writer);
+        ) {
+            jsonWriter.beginObject();
+            jsonWriter.name("id").value(job.getId());
+            jsonWriter.name("state").value(job.getState().name());
+            jsonWriter.endObject();
+            jsonWriter.flush();
+        }
+    }
+}
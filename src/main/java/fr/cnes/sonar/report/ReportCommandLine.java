@@ -27,11 +27,13 @@ import java.util.logging.Logger;
 
 import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
 import org.apache.xmlbeans.XmlException;
+import org.sonarqube.ws.client.WsClient;
 
 import fr.cnes.sonar.report.exceptions.BadExportationDataTypeException;
 import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
 import fr.cnes.sonar.report.exceptions.SonarQubeException;
 import fr.cnes.sonar.report.exceptions.UnknownQualityGateException;
+import fr.cnes.sonar.report.factory.PluginProviderFactory;
 import fr.cnes.sonar.report.factory.ProviderFactory;
 import fr.cnes.sonar.report.factory.ReportFactory;
 import fr.cnes.sonar.report.factory.ReportModelFactory;
@@ -39,6 +41,8 @@ import fr.cnes.sonar.report.factory.ServerFactory;
 import fr.cnes.sonar.report.factory.StandaloneProviderFactory;
 import fr.cnes.sonar.report.model.Report;
 import fr.cnes.sonar.report.model.SonarQubeServer;
+import fr.cnes.sonar.report.providers.RequestManager;
+import fr.cnes.sonar.report.utils.Profiler;
 import fr.cnes.sonar.report.utils.ReportConfiguration;
 import fr.cnes.sonar.report.utils.StringManager;
 
@@ -91,9 +95,92 @@ public final class ReportCommandLine {
 
     public static void execute(final String[] args) throws BadExportationDataTypeException , BadSonarQubeRequestException , IOException,
     UnknownQualityGateException, OpenXML4JException, XmlException, SonarQubeException, ParseException {
+        execute(args, null);
+    }
+
+    /**
+     * Generate the reports.
+     * @param args Arguments of the command line.
+     * @param wsClient Client calling SonarQube in process when run by the plugin, null to call the server given by the arguments.
+     */
+    public static void execute(final String[] args, final WsClient wsClient) throws BadExportationDataTypeException,
+    BadSonarQubeRequestException, IOException, UnknownQualityGateException, OpenXML4JException, XmlException,
+    SonarQubeException, ParseException {
         // Log message.
         String message;
 
+        // Parse command line arguments.
+        final ReportConfiguration conf = configure(args);
+
+        // Measure each phase of the generation if requested, or if it is part of a measured export.
+        final Profiler profiler = Profiler.getInstance();
+        final Profiler.Phase generation = conf.isProfile() ? profiler.start("report") : profiler.phase("report");
+
+        try {
+            // Generate the model of the report.
+            final Report model = model(conf, wsClient);
+            // Generate results files.
+            try (Profiler.Phase phase = profiler.phase("export")) {
+                ReportFactory.report(conf, model);
+            }
+
+            // Write the timing breakdown of the generation.
+            if(conf.isProfile()) {
+                generation.close();
+                message = String.format("Profile of the generation written in %s", ReportFactory.writeProfile(conf, model, generation));
+                LOGGER.info(message);
+            }
+        } finally {
+            // Write the recorded SonarQube traffic, if any
+            RequestManager.getInstance().closeArchives();
+            generation.close();
+            if(conf.isProfile()) {
+                LOGGER.info(generation.summary());
+            }
+        }
+
+        message = "Report generation: SUCCESS";
+        LOGGER.info(message);
+    }
+
+    /**
+     * Read the model of the reports from SonarQube, without writing them yet: the plugin reads
+     * SonarQube in the web request of the user then writes the reports later with {@link #export(String[], Report)}.
+     * @param args Arguments of the command line.
+     * @param wsClient Client calling SonarQube in process.
+     * @return The model of the reports.
+     */
+    public static Report model(final String[] args, final WsClient wsClient) throws BadSonarQubeRequestException,
+    UnknownQualityGateException, SonarQubeException, ParseException {
+        final ReportConfiguration conf = configure(args);
+        try (Profiler.Phase generation = Profiler.getInstance().phase("report")) {
+            return model(conf, wsClient);
+        }
+    }
+
+    /**
+     * Write the reports of a model read by {@link #model(String[], WsClient)}.
+     * @param args Arguments of the command line, the same as the ones of the model.
+     * @param model The model of the reports.
+     */
+    public static void export(final String[] args, final Report model) throws BadExportationDataTypeException,
+    IOException, OpenXML4JException, XmlException, ParseException {
+        final ReportConfiguration conf = configure(args);
+        final Profiler profiler = Profiler.getInstance();
+        try (Profiler.Phase generation = profiler.phase("report"); Profiler.Phase phase = profiler.phase("export")) {
+            ReportFactory.report(conf, model);
+        }
+
+        final String message = "Report generation: SUCCESS";
+        LOGGER.info(message);
+    }
+
+    /**
+     * Parse the arguments of the command line and set the language of the report.
+     * @param args Arguments of the command line.
+     * @return The configuration of the report.
+     */
+    private static ReportConfiguration configure(final String[] args) {
         // Parse command line arguments.
         final ReportConfiguration conf = ReportConfiguration.create(args);
         if(conf.getProject().isEmpty()){
@@ -103,6 +190,19 @@ public final class ReportCommandLine {
         // Set the language of the report.
         // assumes the language is set with language_country
         StringManager.changeLocale(conf.getLanguage());
+        return conf;
+    }
+
+    /**
+     * Check SonarQube can be reached and read the model of the report.
+     * @param conf Configuration of the report.
+     * @param wsClient Client calling SonarQube in process when run by the plugin, null to call the server of the configuration.
+     * @return The model of the report.
+     */
+    private static Report model(final ReportConfiguration conf, final WsClient wsClient)
+            throws BadSonarQubeRequestException, UnknownQualityGateException, SonarQubeException, ParseException {
+        // Log message.
+        String message;
 
         // format server URL
         String url = conf.getServer();
@@ -114,13 +214,22 @@ public final class ReportCommandLine {
         message = String.format("SonarQube URL: %s", url);
         LOGGER.info(message);
 
+        final Profiler profiler = Profiler.getInstance();
+
         // Instantiate a ProviderFactory depending on the execution mode of the application
         ProviderFactory providerFactory;
-        providerFactory = new StandaloneProviderFactory(url, conf.getToken(), conf.getProject(), conf.getBranch());
+        if(wsClient != null) {
+            providerFactory = new PluginProviderFactory(wsClient, conf.getProject(), conf.getBranch());
+        } else {
+            providerFactory = new StandaloneProviderFactory(url, conf.getToken(), conf.getProject(), conf.getBranch());
+        }
 
 
         // Initialize connexion with SonarQube and retrieve primitive information
-        final SonarQubeServer server = new ServerFactory(url, providerFactory).create();
+        final SonarQubeServer server;
+        try (Profiler.Phase phase = profiler.phase("server")) {
+            server = new ServerFactory(url, providerFactory).create();
+        }
 
         message = String.format("SonarQube online: %s", server.isUp());
         LOGGER.info(message);
@@ -138,12 +247,9 @@ public final class ReportCommandLine {
         }
 
         // Generate the model of the report.
-        final Report model = new ReportModelFactory(conf.getProject(), conf.getBranch(), conf.getAuthor(), conf.getDate(), providerFactory).create();
-        // Generate results files.
-        ReportFactory.report(conf, model);
-
-        message = "Report generation: SUCCESS";
-        LOGGER.info(message);
+        try (Profiler.Phase phase = profiler.phase("model")) {
+            return new ReportModelFactory(conf.getProject(), conf.getBranch(), conf.getAuthor(), conf.getDate(), providerFactory).create();
+        }
     }
 
 }
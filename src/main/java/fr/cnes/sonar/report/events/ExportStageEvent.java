@@ -0,0 +1,71 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Stage of an exporter, e.g. the filling of a table of the report.
+ */
+@Name("fr.cnes.sonar.report.ExportStage")
+@Label("Export Stage")
+@Category({"cnesreport", "Exporters"})
+@Description("Stage of an exporter filling a part of a report")
+public final class ExportStageEvent extends jdk.jfr.Event {
+
+    /** Format of the exported file, e.g. docx or xlsx. */
+    @Label("Format")
+    private String format;
+
+    /** Name of the stage. */
+    @Label("Stage")
+    private String stage;
+
+    /** Number of rows written by the stage. */
+    @Label("Rows")
+    private long rows;
+
+    /**
+     * Start the measure of a stage.
+     * @param pFormat Format of the exported file.
+     * @param pStage Name of the stage.
+     * @return The started event.
+     */
+    public static ExportStageEvent start(final String pFormat, final String pStage) {
+        final ExportStageEvent event = new ExportStageEvent();
+        event.format = pFormat;
+        event.stage = pStage;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * End the measure of the stage and record it.
+     * @param pRows Number of rows written by the stage.
+     */
+    public void complete(final long pRows) {
+        end();
+        if (shouldCommit()) {
+            this.rows = pRows;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Loop of a provider reading all the pages of a SonarQube search.
+ */
+@Name("fr.cnes.sonar.report.Pagination")
+@Label("Pagination")
+@Category({"cnesreport", "Providers"})
+@Description("Loop of a provider reading all the pages of a SonarQube search")
+public final class PaginationEvent extends jdk.jfr.Event {
+
+    /** Kind of the searched items, e.g. issues or components. */
+    @Label("Resource")
+    private String resource;
+
+    /** Number of pages read. */
+    @Label("Pages")
+    private int pages;
+
+    /** Number of items read from all the pages. */
+    @Label("Items")
+    private long items;
+
+    /**
+     * Start the measure of a pagination loop.
+     * @param pResource Kind of the searched items.
+     * @return The started event.
+     */
+    public static PaginationEvent start(final String pResource) {
+        final PaginationEvent event = new PaginationEvent();
+        event.resource = pResource;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * End the measure of the loop and record it.
+     * @param pPages Number of pages read.
+     * @param pItems Number of items read from all the pages.
+     */
+    public void complete(final int pPages, final long pItems) {
+        end();
+        if (shouldCommit()) {
+            this.pages = pPages;
+            this.items = pItems;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Http request sent to SonarQube, its duration goes from the sending of the request
+ * to the end of the reading of its response.
+ */
+@Name("fr.cnes.sonar.report.SonarQubeRequest")
+@Label("SonarQube Request")
+@Category({"cnesreport", "SonarQube"})
+@Description("Http request sent to SonarQube")
+public final class SonarQubeRequestEvent extends jdk.jfr.Event {
+
+    /** Path of the request followed by the names of its parameters, without their values. */
+    @Label("URL Template")
+    private String urlTemplate;
+
+    /** Http status of the response, 0 if no response was received. */
+    @Label("Status")
+    private int status;
+
+    /** Number of bytes of the response body read. */
+    @Label("Bytes")
+    @DataAmount
+    private long bytes;
+
+    /** Time until the headers of the response were received. */
+    @Label("Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    private long latency;
+
+    /** Number of the attempt of the request, 0 for the first one. */
+    @Label("Attempt")
+    private int attempt;
+
+    /**
+     * Set the url of the request, reduced to its template.
+     * @param template Path of the request followed by the names of its parameters.
+     */
+    public void setUrlTemplate(final String template) {
+        this.urlTemplate = template;
+    }
+
+    /**
+     * Set the status of the response.
+     * @param code Http status of the response.
+     */
+    public void setStatus(final int code) {
+        this.status = code;
+    }
+
+    /**
+     * Count bytes of the response body.
+     * @param count Number of bytes read.
+     */
+    public void addBytes(final long count) {
+        this.bytes += count;
+    }
+
+    /**
+     * Set the time until the headers of the response were received.
+     * @param nanos Latency in nanoseconds.
+     */
+    public void setLatency(final long nanos) {
+        this.latency = nanos;
+    }
+
+    /**
+     * Set the number of the attempt of the request.
+     * @param number Number of the attempt, 0 for the first one.
+     */
+    public void setAttempt(final int number) {
+        this.attempt = number;
+    }
+}
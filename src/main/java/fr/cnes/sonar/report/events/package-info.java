@@ -0,0 +1,25 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Java Flight Recorder events of the report generation.
+ * Contains the events of the SonarQube requests, the pagination loops of the providers
+ * and the stages of the exporters, recorded only while a flight recording enables them.
+ * @version 5.0.2
+ */
+
+package fr.cnes.sonar.report.events;
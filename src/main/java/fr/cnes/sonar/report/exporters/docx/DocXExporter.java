@@ -34,6 +34,7 @@ import org.apache.poi.openxml4j.opc.OPCPackage;
 import org.apache.poi.xwpf.usermodel.XWPFDocument;
 import org.apache.xmlbeans.XmlException;
 
+import fr.cnes.sonar.report.events.ExportStageEvent;
 import fr.cnes.sonar.report.exceptions.BadExportationDataTypeException;
 import fr.cnes.sonar.report.exporters.IExporter;
 import fr.cnes.sonar.report.exporters.data.DataAdapter;
@@ -84,6 +85,10 @@ public class DocXExporter implements IExporter {
          * Name of the property giving the path header's number
          */
         private static final String HEADER_NUMBER = "header.number";
+        /**
+         * Format of the exported file, given to the flight recording events
+         */
+        private static final String FORMAT = "docx";
         /**
          * Name of the property giving the default docx template
          */
@@ -179,12 +184,14 @@ public class DocXExporter implements IExporter {
          */
         private void replaceSimplePlaceholders(XWPFDocument document, Report report)
                         throws IOException, OpenXML4JException {
+                final ExportStageEvent event = ExportStageEvent.start(FORMAT, "replaceSimplePlaceholders");
                 // Map which contains all values to replace
                 // the key is the placeholder and the value is the value to write over
                 final Map<String, String> replacementValues = PlaceHolders.loadPlaceholdersMap(report);
 
                 // replace all placeholder in the document (head, body, foot) with the map
                 DocXTools.replacePlaceholder(document, replacementValues);
+                event.complete(replacementValues.size());
         }
 
         /**
@@ -194,6 +201,7 @@ public class DocXExporter implements IExporter {
          * @param report The report containing data
          */
         private void replaceIssuesPlaceholders(XWPFDocument document, Report report) {
+                final ExportStageEvent event = ExportStageEvent.start(FORMAT, "replaceIssuesPlaceholders");
                 final List<List<String>> issues = IssuesAdapter.getIssues(report);
                 final String[] issuesArrayFr = { StringManager.string("header.name"),
                                 StringManager.string("header.description"),
@@ -202,6 +210,7 @@ public class DocXExporter implements IExporter {
                                 StringManager.string(HEADER_NUMBER) };
                 final List<String> headerIssues = new ArrayList<>(Arrays.asList(issuesArrayFr));
                 DocXTools.fillTable(document, headerIssues, issues, DETAILS_TABLE_PLACEHOLDER);
+                event.complete(issues.size());
         }
 
         /**
@@ -211,10 +220,12 @@ public class DocXExporter implements IExporter {
          * @param report The report containing data
          */
         private void replaceIssuesCountPlaceholders(XWPFDocument document, Report report) {
+                final ExportStageEvent event = ExportStageEvent.start(FORMAT, "replaceIssuesCountPlaceholders");
                 final List<List<String>> types = IssuesAdapter.getTypes(report);
                 final List<String> headerIssuesCount = IssuesAdapter.getReversedIssuesSeverities();
                 headerIssuesCount.add(0, StringManager.string("header.typeSlashSeverity"));
                 DocXTools.fillTable(document, headerIssuesCount, types, COUNT_TABLE_PLACEHOLDER);
+                event.complete(types.size());
         }
 
         /**
@@ -224,6 +235,7 @@ public class DocXExporter implements IExporter {
          * @param report The report containing data
          */
         private void replaceSecurityHotspotsPlaceholders(XWPFDocument document, Report report) {
+                final ExportStageEvent event = ExportStageEvent.start(FORMAT, "replaceSecurityHotspotsPlaceholders");
                 final List<List<String>> securityHotspots = SecurityHotspotsAdapter.getSecurityHotspots(report);
                 final String[] securityHotspotsHeader = { StringManager.string("header.category"),
                                 StringManager.string("header.name"),
@@ -233,6 +245,7 @@ public class DocXExporter implements IExporter {
                 final List<String> headerSecurityHotspots = new ArrayList<>(Arrays.asList(securityHotspotsHeader));
                 DocXTools.fillTable(document, headerSecurityHotspots, securityHotspots,
                                 SECURITY_HOTSPOTS_DETAILS_PLACEHOLDER);
+                event.complete(securityHotspots.size());
         }
 
         /**
@@ -242,6 +255,7 @@ public class DocXExporter implements IExporter {
          * @param report The report containing data
          */
         private void replaceSecurityHotspotsCountPlaceholders(XWPFDocument document, Report report) {
+                final ExportStageEvent event = ExportStageEvent.start(FORMAT, "replaceSecurityHotspotsCountPlaceholders");
                 final List<List<String>> securityHotspotsByCategoryAndPriority = SecurityHotspotsAdapter
                                 .getSecurityHotspotsByCategoryAndPriority(report);
                 final List<String> headerSecurityHotspotsCount = new ArrayList<>(
@@ -249,6 +263,7 @@ public class DocXExporter implements IExporter {
                 headerSecurityHotspotsCount.add(0, StringManager.string("header.categorySlashPriority"));
                 DocXTools.fillTable(document, headerSecurityHotspotsCount, securityHotspotsByCategoryAndPriority,
                                 SECURITY_HOTSPOTS_COUNT_TABLE_PLACEHOLDER);
+                event.complete(securityHotspotsByCategoryAndPriority.size());
         }
 
         /**
@@ -258,11 +273,13 @@ public class DocXExporter implements IExporter {
          * @param report The report containing data
          */
         private void replaceVolumesPlaceholders(XWPFDocument document, Report report) {
+                final ExportStageEvent event = ExportStageEvent.start(FORMAT, "replaceVolumesPlaceholders");
                 final String[] volumesHeader = { StringManager.string("header.language"),
                                 StringManager.string(HEADER_NUMBER) };
                 final List<String> headerVolumes = new ArrayList<>(Arrays.asList(volumesHeader));
                 final List<List<String>> volumes = DataAdapter.getVolumes(report);
                 DocXTools.fillTable(document, headerVolumes, volumes, VOLUME_TABLE_PLACEHOLDER);
+                event.complete(volumes.size());
         }
 
         /**
@@ -272,12 +289,14 @@ public class DocXExporter implements IExporter {
          * @param report The report containing data
          */
         private void replaceQualityGateStatusPlaceholders(XWPFDocument document, Report report) {
+                final ExportStageEvent event = ExportStageEvent.start(FORMAT, "replaceQualityGateStatusPlaceholders");
                 final String[] qualityGateStatusHeader = { StringManager.string("header.metric"),
                                 StringManager.string("header.value") };
                 final List<String> headerQualityGateStatus = new ArrayList<>(Arrays.asList(qualityGateStatusHeader));
                 final List<List<String>> qualityGateStatus = DataAdapter.getQualityGateStatus(report);
                 DocXTools.fillTable(document, headerQualityGateStatus, qualityGateStatus,
                                 QUALITY_GATE_STATUS_TABLE_PLACEHOLDER);
+                event.complete(qualityGateStatus.size());
         }
 
         /**
@@ -287,6 +306,7 @@ public class DocXExporter implements IExporter {
          * @param report The report containing data
          */
         private void replaceDetailedTechnicalDebtPlaceholders(XWPFDocument document, Report report) {
+                final ExportStageEvent event = ExportStageEvent.start(FORMAT, "replaceDetailedTechnicalDebtPlaceholders");
                 final String[] detailedTechnicalDebtHeader = { StringManager.string("header.reliability"),
                                 StringManager.string("header.security"), StringManager.string("header.maintainability"),
                                 StringManager.string("header.total") };
@@ -295,6 +315,7 @@ public class DocXExporter implements IExporter {
                 final List<List<String>> detailedTechnicalDebt = DataAdapter.getDetailedTechnicalDebt(report);
                 DocXTools.fillTable(document, headerDetailedTechnicalDebt, detailedTechnicalDebt,
                                 DETAILED_TECHNICAL_DEBT_TABLE_PLACEHOLDER);
+                event.complete(detailedTechnicalDebt.size());
         }
 
 }
@@ -33,6 +33,7 @@ import java.util.Map;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOUtils;
 
+import fr.cnes.sonar.report.events.ExportStageEvent;
 import fr.cnes.sonar.report.exceptions.BadExportationDataTypeException;
 import fr.cnes.sonar.report.exporters.IExporter;
 import fr.cnes.sonar.report.exporters.data.DataAdapter;
@@ -78,6 +79,10 @@ public class MarkdownExporter implements IExporter {
      * PNG extension
      */
     private static final String PNG_EXTENSION = ".png";
+    /**
+     * Format of the exported file, given to the flight recording events
+     */
+    private static final String FORMAT = "markdown";
     /**
      * Name of the property giving the default markdown template
      */
@@ -167,6 +172,7 @@ public class MarkdownExporter implements IExporter {
      *         placeholders
      */
     private String replaceIssueTable(String content, Report report) {
+        final ExportStageEvent event = ExportStageEvent.start(FORMAT, "replaceIssueTable");
         final List<List<String>> issues = IssuesAdapter.getIssues(report);
         final String[] headerFields = { StringManager.string("header.name"),
                 StringManager.string("header.description"),
@@ -175,7 +181,9 @@ public class MarkdownExporter implements IExporter {
                 StringManager.string("header.number") };
         final List<String> headerIssues = new ArrayList<>(Arrays.asList(headerFields));
         final String tableIssues = generateMDTable(headerIssues, issues);
-        return content.replace(ISSUES_DETAILS_PLACEHOLDER, tableIssues);
+        final String result = content.replace(ISSUES_DETAILS_PLACEHOLDER, tableIssues);
+        event.complete(issues.size());
+        return result;
     }
 
     /**
@@ -186,11 +194,14 @@ public class MarkdownExporter implements IExporter {
      *         placeholders
      */
     private String replaceIssuesCountTable(String content, Report report) {
+        final ExportStageEvent event = ExportStageEvent.start(FORMAT, "replaceIssuesCountTable");
         final List<List<String>> types = IssuesAdapter.getTypes(report);
         final List<String> headerIssuesCount = IssuesAdapter.getReversedIssuesSeverities();
         headerIssuesCount.add(0, StringManager.string("header.typeSlashSeverity"));
         final String tableTypes = generateMDTable(headerIssuesCount, types);
-        return content.replace(ISSUES_COUNT_PLACEHOLDER, tableTypes);
+        final String result = content.replace(ISSUES_COUNT_PLACEHOLDER, tableTypes);
+        event.complete(types.size());
+        return result;
     }
 
     /**
@@ -204,6 +215,7 @@ public class MarkdownExporter implements IExporter {
      *         placeholders
      */
     private String replaceSecurityHotspotsTable(String content, Report report) {
+        final ExportStageEvent event = ExportStageEvent.start(FORMAT, "replaceSecurityHotspotsTable");
         final List<List<String>> securityHotspots = SecurityHotspotsAdapter.getSecurityHotspots(report);
         final String[] securityHotspotsHeader = { StringManager.string("header.category"),
                 StringManager.string("header.name"),
@@ -212,7 +224,9 @@ public class MarkdownExporter implements IExporter {
                 StringManager.string("header.count") };
         final List<String> headerSecurityHotspots = new ArrayList<>(Arrays.asList(securityHotspotsHeader));
         final String tableSecurityHotspots = generateMDTable(headerSecurityHotspots, securityHotspots);
-        return content.replace(SECURITY_HOTSPOTS_DETAILS_PLACEHOLDER, tableSecurityHotspots);
+        final String result = content.replace(SECURITY_HOTSPOTS_DETAILS_PLACEHOLDER, tableSecurityHotspots);
+        event.complete(securityHotspots.size());
+        return result;
     }
 
     /**
@@ -227,6 +241,7 @@ public class MarkdownExporter implements IExporter {
      *         placeholders
      */
     private String replaceSecurityHotspotsCountTable(String content, Report report) {
+        final ExportStageEvent event = ExportStageEvent.start(FORMAT, "replaceSecurityHotspotsCountTable");
         final List<List<String>> securityHotspotsByCategoryAndPriority = SecurityHotspotsAdapter
                 .getSecurityHotspotsByCategoryAndPriority(report);
         final List<String> headerSecurityHotspotsCount = new ArrayList<>(
@@ -234,7 +249,9 @@ public class MarkdownExporter implements IExporter {
         headerSecurityHotspotsCount.add(0, StringManager.string("header.categorySlashPriority"));
         final String tableSecurityHotspotsCount = generateMDTable(headerSecurityHotspotsCount,
                 securityHotspotsByCategoryAndPriority);
-        return content.replace(SECURITY_HOTSPOTS_COUNT_TABLE_PLACEHOLDER, tableSecurityHotspotsCount);
+        final String result = content.replace(SECURITY_HOTSPOTS_COUNT_TABLE_PLACEHOLDER, tableSecurityHotspotsCount);
+        event.complete(securityHotspotsByCategoryAndPriority.size());
+        return result;
     }
 
     /**
@@ -247,12 +264,15 @@ public class MarkdownExporter implements IExporter {
      *         placeholders
      */
     private String replaceVolumeTable(String content, Report report) {
+        final ExportStageEvent event = ExportStageEvent.start(FORMAT, "replaceVolumeTable");
         final String[] volumesHeader = { StringManager.string("header.language"),
                 StringManager.string("header.number") };
         final List<String> headerVolumes = new ArrayList<>(Arrays.asList(volumesHeader));
         final List<List<String>> volumes = DataAdapter.getVolumes(report);
         final String volumeTable = generateMDTable(headerVolumes, volumes);
-        return content.replace(VOLUMES_TABLE_PLACEHOLDER, volumeTable);
+        final String result = content.replace(VOLUMES_TABLE_PLACEHOLDER, volumeTable);
+        event.complete(volumes.size());
+        return result;
     }
 
     /**
@@ -266,12 +286,15 @@ public class MarkdownExporter implements IExporter {
      *         placeholders
      */
     private String replaceQualityGateStatusTable(String content, Report report) {
+        final ExportStageEvent event = ExportStageEvent.start(FORMAT, "replaceQualityGateStatusTable");
         final String[] qualityGateStatusHeader = { StringManager.string("header.metric"),
                 StringManager.string("header.value") };
         final List<String> headerQualityGateStatus = new ArrayList<>(Arrays.asList(qualityGateStatusHeader));
         final List<List<String>> qualityGateStatus = DataAdapter.getQualityGateStatus(report);
         final String qualityGateStatusTable = generateMDTable(headerQualityGateStatus, qualityGateStatus);
-        return content.replace(QUALITY_GATE_STATUS_TABLE_PLACEHOLDER, qualityGateStatusTable);
+        final String result = content.replace(QUALITY_GATE_STATUS_TABLE_PLACEHOLDER, qualityGateStatusTable);
+        event.complete(qualityGateStatus.size());
+        return result;
     }
 
     /**
@@ -286,6 +309,7 @@ public class MarkdownExporter implements IExporter {
      *         placeholders
      */
     private String replaceDetailedTechnicalDebtTable(String content, Report report) {
+        final ExportStageEvent event = ExportStageEvent.start(FORMAT, "replaceDetailedTechnicalDebtTable");
         final String[] detailedTechnicalDebtHeader = { StringManager.string("header.reliability"),
                 StringManager.string("header.security"), StringManager.string("header.maintainability"),
                 StringManager.string("header.total") };
@@ -294,6 +318,8 @@ public class MarkdownExporter implements IExporter {
         final List<List<String>> detailedTechnicalDebt = DataAdapter.getDetailedTechnicalDebt(report);
         final String detailedTechnicalDebtTable = generateMDTable(headerDetailedTechnicalDebt,
                 detailedTechnicalDebt);
-        return content.replace(DETAILED_TECHNICAL_DEBT_TABLE_PLACEHOLDER, detailedTechnicalDebtTable);
+        final String result = content.replace(DETAILED_TECHNICAL_DEBT_TABLE_PLACEHOLDER, detailedTechnicalDebtTable);
+        event.complete(detailedTechnicalDebt.size());
+        return result;
     }
 }
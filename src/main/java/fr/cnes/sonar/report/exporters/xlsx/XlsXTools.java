@@ -1,5 +1,6 @@
 package fr.cnes.sonar.report.exporters.xlsx;
 
+import fr.cnes.sonar.report.events.ExportStageEvent;
 import fr.cnes.sonar.report.model.Issue;
 import fr.cnes.sonar.report.model.SecurityHotspot;
 import fr.cnes.sonar.report.utils.StringManager;
@@ -101,6 +102,10 @@ public final class XlsXTools {
      * Column index for security hotspot's comments
      */
     private static final int HOTSPOT_COMMENTS_INDEX = 10;
+    /**
+     * Format of the exported file, given to the flight recording events
+     */
+    private static final String FORMAT = "xlsx";
     /**
      * Status for false positive / wont fix
      */
@@ -118,6 +123,7 @@ public final class XlsXTools {
      * @param tableName name of the table to fill out
      */
     public static void addListOfMap(XSSFSheet sheet, List<Map<String,String>> list, String tableName) {
+        final ExportStageEvent event = ExportStageEvent.start(FORMAT, "addListOfMap " + tableName);
 
         // get the headers list
         final List<String> headers = extractHeader(list);
@@ -178,6 +184,7 @@ public final class XlsXTools {
                 rowIndex++;
             }
         }
+        event.complete(list.size());
     }
 
     /**
@@ -0,0 +1,223 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.factory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
+import fr.cnes.sonar.report.exceptions.SonarQubeException;
+import fr.cnes.sonar.report.exceptions.UnknownQualityGateException;
+import fr.cnes.sonar.report.providers.IoExecutors;
+import fr.cnes.sonar.report.utils.Profiler;
+
+/**
+ * Dependency graph of the steps acquiring the data of a report.
+ * A step starts as soon as all its dependencies are done, independent steps run concurrently.
+ * When steps fail, the error of the first failed step in declaration order is thrown,
+ * whatever the order in which the steps actually failed.
+ */
+final class FetchGraph {
+
+    /** Prefix of the name of the profiled phase of a step. */
+    private static final String PHASE = "fetch ";
+
+    /**
+     * A step of the acquisition.
+     */
+    @FunctionalInterface
+    interface Step {
+        /**
+         * Run the step.
+         * @throws BadSonarQubeRequestException A request is not recognized by the server.
+         * @throws UnknownQualityGateException A quality gate is not correct.
+         * @throws SonarQubeException When SonarQube server is not callable.
+         */
+        void run() throws BadSonarQubeRequestException, UnknownQualityGateException, SonarQubeException;
+    }
+
+    /**
+     * A step and its dependencies.
+     */
+    private static final class Node {
+        /** Name of the step. */
+        private final String name;
+        /** The step to run. */
+        private final Step step;
+        /** Steps which have to be done before this one. */
+        private final List<Node> dependencies;
+        /** Completion of the step during a concurrent run. */
+        private CompletableFuture<Void> done;
+        /** Error raised by the step itself, null if it did not fail. */
+        private volatile Throwable error;
+
+        /**
+         * Constructor.
+         * @param pName Name of the step.
+         * @param pStep The step to run.
+         * @param pDependencies Steps which have to be done before this one.
+         */
+        private Node(final String pName, final Step pStep, final List<Node> pDependencies) {
+            this.name = pName;
+            this.step = pStep;
+            this.dependencies = pDependencies;
+        }
+    }
+
+    /** Steps indexed by name, in declaration order. */
+    private final Map<String, Node> nodes = new LinkedHashMap<>();
+
+    /**
+     * Add a step to the graph. Dependencies have to be declared before the step,
+     * so that the declaration order is a valid sequential order.
+     * @param name Name of the step.
+     * @param step The step to run.
+     * @param dependencies Names of the steps which have to be done before this one.
+     * @return This graph.
+     */
+    FetchGraph add(final String name, final Step step, final String... dependencies) {
+        final List<Node> required = new ArrayList<>();
+        for (String dependency : dependencies) {
+            final Node node = nodes.get(dependency);
+            if (node == null) {
+                throw new IllegalArgumentException(String.format("Unknown dependency '%s' of step '%s'.",
+                        dependency, name));
+            }
+            required.add(node);
+        }
+        if (nodes.putIfAbsent(name, new Node(name, step, required)) != null) {
+            throw new IllegalArgumentException(String.format("Step '%s' is declared twice.", name));
+        }
+        return this;
+    }
+
+    /**
+     * Run all the steps of the graph.
+     * @param parallelism Maximum number of steps running at the same time, 1 or less runs them
+     *                    one by one in declaration order.
+     * @param timeout Maximum time in seconds to run the whole graph, 0 or less for no limit.
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     * @throws UnknownQualityGateException A quality gate is not correct.
+     * @throws SonarQubeException When SonarQube server is not callable or the timeout is reached.
+     */
+    void run(final int parallelism, final long timeout)
+            throws BadSonarQubeRequestException, UnknownQualityGateException, SonarQubeException {
+        if (parallelism <= 1) {
+            for (Node node : nodes.values()) {
+                try (Profiler.Phase phase = Profiler.getInstance().phase(PHASE + node.name)) {
+                    node.step.run();
+                }
+            }
+            return;
+        }
+
+        final ExecutorService executor = IoExecutors.newFixedPool(parallelism, "cnesreport-report");
+        try {
+            // each step waits for its dependencies, it is skipped if one of them failed
+            for (Node node : nodes.values()) {
+                final CompletableFuture<?>[] dependencies = node.dependencies.stream()
+                        .map(dependency -> dependency.done).toArray(CompletableFuture[]::new);
+                node.done = CompletableFuture.allOf(dependencies).thenRunAsync(
+                        Profiler.getInstance().propagate(() -> execute(node)), executor);
+            }
+            await(timeout);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // report the error of the first failed step in declaration order
+        for (Node node : nodes.values()) {
+            if (node.error != null) {
+                rethrow(node.error);
+            }
+        }
+    }
+
+    /**
+     * Run a step and keep its error.
+     * @param node The step to run.
+     */
+    private static void execute(final Node node) {
+        try (Profiler.Phase phase = Profiler.getInstance().phase(PHASE + node.name)) {
+            node.step.run();
+        } catch (Exception | Error e) {
+            node.error = e;
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Wait for the end of all the steps, failed or not.
+     * @param timeout Maximum time in seconds, 0 or less for no limit.
+     * @throws SonarQubeException When the timeout is reached or the waiting thread is interrupted.
+     */
+    private void await(final long timeout) throws SonarQubeException {
+        final CompletableFuture<Void> all = CompletableFuture.allOf(
+                nodes.values().stream().map(node -> node.done).toArray(CompletableFuture[]::new));
+        try {
+            if (timeout > 0) {
+                all.get(timeout, TimeUnit.SECONDS);
+            } else {
+                all.get();
+            }
+        } catch (ExecutionException e) {
+            // errors are given back by step in declaration order
+        } catch (TimeoutException e) {
+            final String pending = nodes.values().stream().filter(node -> !node.done.isDone())
+                    .map(node -> node.name).collect(Collectors.joining(", "));
+            throw new SonarQubeException(String.format(
+                    "Timeout of %d seconds reached while fetching data from SonarQube, unfinished steps: %s.",
+                    timeout, pending), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SonarQubeException("Interrupted while fetching data from SonarQube.", e);
+        }
+    }
+
+    /**
+     * Throw again the error of a step.
+     * @param error The error.
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     * @throws UnknownQualityGateException A quality gate is not correct.
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    private static void rethrow(final Throwable error)
+            throws BadSonarQubeRequestException, UnknownQualityGateException, SonarQubeException {
+        if (error instanceof BadSonarQubeRequestException) {
+            throw (BadSonarQubeRequestException) error;
+        } else if (error instanceof UnknownQualityGateException) {
+            throw (UnknownQualityGateException) error;
+        } else if (error instanceof SonarQubeException) {
+            throw (SonarQubeException) error;
+        } else if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        } else if (error instanceof Error) {
+            throw (Error) error;
+        }
+        throw new SonarQubeException("Unexpected error while fetching data from SonarQube.", (Exception) error);
+    }
+}
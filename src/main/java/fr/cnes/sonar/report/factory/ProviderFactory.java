@@ -82,4 +82,9 @@ public interface ProviderFactory {
      * @return A new instance of a SonarQubeInfoProvider.
      */
     SonarQubeInfoProvider createSonarQubeInfoProvider();
-}
\ No newline at end of file
+    /**
+     * Whether the providers may be called from several threads at the same time
+     * @return true if the data of a report can be fetched concurrently.
+     */
+    boolean isConcurrent();
+}
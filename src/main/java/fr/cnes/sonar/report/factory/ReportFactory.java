@@ -26,12 +26,14 @@ import fr.cnes.sonar.report.model.ProfileMetaData;
 import fr.cnes.sonar.report.model.QualityProfile;
 import fr.cnes.sonar.report.model.Report;
 import fr.cnes.sonar.report.utils.FileNameUtils;
+import fr.cnes.sonar.report.utils.Profiler;
 import fr.cnes.sonar.report.utils.ReportConfiguration;
 import fr.cnes.sonar.report.utils.StringManager;
 import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
 import org.apache.xmlbeans.XmlException;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -52,6 +54,8 @@ public class ReportFactory {
     private static final String MD_FILENAME = "markdown.output";
     /** Property for the excel report filename. */
     private static final String ISSUES_FILENAME = "issues.output";
+    /** Property for the timing breakdown filename. */
+    private static final String PROFILE_FILENAME = "profile.output";
     /** Pattern for the name of the directory containing configuration files. */
     private static final String CONF_FOLDER_PATTERN = "%s/conf";
     /** Error message returned when the program cannot create a folder because it already exists. */
@@ -98,7 +102,9 @@ public class ReportFactory {
 
         // Export analysis configuration if requested.
         if(configuration.isEnableConf()) {
-            createConfigurationFiles(configuration, model, profileExporter, gateExporter);
+            try (Profiler.Phase phase = Profiler.getInstance().phase("export conf")) {
+                createConfigurationFiles(configuration, model, profileExporter, gateExporter);
+            }
         }
 
         // Export issues and metrics in report if requested.
@@ -106,7 +112,9 @@ public class ReportFactory {
             // prepare docx report's filename
             final String docXFilename = formatFilename(REPORT_FILENAME, configuration.getOutput(), configuration.getDate(), model.getProjectName());
             // export the full docx report
-            docXExporter.export(model, docXFilename, configuration.getTemplateReport());
+            try (Profiler.Phase phase = Profiler.getInstance().phase("export docx")) {
+                docXExporter.export(model, docXFilename, configuration.getTemplateReport());
+            }
         }
 
         // Export issues in spreadsheet if requested.
@@ -114,19 +122,25 @@ public class ReportFactory {
             // construct the xlsx filename by replacing date and name
             final String xlsXFilename = formatFilename(ISSUES_FILENAME, configuration.getOutput(), configuration.getDate(), model.getProjectName());
             // export the xlsx issues' list
-            issuesExporter.export(model, xlsXFilename, configuration.getTemplateSpreadsheet());
+            try (Profiler.Phase phase = Profiler.getInstance().phase("export xlsx")) {
+                issuesExporter.export(model, xlsXFilename, configuration.getTemplateSpreadsheet());
+            }
         }
 
         // Export in markdown if requested
         if (configuration.isEnableMarkdown()) {
             final String MDFilename = formatFilename(MD_FILENAME, configuration.getOutput(), configuration.getDate(), model.getProjectName());
-            markdownExporter.export(model, MDFilename, configuration.getTemplateMarkdown());
+            try (Profiler.Phase phase = Profiler.getInstance().phase("export markdown")) {
+                markdownExporter.export(model, MDFilename, configuration.getTemplateMarkdown());
+            }
         }
 
         // Export issues in report if requested
         if(configuration.isEnableCSV()) {
             final String CSVFilename = formatFilename(CSV_FILENAME, configuration.getOutput(), configuration.getDate(), model.getProjectName());
-            csvExporter.export(model, CSVFilename, model.getProjectName());
+            try (Profiler.Phase phase = Profiler.getInstance().phase("export csv")) {
+                csvExporter.export(model, CSVFilename, model.getProjectName());
+            }
         }
     }
 
@@ -197,6 +211,22 @@ public class ReportFactory {
         }
     }
 
+    /**
+     * Write the timing breakdown of a measured generation in the output folder.
+     * @param configuration Contains all configuration details.
+     * @param model Contains the report as a Java object model.
+     * @param generation Root phase of the generation.
+     * @return The path of the written file.
+     * @throws IOException Caused by I/O.
+     * @throws ParseException Caused by an invalid date.
+     */
+    public static String writeProfile(final ReportConfiguration configuration, final Report model,
+            final Profiler.Phase generation) throws IOException, ParseException {
+        final String filename = formatFilename(PROFILE_FILENAME, configuration.getOutput(), configuration.getDate(), model.getProjectName());
+        Files.write(Paths.get(filename), generation.toJson().getBytes(StandardCharsets.UTF_8));
+        return filename;
+    }
+
     /**
      * Format a given filename pattern.
      * Add the date and the project's name
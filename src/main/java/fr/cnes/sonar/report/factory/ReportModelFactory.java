@@ -21,6 +21,7 @@ import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
 import fr.cnes.sonar.report.exceptions.SonarQubeException;
 import fr.cnes.sonar.report.exceptions.UnknownQualityGateException;
 import fr.cnes.sonar.report.model.Components;
+import fr.cnes.sonar.report.model.ProjectIssues;
 import fr.cnes.sonar.report.model.Report;
 import fr.cnes.sonar.report.providers.component.ComponentProvider;
 import fr.cnes.sonar.report.providers.facets.FacetsProvider;
@@ -30,12 +31,26 @@ import fr.cnes.sonar.report.providers.project.ProjectProvider;
 import fr.cnes.sonar.report.providers.qualitygate.QualityGateProvider;
 import fr.cnes.sonar.report.providers.qualityprofile.QualityProfileProvider;
 import fr.cnes.sonar.report.providers.securityhotspots.SecurityHotspotsProvider;
+import fr.cnes.sonar.report.utils.StringManager;
 
 /**
  * Construct the report from resources providers.
  */
 public class ReportModelFactory {
 
+    /**
+     * Name of the setting giving the number of providers running concurrently.
+     */
+    private static final String FETCH_PARALLELISM = "report.fetch.parallelism";
+    /**
+     * Name of the setting giving the maximum time in seconds to fetch the data of a report.
+     */
+    private static final String FETCH_TIMEOUT = "report.fetch.timeout";
+    /**
+     * Name of the step checking that the project exists.
+     */
+    private static final String PROJECT_CHECK = "hasProject";
+
     /**
      * Id of the project to report.
      */
@@ -98,42 +113,61 @@ public class ReportModelFactory {
         // date setting
         report.setProjectDate(this.date);
 
-        if(!projectProvider.hasProject(this.project, this.branch)) {
-            throw new SonarQubeException(String.format("Unknown project '%s' on SonarQube instance.", this.project));
-        }
-
+        final FetchGraph graph = new FetchGraph();
+        // the project has to exist before anything else is requested
+        graph.add(PROJECT_CHECK, () -> {
+            if(!projectProvider.hasProject(this.project, this.branch)) {
+                throw new SonarQubeException(String.format("Unknown project '%s' on SonarQube instance.", this.project));
+            }
+        });
         // measures's setting
-        report.setMeasures(measureProvider.getMeasures());
+        graph.add("measures", () -> report.setMeasures(measureProvider.getMeasures()), PROJECT_CHECK);
         // metrics' by component setting
-        final Components components = componentProvider.getComponents();
-        report.setComponents(components.getComponentsList());
-        report.setMetricsStats(components.getMetricStats());
-        // set report basic data
-        report.setProject(projectProvider.getProject(this.project, this.branch));
-        // project's name's setting
-        report.setProjectName(report.getProject().getName());
-        // project's branch's setting
-        report.setProjectBranch(report.getProject().getBranch());
-        // project's date of last analysis
-        report.setAnalysisDate(report.getProject().getAnalysisDate());
-        report.truncateAnalysisDate();
+        graph.add("components", () -> {
+            final Components components = componentProvider.getComponents();
+            report.setComponents(components.getComponentsList());
+            report.setMetricsStats(components.getMetricStats());
+        }, PROJECT_CHECK);
+        graph.add("project", () -> {
+            // set report basic data
+            report.setProject(projectProvider.getProject(this.project, this.branch));
+            // project's name's setting
+            report.setProjectName(report.getProject().getName());
+            // project's branch's setting
+            report.setProjectBranch(report.getProject().getBranch());
+            // project's date of last analysis
+            report.setAnalysisDate(report.getProject().getAnalysisDate());
+            report.truncateAnalysisDate();
+        }, PROJECT_CHECK);
         // formatted issues, unconfirmed issues and raw issues' setting
-        report.setIssues(issuesProvider.getIssues());
-        report.setUnconfirmed(issuesProvider.getUnconfirmedIssues());
-        report.setRawIssues(issuesProvider.getRawIssues());
+        graph.add("issues", () -> {
+            final ProjectIssues projectIssues = issuesProvider.getProjectIssues();
+            report.setIssues(projectIssues.getIssues());
+            report.setUnconfirmed(projectIssues.getUnconfirmed());
+            report.setRawIssues(projectIssues.getRawIssues());
+        }, PROJECT_CHECK);
         // facets's setting
-        report.setFacets(facetsProvider.getFacets());
-        report.setTimeFacets(facetsProvider.getTimeFacets());
+        graph.add("facets", () -> report.setFacets(facetsProvider.getFacets()), PROJECT_CHECK);
+        graph.add("timeFacets", () -> report.setTimeFacets(facetsProvider.getTimeFacets()), PROJECT_CHECK);
         // security hotspots to review
-        report.setToReviewSecurityHotspots(securityHotspotsProvider.getToReviewSecurityHotspots());
+        graph.add("toReviewSecurityHotspots", () -> report.setToReviewSecurityHotspots(
+                securityHotspotsProvider.getToReviewSecurityHotspots()), PROJECT_CHECK);
         // reviewed security hotspots
-        report.setReviewedSecurityHotspots(securityHotspotsProvider.getReviewedSecurityHotspots());
+        graph.add("reviewedSecurityHotspots", () -> report.setReviewedSecurityHotspots(
+                securityHotspotsProvider.getReviewedSecurityHotspots()), PROJECT_CHECK);
         // quality profile's setting
-        report.setQualityProfiles(qualityProfileProvider.getQualityProfiles());
+        graph.add("qualityProfiles", () -> report.setQualityProfiles(qualityProfileProvider.getQualityProfiles()),
+                PROJECT_CHECK);
         // quality gate's setting
-        report.setQualityGate(qualityGateProvider.getProjectQualityGate());
+        graph.add("qualityGate", () -> report.setQualityGate(qualityGateProvider.getProjectQualityGate()),
+                PROJECT_CHECK);
         // quality gate's status
-        report.setQualityGateStatus(qualityGateProvider.getQualityGateStatus());
+        graph.add("qualityGateStatus", () -> report.setQualityGateStatus(qualityGateProvider.getQualityGateStatus()),
+                PROJECT_CHECK);
+
+        // providers which cannot be called concurrently fetch the data one by one
+        graph.run(this.providerFactory.isConcurrent() ? Integer.parseInt(StringManager.getSetting(FETCH_PARALLELISM)) : 1,
+                Long.parseLong(StringManager.getSetting(FETCH_TIMEOUT)));
 
         return report;
     }
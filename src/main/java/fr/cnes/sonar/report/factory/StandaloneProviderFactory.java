@@ -17,6 +17,8 @@
 
 package fr.cnes.sonar.report.factory;
 
+import fr.cnes.sonar.report.providers.AbstractDataProvider;
+import fr.cnes.sonar.report.providers.RequestSession;
 import fr.cnes.sonar.report.providers.component.ComponentProvider;
 import fr.cnes.sonar.report.providers.component.ComponentProviderStandalone;
 import fr.cnes.sonar.report.providers.facets.FacetsProvider;
@@ -58,7 +60,11 @@ public class StandaloneProviderFactory implements ProviderFactory {
     /**
      * Branch of the project
      */
-    private String branch;    
+    private String branch;
+    /**
+     * Responses shared by all the providers of the report
+     */
+    private final RequestSession session = new RequestSession();
 	
     /**
      * Constructor.
@@ -76,51 +82,75 @@ public class StandaloneProviderFactory implements ProviderFactory {
 
     @Override
     public ComponentProvider createComponentProvider() {
-        return new ComponentProviderStandalone(this.server, this.token, this.project, this.branch);
+        return withSession(new ComponentProviderStandalone(this.server, this.token, this.project, this.branch));
     }
 
     @Override
     public FacetsProvider createFacetsProvider() {
-        return new FacetsProviderStandalone(this.server, this.token, this.project, this.branch);
+        return withSession(new FacetsProviderStandalone(this.server, this.token, this.project, this.branch));
     }
 
     @Override
     public IssuesProvider createIssuesProvider() {
-        return new IssuesProviderStandalone(this.server, this.token, this.project, this.branch);
+        return withSession(new IssuesProviderStandalone(this.server, this.token, this.project, this.branch));
     }
 
     @Override
     public LanguageProvider createLanguageProvider() {
-        return new LanguageProviderStandalone(this.server, this.token, this.project);
+        return withSession(new LanguageProviderStandalone(this.server, this.token, this.project));
     }
     
     @Override
     public MeasureProvider createMeasureProvider() {
-        return new MeasureProviderStandalone(this.server, this.token, this.project, this.branch);
+        return withSession(new MeasureProviderStandalone(this.server, this.token, this.project, this.branch));
     }
 
     @Override
     public ProjectProvider createProjectProvider() {
-        return new ProjectProviderStandalone(this.server, this.token, this.project, this.branch, createLanguageProvider());
+        return withSession(new ProjectProviderStandalone(this.server, this.token, this.project, this.branch, createLanguageProvider()));
     }
 
     @Override
     public QualityGateProvider createQualityGateProvider() {
-        return new QualityGateProviderStandalone(this.server, this.token, this.project, this.branch);
+        return withSession(new QualityGateProviderStandalone(this.server, this.token, this.project, this.branch));
     }
 
     @Override
     public QualityProfileProvider createQualityProfileProvider() {
-        return new QualityProfileProviderStandalone(this.server, this.token, this.project);
+        return withSession(new QualityProfileProviderStandalone(this.server, this.token, this.project));
     }
 
     @Override
     public SecurityHotspotsProvider createSecurityHotspotsProvider() {
-        return new SecurityHotspotsProviderStandalone(this.server, this.token, this.project, this.branch);
+        return withSession(new SecurityHotspotsProviderStandalone(this.server, this.token, this.project, this.branch));
     }
 
     @Override
     public SonarQubeInfoProvider createSonarQubeInfoProvider() {
-        return new SonarQubeInfoProviderStandalone(this.server, this.token);
+        return withSession(new SonarQubeInfoProviderStandalone(this.server, this.token));
+    }
+
+    @Override
+    public boolean isConcurrent() {
+        return true;
+    }
+
+    /**
+     * Responses shared by all the providers of the report
+     * @return the session
+     */
+    public RequestSession getSession() {
+        return this.session;
+    }
+
+    /**
+     * Share the responses of the report with a provider
+     * @param provider the provider
+     * @param <T> type of the provider
+     * @return the provider
+     */
+    private <T extends AbstractDataProvider> T withSession(final T provider) {
+        provider.setSession(this.session);
+        return provider;
     }
-}
\ No newline at end of file
+}
@@ -47,6 +47,25 @@ public class Comment {
         this.createdAt = "";
     }
 
+    /**
+     * Constructor setting all the fields.
+     * @param pKey Comment's key.
+     * @param pLogin Comment's author login.
+     * @param pHtmlText Comment's HTML text.
+     * @param pMarkdown Comment's markdown text.
+     * @param pUpdatable Comment's updatable status.
+     * @param pCreatedAt Comment's creation date.
+     */
+    public Comment(final String pKey, final String pLogin, final String pHtmlText, final String pMarkdown,
+                   final boolean pUpdatable, final String pCreatedAt) {
+        this.key = pKey;
+        this.login = pLogin;
+        this.htmlText = pHtmlText;
+        this.markdown = pMarkdown;
+        this.updatable = pUpdatable;
+        this.createdAt = pCreatedAt;
+    }
+
     /**
      * Getter for key.
      * @return key
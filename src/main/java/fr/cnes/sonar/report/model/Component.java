@@ -22,10 +22,13 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import com.google.gson.annotations.SerializedName;
+
 public class Component {
     /**
-     * ID in SonarQube
+     * ID in SonarQube, its key for recent SonarQube versions which do not give ids anymore
      */
+    @SerializedName(value = "id", alternate = "key")
     private String id;
     /**
      * Filename
@@ -341,4 +341,12 @@ public class Issue {
 
         return coms.toString();
     }
+
+    /**
+     * Setter for comments
+     * @param pComments value
+     */
+    public void setComments(Comment[] pComments) {
+        this.comments = pComments.clone();
+    }
 }
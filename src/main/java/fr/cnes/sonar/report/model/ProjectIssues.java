@@ -0,0 +1,102 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * All the issues of a project, acquired in a single scan
+ */
+public class ProjectIssues {
+
+    /** Unresolved issues */
+    private List<Issue> issues;
+    /** Resolved issues like false positives and wont fix */
+    private List<Issue> unconfirmed;
+    /** Unresolved issues in a raw format (map) */
+    private List<Map<String, String>> rawIssues;
+
+    /**
+     * Default constructor
+     */
+    public ProjectIssues() {
+        this.issues = new ArrayList<>();
+        this.unconfirmed = new ArrayList<>();
+        this.rawIssues = new ArrayList<>();
+    }
+
+    /**
+     * Append all the issues of another set at the end of this one
+     * @param other the issues to append
+     */
+    public void addAll(final ProjectIssues other) {
+        this.issues.addAll(other.issues);
+        this.unconfirmed.addAll(other.unconfirmed);
+        this.rawIssues.addAll(other.rawIssues);
+    }
+
+    /**
+     * Getter for issues
+     * @return the unresolved issues
+     */
+    public List<Issue> getIssues() {
+        return issues;
+    }
+
+    /**
+     * Setter for issues
+     * @param pIssues value
+     */
+    public void setIssues(final List<Issue> pIssues) {
+        this.issues = new ArrayList<>(pIssues);
+    }
+
+    /**
+     * Getter for unconfirmed
+     * @return the resolved issues
+     */
+    public List<Issue> getUnconfirmed() {
+        return unconfirmed;
+    }
+
+    /**
+     * Setter for unconfirmed
+     * @param pUnconfirmed value
+     */
+    public void setUnconfirmed(final List<Issue> pUnconfirmed) {
+        this.unconfirmed = new ArrayList<>(pUnconfirmed);
+    }
+
+    /**
+     * Getter for rawIssues
+     * @return the unresolved issues as maps
+     */
+    public List<Map<String, String>> getRawIssues() {
+        return rawIssues;
+    }
+
+    /**
+     * Setter for rawIssues
+     * @param pRawIssues value
+     */
+    public void setRawIssues(final List<Map<String, String>> pRawIssues) {
+        this.rawIssues = new ArrayList<>(pRawIssues);
+    }
+}
@@ -17,6 +17,8 @@
 
 package fr.cnes.sonar.report.model;
 
+import com.google.gson.annotations.SerializedName;
+
 /**
  * Model of a quality code rule
  */
@@ -46,8 +48,10 @@ public class Rule {
      */
     private String htmlDesc;
     /**
-     * Represents the sonarqube's technical debt relative to this rule
+     * Represents the sonarqube's technical debt relative to this rule,
+     * named remFnGapMultiplier by recent SonarQube versions
      */
+    @SerializedName(value = "debtRemFnCoeff", alternate = "remFnGapMultiplier")
     private String debtRemFnCoeff;
     /**
      * The key of the language corresponding to the rule
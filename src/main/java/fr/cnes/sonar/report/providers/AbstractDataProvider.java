@@ -18,18 +18,26 @@
 package fr.cnes.sonar.report.providers;
 
 import com.google.protobuf.Message;
+import com.google.protobuf.Parser;
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
 import fr.cnes.sonar.report.exceptions.SonarQubeException;
+import fr.cnes.sonar.report.utils.Profiler;
 import fr.cnes.sonar.report.utils.StringManager;
+import org.sonarqube.ws.MediaTypes;
+import org.sonarqube.ws.client.GetRequest;
+import org.sonarqube.ws.client.HttpException;
 import org.sonarqube.ws.client.WsClient;
 import org.sonar.core.util.ProtobufJsonFormat;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Map;
 import java.util.Properties;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -125,6 +133,11 @@ public abstract class AbstractDataProvider {
      */
     protected String qualityGateName;
 
+    /**
+     * Responses shared with the other providers of the report, null to always call SonarQube
+     */
+    private RequestSession session;
+
     // Static initialization block for reading .properties
     static {
         // Need of the local classloader to read inner properties file.
@@ -319,14 +332,111 @@ public abstract class AbstractDataProvider {
      * @throws BadSonarQubeRequestException if SonarQube Server sent an error
      */
     protected String stringRequest(final String request) throws SonarQubeException, BadSonarQubeRequestException {
-        // prepare the request by replacing some relevant special characters
+        final String url = prepareRequest(request);
+        if (session == null) {
+            // launch the request on SonarQube server and retrieve resources into a string
+            return RequestManager.getInstance().get(url, this.token);
+        }
+        // identical requests of the report share the same response
+        return session.get(url, () -> RequestManager.getInstance().get(url, this.token, session.getAnalysisDate()));
+    }
+
+    /**
+     * Execute a given request and read its response as a stream. The elements of the
+     * given arrays are handed to their handler while they are read and are not kept
+     * in the returned object.
+     * @param request Url for the request, for example http://sonarqube:1234/api/toto/list
+     * @param arrays Handlers of the elements of the streamed arrays, indexed by field name
+     * @return The other fields of the server's response as a JsonObject
+     * @throws BadSonarQubeRequestException if SonarQube Server sent an error
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    public JsonObject request(final String request, final Map<String, Consumer<JsonElement>> arrays)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        // read the response while it is received
+        final JsonObject jsonObject = RequestManager.getInstance().get(prepareRequest(request), this.token,
+                body -> JsonStreamReader.read(body, arrays), session != null ? session.getAnalysisDate() : null);
+
+        // verify if an error occurred
+        isErrorFree(jsonObject);
+
+        return jsonObject;
+    }
+
+    /**
+     * Prepare a request by replacing some relevant special characters
+     * @param request Url for the request
+     * @return The url to send
+     */
+    private static String prepareRequest(final String request) {
         // replace spaces
-        String preparedRequest = request.replace(" ", "%20");
+        final String preparedRequest = request.replace(" ", "%20");
         // replace + characters
-        preparedRequest = preparedRequest.replace("+", "%2B");
+        return preparedRequest.replace("+", "%2B");
+    }
+
+    /**
+     * Call a web service of SonarQube with the web client
+     * @param call the call of the web service
+     * @param <T> type of the response
+     * @return the response of the web service
+     * @throws BadSonarQubeRequestException if SonarQube Server sent an error
+     */
+    protected <T> T call(final Supplier<T> call) throws BadSonarQubeRequestException {
+        Profiler.getInstance().recordPage();
+        Profiler.getInstance().recordHttpCall();
+        try {
+            return call.get();
+        } catch (HttpException e) {
+            throw new BadSonarQubeRequestException(String.format("SonarQube answered %d to %s: %s",
+                    e.code(), e.url(), e.content()));
+        }
+    }
+
+    /**
+     * Call a web service of SonarQube with the web client, for parameters the typed requests of the client do not have
+     * @param request the request of the web service
+     * @param parser parser of the protobuf response
+     * @param <T> type of the response
+     * @return the response of the web service
+     * @throws BadSonarQubeRequestException if SonarQube Server sent an error
+     * @throws SonarQubeException When the response cannot be read.
+     */
+    protected <T extends Message> T call(final GetRequest request, final Parser<T> parser)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        try (InputStream input = call(() -> this.wsClient.wsConnector().call(request.setMediaType(MediaTypes.PROTOBUF))
+                .failIfNotSuccessful().contentStream())) {
+            return parser.parseFrom(input);
+        } catch (IOException e) {
+            throw new SonarQubeException(String.format("Impossible to read the response of %s.", request.getPath()), e);
+        }
+    }
+
+    /**
+     * Convert a SonarQube API json response given as a string into a JsonObject
+     * @param response the SonarQube API response
+     * @return the response as a JsonObject
+     */
+    protected JsonObject responseToJsonObject(final String response) {
+        return getGson().fromJson(response, JsonObject.class);
+    }
 
-        // launch the request on SonarQube server and retrieve resources into a string
-        return RequestManager.getInstance().get(preparedRequest, this.token);
+    /**
+     * Whether the requests of the provider may be sent from several threads. The web client of the plugin
+     * calls SonarQube in the thread of the web request, which holds the session of the user.
+     * @return false when the provider uses the web client
+     */
+    protected boolean isConcurrent() {
+        return this.wsClient == null;
+    }
+
+    /**
+     * Number of requests of the provider sent concurrently
+     * @param setting name of the setting giving this number
+     * @return the value of the setting, 1 when the provider cannot send concurrent requests
+     */
+    protected int getParallelism(final String setting) {
+        return isConcurrent() ? Integer.parseInt(StringManager.getSetting(setting)) : 1;
     }
 
     /**
@@ -356,6 +466,25 @@ public abstract class AbstractDataProvider {
         this.gson = pGson;
     }
 
+    /**
+     * Record the date of the last analysis of the reported project,
+     * the responses cached on disk since this analysis are then used without calling SonarQube
+     * @param analysisDate the date as given by SonarQube, null if the project was never analysed
+     */
+    protected void setAnalysisDate(final String analysisDate) {
+        if (session != null) {
+            session.setAnalysisDate(analysisDate);
+        }
+    }
+
+    /**
+     * Setter of session
+     * @param pSession responses shared with the other providers of the report
+     */
+    public void setSession(final RequestSession pSession) {
+        this.session = pSession;
+    }
+
     /**
      * SonarQube instance
      * @return the server
@@ -412,6 +541,14 @@ public abstract class AbstractDataProvider {
         return branch;
     }
 
+    /**
+     * Branch of the project as a parameter of the web client
+     * @return the project branch, null for the main branch
+     */
+    protected String getBranchParameter() {
+        return StringManager.NO_BRANCH.equals(branch) ? null : branch;
+    }
+
     /**
      * Setter of branch
      * @param branch value to give
@@ -0,0 +1,186 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.providers;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Limit of the requests in flight on a SonarQube server, adjusted from its responses (AIMD).
+ * The limit grows by one each time a whole window of requests is answered quickly,
+ * and it is multiplied by a backoff ratio when the server answers 429 or 503,
+ * when a request fails, or when the latency exceeds the tolerated ratio of the best observed latency.
+ * Latencies are compared by endpoint, as a search of 500 issues is naturally slower than a rule lookup.
+ * Callers are blocked while the limit is reached.
+ */
+public final class AdaptiveLimiter {
+
+    /** Logger for this class. */
+    private static final Logger LOGGER = Logger.getLogger(AdaptiveLimiter.class.getName());
+
+    /** Weight of a new sample in the drift of the latency baseline. */
+    private static final double BASELINE_DRIFT = 0.01;
+
+    /** Lowest allowed limit. */
+    private final int minLimit;
+    /** Highest allowed limit. */
+    private final int maxLimit;
+    /** Ratio of the baseline above which a latency is considered as overload. */
+    private final double tolerance;
+    /** Ratio applied to the limit on overload. */
+    private final double backoff;
+
+    /** Lock protecting the state of the limiter. */
+    private final ReentrantLock lock = new ReentrantLock();
+    /** Signaled when a request may start. */
+    private final Condition available = lock.newCondition();
+
+    /** Current limit, its integer part is the number of allowed requests. */
+    private double limit;
+    /** Number of requests in flight. */
+    private int inFlight = 0;
+    /** Best latency observed by endpoint in nanoseconds, drifting slowly towards recent ones. */
+    private final Map<String, Double> baselines = new HashMap<>();
+    /** Time of the last decrease, requests started before it cannot decrease the limit again. */
+    private long lastDecrease;
+
+    /**
+     * Constructor.
+     * @param pInitialLimit Limit at start.
+     * @param pMinLimit Lowest allowed limit, at least 1.
+     * @param pMaxLimit Highest allowed limit.
+     * @param pTolerance Ratio of the best latency above which a latency is considered as overload.
+     * @param pBackoff Ratio applied to the limit on overload, between 0 and 1.
+     */
+    public AdaptiveLimiter(final int pInitialLimit, final int pMinLimit, final int pMaxLimit,
+                           final double pTolerance, final double pBackoff) {
+        this.minLimit = Math.max(1, pMinLimit);
+        this.maxLimit = Math.max(this.minLimit, pMaxLimit);
+        this.tolerance = pTolerance;
+        this.backoff = pBackoff;
+        this.limit = Math.max(this.minLimit, Math.min(this.maxLimit, pInitialLimit));
+        this.lastDecrease = System.nanoTime();
+    }
+
+    /**
+     * Wait until a request may start.
+     * @return Start time of the request, to give back to {@link #release(long, String, long, boolean)}.
+     * @throws InterruptedException When the thread is interrupted while waiting.
+     */
+    public long acquire() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (inFlight >= (int) limit) {
+                available.await();
+            }
+            inFlight++;
+            return System.nanoTime();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Give back the slot of a finished request and adjust the limit.
+     * @param start Start time given by {@link #acquire()}.
+     * @param endpoint Endpoint of the request, whose latencies are compared together.
+     * @param latency Time in nanoseconds taken by the server to answer, ignored on overload.
+     * @param overloaded Whether the server asked to slow down or could not answer.
+     */
+    public void release(final long start, final String endpoint, final long latency, final boolean overloaded) {
+        lock.lock();
+        try {
+            inFlight--;
+            final double previous = limit;
+            if (overloaded || isSlow(endpoint, latency)) {
+                // one decrease per window: requests sent before the last decrease are not counted again
+                if (start - lastDecrease > 0) {
+                    limit = Math.max(minLimit, limit * backoff);
+                    lastDecrease = System.nanoTime();
+                }
+            } else {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            if ((int) previous != (int) limit) {
+                LOGGER.log(Level.FINE, "Limit of SonarQube requests in flight set to {0}.", (int) limit);
+            }
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Give back the slot of a request which was not sent, the limit is not adjusted.
+     */
+    public void cancel() {
+        lock.lock();
+        try {
+            inFlight--;
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Update the latency baseline of an endpoint with a sample and tell whether it reveals an overload.
+     * @param endpoint Endpoint of the request.
+     * @param latency Latency in nanoseconds.
+     * @return true if the latency exceeds the tolerated ratio of the baseline.
+     */
+    private boolean isSlow(final String endpoint, final long latency) {
+        final Double baseline = baselines.get(endpoint);
+        if (baseline == null || latency < baseline) {
+            baselines.put(endpoint, (double) latency);
+        } else {
+            baselines.put(endpoint, baseline + (latency - baseline) * BASELINE_DRIFT);
+        }
+        return baseline != null && latency > baseline * tolerance;
+    }
+
+    /**
+     * Number of requests currently allowed in flight.
+     * @return The current limit.
+     */
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of requests currently in flight.
+     * @return The number of requests.
+     */
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.providers;
+
+/**
+ * Circuit breaker of a SonarQube server. After a number of consecutive failures the circuit
+ * is open and requests fail fast. Once the open duration is elapsed, a single trial request
+ * is let through: the circuit is closed again if it succeeds, and open again if it fails.
+ */
+public final class CircuitBreaker {
+
+    /** Number of consecutive failures opening the circuit, 0 or less to never open it. */
+    private final int threshold;
+    /** Time in milliseconds during which the circuit stays open. */
+    private final long openDuration;
+
+    /** Number of consecutive failures. */
+    private int failures = 0;
+    /** Time in milliseconds at which the circuit was open, negative if it is closed. */
+    private long openedAt = -1;
+    /** Whether a trial request is in flight while the circuit is open. */
+    private boolean trial = false;
+
+    /**
+     * Constructor.
+     * @param pThreshold Number of consecutive failures opening the circuit, 0 or less to never open it.
+     * @param pOpenDuration Time in milliseconds during which the circuit stays open.
+     */
+    public CircuitBreaker(final int pThreshold, final long pOpenDuration) {
+        this.threshold = pThreshold;
+        this.openDuration = pOpenDuration;
+    }
+
+    /**
+     * Tell whether a request may be sent.
+     * @return false if the circuit is open and the request has to fail fast.
+     */
+    public synchronized boolean allow() {
+        if (openedAt < 0) {
+            return true;
+        }
+        if (!trial && System.currentTimeMillis() - openedAt >= openDuration) {
+            trial = true;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Record a request answered by the server, the circuit is closed.
+     */
+    public synchronized void success() {
+        failures = 0;
+        openedAt = -1;
+        trial = false;
+    }
+
+    /**
+     * Record a request the server could not answer.
+     * @return true if this failure opened the circuit.
+     */
+    public synchronized boolean failure() {
+        failures++;
+        if (trial) {
+            // the server is still down, wait again before the next trial
+            trial = false;
+            openedAt = System.currentTimeMillis();
+            return true;
+        }
+        if (threshold > 0 && openedAt < 0 && failures >= threshold) {
+            openedAt = System.currentTimeMillis();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Record a request which ended without an answer nor a failure of the server, e.g. when it could
+     * not be built: a trial request in flight is given up so that the next request can try again.
+     */
+    public synchronized void release() {
+        trial = false;
+    }
+
+    /**
+     * Tell whether the circuit is open.
+     * @return true if requests currently fail fast.
+     */
+    public synchronized boolean isOpen() {
+        return openedAt >= 0;
+    }
+}
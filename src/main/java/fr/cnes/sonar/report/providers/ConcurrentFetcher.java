@@ -0,0 +1,171 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.providers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
+import fr.cnes.sonar.report.exceptions.SonarQubeException;
+import fr.cnes.sonar.report.utils.Profiler;
+
+/**
+ * Execute independent SonarQube fetches concurrently on a bounded number of threads.
+ * Threads are created by {@link IoExecutors}, they are virtual threads when this mode is enabled.
+ */
+public final class ConcurrentFetcher {
+
+    /**
+     * A single fetch returning a value from SonarQube.
+     * @param <T> Type of the fetched value.
+     */
+    @FunctionalInterface
+    public interface Fetch<T> {
+        /**
+         * Perform the fetch.
+         * @return The fetched value.
+         * @throws BadSonarQubeRequestException A request is not recognized by the server.
+         * @throws SonarQubeException When SonarQube server is not callable.
+         */
+        T fetch() throws BadSonarQubeRequestException, SonarQubeException;
+    }
+
+    /**
+     * A fetch running in background.
+     * @param <T> Type of the fetched value.
+     */
+    public static final class Pending<T> {
+        /** The running fetch. */
+        private final Future<T> future;
+
+        /**
+         * Constructor.
+         * @param pFuture The running fetch.
+         */
+        private Pending(final Future<T> pFuture) {
+            this.future = pFuture;
+        }
+
+        /**
+         * Wait for the end of the fetch.
+         * @return The fetched value.
+         * @throws BadSonarQubeRequestException A request is not recognized by the server.
+         * @throws SonarQubeException When SonarQube server is not callable.
+         */
+        public T get() throws BadSonarQubeRequestException, SonarQubeException {
+            return await(future);
+        }
+
+        /**
+         * Cancel the fetch if its result is not needed anymore.
+         */
+        public void cancel() {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * Private constructor because it is a utility class.
+     */
+    private ConcurrentFetcher() {}
+
+    /**
+     * Execute all the fetches with at most parallelism of them in flight at the same time.
+     * Results are given in the order of the fetches. If several fetches fail, the error of
+     * the first one in this order is thrown and the remaining fetches are cancelled.
+     * @param fetches Fetches to execute.
+     * @param parallelism Maximum number of concurrent fetches, 1 or less executes them in the calling thread.
+     * @param <T> Type of the fetched values.
+     * @return The list of fetched values.
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    public static <T> List<T> fetchAll(final List<Fetch<T>> fetches, final int parallelism)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        final List<T> results = new ArrayList<>(fetches.size());
+
+        if (parallelism <= 1 || fetches.size() <= 1) {
+            for (Fetch<T> fetch : fetches) {
+                results.add(fetch.fetch());
+            }
+        } else {
+            final ExecutorService executor = IoExecutors.newFixedPool(Math.min(parallelism, fetches.size()),
+                    "cnesreport-fetch");
+            final List<Future<T>> futures = new ArrayList<>(fetches.size());
+            try {
+                for (Fetch<T> fetch : fetches) {
+                    futures.add(executor.submit(Profiler.getInstance().propagate(fetch::fetch)));
+                }
+                for (Future<T> future : futures) {
+                    results.add(await(future));
+                }
+            } finally {
+                futures.forEach(future -> future.cancel(true));
+                executor.shutdownNow();
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Start a fetch in background, e.g. to prefetch the next page of a search
+     * while the current one is processed.
+     * @param fetch Fetch to execute.
+     * @param <T> Type of the fetched value.
+     * @return The running fetch.
+     */
+    public static <T> Pending<T> submit(final Fetch<T> fetch) {
+        final FutureTask<T> task = new FutureTask<>(Profiler.getInstance().propagate(fetch::fetch));
+        IoExecutors.newThread(task, "cnesreport-prefetch").start();
+        return new Pending<>(task);
+    }
+
+    /**
+     * Wait for the result of a fetch and give back its original exception if it failed.
+     * @param future The pending fetch.
+     * @param <T> Type of the fetched value.
+     * @return The fetched value.
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     * @throws SonarQubeException When SonarQube server is not callable or the fetch was interrupted.
+     */
+    static <T> T await(final Future<T> future) throws BadSonarQubeRequestException, SonarQubeException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SonarQubeException("Interrupted while fetching data from SonarQube.", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof BadSonarQubeRequestException) {
+                throw (BadSonarQubeRequestException) cause;
+            } else if (cause instanceof SonarQubeException) {
+                throw (SonarQubeException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new SonarQubeException("Unexpected error while fetching data from SonarQube.", e);
+        }
+    }
+}
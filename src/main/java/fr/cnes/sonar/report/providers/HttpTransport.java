@@ -0,0 +1,137 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.providers;
+
+import java.io.IOException;
+import java.net.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.sonarqube.ws.client.OkHttpClientBuilder;
+
+import fr.cnes.sonar.report.utils.StringManager;
+import okhttp3.ConnectionPool;
+import okhttp3.Credentials;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Long-lived http client bound to a SonarQube server and an identity.
+ * Connections are kept alive in a pool and reused by all the requests of a run.
+ */
+public final class HttpTransport {
+
+    /** Property giving the maximum number of idle connections kept in the pool. */
+    public static final String MAX_IDLE_CONNECTIONS = "http.pool.maxIdleConnections";
+    /** Property giving the time in seconds after which an idle connection is closed. */
+    public static final String IDLE_TIMEOUT = "http.pool.idleTimeout";
+    /** Property giving the connection timeout in milliseconds. */
+    public static final String CONNECT_TIMEOUT = "http.connectTimeout";
+    /** Property giving the read timeout in milliseconds. */
+    public static final String READ_TIMEOUT = "http.readTimeout";
+
+    /** User agent sent to SonarQube. */
+    private static final String USER_AGENT = "cnesreport";
+
+    /** Underlying client, holding the connection pool. */
+    private final OkHttpClient client;
+
+    /**
+     * Constructor.
+     * @param token Token to authenticate to SonarQube, null for anonymous access.
+     * @param proxy Proxy to use, null for direct connections.
+     * @param proxyUser User for the proxy, null if not needed.
+     * @param proxyPass Password for the proxy.
+     */
+    HttpTransport(final String token, final Proxy proxy, final String proxyUser, final String proxyPass) {
+        final OkHttpClientBuilder builder = new OkHttpClientBuilder()
+                .setUserAgent(USER_AGENT)
+                .setConnectTimeoutMs(Long.parseLong(StringManager.getSetting(CONNECT_TIMEOUT)))
+                .setReadTimeoutMs(Long.parseLong(StringManager.getSetting(READ_TIMEOUT)));
+
+        // Set SonarQube authentication token.
+        if(token != null) {
+            builder.setCredentials(Credentials.basic(token, StringManager.EMPTY, StandardCharsets.UTF_8));
+        }
+
+        // Set proxy settings.
+        if(proxy != null) {
+            builder.setProxy(proxy);
+            if(proxyUser != null) {
+                builder.setProxyLogin(proxyUser);
+                builder.setProxyPassword(proxyPass);
+            }
+        }
+
+        final ConnectionPool pool = new ConnectionPool(
+                Integer.parseInt(StringManager.getSetting(MAX_IDLE_CONNECTIONS)),
+                Long.parseLong(StringManager.getSetting(IDLE_TIMEOUT)), TimeUnit.SECONDS);
+
+        this.client = builder.build().newBuilder().connectionPool(pool).build();
+    }
+
+    /**
+     * Execute a get http request, the caller has to close the returned response.
+     * @param url Complete url to request.
+     * @return The response of the server.
+     * @throws IOException When the server cannot be reached.
+     */
+    public Response get(final String url) throws IOException {
+        return get(url, Collections.emptyMap());
+    }
+
+    /**
+     * Execute a get http request with additional headers, the caller has to close the returned response.
+     * @param url Complete url to request.
+     * @param headers Additional headers, e.g. validators of a cached response.
+     * @return The response of the server.
+     * @throws IOException When the server cannot be reached.
+     */
+    public Response get(final String url, final Map<String, String> headers) throws IOException {
+        final HttpUrl httpUrl = HttpUrl.parse(url);
+        if(httpUrl == null) {
+            throw new IOException(String.format("Malformed URL: '%s'", url));
+        }
+        final Request.Builder request = new Request.Builder()
+                .url(httpUrl)
+                .header("Accept", "application/json")
+                .header("Accept-Charset", "UTF-8")
+                .get();
+        headers.forEach(request::header);
+        return this.client.newCall(request.build()).execute();
+    }
+
+    /**
+     * Close all the idle connections of the pool.
+     */
+    public void close() {
+        this.client.connectionPool().evictAll();
+    }
+
+    /**
+     * Number of connections currently opened by this transport.
+     * @return the number of connections in the pool.
+     */
+    public int getConnectionCount() {
+        return this.client.connectionPool().connectionCount();
+    }
+}
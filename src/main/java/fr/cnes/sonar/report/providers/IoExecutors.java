@@ -0,0 +1,149 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.providers;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import fr.cnes.sonar.report.utils.StringManager;
+
+/**
+ * Create the threads running SonarQube requests. They are platform threads by default,
+ * or virtual threads when this mode is enabled and the JVM supports it (Java 21 and later).
+ * With virtual threads, a blocked request does not hold an operating system thread,
+ * so that many requests can be kept in flight cheaply.
+ */
+public final class IoExecutors {
+
+    /** Property enabling virtual threads for SonarQube requests. */
+    public static final String VIRTUAL_THREADS = "concurrency.virtualThreads";
+
+    /** Logger for this class. */
+    private static final Logger LOGGER = Logger.getLogger(IoExecutors.class.getName());
+
+    /** Thread.ofVirtual(), null if the JVM does not support virtual threads. */
+    private static final Method OF_VIRTUAL;
+    /** Thread.Builder.name(String, long). */
+    private static final Method NAME;
+    /** Thread.Builder.factory(). */
+    private static final Method FACTORY;
+
+    /** Whether the lack of virtual threads has already been logged. */
+    private static boolean warned = false;
+
+    // Look for virtual threads support, the build targets an older Java version
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        try {
+            final Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builder.getMethod("name", String.class, long.class);
+            factory = builder.getMethod("factory");
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            LOGGER.log(Level.FINE, "Virtual threads are not supported by this JVM.", e);
+        }
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        FACTORY = factory;
+    }
+
+    /**
+     * Private constructor because it is a utility class.
+     */
+    private IoExecutors() {}
+
+    /**
+     * Create a pool running at most parallelism tasks at the same time.
+     * @param parallelism Number of threads of the pool.
+     * @param name Prefix of the names of the threads.
+     * @return The pool, the caller has to shut it down.
+     */
+    public static ExecutorService newFixedPool(final int parallelism, final String name) {
+        return Executors.newFixedThreadPool(parallelism, threadFactory(name));
+    }
+
+    /**
+     * Create a thread running a task in background.
+     * @param task The task.
+     * @param name Name of the thread.
+     * @return The thread, not started.
+     */
+    public static Thread newThread(final Runnable task, final String name) {
+        final Thread thread = threadFactory(name).newThread(task);
+        if (!isVirtual()) {
+            thread.setDaemon(true);
+        }
+        return thread;
+    }
+
+    /**
+     * Tell whether the requests are run on virtual threads.
+     * @return true if the mode is enabled and supported by the JVM.
+     */
+    public static boolean isVirtual() {
+        if (!Boolean.parseBoolean(StringManager.getSetting(VIRTUAL_THREADS))) {
+            return false;
+        }
+        if (OF_VIRTUAL == null) {
+            warnUnsupported();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Give a factory of threads named after a prefix.
+     * @param name Prefix of the names of the threads.
+     * @return The factory.
+     */
+    private static ThreadFactory threadFactory(final String name) {
+        if (isVirtual()) {
+            try {
+                final Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), name + "-", 1L);
+                return (ThreadFactory) FACTORY.invoke(builder);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                LOGGER.log(Level.WARNING, "Virtual threads cannot be created, platform threads are used.", e);
+            }
+        }
+        final AtomicInteger count = new AtomicInteger();
+        final ThreadFactory defaultFactory = Executors.defaultThreadFactory();
+        return task -> {
+            final Thread thread = defaultFactory.newThread(task);
+            thread.setName(name + "-" + count.incrementAndGet());
+            return thread;
+        };
+    }
+
+    /**
+     * Log once that virtual threads are requested but not supported.
+     */
+    private static synchronized void warnUnsupported() {
+        if (!warned) {
+            warned = true;
+            LOGGER.warning("Virtual threads require Java 21 or later, platform threads are used.");
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.providers;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
+
+/**
+ * Read SonarQube responses as a stream. The elements of the big arrays of a response
+ * (issues, rules, components, ...) are handed one by one to a handler as soon as they
+ * are read, so that neither the raw response nor its whole json tree are kept in memory.
+ */
+public final class JsonStreamReader {
+
+    /**
+     * Private constructor because it is a utility class.
+     */
+    private JsonStreamReader() {}
+
+    /**
+     * Read a json response from a stream.
+     * @param reader Stream of the response.
+     * @param arrays Handlers of the elements of the streamed arrays, indexed by field name.
+     * @return The other fields of the response.
+     * @throws IOException When the stream cannot be read.
+     * @throws BadSonarQubeRequestException When the response is empty or is not a json object.
+     */
+    public static JsonObject read(final Reader reader, final Map<String, Consumer<JsonElement>> arrays)
+            throws IOException, BadSonarQubeRequestException {
+        final JsonObject header = new JsonObject();
+        final JsonReader json = new JsonReader(reader);
+
+        try {
+            if (json.peek() != JsonToken.BEGIN_OBJECT) {
+                throw new BadSonarQubeRequestException("Server answered: " + JsonParser.parseReader(json));
+            }
+            json.beginObject();
+            while (json.hasNext()) {
+                final String name = json.nextName();
+                final Consumer<JsonElement> handler = arrays.get(name);
+                if (handler != null && json.peek() == JsonToken.BEGIN_ARRAY) {
+                    json.beginArray();
+                    while (json.hasNext()) {
+                        handler.accept(JsonParser.parseReader(json));
+                    }
+                    json.endArray();
+                } else {
+                    header.add(name, JsonParser.parseReader(json));
+                }
+            }
+            json.endObject();
+        } catch (EOFException e) {
+            throw new BadSonarQubeRequestException("Empty server response, reason might be : " +
+                    "server certificate not in JRE/JDK truststore, ...");
+        } catch (MalformedJsonException | JsonParseException | IllegalStateException e) {
+            throw new BadSonarQubeRequestException("Server answered a malformed response: " + e.getMessage());
+        }
+
+        return header;
+    }
+
+    /**
+     * Apply the handlers of a streamed read on a response which is already in memory.
+     * @param jsonObject The response.
+     * @param arrays Handlers of the elements of the streamed arrays, indexed by field name.
+     * @return The other fields of the response, the response itself is left untouched.
+     */
+    public static JsonObject dispatch(final JsonObject jsonObject, final Map<String, Consumer<JsonElement>> arrays) {
+        final JsonObject header = new JsonObject();
+        for (Map.Entry<String, JsonElement> field : jsonObject.entrySet()) {
+            final Consumer<JsonElement> handler = arrays.get(field.getKey());
+            if (handler != null && field.getValue().isJsonArray()) {
+                field.getValue().getAsJsonArray().forEach(handler);
+            } else {
+                header.add(field.getKey(), field.getValue());
+            }
+        }
+        return header;
+    }
+}
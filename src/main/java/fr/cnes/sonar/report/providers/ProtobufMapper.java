@@ -0,0 +1,268 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.providers;
+
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.Message;
+import fr.cnes.sonar.report.model.Comment;
+import fr.cnes.sonar.report.model.Component;
+import fr.cnes.sonar.report.model.Issue;
+import fr.cnes.sonar.report.model.Measure;
+import fr.cnes.sonar.report.model.Rule;
+import fr.cnes.sonar.report.model.SecurityHotspot;
+import org.sonarqube.ws.Common;
+import org.sonarqube.ws.Hotspots;
+import org.sonarqube.ws.Issues;
+import org.sonarqube.ws.Measures;
+import org.sonarqube.ws.Rules;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts the protobuf responses of the web client into model objects, without the json
+ * round trip of {@link AbstractDataProvider#responseToJsonObject(Message)}.
+ * Each field is set as the json deserialization would set it: fields absent from the
+ * response keep the default value of the model.
+ */
+public final class ProtobufMapper {
+
+    /**
+     * Private constructor, the class only has static methods.
+     */
+    private ProtobufMapper() {}
+
+    /**
+     * Convert an issue.
+     * @param issue the issue of a search
+     * @return the issue
+     */
+    public static Issue toIssue(final Issues.Issue issue) {
+        final Issue res = new Issue();
+        res.setKey(issue.getKey());
+        res.setRule(issue.getRule());
+        res.setComponent(issue.getComponent());
+        res.setProject(issue.getProject());
+        res.setStatus(issue.getStatus());
+        res.setResolution(issue.getResolution());
+        res.setMessage(issue.getMessage());
+        if (issue.hasSeverity()) {
+            res.setSeverity(issue.getSeverity().name());
+        }
+        if (issue.hasType()) {
+            res.setType(issue.getType().name());
+        }
+        if (issue.hasLine()) {
+            res.setLine(String.valueOf(issue.getLine()));
+        }
+        if (issue.hasEffort()) {
+            res.setEffort(issue.getEffort());
+        }
+        if (issue.hasComments()) {
+            res.setComments(toComments(issue.getComments().getCommentsList()));
+        }
+        return res;
+    }
+
+    /**
+     * Convert an issue in a raw format: the map is the one the json deserialization gives,
+     * numbers are doubles, arrays are lists and objects are maps.
+     * @param issue the issue of a search
+     * @return the issue as a map
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, String> toRawIssue(final Issues.Issue issue) {
+        return (Map<String, String>) (Map<String, ?>) toMap(issue);
+    }
+
+    /**
+     * Convert a rule given with the issues of a search.
+     * @param rule the rule
+     * @return the rule
+     */
+    public static Rule toRule(final Common.Rule rule) {
+        final Rule res = new Rule();
+        res.setKey(rule.getKey());
+        res.setName(rule.getName());
+        res.setLang(rule.getLang());
+        res.setLangName(rule.getLangName());
+        if (rule.hasStatus()) {
+            res.setStatus(rule.getStatus().name());
+        }
+        return res;
+    }
+
+    /**
+     * Convert a rule of a search of rules.
+     * @param rule the rule
+     * @return the rule
+     */
+    // severity, type and description are deprecated by SonarQube but they are still reported
+    @SuppressWarnings("deprecation")
+    public static Rule toRule(final Rules.Rule rule) {
+        final Rule res = new Rule();
+        res.setKey(rule.getKey());
+        res.setRepo(rule.getRepo());
+        res.setName(rule.getName());
+        res.setSeverity(rule.getSeverity());
+        res.setHtmlDesc(rule.getHtmlDesc());
+        res.setLang(rule.getLang());
+        res.setLangName(rule.getLangName());
+        if (rule.hasType()) {
+            res.setType(rule.getType().name());
+        }
+        if (rule.hasStatus()) {
+            res.setStatus(rule.getStatus().name());
+        }
+        if (rule.hasRemFnGapMultiplier()) {
+            res.setDebt(rule.getRemFnGapMultiplier());
+        }
+        return res;
+    }
+
+    /**
+     * Convert a security hotspot of a search.
+     * @param hotspot the security hotspot
+     * @return the security hotspot, without rule nor comments which are only given by its details
+     */
+    public static SecurityHotspot toSecurityHotspot(final Hotspots.SearchWsResponse.Hotspot hotspot) {
+        final SecurityHotspot res = new SecurityHotspot();
+        res.setKey(hotspot.getKey());
+        res.setComponent(hotspot.getComponent());
+        res.setSecurityCategory(hotspot.getSecurityCategory());
+        res.setVulnerabilityProbability(hotspot.getVulnerabilityProbability());
+        res.setStatus(hotspot.getStatus());
+        res.setMessage(hotspot.getMessage());
+        res.setResolution(hotspot.getResolution());
+        if (hotspot.hasLine()) {
+            res.setLine(String.valueOf(hotspot.getLine()));
+        }
+        return res;
+    }
+
+    /**
+     * Convert a component of a component tree with its measures.
+     * @param component the component
+     * @return the component
+     */
+    public static Component toComponent(final Measures.Component component) {
+        final Component res = new Component();
+        res.setId(component.getKey());
+        res.setName(component.getName());
+        res.setPath(component.getPath());
+        final List<Measure> measures = new ArrayList<>();
+        for (Measures.Measure measure : component.getMeasuresList()) {
+            measures.add(new Measure(measure.getMetric(), measure.getValue()));
+        }
+        res.setMeasures(measures);
+        return res;
+    }
+
+    /**
+     * Convert comments.
+     * @param comments the comments
+     * @return the comments
+     */
+    public static Comment[] toComments(final List<Common.Comment> comments) {
+        final Comment[] res = new Comment[comments.size()];
+        for (int i = 0; i < res.length; i++) {
+            final Common.Comment comment = comments.get(i);
+            res[i] = new Comment(comment.getKey(), comment.getLogin(), comment.getHtmlText(), comment.getMarkdown(),
+                    comment.getUpdatable(), comment.getCreatedAt());
+        }
+        return res;
+    }
+
+    /**
+     * Convert a message as SonarQube writes it in json: repeated fields are always written,
+     * other fields only when they are set, and a message wrapping a single repeated field
+     * of the same name is written as this array.
+     * @param message the message
+     * @return the fields of the message
+     */
+    private static Map<String, Object> toMap(final Message message) {
+        final Map<String, Object> res = new LinkedHashMap<>();
+        for (Descriptors.FieldDescriptor field : message.getDescriptorForType().getFields()) {
+            if (field.isRepeated()) {
+                res.put(field.getName(), toRepeatedValue(field, message.getField(field)));
+            } else if (message.hasField(field)) {
+                res.put(field.getName(), toValue(field, message.getField(field)));
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Convert the value of a repeated field.
+     * @param field the field
+     * @param value the values of the field
+     * @return a map for a map field, a list otherwise
+     */
+    private static Object toRepeatedValue(final Descriptors.FieldDescriptor field, final Object value) {
+        if (field.isMapField()) {
+            final Map<String, Object> res = new LinkedHashMap<>();
+            for (Object item : (List<?>) value) {
+                final Message entry = (Message) item;
+                final Descriptors.Descriptor descriptor = entry.getDescriptorForType();
+                final Descriptors.FieldDescriptor entryValue = descriptor.findFieldByName("value");
+                res.put(entry.getField(descriptor.findFieldByName("key")).toString(),
+                        toValue(entryValue, entry.getField(entryValue)));
+            }
+            return res;
+        }
+        final List<Object> res = new ArrayList<>();
+        for (Object item : (List<?>) value) {
+            res.add(toValue(field, item));
+        }
+        return res;
+    }
+
+    /**
+     * Convert the value of a field.
+     * @param field the field
+     * @param value the value
+     * @return the value as json deserialization gives it
+     */
+    private static Object toValue(final Descriptors.FieldDescriptor field, final Object value) {
+        switch (field.getJavaType()) {
+            case INT:
+            case LONG:
+            case FLOAT:
+            case DOUBLE:
+                return ((Number) value).doubleValue();
+            case BOOLEAN:
+            case STRING:
+                return value;
+            case ENUM:
+                return ((Descriptors.EnumValueDescriptor) value).getName();
+            case MESSAGE:
+                final Message message = (Message) value;
+                final List<Descriptors.FieldDescriptor> fields = message.getDescriptorForType().getFields();
+                if (fields.size() == 1 && fields.get(0).isRepeated()
+                        && message.getDescriptorForType().getName().equalsIgnoreCase(fields.get(0).getName())) {
+                    return toRepeatedValue(fields.get(0), message.getField(fields.get(0)));
+                }
+                return toMap(message);
+            default:
+                throw new IllegalStateException(String.format("JSON format does not support type '%s' of field '%s'",
+                        field.getJavaType(), field.getName()));
+        }
+    }
+}
@@ -17,23 +17,48 @@
 
 package fr.cnes.sonar.report.providers;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
 import java.net.InetSocketAddress;
 import java.net.Proxy;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
-import org.sonarqube.ws.client.GetRequest;
-import org.sonarqube.ws.client.HttpConnector;
-import org.sonarqube.ws.client.WsResponse;
 
 import com.google.common.collect.Sets;
 
+import fr.cnes.sonar.report.events.SonarQubeRequestEvent;
 import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
 import fr.cnes.sonar.report.exceptions.SonarQubeException;
+import fr.cnes.sonar.report.utils.CountingInputStream;
+import fr.cnes.sonar.report.utils.Profiler;
 import fr.cnes.sonar.report.utils.StringManager;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
 
 /**
  * Manage http requests.
@@ -69,13 +94,135 @@ public final class RequestManager {
      */
     public static final String STR_NON_PROXY_HOSTS = "http.nonProxyHosts";
     
+    /**
+     * Property giving the maximum number of requests in flight on a server, 0 or less for no limit
+     */
+    public static final String MAX_IN_FLIGHT_PER_SERVER = "http.maxInFlightPerServer";
+
+    /**
+     * Property enabling the adjustment of the limit of requests in flight from the responses of the server
+     */
+    public static final String LIMITER_ADAPTIVE = "http.limiter.adaptive";
+
+    /**
+     * Property giving the adaptive limit of requests in flight at start
+     */
+    public static final String LIMITER_INITIAL_LIMIT = "http.limiter.initialLimit";
+
+    /**
+     * Property giving the lowest adaptive limit of requests in flight
+     */
+    public static final String LIMITER_MIN_LIMIT = "http.limiter.minLimit";
+
+    /**
+     * Property giving the ratio of the best latency above which the server is considered as overloaded
+     */
+    public static final String LIMITER_LATENCY_TOLERANCE = "http.limiter.latencyTolerance";
+
+    /**
+     * Property giving the ratio applied to the adaptive limit when the server is overloaded
+     */
+    public static final String LIMITER_BACKOFF_RATIO = "http.limiter.backoffRatio";
+
+    /**
+     * Http status codes by which a server asks to slow down
+     */
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int SERVICE_UNAVAILABLE = 503;
+
+    /**
+     * Http status codes of a gateway which could not reach the server
+     */
+    private static final int BAD_GATEWAY = 502;
+
+    /**
+     * Http status codes of a response and of a cached response confirmed by the server
+     */
+    private static final int OK = 200;
+    private static final int NOT_MODIFIED = 304;
+
+    private static final int GATEWAY_TIMEOUT = 504;
+
+    /**
+     * Property giving the number of times a request is retried after a transient failure
+     */
+    public static final String RETRY_MAX_RETRIES = "http.retry.maxRetries";
+
+    /**
+     * Property giving the delay in milliseconds before the first retry, it doubles at each retry
+     */
+    public static final String RETRY_INITIAL_DELAY = "http.retry.initialDelay";
+
+    /**
+     * Property giving the maximum delay in milliseconds before a retry
+     */
+    public static final String RETRY_MAX_DELAY = "http.retry.maxDelay";
+
+    /**
+     * Property giving the number of consecutive failures after which requests to a server fail fast
+     */
+    public static final String CIRCUIT_FAILURE_THRESHOLD = "http.circuit.failureThreshold";
+
+    /**
+     * Property giving the time in seconds during which requests fail fast before a new trial
+     */
+    public static final String CIRCUIT_OPEN_DURATION = "http.circuit.openDuration";
+
+    /**
+     * Logger for this class
+     */
+    private static final Logger LOGGER = Logger.getLogger(RequestManager.class.getName());
+
     public static final String QUERY_CHAR = "?";
     public static final String ANCHOR_CHAR = "#";
 
+    /**
+     * Long-lived transports indexed by server, identity and proxy configuration
+     */
+    private final Map<String, HttpTransport> transports;
+
+    /**
+     * Limiters of the requests in flight indexed by server, whatever the identity
+     */
+    private final Map<String, AdaptiveLimiter> limiters;
+
+    /**
+     * Response caches indexed by directory, empty for a directory which cannot be opened
+     */
+    private final Map<String, Optional<ResponseCache>> caches;
+
+    /**
+     * Traffic archives indexed by the property giving their path
+     */
+    private final Map<String, TrafficArchive> archives;
+
+    /**
+     * Circuit breakers indexed by server, whatever the identity
+     */
+    private final Map<String, CircuitBreaker> breakers;
+
+    /**
+     * Number of retried requests
+     */
+    private final AtomicLong retries;
+
+    /**
+     * Number of times a circuit breaker opened
+     */
+    private final AtomicLong trips;
+
     /**
      * Use of private constructor to singletonize this class
      */
-    private RequestManager() { }
+    private RequestManager() {
+        this.transports = new ConcurrentHashMap<>();
+        this.limiters = new ConcurrentHashMap<>();
+        this.breakers = new ConcurrentHashMap<>();
+        this.caches = new ConcurrentHashMap<>();
+        this.archives = new ConcurrentHashMap<>();
+        this.retries = new AtomicLong();
+        this.trips = new AtomicLong();
+    }
 
     /**
      * Return the unique instance
@@ -107,6 +254,39 @@ public final class RequestManager {
       return StringUtils.substringBeforeLast(url, "/");
     }
 
+    /**
+     * Body reader of a http response
+     * @param <T> Type of the read value.
+     */
+    @FunctionalInterface
+    public interface BodyReader<T> {
+        /**
+         * Read the body of a response
+         * @param body stream of the body, closed by the caller
+         * @return the read value
+         * @throws IOException When the stream cannot be read.
+         * @throws BadSonarQubeRequestException if the body is not the expected one
+         */
+        T read(Reader body) throws IOException, BadSonarQubeRequestException;
+    }
+
+    /**
+     * Reader of a http response
+     * @param <T> Type of the read value.
+     */
+    @FunctionalInterface
+    private interface ResponseReader<T> {
+        /**
+         * Read a response
+         * @param response the response, for its status and headers
+         * @param body stream of the body, closed by the caller
+         * @return the read value
+         * @throws IOException When the stream cannot be read.
+         * @throws BadSonarQubeRequestException if the body is not the expected one
+         */
+        T read(Response response, Reader body) throws IOException, BadSonarQubeRequestException;
+    }
+
     /**
      * Execute a get http request
      * @param url server to request
@@ -116,67 +296,585 @@ public final class RequestManager {
      * @throws BadSonarQubeRequestException if SonarQube Server sent an error
      */
     public String get(final String url, final String token) throws SonarQubeException, BadSonarQubeRequestException {
-        // Initialize connexion information.
-        final String baseUrl = extractBaseUrl(url);
-        final String path = url.replace(baseUrl, "");
-        final String proxyHost = System.getProperty(STR_PROXY_HOST, StringManager.EMPTY);
-        final String proxyPort = System.getProperty(STR_PROXY_PORT, StringManager.EMPTY);
-        final String proxyUser = System.getProperty(STR_PROXY_USER, StringManager.EMPTY);
-        final String proxyPass = System.getProperty(STR_PROXY_PASS, StringManager.EMPTY);
-        final String nonProxyHosts = System.getProperty(STR_NON_PROXY_HOSTS, StringManager.EMPTY);
+        return get(url, token, RequestManager::readAll);
+    }
+
+    /**
+     * Execute a get http request which may be answered by the response cache
+     * @param url server to request
+     * @param token token to authenticate to SonarQube
+     * @param analysisDate date of the last analysis of the reported project, null if it is unknown
+     * @return response as string
+     * @throws SonarQubeException When SonarQube server is not callable.
+     * @throws BadSonarQubeRequestException if SonarQube Server sent an error
+     */
+    public String get(final String url, final String token, final String analysisDate)
+            throws SonarQubeException, BadSonarQubeRequestException {
+        return get(url, token, RequestManager::readAll, analysisDate);
+    }
+
+    /**
+     * Execute a get http request and read its response as a stream
+     * @param url server to request
+     * @param token token to authenticate to SonarQube
+     * @param reader reader of the response body
+     * @param <T> type of the read value
+     * @return the value read from the response
+     * @throws SonarQubeException When SonarQube server is not callable.
+     * @throws BadSonarQubeRequestException if SonarQube Server sent an error
+     */
+    public <T> T get(final String url, final String token, final BodyReader<T> reader)
+            throws SonarQubeException, BadSonarQubeRequestException {
+        return get(url, token, reader, null);
+    }
+
+    /**
+     * Execute a get http request which may be answered by the response cache, and read its response as a stream.
+     * A cached response is read without calling the server if it was received since the last analysis,
+     * otherwise the server is asked whether it changed when it gave validators (ETag, Last-Modified).
+     * @param url server to request
+     * @param token token to authenticate to SonarQube
+     * @param reader reader of the response body
+     * @param analysisDate date of the last analysis of the reported project, null if it is unknown
+     * @param <T> type of the read value
+     * @return the value read from the response
+     * @throws SonarQubeException When SonarQube server is not callable.
+     * @throws BadSonarQubeRequestException if SonarQube Server sent an error
+     */
+    public <T> T get(final String url, final String token, final BodyReader<T> reader, final String analysisDate)
+            throws SonarQubeException, BadSonarQubeRequestException {
+        Profiler.getInstance().recordPage();
+
+        // A replayed run does not call SonarQube at all.
+        final TrafficArchive replayed = getArchive(TrafficArchive.REPLAY);
+        if (replayed != null) {
+            return replayed.replay(url, token, reader,
+                    Long.parseLong(StringManager.getSetting(TrafficArchive.REPLAY_LATENCY)),
+                    Long.parseLong(StringManager.getSetting(TrafficArchive.REPLAY_BANDWIDTH)));
+        }
+
+        // A recorded run captures the actual traffic, the cache is left aside.
+        final TrafficArchive recorded = getArchive(TrafficArchive.RECORD);
+        final ResponseCache cache = recorded == null ? getCache() : null;
+        final ResponseCache.Entry entry = cache != null ? cache.lookup(url, token) : null;
+
+        // The response did not change since it was received if the project was not analysed again.
+        if (entry != null && analysisDate != null && analysisDate.equals(entry.getAnalysisDate())) {
+            try {
+                return cache.hit(entry, reader);
+            } catch (IOException e) {
+                // part of the response may already be handled, it cannot be requested again
+                cache.remove(entry);
+                throw new SonarQubeException("Cached SonarQube response cannot be read.", e);
+            }
+        }
+
+        final Map<String, String> headers = entry != null ? entry.getValidators() : Collections.emptyMap();
+        final long start = System.nanoTime();
+        final ResponseReader<T> responseReader = (response, body) -> {
+            if (recorded != null && response.code() == OK) {
+                return recorded.record(url, token, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                        body, reader);
+            }
+            if (entry != null && response.code() == NOT_MODIFIED) {
+                return cache.revalidated(entry, analysisDate, reader);
+            }
+            if (cache != null && response.code() == OK) {
+                return cache.store(url, token, response.header("ETag"), response.header("Last-Modified"),
+                        analysisDate, body, reader);
+            }
+            return reader.read(body);
+        };
+
+        // Retrieve the transport bound to this server and this identity.
+        final HttpTransport transport = getTransport(url, token);
+        final AdaptiveLimiter limiter = getLimiter(url);
+        final CircuitBreaker breaker = getBreaker(url);
+        final int maxRetries = Integer.parseInt(StringManager.getSetting(RETRY_MAX_RETRIES));
+
+        // Get requests are idempotent, they are sent again while the server has a transient failure.
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return execute(transport, limiter, breaker, url, headers, responseReader, attempt, attempt < maxRetries);
+            } catch (RetryException e) {
+                final long delay = e.retryAfter >= 0 ? e.retryAfter : backoff(attempt);
+                retries.incrementAndGet();
+                LOGGER.log(Level.INFO, "SonarQube request failed ({0}), retrying in {1} ms: {2}",
+                        new Object[]{ e.getMessage(), delay, url });
+                sleep(delay);
+            }
+        }
+    }
 
-        // Initialize http connector builder.
-        final HttpConnector.Builder builder = HttpConnector.newBuilder()
-                .userAgent("cnesreport")
-                .url(baseUrl);
+    /**
+     * Execute a single attempt of a get http request
+     * @param transport transport bound to the server and the identity
+     * @param limiter limiter of the requests in flight on the server, null if requests are not limited
+     * @param breaker circuit breaker of the server
+     * @param url server to request
+     * @param headers additional headers of the request
+     * @param reader reader of the response
+     * @param attempt number of the attempt, 0 for the first one
+     * @param retryable whether a transient failure may be retried
+     * @param <T> type of the read value
+     * @return the value read from the response
+     * @throws RetryException When the attempt has to be retried.
+     * @throws SonarQubeException When SonarQube server is not callable.
+     * @throws BadSonarQubeRequestException if SonarQube Server sent an error
+     */
+    private <T> T execute(final HttpTransport transport, final AdaptiveLimiter limiter, final CircuitBreaker breaker,
+                          final String url, final Map<String, String> headers, final ResponseReader<T> reader,
+                          final int attempt, final boolean retryable)
+            throws RetryException, SonarQubeException, BadSonarQubeRequestException {
+        // Wait for a free slot on this server, so that concurrent fetches do not flood it.
+        final long start = acquire(limiter);
+        long latency = 0;
+        boolean overloaded = true;
 
-        // Set SonarQube authentication token.
-        if(!StringManager.getProperty(StringManager.SONAR_TOKEN).equals(token)) {
-            builder.credentials(token, null);
+        // Fail fast while the server is down.
+        if (!breaker.allow()) {
+            if (limiter != null) {
+                limiter.cancel();
+            }
+            throw new SonarQubeException(String.format(
+                    "SonarQube instance is unavailable after repeated failures, request not sent: %s", url));
         }
 
-        // Set proxy settings.
-        if(!proxyHost.isEmpty() && !avoidProxy(nonProxyHosts, baseUrl)) {
-            int proxyUsedPort;
+        // Flight recording event of the request, up to the end of the reading of its response.
+        final SonarQubeRequestEvent event = new SonarQubeRequestEvent();
+        event.begin();
+        // Whether the outcome of the request was given to the circuit breaker.
+        boolean resolved = false;
+        try {
+            // Execute the request, a failure while reading the body is not retried as it may be partly handled.
+            final Response response;
             try {
-                proxyUsedPort = Integer.valueOf(proxyPort);
-            } catch (NumberFormatException wrongPort) {
-                proxyUsedPort = 80;
+                Profiler.getInstance().recordHttpCall();
+                response = transport.get(url, headers);
+            } catch (IOException e) {
+                resolved = true;
+                recordFailure(breaker);
+                if (retryable) {
+                    throw new RetryException(e.getMessage(), -1);
+                }
+                throw new SonarQubeException("Impossible to reach SonarQube instance.", e);
             }
 
-            final Proxy proxy = new Proxy(Proxy.Type.HTTP, new InetSocketAddress(proxyHost, proxyUsedPort));
+            try (Response closed = response) {
+                latency = System.nanoTime() - start;
+                final int code = response.code();
+                event.setStatus(code);
+                overloaded = code == TOO_MANY_REQUESTS || code == SERVICE_UNAVAILABLE;
+                resolved = true;
+                if (code == BAD_GATEWAY || code == SERVICE_UNAVAILABLE || code == GATEWAY_TIMEOUT) {
+                    recordFailure(breaker);
+                } else {
+                    breaker.success();
+                }
+                if (retryable && (code == TOO_MANY_REQUESTS || code == BAD_GATEWAY
+                        || code == SERVICE_UNAVAILABLE || code == GATEWAY_TIMEOUT)) {
+                    throw new RetryException("code " + code, retryAfter(response));
+                }
+                final ResponseBody body = response.body();
 
-            builder.proxy(proxy);
+                // Throws exception with advice to cnesreport user
+                switch (code) {
+                    case 401:
+                        throw new BadSonarQubeRequestException("Unauthorized error sent by SonarQube server (code 401), please provide a valid authentication token to cnesreport.");
+                    case 403:
+                        throw new BadSonarQubeRequestException("Insufficient privileges error sent by SonarQube server (code 403), please check your permissions in SonarQube configuration.");
+                    case 404:
+                        final String content = body != null ? body.string() : StringManager.EMPTY;
+                        throw new BadSonarQubeRequestException(String.format("Not found error sent by SonarQube server (code 404, URL %s, Error %s), please check cnesreport compatibility with your SonarQube server version.", response.request().url(), content));
+                    default:
+                        break;
+                }
 
-            if(!proxyUser.isEmpty()) {
-                builder.proxyCredentials(proxyUser, proxyPass);
+                return reader.read(response, body != null ? charStream(body, event) : new StringReader(StringManager.EMPTY));
+            } catch (IOException e) {
+                throw new SonarQubeException("Impossible to reach SonarQube instance.", e);
+            }
+        } finally {
+            if (!resolved) {
+                // e.g. a runtime exception of the transport: the server did not answer nor fail
+                breaker.release();
+            }
+            if (limiter != null) {
+                limiter.release(start, endpoint(url), latency, overloaded);
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.setUrlTemplate(template(url));
+                event.setLatency(latency);
+                event.setAttempt(attempt);
+                event.commit();
             }
         }
+    }
 
-        // Execute the request.
-        final HttpConnector httpConnector = builder.build();
-        WsResponse response;
+    /**
+     * Give the characters of a response body, the bytes received are counted while the generation is profiled
+     * or the request is recorded by a flight recording.
+     * @param body The response body.
+     * @param event The event of the request.
+     * @return The reader of the body.
+     */
+    private static Reader charStream(final ResponseBody body, final SonarQubeRequestEvent event) {
+        final Profiler profiler = Profiler.getInstance();
+        if (!profiler.isMeasured() && !event.isEnabled()) {
+            return body.charStream();
+        }
+        InputStream input = profiler.count(body.byteStream());
+        if (event.isEnabled()) {
+            input = new CountingInputStream(input, event::addBytes);
+        }
+        final MediaType type = body.contentType();
+        return new InputStreamReader(input, type != null ? type.charset(StandardCharsets.UTF_8) : StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Record a failure of a server and count the trips of its circuit breaker
+     * @param breaker circuit breaker of the server
+     */
+    private void recordFailure(final CircuitBreaker breaker) {
+        if (breaker.failure()) {
+            trips.incrementAndGet();
+            LOGGER.warning("SonarQube instance seems to be down, requests will fail fast for a while.");
+        }
+    }
+
+    /**
+     * Give the delay before a retry: it grows exponentially with the attempts,
+     * and half of it is random so that concurrent fetches do not retry all at once
+     * @param attempt number of the failed attempt, from 0
+     * @return the delay in milliseconds
+     */
+    private static long backoff(final int attempt) {
+        final long initial = Long.parseLong(StringManager.getSetting(RETRY_INITIAL_DELAY));
+        final long max = Long.parseLong(StringManager.getSetting(RETRY_MAX_DELAY));
+        final long delay = Math.min(max, initial << Math.min(attempt, 30));
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    /**
+     * Give the delay asked by the server in the Retry-After header of a response
+     * @param response the response
+     * @return the delay in milliseconds bounded by the maximum delay, negative if the server gave none
+     */
+    private static long retryAfter(final Response response) {
+        final String header = response.header("Retry-After");
+        if (header == null) {
+            return -1;
+        }
+        long delay;
         try {
-            response = httpConnector.call(new GetRequest(path));
-        } catch (Exception e) {
-            throw new SonarQubeException("Impossible to reach SonarQube instance.", e);
+            delay = TimeUnit.SECONDS.toMillis(Long.parseLong(header.trim()));
+        } catch (NumberFormatException notSeconds) {
+            try {
+                delay = ZonedDateTime.parse(header.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant()
+                        .toEpochMilli() - System.currentTimeMillis();
+            } catch (DateTimeParseException notDate) {
+                return -1;
+            }
         }
+        return Math.max(0, Math.min(delay, Long.parseLong(StringManager.getSetting(RETRY_MAX_DELAY))));
+    }
 
-        // Throws exception with advice to cnesreport user
-        switch (response.code()) {
-            case 401:
-                throw new BadSonarQubeRequestException("Unauthorized error sent by SonarQube server (code 401), please provide a valid authentication token to cnesreport.");
-            case 403:
-                throw new BadSonarQubeRequestException("Insufficient privileges error sent by SonarQube server (code 403), please check your permissions in SonarQube configuration.");
-            case 404:
-                throw new BadSonarQubeRequestException(String.format("Not found error sent by SonarQube server (code 404, URL %s, Error %s), please check cnesreport compatibility with your SonarQube server version.",response.requestUrl(), response.content()));
-            default:
-                break;
+    /**
+     * Wait before a retry
+     * @param delay delay in milliseconds
+     * @throws SonarQubeException When the thread is interrupted while waiting.
+     */
+    private static void sleep(final long delay) throws SonarQubeException {
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SonarQubeException("Interrupted while waiting to request SonarQube.", e);
         }
+    }
 
-        return response.content();
+    /**
+     * Give the endpoint of an url, without its parameters
+     * @param url url of the request
+     * @return the path of the url
+     */
+    private static String endpoint(final String url) {
+        final HttpUrl httpUrl = HttpUrl.parse(url);
+        return httpUrl != null ? httpUrl.encodedPath() : url;
     }
-    
+
+    /**
+     * Give the template of a url, i.e. its path followed by the names of its parameters without their values
+     * @param url url of a request
+     * @return the template of the url
+     */
+    private static String template(final String url) {
+        final HttpUrl httpUrl = HttpUrl.parse(url);
+        if (httpUrl == null || httpUrl.querySize() == 0) {
+            return endpoint(url);
+        }
+        return httpUrl.encodedPath() + "?" + String.join("&", new TreeSet<>(httpUrl.queryParameterNames()));
+    }
+
+    /**
+     * Wait until a request may start on a server
+     * @param limiter limiter of the server, null if requests are not limited
+     * @return start time of the request
+     * @throws SonarQubeException When the thread is interrupted while waiting.
+     */
+    private static long acquire(final AdaptiveLimiter limiter) throws SonarQubeException {
+        if (limiter == null) {
+            return System.nanoTime();
+        }
+        try {
+            return limiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SonarQubeException("Interrupted while waiting to request SonarQube.", e);
+        }
+    }
+
+    /**
+     * Transient failure of an attempt, which has to be retried
+     */
+    private static final class RetryException extends Exception {
+        /** Serial version UID. */
+        private static final long serialVersionUID = 1L;
+        /** Delay in milliseconds asked by the server, negative if it gave none. */
+        private final long retryAfter;
+
+        /**
+         * Constructor
+         * @param message cause of the failure
+         * @param pRetryAfter delay in milliseconds asked by the server, negative if it gave none
+         */
+        private RetryException(final String message, final long pRetryAfter) {
+            super(message);
+            this.retryAfter = pRetryAfter;
+        }
+    }
+
+    /**
+     * Read a whole response body
+     * @param body stream of the body
+     * @return the body as string
+     * @throws IOException When the stream cannot be read.
+     */
+    private static String readAll(final Reader body) throws IOException {
+        final StringBuilder content = new StringBuilder();
+        final char[] buffer = new char[8192];
+        int read;
+        while ((read = body.read(buffer)) != -1) {
+            content.append(buffer, 0, read);
+        }
+        return content.toString();
+    }
+
+    /**
+     * Give the limiter of the requests in flight on the server of an url,
+     * it is created at first use with the settings set at this time.
+     * @param url url of the request
+     * @return the limiter, null if requests are not limited
+     * @throws SonarQubeException When the url cannot be parsed.
+     */
+    AdaptiveLimiter getLimiter(final String url) throws SonarQubeException {
+        final int maxLimit = Integer.parseInt(StringManager.getSetting(MAX_IN_FLIGHT_PER_SERVER));
+        if (maxLimit <= 0) {
+            return null;
+        }
+        return limiters.computeIfAbsent(server(url), key -> {
+            // A fixed limit is an adaptive one which cannot move
+            if (!Boolean.parseBoolean(StringManager.getSetting(LIMITER_ADAPTIVE))) {
+                return new AdaptiveLimiter(maxLimit, maxLimit, maxLimit, 1, 1);
+            }
+            return new AdaptiveLimiter(
+                    Integer.parseInt(StringManager.getSetting(LIMITER_INITIAL_LIMIT)),
+                    Integer.parseInt(StringManager.getSetting(LIMITER_MIN_LIMIT)), maxLimit,
+                    Double.parseDouble(StringManager.getSetting(LIMITER_LATENCY_TOLERANCE)),
+                    Double.parseDouble(StringManager.getSetting(LIMITER_BACKOFF_RATIO)));
+        });
+    }
+
+    /**
+     * Give the circuit breaker of the server of an url,
+     * it is created at first use with the settings set at this time.
+     * @param url url of the request
+     * @return the circuit breaker
+     * @throws SonarQubeException When the url cannot be parsed.
+     */
+    CircuitBreaker getBreaker(final String url) throws SonarQubeException {
+        return breakers.computeIfAbsent(server(url), key -> new CircuitBreaker(
+                Integer.parseInt(StringManager.getSetting(CIRCUIT_FAILURE_THRESHOLD)),
+                TimeUnit.SECONDS.toMillis(Long.parseLong(StringManager.getSetting(CIRCUIT_OPEN_DURATION)))));
+    }
+
+    /**
+     * Give the response cache set in the settings, it is opened at first use
+     * @return the cache, null if it is disabled or cannot be opened
+     */
+    public ResponseCache getCache() {
+        if (!Boolean.parseBoolean(StringManager.getSetting(ResponseCache.ENABLED))) {
+            return null;
+        }
+        String directory = StringManager.getSetting(ResponseCache.DIRECTORY);
+        if (directory.isEmpty()) {
+            directory = Paths.get(System.getProperty("java.io.tmpdir"), "cnesreport-cache").toString();
+        }
+        final long maxSize = Long.parseLong(StringManager.getSetting(ResponseCache.MAX_SIZE)) * 1024 * 1024;
+        // a directory which cannot be opened is kept as empty, so that it is not tried again for each request
+        return caches.computeIfAbsent(directory, key -> {
+            try {
+                return Optional.of(new ResponseCache(Paths.get(key), maxSize));
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Response cache cannot be opened, SonarQube responses are not cached.", e);
+                return Optional.empty();
+            }
+        }).orElse(null);
+    }
+
+    /**
+     * Give the traffic archive recorded or replayed as set in the settings, it is opened at first use
+     * @param property property giving the path of the archive, {@link TrafficArchive#RECORD} or
+     *                 {@link TrafficArchive#REPLAY}
+     * @return the archive, null if none is set
+     * @throws SonarQubeException When the archive cannot be opened.
+     */
+    private TrafficArchive getArchive(final String property) throws SonarQubeException {
+        final String path = StringManager.getSetting(property);
+        if (path.isEmpty()) {
+            return null;
+        }
+        synchronized (archives) {
+            TrafficArchive archive = archives.get(property);
+            if (archive == null) {
+                try {
+                    archive = TrafficArchive.REPLAY.equals(property) ? TrafficArchive.replay(Paths.get(path))
+                            : TrafficArchive.record(Paths.get(path));
+                } catch (IOException e) {
+                    throw new SonarQubeException(String.format("Traffic archive '%s' cannot be opened.", path), e);
+                }
+                archives.put(property, archive);
+            }
+            return archive;
+        }
+    }
+
+    /**
+     * Write the recorded traffic archive and release the replayed one, if any
+     */
+    public void closeArchives() {
+        synchronized (archives) {
+            for (TrafficArchive archive : archives.values()) {
+                try {
+                    archive.close();
+                } catch (IOException e) {
+                    LOGGER.log(Level.WARNING, "Traffic archive cannot be written.", e);
+                }
+            }
+            archives.clear();
+        }
+    }
+
+    /**
+     * Give the server of an url, whatever the identity
+     * @param url url of the request
+     * @return scheme, host and port of the url
+     * @throws SonarQubeException When the url cannot be parsed.
+     */
+    private static String server(final String url) throws SonarQubeException {
+        final HttpUrl httpUrl = HttpUrl.parse(url);
+        if (httpUrl == null) {
+            throw new SonarQubeException(String.format("Malformed SonarQube URL: '%s'", url));
+        }
+        return String.join("|", httpUrl.scheme(), httpUrl.host(), String.valueOf(httpUrl.port()));
+    }
+
+    /**
+     * Current limits of requests in flight, to be exported as metrics
+     * @return the limit of each server, indexed by scheme, host and port
+     */
+    public Map<String, Integer> getConcurrencyLimits() {
+        final Map<String, Integer> limits = new TreeMap<>();
+        limiters.forEach((server, limiter) -> limits.put(server, limiter.getLimit()));
+        return limits;
+    }
+
+    /**
+     * Give the transport to use to reach a server with a given identity,
+     * it is created at first use and then shared by all the providers.
+     * @param url url of the request
+     * @param token token to authenticate to SonarQube
+     * @return the transport
+     * @throws SonarQubeException When the url cannot be parsed.
+     */
+    HttpTransport getTransport(final String url, final String token) throws SonarQubeException {
+        // Initialize connexion information.
+        final String baseUrl = extractBaseUrl(url);
+        final HttpUrl httpUrl = HttpUrl.parse(baseUrl);
+        if (httpUrl == null) {
+            throw new SonarQubeException(String.format("Malformed SonarQube URL: '%s'", url));
+        }
+        final String proxyHost = System.getProperty(STR_PROXY_HOST, StringManager.EMPTY);
+        final String proxyPort = System.getProperty(STR_PROXY_PORT, StringManager.EMPTY);
+        final String proxyUser = System.getProperty(STR_PROXY_USER, StringManager.EMPTY);
+        final String proxyPass = System.getProperty(STR_PROXY_PASS, StringManager.EMPTY);
+        final String nonProxyHosts = System.getProperty(STR_NON_PROXY_HOSTS, StringManager.EMPTY);
+        final boolean useProxy = !proxyHost.isEmpty() && !avoidProxy(nonProxyHosts, baseUrl);
+
+        // One transport per server, identity and proxy configuration.
+        final String transportKey = String.join("|", httpUrl.scheme(), httpUrl.host(),
+                String.valueOf(httpUrl.port()), token,
+                useProxy ? proxyHost : StringManager.EMPTY, useProxy ? proxyPort : StringManager.EMPTY,
+                useProxy ? proxyUser : StringManager.EMPTY);
+
+        return transports.computeIfAbsent(transportKey, key -> {
+            // Set SonarQube authentication token.
+            final String credentials = StringManager.getProperty(StringManager.SONAR_TOKEN).equals(token) ? null : token;
+
+            // Set proxy settings.
+            Proxy proxy = null;
+            if (useProxy) {
+                int proxyUsedPort;
+                try {
+                    proxyUsedPort = Integer.valueOf(proxyPort);
+                } catch (NumberFormatException wrongPort) {
+                    proxyUsedPort = 80;
+                }
+                proxy = new Proxy(Proxy.Type.HTTP, new InetSocketAddress(proxyHost, proxyUsedPort));
+            }
+
+            return new HttpTransport(credentials, proxy, proxyUser.isEmpty() ? null : proxyUser, proxyPass);
+        });
+    }
+
+    /**
+     * Number of retried requests since start, to be exported as metrics
+     * @return the number of retries
+     */
+    public long getRetryCount() {
+        return retries.get();
+    }
+
+    /**
+     * Number of times a circuit breaker opened since start, to be exported as metrics
+     * @return the number of trips
+     */
+    public long getCircuitTripCount() {
+        return trips.get();
+    }
+
+    /**
+     * Close the idle connections of all the transports and forget them.
+     */
+    public void close() {
+        closeArchives();
+        transports.values().forEach(HttpTransport::close);
+        transports.clear();
+        limiters.clear();
+        breakers.clear();
+    }
+
     /**
      * Validate if should avoid proxy
      * @param nonProxyHosts non proxy hosts according to http.nonProxyHost property, example: localhost|127.*|[::1]
@@ -0,0 +1,111 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.providers;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
+import fr.cnes.sonar.report.exceptions.SonarQubeException;
+
+/**
+ * Responses of the requests sent during the generation of a report, shared by all its providers.
+ * Concurrent identical requests share a single call to SonarQube, and the responses are
+ * kept until the end of the report, so that every provider sees the same data.
+ * Failed requests are not kept: they are sent again by the next caller.
+ * The session also knows the date of the last analysis of the reported project once it is read,
+ * so that responses cached on disk since this analysis can be used without calling SonarQube.
+ */
+public final class RequestSession {
+
+    /** Responses, received or in flight, indexed by url. */
+    private final Map<String, CompletableFuture<String>> responses = new ConcurrentHashMap<>();
+
+    /** Number of requests sent to SonarQube. */
+    private final AtomicLong calls = new AtomicLong();
+
+    /** Number of requests answered by a response of the session. */
+    private final AtomicLong hits = new AtomicLong();
+
+    /** Date of the last analysis of the reported project, null until it is read. */
+    private volatile String analysisDate;
+
+    /**
+     * Give the response to a request, it is fetched only if no other caller fetched or is fetching it.
+     * @param url Url of the request.
+     * @param fetch Call to SonarQube giving the response.
+     * @return The response.
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    public String get(final String url, final ConcurrentFetcher.Fetch<String> fetch)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        final CompletableFuture<String> created = new CompletableFuture<>();
+        final CompletableFuture<String> existing = responses.putIfAbsent(url, created);
+        if (existing != null) {
+            hits.incrementAndGet();
+            return ConcurrentFetcher.await(existing);
+        }
+
+        calls.incrementAndGet();
+        try {
+            final String response = fetch.fetch();
+            created.complete(response);
+            return response;
+        } catch (BadSonarQubeRequestException | SonarQubeException | RuntimeException | Error e) {
+            // callers waiting for this response get the same error, next ones try again
+            responses.remove(url, created);
+            created.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Date of the last analysis of the reported project.
+     * @return The date as given by SonarQube, null if it is not read yet.
+     */
+    public String getAnalysisDate() {
+        return analysisDate;
+    }
+
+    /**
+     * Setter of analysisDate.
+     * @param pAnalysisDate Date of the last analysis of the reported project.
+     */
+    public void setAnalysisDate(final String pAnalysisDate) {
+        this.analysisDate = pAnalysisDate;
+    }
+
+    /**
+     * Number of requests sent to SonarQube through this session.
+     * @return The number of requests.
+     */
+    public long getCallCount() {
+        return calls.get();
+    }
+
+    /**
+     * Number of requests answered without a new call to SonarQube.
+     * @return The number of requests.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+}
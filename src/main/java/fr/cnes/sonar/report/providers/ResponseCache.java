@@ -0,0 +1,474 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.providers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
+
+/**
+ * Cache of SonarQube responses on disk, keyed by url and identity. Bodies are kept gzipped
+ * with the validators given by the server (ETag, Last-Modified) and the date of the analysis
+ * of the reported project when they were received. The least recently used responses are
+ * evicted when the cache exceeds its size.
+ */
+public final class ResponseCache {
+
+    /** Property enabling the cache. */
+    public static final String ENABLED = "http.cache.enabled";
+    /** Property giving the directory of the cache, empty for a directory in the temporary one. */
+    public static final String DIRECTORY = "http.cache.directory";
+    /** Property giving the maximum size of the cache in megabytes. */
+    public static final String MAX_SIZE = "http.cache.maxSize";
+
+    /** Logger for this class. */
+    private static final Logger LOGGER = Logger.getLogger(ResponseCache.class.getName());
+
+    /** Extension of the files holding the bodies. */
+    private static final String BODY = ".json.gz";
+    /** Extension of the files holding the metadata. */
+    private static final String META = ".properties";
+    /** Metadata giving the url of the response. */
+    private static final String URL = "url";
+    /** Metadata giving the ETag of the response. */
+    private static final String ETAG = "etag";
+    /** Metadata giving the Last-Modified date of the response. */
+    private static final String LAST_MODIFIED = "lastModified";
+    /** Metadata giving the date of the analysis when the response was received. */
+    private static final String ANALYSIS_DATE = "analysisDate";
+
+    /** Directory of the cache. */
+    private final Path directory;
+    /** Maximum size of the cache in bytes. */
+    private final long maxSize;
+    /** Current size of the bodies in bytes. */
+    private final AtomicLong size;
+
+    /** Number of responses read from disk without calling the server. */
+    private final AtomicLong hits = new AtomicLong();
+    /** Number of responses read from disk after the server confirmed them. */
+    private final AtomicLong revalidations = new AtomicLong();
+    /** Number of responses downloaded from the server. */
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * A response kept in the cache.
+     */
+    public final class Entry {
+        /** Path of the body, without extension. */
+        private final Path path;
+        /** Metadata of the response. */
+        private final Properties meta;
+
+        /**
+         * Constructor.
+         * @param pPath Path of the body, without extension.
+         * @param pMeta Metadata of the response.
+         */
+        private Entry(final Path pPath, final Properties pMeta) {
+            this.path = pPath;
+            this.meta = pMeta;
+        }
+
+        /**
+         * Date of the analysis when the response was received.
+         * @return The date, null if it was unknown.
+         */
+        public String getAnalysisDate() {
+            return meta.getProperty(ANALYSIS_DATE);
+        }
+
+        /**
+         * Headers asking the server to answer only if the response changed.
+         * @return The conditional headers, empty if the server gave no validator.
+         */
+        public Map<String, String> getValidators() {
+            final Map<String, String> headers = new HashMap<>();
+            if (meta.containsKey(ETAG)) {
+                headers.put("If-None-Match", meta.getProperty(ETAG));
+            }
+            if (meta.containsKey(LAST_MODIFIED)) {
+                headers.put("If-Modified-Since", meta.getProperty(LAST_MODIFIED));
+            }
+            return headers;
+        }
+
+        /**
+         * Read the body of the response and mark it as recently used.
+         * @param reader Reader of the body.
+         * @param <T> Type of the read value.
+         * @return The read value.
+         * @throws IOException When the body cannot be read.
+         * @throws BadSonarQubeRequestException When the body is not the expected one.
+         */
+        public <T> T read(final RequestManager.BodyReader<T> reader) throws IOException, BadSonarQubeRequestException {
+            final Path body = withExtension(path, BODY);
+            final T value;
+            try (Reader content = new InputStreamReader(new GZIPInputStream(Files.newInputStream(body)),
+                    StandardCharsets.UTF_8)) {
+                value = reader.read(content);
+            }
+            Files.setLastModifiedTime(body, FileTime.fromMillis(System.currentTimeMillis()));
+            return value;
+        }
+    }
+
+    /**
+     * Constructor.
+     * @param pDirectory Directory of the cache, created if needed.
+     * @param pMaxSize Maximum size of the cache in bytes.
+     * @throws IOException When the directory cannot be created or read.
+     */
+    public ResponseCache(final Path pDirectory, final long pMaxSize) throws IOException {
+        this.directory = Files.createDirectories(pDirectory);
+        this.maxSize = pMaxSize;
+        try (Stream<Path> bodies = listBodies()) {
+            this.size = new AtomicLong(bodies.mapToLong(ResponseCache::sizeOf).sum());
+        }
+    }
+
+    /**
+     * Look for the response to a request.
+     * @param url Url of the request.
+     * @param token Token of the identity sending the request.
+     * @return The response, null if it is not in the cache.
+     */
+    public Entry lookup(final String url, final String token) {
+        final Path path = directory.resolve(key(url, token));
+        final Path metaFile = withExtension(path, META);
+        if (!Files.exists(metaFile) || !Files.exists(withExtension(path, BODY))) {
+            return null;
+        }
+        final Properties meta = new Properties();
+        try (InputStream input = Files.newInputStream(metaFile)) {
+            meta.load(input);
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Unreadable cache entry is ignored.", e);
+            return null;
+        }
+        // a collision of keys is ignored
+        if (!url.equals(meta.getProperty(URL))) {
+            return null;
+        }
+        // a truncated or corrupted body is dropped before any of its items is handed to a reader
+        final Entry entry = new Entry(path, meta);
+        if (!isIntact(withExtension(path, BODY))) {
+            LOGGER.log(Level.WARNING, "Corrupted cache entry is discarded, the response is requested again.");
+            remove(entry);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Check that a compressed body can be fully read, its checksum included.
+     * @param body The body.
+     * @return True if the body can be read.
+     */
+    private static boolean isIntact(final Path body) {
+        try (InputStream input = new GZIPInputStream(Files.newInputStream(body))) {
+            final byte[] buffer = new byte[8192];
+            while (input.read(buffer) != -1) {
+                // the content is read again by the reader of the body
+            }
+            return true;
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Cache entry cannot be read.", e);
+            return false;
+        }
+    }
+
+    /**
+     * Read a response kept in the cache without calling the server.
+     * @param entry The response.
+     * @param reader Reader of the body.
+     * @param <T> Type of the read value.
+     * @return The read value.
+     * @throws IOException When the body cannot be read.
+     * @throws BadSonarQubeRequestException When the body is not the expected one.
+     */
+    public <T> T hit(final Entry entry, final RequestManager.BodyReader<T> reader)
+            throws IOException, BadSonarQubeRequestException {
+        final T value = entry.read(reader);
+        hits.incrementAndGet();
+        return value;
+    }
+
+    /**
+     * Read a response kept in the cache once the server confirmed it did not change.
+     * @param entry The response.
+     * @param analysisDate Current date of the analysis, null if it is unknown.
+     * @param reader Reader of the body.
+     * @param <T> Type of the read value.
+     * @return The read value.
+     * @throws IOException When the body cannot be read.
+     * @throws BadSonarQubeRequestException When the body is not the expected one.
+     */
+    public <T> T revalidated(final Entry entry, final String analysisDate, final RequestManager.BodyReader<T> reader)
+            throws IOException, BadSonarQubeRequestException {
+        final T value = entry.read(reader);
+        if (analysisDate != null && !analysisDate.equals(entry.getAnalysisDate())) {
+            entry.meta.setProperty(ANALYSIS_DATE, analysisDate);
+            writeMeta(entry.path, entry.meta);
+        }
+        revalidations.incrementAndGet();
+        return value;
+    }
+
+    /**
+     * Read a response received from the server and keep it in the cache meanwhile.
+     * It is kept only if it can be validated later, by the server or by the date of the analysis.
+     * @param url Url of the request.
+     * @param token Token of the identity sending the request.
+     * @param etag ETag given by the server, null if none.
+     * @param lastModified Last-Modified date given by the server, null if none.
+     * @param analysisDate Current date of the analysis, null if it is unknown.
+     * @param body Stream of the body.
+     * @param reader Reader of the body.
+     * @param <T> Type of the read value.
+     * @return The read value.
+     * @throws IOException When the body cannot be read.
+     * @throws BadSonarQubeRequestException When the body is not the expected one.
+     */
+    public <T> T store(final String url, final String token, final String etag, final String lastModified,
+                       final String analysisDate, final Reader body, final RequestManager.BodyReader<T> reader)
+            throws IOException, BadSonarQubeRequestException {
+        misses.incrementAndGet();
+        if (etag == null && lastModified == null && analysisDate == null) {
+            return reader.read(body);
+        }
+
+        final Path path = directory.resolve(key(url, token));
+        final Path temporary = Files.createTempFile(directory, "response", ".tmp");
+        final T value;
+        try {
+            // the body is written while it is read
+            try (Writer copy = new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(temporary)),
+                    StandardCharsets.UTF_8)) {
+                final TeeReader tee = new TeeReader(body, copy);
+                value = reader.read(tee);
+                tee.drain();
+            }
+            final Path bodyFile = withExtension(path, BODY);
+            final long previous = Files.exists(bodyFile) ? sizeOf(bodyFile) : 0;
+            Files.move(temporary, bodyFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            size.addAndGet(sizeOf(bodyFile) - previous);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+
+        final Properties meta = new Properties();
+        meta.setProperty(URL, url);
+        if (etag != null) {
+            meta.setProperty(ETAG, etag);
+        }
+        if (lastModified != null) {
+            meta.setProperty(LAST_MODIFIED, lastModified);
+        }
+        if (analysisDate != null) {
+            meta.setProperty(ANALYSIS_DATE, analysisDate);
+        }
+        writeMeta(path, meta);
+
+        if (size.get() > maxSize) {
+            evict();
+        }
+        return value;
+    }
+
+    /**
+     * Remove a response from the cache, e.g. when it cannot be read anymore.
+     * @param entry The response.
+     */
+    public void remove(final Entry entry) {
+        try {
+            final Path body = withExtension(entry.path, BODY);
+            if (Files.exists(body)) {
+                size.addAndGet(-sizeOf(body));
+            }
+            Files.deleteIfExists(body);
+            Files.deleteIfExists(withExtension(entry.path, META));
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Cache entry cannot be removed.", e);
+        }
+    }
+
+    /**
+     * Remove the least recently used responses until the cache fits in its size.
+     */
+    private synchronized void evict() {
+        if (size.get() <= maxSize) {
+            return;
+        }
+        try (Stream<Path> bodies = listBodies()) {
+            final List<Path> byUse = bodies.sorted(Comparator.comparing(ResponseCache::lastUse))
+                    .collect(Collectors.toList());
+            for (Path body : byUse) {
+                if (size.get() <= maxSize) {
+                    break;
+                }
+                final String name = body.getFileName().toString();
+                final Path path = body.resolveSibling(name.substring(0, name.length() - BODY.length()));
+                remove(new Entry(path, new Properties()));
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Cache cannot be evicted.", e);
+        }
+    }
+
+    /**
+     * List the bodies kept in the cache.
+     * @return The paths of the bodies, the stream has to be closed.
+     * @throws IOException When the directory cannot be read.
+     */
+    private Stream<Path> listBodies() throws IOException {
+        return Files.list(directory).filter(path -> path.getFileName().toString().endsWith(BODY));
+    }
+
+    /**
+     * Write the metadata of a response.
+     * @param path Path of the response, without extension.
+     * @param meta The metadata.
+     * @throws IOException When the metadata cannot be written.
+     */
+    private void writeMeta(final Path path, final Properties meta) throws IOException {
+        final Path temporary = Files.createTempFile(directory, "meta", ".tmp");
+        try {
+            try (OutputStream output = Files.newOutputStream(temporary)) {
+                meta.store(output, null);
+            }
+            Files.move(temporary, withExtension(path, META), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Number of responses read from disk without calling the server.
+     * @return The number of hits.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Number of responses read from disk after the server confirmed them.
+     * @return The number of revalidations.
+     */
+    public long getRevalidationCount() {
+        return revalidations.get();
+    }
+
+    /**
+     * Number of responses downloaded from the server.
+     * @return The number of misses.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Current size of the bodies kept in the cache.
+     * @return The size in bytes.
+     */
+    public long getSize() {
+        return size.get();
+    }
+
+    /**
+     * Name of the files of a response, the token is hashed so that it is not written on disk.
+     * @param url Url of the request.
+     * @param token Token of the identity sending the request.
+     * @return The name, without extension.
+     */
+    static String key(final String url, final String token) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            final byte[] hash = digest.digest((token + '\n' + url).getBytes(StandardCharsets.UTF_8));
+            final StringBuilder key = new StringBuilder();
+            for (byte b : hash) {
+                key.append(String.format("%02x", b));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by this JVM.", e);
+        }
+    }
+
+    /**
+     * Add an extension to a path.
+     * @param path The path.
+     * @param extension The extension.
+     * @return The path with the extension.
+     */
+    private static Path withExtension(final Path path, final String extension) {
+        return path.resolveSibling(path.getFileName().toString() + extension);
+    }
+
+    /**
+     * Size of a file.
+     * @param path The file.
+     * @return Its size in bytes, 0 if it cannot be read.
+     */
+    private static long sizeOf(final Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Time of the last use of a file.
+     * @param path The file.
+     * @return Its last modification time, the oldest one if it cannot be read.
+     */
+    private static FileTime lastUse(final Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
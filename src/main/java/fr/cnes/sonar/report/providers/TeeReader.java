@@ -0,0 +1,84 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.providers;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+
+/**
+ * Reader copying all it reads to a writer, used to keep a response while it is handled.
+ */
+final class TeeReader extends FilterReader {
+    /** Size of the buffer used to copy the end of the stream. */
+    private static final int BUFFER_SIZE = 8192;
+
+    /** The copy. */
+    private final Writer copy;
+
+    /**
+     * Constructor.
+     * @param pIn Stream to read.
+     * @param pCopy The copy.
+     */
+    TeeReader(final Reader pIn, final Writer pCopy) {
+        super(pIn);
+        this.copy = pCopy;
+    }
+
+    @Override
+    public int read() throws IOException {
+        final int c = super.read();
+        if (c != -1) {
+            copy.write(c);
+        }
+        return c;
+    }
+
+    @Override
+    public int read(final char[] buffer, final int offset, final int length) throws IOException {
+        final int read = super.read(buffer, offset, length);
+        if (read > 0) {
+            copy.write(buffer, offset, read);
+        }
+        return read;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public void close() {
+        // the stream is closed by its owner
+    }
+
+    /**
+     * Copy the end of the stream which was not read, so that the copy is complete.
+     * @throws IOException When the stream cannot be read.
+     */
+    void drain() throws IOException {
+        final char[] buffer = new char[BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            copy.write(buffer, 0, read);
+        }
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.providers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
+import fr.cnes.sonar.report.exceptions.SonarQubeException;
+
+/**
+ * Archive of the SonarQube traffic of a run, to replay it later without any network,
+ * e.g. to profile the model build and the exporters on a real data set.
+ * The archive is a zip of the gzipped bodies of the successful responses, and of an index
+ * giving for each one its url, the hash of its identity and the time the server took to answer.
+ * An archive is either recorded or replayed.
+ */
+public final class TrafficArchive implements Closeable {
+
+    /** Property giving the path of the archive to record, empty to not record. */
+    public static final String RECORD = "http.record";
+    /** Property giving the path of the archive to replay, empty to call SonarQube. */
+    public static final String REPLAY = "http.replay";
+    /** Property giving the simulated latency in milliseconds, -1 to replay the recorded ones. */
+    public static final String REPLAY_LATENCY = "http.replay.latency";
+    /** Property giving the simulated bandwidth in kilobytes per second, 0 for no limit. */
+    public static final String REPLAY_BANDWIDTH = "http.replay.bandwidth";
+
+    /** Name of the index in the archive. */
+    private static final String INDEX = "index.json";
+    /** Field of the index giving the identity and the url of a response. */
+    private static final String KEY = "key";
+    /** Field of the index giving the url of a response. */
+    private static final String URL = "url";
+    /** Field of the index giving the entry of the body. */
+    private static final String FILE = "file";
+    /** Field of the index giving the time in milliseconds to the response headers. */
+    private static final String LATENCY = "latency";
+
+    /** Archive being recorded, null when replaying. */
+    private final ZipOutputStream output;
+    /** Index of the recorded responses. */
+    private final JsonArray index;
+    /** Archive being replayed, null when recording. */
+    private final ZipFile input;
+    /** Replayed responses indexed by identity and url. */
+    private final Map<String, JsonObject> responses;
+
+    /**
+     * Constructor.
+     * @param pOutput Archive being recorded, null when replaying.
+     * @param pInput Archive being replayed, null when recording.
+     * @param pResponses Replayed responses indexed by identity and url.
+     */
+    private TrafficArchive(final ZipOutputStream pOutput, final ZipFile pInput,
+                           final Map<String, JsonObject> pResponses) {
+        this.output = pOutput;
+        this.input = pInput;
+        this.index = new JsonArray();
+        this.responses = pResponses;
+    }
+
+    /**
+     * Start recording an archive, it is written when it is closed.
+     * @param path Path of the archive, replaced if it exists.
+     * @return The archive.
+     * @throws IOException When the archive cannot be created.
+     */
+    public static TrafficArchive record(final Path path) throws IOException {
+        return new TrafficArchive(new ZipOutputStream(Files.newOutputStream(path)), null, null);
+    }
+
+    /**
+     * Open an archive to replay.
+     * @param path Path of the archive.
+     * @return The archive.
+     * @throws IOException When the archive cannot be read.
+     */
+    public static TrafficArchive replay(final Path path) throws IOException {
+        final ZipFile zip = new ZipFile(path.toFile());
+        final Map<String, JsonObject> responses = new ConcurrentHashMap<>();
+        final ZipEntry entry = zip.getEntry(INDEX);
+        if (entry == null) {
+            zip.close();
+            throw new IOException(String.format("'%s' is not a SonarQube traffic archive.", path));
+        }
+        try (Reader reader = new InputStreamReader(zip.getInputStream(entry), StandardCharsets.UTF_8)) {
+            for (JsonElement response : new Gson().fromJson(reader, JsonArray.class)) {
+                responses.putIfAbsent(response.getAsJsonObject().get(KEY).getAsString(), response.getAsJsonObject());
+            }
+        }
+        return new TrafficArchive(null, zip, responses);
+    }
+
+    /**
+     * Read a response received from the server and add it to the archive meanwhile.
+     * @param url Url of the request.
+     * @param token Token of the identity sending the request, only its hash is written.
+     * @param latency Time in milliseconds the server took to answer.
+     * @param body Stream of the body.
+     * @param reader Reader of the body.
+     * @param <T> Type of the read value.
+     * @return The read value.
+     * @throws IOException When the body cannot be read or written.
+     * @throws BadSonarQubeRequestException When the body is not the expected one.
+     */
+    public <T> T record(final String url, final String token, final long latency, final Reader body,
+                        final RequestManager.BodyReader<T> reader) throws IOException, BadSonarQubeRequestException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final T value;
+        try (Writer copy = new OutputStreamWriter(new GZIPOutputStream(bytes), StandardCharsets.UTF_8)) {
+            final TeeReader tee = new TeeReader(body, copy);
+            value = reader.read(tee);
+            tee.drain();
+        }
+
+        final byte[] gzipped = bytes.toByteArray();
+        synchronized (this) {
+            // bodies are already compressed, they are stored as they are
+            final ZipEntry entry = new ZipEntry(String.format("bodies/%06d.json.gz", index.size()));
+            final CRC32 crc = new CRC32();
+            crc.update(gzipped);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(gzipped.length);
+            entry.setCompressedSize(gzipped.length);
+            entry.setCrc(crc.getValue());
+            output.putNextEntry(entry);
+            output.write(gzipped);
+            output.closeEntry();
+
+            final JsonObject response = new JsonObject();
+            response.addProperty(KEY, ResponseCache.key(url, token));
+            response.addProperty(URL, url);
+            response.addProperty(FILE, entry.getName());
+            response.addProperty(LATENCY, latency);
+            index.add(response);
+        }
+        return value;
+    }
+
+    /**
+     * Read a response from the archive, as slowly as set in the settings.
+     * @param url Url of the request.
+     * @param token Token of the identity sending the request.
+     * @param reader Reader of the body.
+     * @param latency Simulated latency in milliseconds, negative to replay the recorded one.
+     * @param bandwidth Simulated bandwidth in kilobytes per second, 0 or less for no limit.
+     * @param <T> Type of the read value.
+     * @return The read value.
+     * @throws SonarQubeException When the response was not recorded or cannot be read.
+     * @throws BadSonarQubeRequestException When the body is not the expected one.
+     */
+    public <T> T replay(final String url, final String token, final RequestManager.BodyReader<T> reader,
+                        final long latency, final long bandwidth)
+            throws SonarQubeException, BadSonarQubeRequestException {
+        final JsonObject response = responses.get(ResponseCache.key(url, token));
+        if (response == null) {
+            throw new SonarQubeException(String.format("Response not recorded in the replayed archive: %s", url));
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(latency < 0 ? response.get(LATENCY).getAsLong() : latency);
+            final ZipEntry entry = input.getEntry(response.get(FILE).getAsString());
+            try (Reader body = new InputStreamReader(new GZIPInputStream(input.getInputStream(entry)),
+                    StandardCharsets.UTF_8)) {
+                return reader.read(bandwidth > 0 ? new ThrottledReader(body, bandwidth * 1024) : body);
+            }
+        } catch (IOException e) {
+            throw new SonarQubeException(String.format("Replayed archive cannot be read: %s", url), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SonarQubeException("Interrupted while replaying SonarQube traffic.", e);
+        }
+    }
+
+    /**
+     * Number of responses in the archive.
+     * @return The number of recorded or replayable responses.
+     */
+    public synchronized int size() {
+        return output != null ? index.size() : responses.size();
+    }
+
+    /**
+     * Write the index of a recorded archive, or release a replayed one.
+     * @throws IOException When the archive cannot be written.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (output != null) {
+            output.putNextEntry(new ZipEntry(INDEX));
+            output.write(new Gson().toJson(index).getBytes(StandardCharsets.UTF_8));
+            output.closeEntry();
+            output.close();
+        } else {
+            input.close();
+        }
+    }
+
+    /**
+     * Reader delivering its characters no faster than a given bandwidth.
+     */
+    private static final class ThrottledReader extends FilterReader {
+        /** Bandwidth in characters per second. */
+        private final long bandwidth;
+        /** Time at which the reading started. */
+        private final long start = System.nanoTime();
+        /** Number of characters read. */
+        private long count = 0;
+
+        /**
+         * Constructor.
+         * @param pIn Stream to read.
+         * @param pBandwidth Bandwidth in characters per second.
+         */
+        private ThrottledReader(final Reader pIn, final long pBandwidth) {
+            super(pIn);
+            this.bandwidth = pBandwidth;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int c = super.read();
+            if (c != -1) {
+                throttle(1);
+            }
+            return c;
+        }
+
+        @Override
+        public int read(final char[] buffer, final int offset, final int length) throws IOException {
+            final int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                throttle(read);
+            }
+            return read;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        /**
+         * Wait until the characters read so far fit in the bandwidth.
+         * @param read Number of characters just read.
+         * @throws IOException When the thread is interrupted.
+         */
+        private void throttle(final int read) throws IOException {
+            count += read;
+            final long expected = TimeUnit.SECONDS.toNanos(count) / bandwidth;
+            final long elapsed = System.nanoTime() - start;
+            if (expected > elapsed) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(expected - elapsed);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while replaying SonarQube traffic.", e);
+                }
+            }
+        }
+    }
+}
@@ -17,15 +17,21 @@
 
 package fr.cnes.sonar.report.providers.component;
 
+import fr.cnes.sonar.report.events.PaginationEvent;
 import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
 import fr.cnes.sonar.report.exceptions.SonarQubeException;
 import fr.cnes.sonar.report.model.Component;
 import fr.cnes.sonar.report.model.Components;
 import fr.cnes.sonar.report.providers.AbstractDataProvider;
+import fr.cnes.sonar.report.providers.JsonStreamReader;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 
 import org.sonarqube.ws.client.WsClient;
@@ -76,31 +82,45 @@ public abstract class AbstractComponentProvider extends AbstractDataProvider {
     protected Components getComponentsAbstract() throws BadSonarQubeRequestException, SonarQubeException {
         int page = 1;
         ArrayList<Map<String,String>> componentsList = new ArrayList<>();
+        final PaginationEvent event = PaginationEvent.start(COMPONENTS);
 
         // For each page, we get the components
         boolean goOn = true;
         while(goOn){
-            // Send request to server
-            final JsonObject jo = getComponentsAsJsonObject(page);
-
-            // Get components from response
-            final Component[] tmp = getGson().fromJson(jo.get(COMPONENTS), Component[].class);
-            for (Component c:tmp) {
-                Map<String,String> map = c.toMap();
-                componentsList.add(map);
+            // Send request to server and get components while the response is read
+            final List<Component> pageComponents = new ArrayList<>();
+            final int number = readComponentsPage(page, pageComponents);
+            for (Component component : pageComponents) {
+                componentsList.add(component.toMap());
             }
 
             // Check if we reach the end
-            final int number = jo.getAsJsonObject(PAGING).get(TOTAL).getAsInt();
             goOn =  page * Integer.valueOf(getRequest(MAX_PER_PAGE_SONARQUBE)) < number;
             page++;
         }
+        event.complete(page - 1, componentsList.size());
 
         Components components = new Components();
         components.setComponentsList(componentsList);
         return components;
     }
 
+    /**
+     * Read a page of a get component tree request. By default the response is read
+     * as json and its components are deserialized while it is read.
+     * @param page The current page.
+     * @param components The list receiving the components of the page.
+     * @return The total number of components.
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    protected int readComponentsPage(final int page, final List<Component> components)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        final JsonObject jo = getComponentsAsJsonObject(page, Collections.singletonMap(COMPONENTS,
+                element -> components.add(getGson().fromJson(element, Component.class))));
+        return jo.getAsJsonObject(PAGING).get(TOTAL).getAsInt();
+    }
+
     /**
      * Get a JsonObject from the response of a get component tree request.
      * @param page The current page.
@@ -110,4 +130,18 @@ public abstract class AbstractComponentProvider extends AbstractDataProvider {
      */
     protected abstract JsonObject getComponentsAsJsonObject(final int page)
             throws BadSonarQubeRequestException, SonarQubeException;
+
+    /**
+     * Read a get component tree request as a stream. By default the response
+     * is fully read then its arrays are handed to their handler.
+     * @param page The current page.
+     * @param arrays Handlers of the elements of the arrays, indexed by field name.
+     * @return The other fields of the response as a JsonObject.
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    protected JsonObject getComponentsAsJsonObject(final int page, final Map<String, Consumer<JsonElement>> arrays)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        return JsonStreamReader.dispatch(getComponentsAsJsonObject(page), arrays);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,87 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.providers.component;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.gson.JsonObject;
+
+import org.sonarqube.ws.Measures;
+import org.sonarqube.ws.client.WsClient;
+import org.sonarqube.ws.client.measures.ComponentTreeRequest;
+
+import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
+import fr.cnes.sonar.report.exceptions.SonarQubeException;
+import fr.cnes.sonar.report.model.Component;
+import fr.cnes.sonar.report.model.Components;
+import fr.cnes.sonar.report.providers.ProtobufMapper;
+
+/**
+ * Provides component items in plugin mode
+ */
+public class ComponentProviderPlugin extends AbstractComponentProvider implements ComponentProvider {
+
+    /**
+     * Constructor.
+     *
+     * @param wsClient The web client.
+     * @param project  The id of the component to report.
+     * @param branch   The branch of the component to report.
+     */
+    public ComponentProviderPlugin(final WsClient wsClient, final String project, final String branch) {
+        super(wsClient, project, branch);
+    }
+
+    @Override
+    public Components getComponents() throws BadSonarQubeRequestException, SonarQubeException {
+        return getComponentsAbstract();
+    }
+
+    @Override
+    protected JsonObject getComponentsAsJsonObject(final int page)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        return responseToJsonObject(getComponentTree(page));
+    }
+
+    @Override
+    protected int readComponentsPage(final int page, final List<Component> components)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        final Measures.ComponentTreeWsResponse response = getComponentTree(page);
+        for (Measures.Component component : response.getComponentsList()) {
+            components.add(ProtobufMapper.toComponent(component));
+        }
+        return (int) response.getPaging().getTotal();
+    }
+
+    /**
+     * Get a page of the components of the project with their measures.
+     * @param page The current page.
+     * @return The page of components.
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     */
+    private Measures.ComponentTreeWsResponse getComponentTree(final int page) throws BadSonarQubeRequestException {
+        final ComponentTreeRequest request = new ComponentTreeRequest()
+                .setComponent(getProjectKey())
+                .setMetricKeys(Arrays.asList(getMetrics(SHEETS_METRICS).split(",")))
+                .setP(String.valueOf(page))
+                .setPs(getRequest(MAX_PER_PAGE_SONARQUBE))
+                .setBranch(getBranchParameter());
+        return call(() -> this.wsClient.measures().componentTree(request));
+    }
+}
@@ -17,6 +17,10 @@
 
 package fr.cnes.sonar.report.providers.component;
 
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 
 import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
@@ -54,8 +58,23 @@ public class ComponentProviderStandalone extends AbstractComponentProvider imple
     @Override
     protected JsonObject getComponentsAsJsonObject(final int page)
             throws BadSonarQubeRequestException, SonarQubeException {
-        return request(String.format(getRequest(GET_COMPONENTS_REQUEST), getServer(), getProjectKey(),
+        return request(getComponentsRequest(page));
+    }
+
+    @Override
+    protected JsonObject getComponentsAsJsonObject(final int page, final Map<String, Consumer<JsonElement>> arrays)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        return request(getComponentsRequest(page), arrays);
+    }
+
+    /**
+     * Prepare the request to get a page of components.
+     * @param page The current page.
+     * @return The url of the request.
+     */
+    private String getComponentsRequest(final int page) {
+        return String.format(getRequest(GET_COMPONENTS_REQUEST), getServer(), getProjectKey(),
                 getMetrics(SHEETS_METRICS), page,
-                getRequest(MAX_PER_PAGE_SONARQUBE), getBranch()));
+                getRequest(MAX_PER_PAGE_SONARQUBE), getBranch());
     }
 }
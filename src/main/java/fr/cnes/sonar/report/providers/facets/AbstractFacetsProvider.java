@@ -19,6 +19,7 @@ package fr.cnes.sonar.report.providers.facets;
 
 import fr.cnes.sonar.report.providers.AbstractDataProvider;
 import fr.cnes.sonar.report.utils.DateConverter;
+import fr.cnes.sonar.report.events.PaginationEvent;
 import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
 import fr.cnes.sonar.report.exceptions.SonarQubeException;
 import fr.cnes.sonar.report.model.Facet;
@@ -130,6 +131,7 @@ public abstract class AbstractFacetsProvider extends AbstractDataProvider {
         final int maxPerPage = Integer.parseInt(getRequest(MAX_PER_PAGE_SONARQUBE));
 
         List<TimeFacet> result = new ArrayList<>();
+        final PaginationEvent event = PaginationEvent.start(MEASURES);
 
         while(goOn) {
             JsonObject jo = getTimeFacetsAsJsonObject(page, maxPerPage);
@@ -150,6 +152,7 @@ public abstract class AbstractFacetsProvider extends AbstractDataProvider {
             goOn = page*maxPerPage < number;
             page++;
         }
+        event.complete(page - 1, result.size());
 
         TimeFacets timeFacets = new TimeFacets();
         timeFacets.setTimeFacets(result);
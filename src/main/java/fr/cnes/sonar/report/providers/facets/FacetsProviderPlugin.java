@@ -0,0 +1,89 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.providers.facets;
+
+import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
+import fr.cnes.sonar.report.exceptions.SonarQubeException;
+import fr.cnes.sonar.report.model.Facets;
+import fr.cnes.sonar.report.model.TimeFacets;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import com.google.gson.JsonObject;
+
+import org.sonarqube.ws.client.WsClient;
+import org.sonarqube.ws.client.issues.SearchRequest;
+import org.sonarqube.ws.client.measures.SearchHistoryRequest;
+
+/**
+ * Provides issues facets in plugin mode
+ */
+public class FacetsProviderPlugin extends AbstractFacetsProvider implements FacetsProvider {
+
+    /**
+     * Parameter "additionalFields" of the request
+     */
+    private static final String PROJECT_ADDITIONAL_FIELDS = "PROJECT_ADDITIONAL_FIELDS";
+
+    /**
+     * Complete constructor.
+     *
+     * @param wsClient The web client.
+     * @param project  The id of the project to report.
+     * @param branch   The branch of the project to report.
+     */
+    public FacetsProviderPlugin(final WsClient wsClient, final String project, final String branch) {
+        super(wsClient, project, branch);
+    }
+
+    @Override
+    public Facets getFacets() throws BadSonarQubeRequestException, SonarQubeException {
+        return getFacetsAbstract();
+    }
+
+    @Override
+    public TimeFacets getTimeFacets() throws BadSonarQubeRequestException, SonarQubeException {
+        return getTimeFacetsAbstract();
+    }
+
+    @Override
+    protected JsonObject getFacetsAsJsonObject(final int page) throws BadSonarQubeRequestException, SonarQubeException {
+        final SearchRequest request = new SearchRequest()
+                .setProjects(Collections.singletonList(getProjectKey()))
+                .setFacets(Arrays.asList(getMetrics(PROJECT_FACETS).split(",")))
+                .setPs(String.valueOf(FACETS_MAX_PER_PAGE))
+                .setP(String.valueOf(page))
+                .setAdditionalFields(Arrays.asList(getMetrics(PROJECT_ADDITIONAL_FIELDS).split(",")))
+                .setResolved(FACETS_STATUS)
+                .setBranch(getBranchParameter());
+        return responseToJsonObject(call(() -> this.wsClient.issues().search(request)));
+    }
+
+    @Override
+    protected JsonObject getTimeFacetsAsJsonObject(int page, int maxPerPage)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        final SearchHistoryRequest request = new SearchHistoryRequest()
+                .setComponent(getProjectKey())
+                .setMetrics(Arrays.asList(getMetrics(CHARTS_METRICS).split(",")))
+                .setPs(String.valueOf(maxPerPage))
+                .setP(String.valueOf(page))
+                .setBranch(getBranchParameter());
+        return responseToJsonObject(call(() -> this.wsClient.measures().searchHistory(request)));
+    }
+}
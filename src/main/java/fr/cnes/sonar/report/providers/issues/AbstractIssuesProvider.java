@@ -18,17 +18,26 @@
 package fr.cnes.sonar.report.providers.issues;
 
 import fr.cnes.sonar.report.providers.AbstractDataProvider;
+import fr.cnes.sonar.report.providers.ConcurrentFetcher;
+import fr.cnes.sonar.report.providers.JsonStreamReader;
 import fr.cnes.sonar.report.utils.StringManager;
+import fr.cnes.sonar.report.events.PaginationEvent;
 import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
 import fr.cnes.sonar.report.exceptions.SonarQubeException;
 import fr.cnes.sonar.report.model.Issue;
+import fr.cnes.sonar.report.model.ProjectIssues;
 import fr.cnes.sonar.report.model.Rule;
 
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 
 import org.sonarqube.ws.client.WsClient;
@@ -63,6 +72,119 @@ public abstract class AbstractIssuesProvider extends AbstractDataProvider {
      * Name of the SonarQube additional fields to retrieve from issues
      */
     protected static final String ISSUES_ADDITIONAL_FIELDS = "ISSUES_ADDITIONAL_FIELDS";
+    /**
+     * Name of the setting giving the number of issues pages fetched concurrently
+     */
+    private static final String ISSUES_PARALLELISM = "issues.fetch.parallelism";
+
+    /**
+     * Receiver of the content of a page of issues, as model objects
+     */
+    protected interface IssuesPageReceiver {
+        /**
+         * Add an issue of the page
+         * @param issue the issue
+         * @param raw   gives the issue in a raw format (map), only called for unresolved issues
+         */
+        void addIssue(Issue issue, Supplier<Map<String, String>> raw);
+
+        /**
+         * Add a rule of the issues of the page
+         * @param rule the rule
+         */
+        void addRule(Rule rule);
+    }
+
+    /**
+     * Request giving a page of issues
+     */
+    @FunctionalInterface
+    private interface PageRequest {
+        /**
+         * Get a page of issues, its issues and rules are handed to the receiver
+         * @param page       The page to get.
+         * @param maxPerPage The maximum page size.
+         * @param receiver   Receiver of the issues and rules of the page.
+         * @return The total number of issues of the search.
+         * @throws BadSonarQubeRequestException A request is not recognized by the server.
+         * @throws SonarQubeException           When SonarQube server is not callable.
+         */
+        int get(int page, int maxPerPage, IssuesPageReceiver receiver)
+                throws BadSonarQubeRequestException, SonarQubeException;
+    }
+
+    /**
+     * Page of issues, converted to model objects while it is read
+     */
+    private final class IssuesPage implements IssuesPageReceiver {
+        /** Total number of issues of the search */
+        private int total;
+        /** Unresolved issues of the page */
+        private final List<Issue> issues = new ArrayList<>();
+        /** Resolved issues of the page */
+        private final List<Issue> unconfirmed = new ArrayList<>();
+        /** Unresolved issues of the page in a raw format (map) */
+        private final List<Map<String, String>> rawIssues = new ArrayList<>();
+        /** Rules of the issues of the page */
+        private final List<Rule> rules = new ArrayList<>();
+
+        /**
+         * Read a page of issues
+         * 
+         * @param request    the request giving a page of issues
+         * @param page       the page to get
+         * @param maxPerPage the maximum page size
+         * @return this page
+         * @throws BadSonarQubeRequestException A request is not recognized by the
+         *                                      server
+         * @throws SonarQubeException           When SonarQube server is not callable.
+         */
+        private IssuesPage read(final PageRequest request, final int page, final int maxPerPage)
+                throws BadSonarQubeRequestException, SonarQubeException {
+            this.total = request.get(page, maxPerPage, this);
+            return this;
+        }
+
+        /**
+         * Split an issue on its resolution, only set on resolved issues:
+         * unresolved issues are kept both as Issue objects and as maps
+         * 
+         * @param issue the issue
+         * @param raw   gives the issue as a map
+         */
+        @Override
+        public void addIssue(final Issue issue, final Supplier<Map<String, String>> raw) {
+            if (!issue.getResolution().isEmpty()) {
+                unconfirmed.add(issue);
+            } else {
+                issues.add(issue);
+                rawIssues.add(raw.get());
+            }
+        }
+
+        @Override
+        public void addRule(final Rule rule) {
+            rules.add(rule);
+        }
+
+        /**
+         * Give the issues of the page with their language, which is
+         * only known once the rules of the page have been read
+         * 
+         * @return the issues of the page
+         */
+        private ProjectIssues getProjectIssues() {
+            final Rule[] pageRules = rules.toArray(new Rule[0]);
+            setIssuesLanguage(issues, pageRules);
+            setIssuesLanguage(unconfirmed, pageRules);
+
+            final ProjectIssues res = new ProjectIssues();
+            res.setIssues(issues);
+            res.setUnconfirmed(unconfirmed);
+            res.setRawIssues(rawIssues);
+            return res;
+        }
+    }
 
     /**
      * Complete constructor.
@@ -99,51 +221,14 @@ public abstract class AbstractIssuesProvider extends AbstractDataProvider {
      */
     protected List<Issue> getIssuesByStatusAbstract(final String confirmed)
             throws BadSonarQubeRequestException, SonarQubeException {
-        // results variable
         final List<Issue> res = new ArrayList<>();
-
-        // stop condition
-        boolean goOn = true;
-        // flag when there are too many violation (> MAXIMUM_ISSUES_LIMIT)
-        boolean overflow = false;
-        // current page
-        int page = 1;
-
-        // temporary declared variable to contain data from ws
-        Issue[] issuesTemp;
-        Rule[] rulesTemp;
-
-        // search all issues of the project
-        while (goOn) {
-            // get maximum number of results per page
-            final int maxPerPage = Integer.parseInt(getRequest(MAX_PER_PAGE_SONARQUBE));
-            final JsonObject jo = getIssuesAsJsonObject(page, maxPerPage, confirmed);
-            // transform json to Issue and Rule objects
-            issuesTemp = (getGson().fromJson(jo.get(ISSUES), Issue[].class));
-            rulesTemp = (getGson().fromJson(jo.get(RULES), Rule[].class));
-            // association of issues and languages
-            setIssuesLanguage(issuesTemp, rulesTemp);
-            // add them to the final result
-            res.addAll(Arrays.asList(issuesTemp));
-            // check next results' pages
-            int number = (jo.get(TOTAL).getAsInt());
-
-            // check overflow
-            if (number > MAXIMUM_ISSUES_LIMIT) {
-                number = MAXIMUM_ISSUES_LIMIT;
-                overflow = true;
-            }
-            goOn = page * maxPerPage < number;
-            page++;
+        final PageRequest request = (page, maxPerPage, receiver) ->
+                readIssuesPage(page, maxPerPage, confirmed, receiver);
+        for (ProjectIssues page : getAllIssuesPages(request, null)) {
+            // the search is already filtered on the resolution
+            res.addAll(page.getIssues());
+            res.addAll(page.getUnconfirmed());
         }
-
-        // in case of overflow we log the problem
-        if (overflow) {
-            String message = StringManager.string(StringManager.ISSUES_OVERFLOW_MSG);
-            LOGGER.warning(message);
-        }
-
-        // return the issues
         return res;
     }
 
@@ -156,48 +241,143 @@ public abstract class AbstractIssuesProvider extends AbstractDataProvider {
      * @throws SonarQubeException           When SonarQube server is not callable.
      */
     protected List<Map<String, String>> getRawIssuesAbstract() throws BadSonarQubeRequestException, SonarQubeException {
-        // results variable
         final List<Map<String, String>> res = new ArrayList<>();
+        final PageRequest request = (page, maxPerPage, receiver) ->
+                readIssuesPage(page, maxPerPage, CONFIRMED, receiver);
+        for (ProjectIssues page : getAllIssuesPages(request, null)) {
+            res.addAll(page.getRawIssues());
+        }
+        return res;
+    }
 
-        // stop condition
-        boolean goon = true;
-        // flag when there are too many violation (> MAXIMUM_ISSUES_LIMIT)
-        boolean overflow = false;
-        // current page
-        int page = 1;
-
-        // search all issues of the project
-        while (goon) {
-            // get maximum number of results per page
-            final int maxPerPage = Integer.parseInt(getRequest(MAX_PER_PAGE_SONARQUBE));
-            final JsonObject jo = getIssuesAsJsonObject(page, maxPerPage, CONFIRMED);
-            // transform json to Issue objects
-            final Map<String, String>[] tmp = (getGson().fromJson(jo.get(ISSUES), Map[].class));
-            // add them to the final result
-            res.addAll(Arrays.asList(tmp));
-            // check next results' pages
-            int number = (jo.get(TOTAL).getAsInt());
-
-            // check overflow
-            if (number > MAXIMUM_ISSUES_LIMIT) {
-                number = MAXIMUM_ISSUES_LIMIT;
-                overflow = true;
+    /**
+     * Generic getter for the unresolved, resolved and raw issues of a project.
+     * Each page is downloaded once: a single scan without resolution filter is split
+     * on the resolution of each issue, and the raw issues are read from the same payload.
+     * If the single scan would exceed the server limit, it is partitioned into disjoint
+     * slices which are fetched concurrently and merged without duplicates.
+     * 
+     * @return All the issues of the project
+     * @throws BadSonarQubeRequestException A request is not recognized by the
+     *                                      server
+     * @throws SonarQubeException           When SonarQube server is not callable.
+     */
+    protected ProjectIssues getProjectIssuesAbstract() throws BadSonarQubeRequestException, SonarQubeException {
+        final ProjectIssues res = new ProjectIssues();
+        final PaginationEvent event = PaginationEvent.start(ISSUES);
+        int read = 1;
+
+        // first page of all the issues gives the total number of issues
+        final int maxPerPage = Integer.parseInt(getRequest(MAX_PER_PAGE_SONARQUBE));
+        final PageRequest all = (page, size, receiver) ->
+                readAllIssuesPage(page, size, StringManager.EMPTY, receiver);
+        final IssuesPage first = new IssuesPage().read(all, 1, maxPerPage);
+
+        if (first.total <= MAXIMUM_ISSUES_LIMIT) {
+            final List<ProjectIssues> allPages = getAllIssuesPages(all, first);
+            for (ProjectIssues page : allPages) {
+                res.addAll(page);
+            }
+            read = allPages.size();
+        } else {
+            final int parallelism = getParallelism(ISSUES_PARALLELISM);
+            final IssuesPartitioner partitioner = new IssuesPartitioner(this::countIssuesAsJsonObject,
+                    MAXIMUM_ISSUES_LIMIT, parallelism);
+            final List<IssuesPartitioner.Slice> slices =
+                    partitioner.partition(new IssuesPartitioner.Slice(StringManager.EMPTY, first.total));
+
+            // fetch all the pages of all the slices at once
+            final List<ConcurrentFetcher.Fetch<ProjectIssues>> fetches = new ArrayList<>();
+            for (IssuesPartitioner.Slice slice : slices) {
+                final PageRequest request = (page, size, receiver) ->
+                        readAllIssuesPage(page, size, slice.getFilter(), receiver);
+                final int pages = (Math.min(slice.getTotal(), MAXIMUM_ISSUES_LIMIT) + maxPerPage - 1) / maxPerPage;
+                for (int page = 1; page <= pages; page++) {
+                    final int current = page;
+                    fetches.add(() -> new IssuesPage().read(request, current, maxPerPage).getProjectIssues());
+                }
             }
 
-            goon = page * maxPerPage < number;
-            page++;
+            // an issue updated during the export may appear in two slices
+            final Set<String> keys = new HashSet<>();
+            for (ProjectIssues page : ConcurrentFetcher.fetchAll(fetches, parallelism)) {
+                addNewIssues(res, page, keys);
+            }
+            read += fetches.size();
         }
+        event.complete(read, (long) res.getIssues().size() + res.getUnconfirmed().size());
+
+        return res;
+    }
 
-        // in case of overflow we log the problem
-        if (overflow) {
+    /**
+     * Fetch all the pages of a search issues request.
+     * The first page gives the total number of issues, the other pages
+     * are then fetched concurrently and given back in page order.
+     * 
+     * @param request the request giving a page of issues
+     * @param first   the first page if it is already known, null otherwise
+     * @return List containing the issues of each page
+     * @throws BadSonarQubeRequestException A request is not recognized by the
+     *                                      server
+     * @throws SonarQubeException           When SonarQube server is not callable.
+     */
+    private List<ProjectIssues> getAllIssuesPages(final PageRequest request, final IssuesPage first)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        // get maximum number of results per page
+        final int maxPerPage = Integer.parseInt(getRequest(MAX_PER_PAGE_SONARQUBE));
+
+        // first page gives the total number of issues
+        final IssuesPage firstPage = first != null ? first : new IssuesPage().read(request, 1, maxPerPage);
+        final List<ProjectIssues> res = new ArrayList<>();
+        res.add(firstPage.getProjectIssues());
+        int number = firstPage.total;
+
+        // check overflow, in this case we log the problem
+        if (number > MAXIMUM_ISSUES_LIMIT) {
+            number = MAXIMUM_ISSUES_LIMIT;
             String message = StringManager.string(StringManager.ISSUES_OVERFLOW_MSG);
             LOGGER.warning(message);
         }
 
-        // return the issues
+        // prepare the fetch of the remaining pages
+        final int pages = (number + maxPerPage - 1) / maxPerPage;
+        final List<ConcurrentFetcher.Fetch<ProjectIssues>> fetches = new ArrayList<>();
+        for (int page = 2; page <= pages; page++) {
+            final int current = page;
+            fetches.add(() -> new IssuesPage().read(request, current, maxPerPage).getProjectIssues());
+        }
+
+        // add them to the final result in page order
+        final int parallelism = getParallelism(ISSUES_PARALLELISM);
+        res.addAll(ConcurrentFetcher.fetchAll(fetches, parallelism));
+
         return res;
     }
 
+    /**
+     * Append to a set of issues the issues of a page which have not been met yet
+     * 
+     * @param res  the issues to complete
+     * @param page the page of issues
+     * @param keys the keys of the issues already met
+     */
+    private void addNewIssues(final ProjectIssues res, final ProjectIssues page, final Set<String> keys) {
+        // raw issues are built in the same order as unresolved issues
+        for (int i = 0; i < page.getIssues().size(); i++) {
+            final Issue issue = page.getIssues().get(i);
+            if (keys.add(issue.getKey())) {
+                res.getIssues().add(issue);
+                res.getRawIssues().add(page.getRawIssues().get(i));
+            }
+        }
+        for (Issue issue : page.getUnconfirmed()) {
+            if (keys.add(issue.getKey())) {
+                res.getUnconfirmed().add(issue);
+            }
+        }
+    }
+
     /**
      * Find the display name of the programming language corresponding
      * to a rule with its key
@@ -230,10 +410,10 @@ public abstract class AbstractIssuesProvider extends AbstractDataProvider {
     /**
      * Set the language of each issues
      * 
-     * @param issues an array of issues to set
+     * @param issues a list of issues to set
      * @param rules  an array of rules containing language information
      */
-    private void setIssuesLanguage(Issue[] issues, Rule[] rules) {
+    private void setIssuesLanguage(List<Issue> issues, Rule[] rules) {
         // rule's key of an issue
         String rulesKey;
         // language of the previous rule's key
@@ -248,6 +428,96 @@ public abstract class AbstractIssuesProvider extends AbstractDataProvider {
         }
     }
 
+    /**
+     * Read a page of a search issues request. By default the response is read
+     * as json and its issues and rules are deserialized while it is read.
+     * 
+     * @param page       The current page.
+     * @param maxPerPage The maximum page size.
+     * @param confirmed  Equals "true" if Unconfirmed and "false" if confirmed.
+     * @param receiver   Receiver of the issues and rules of the page.
+     * @return The total number of issues of the search.
+     * @throws BadSonarQubeRequestException A request is not recognized by the
+     *                                      server.
+     * @throws SonarQubeException           When SonarQube server is not callable.
+     */
+    protected int readIssuesPage(final int page, final int maxPerPage, final String confirmed,
+            final IssuesPageReceiver receiver) throws BadSonarQubeRequestException, SonarQubeException {
+        return getIssuesAsJsonObject(page, maxPerPage, confirmed, toHandlers(receiver)).get(TOTAL).getAsInt();
+    }
+
+    /**
+     * Read a page of a search issues request without any filter on the resolution
+     * of the issues. By default the response is read as json and its issues and
+     * rules are deserialized while it is read.
+     * 
+     * @param page       The current page.
+     * @param maxPerPage The maximum page size.
+     * @param filter     Additional parameters of the search, possibly empty.
+     * @param receiver   Receiver of the issues and rules of the page.
+     * @return The total number of issues of the search.
+     * @throws BadSonarQubeRequestException A request is not recognized by the
+     *                                      server.
+     * @throws SonarQubeException           When SonarQube server is not callable.
+     */
+    protected int readAllIssuesPage(final int page, final int maxPerPage, final String filter,
+            final IssuesPageReceiver receiver) throws BadSonarQubeRequestException, SonarQubeException {
+        return getAllIssuesAsJsonObject(page, maxPerPage, filter, toHandlers(receiver)).get(TOTAL).getAsInt();
+    }
+
+    /**
+     * Handlers of the arrays of a json page of issues, handing the issues
+     * and rules to a receiver
+     * 
+     * @param receiver the receiver of the page
+     * @return the handlers, indexed by field name
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Consumer<JsonElement>> toHandlers(final IssuesPageReceiver receiver) {
+        final Map<String, Consumer<JsonElement>> arrays = new HashMap<>();
+        arrays.put(ISSUES, element -> receiver.addIssue(getGson().fromJson(element, Issue.class),
+                () -> getGson().fromJson(element, Map.class)));
+        arrays.put(RULES, element -> receiver.addRule(getGson().fromJson(element, Rule.class)));
+        return arrays;
+    }
+
+    /**
+     * Read a search issues request as a stream. By default the response is
+     * fully read then its arrays are handed to their handler.
+     * 
+     * @param page       The current page.
+     * @param maxPerPage The maximum page size.
+     * @param confirmed  Equals "true" if Unconfirmed and "false" if confirmed.
+     * @param arrays     Handlers of the elements of the arrays, indexed by field name.
+     * @return The other fields of the response as a JsonObject.
+     * @throws BadSonarQubeRequestException A request is not recognized by the
+     *                                      server.
+     * @throws SonarQubeException           When SonarQube server is not callable.
+     */
+    protected JsonObject getIssuesAsJsonObject(final int page, final int maxPerPage, final String confirmed,
+            final Map<String, Consumer<JsonElement>> arrays) throws BadSonarQubeRequestException, SonarQubeException {
+        return JsonStreamReader.dispatch(getIssuesAsJsonObject(page, maxPerPage, confirmed), arrays);
+    }
+
+    /**
+     * Read a search issues request without any filter on the resolution of the
+     * issues as a stream. By default the response is fully read then its arrays
+     * are handed to their handler.
+     * 
+     * @param page       The current page.
+     * @param maxPerPage The maximum page size.
+     * @param filter     Additional parameters of the search, possibly empty.
+     * @param arrays     Handlers of the elements of the arrays, indexed by field name.
+     * @return The other fields of the response as a JsonObject.
+     * @throws BadSonarQubeRequestException A request is not recognized by the
+     *                                      server.
+     * @throws SonarQubeException           When SonarQube server is not callable.
+     */
+    protected JsonObject getAllIssuesAsJsonObject(final int page, final int maxPerPage, final String filter,
+            final Map<String, Consumer<JsonElement>> arrays) throws BadSonarQubeRequestException, SonarQubeException {
+        return JsonStreamReader.dispatch(getAllIssuesAsJsonObject(page, maxPerPage, filter), arrays);
+    }
+
     /**
      * Get a JsonObject from the response of a search issues request.
      * 
@@ -261,4 +531,37 @@ public abstract class AbstractIssuesProvider extends AbstractDataProvider {
      */
     protected abstract JsonObject getIssuesAsJsonObject(final int page, final int maxPerPage, final String confirmed)
             throws BadSonarQubeRequestException, SonarQubeException;
+
+    /**
+     * Get a JsonObject from the response of a search issues request without
+     * any filter on the resolution of the issues.
+     * 
+     * @param page       The current page.
+     * @param maxPerPage The maximum page size.
+     * @param filter     Additional parameters of the search, possibly empty.
+     * @return The response as a JsonObject.
+     * @throws BadSonarQubeRequestException A request is not recognized by the
+     *                                      server.
+     * @throws SonarQubeException           When SonarQube server is not callable.
+     */
+    protected abstract JsonObject getAllIssuesAsJsonObject(final int page, final int maxPerPage,
+            final String filter)
+            throws BadSonarQubeRequestException, SonarQubeException;
+
+    /**
+     * Get a JsonObject from the response of a light search issues request,
+     * without facets nor additional fields, used to count the issues matching
+     * a filter or to sample their creation date.
+     * 
+     * @param page       The current page.
+     * @param maxPerPage The maximum page size.
+     * @param filter     Additional parameters of the search, possibly empty.
+     * @return The response as a JsonObject.
+     * @throws BadSonarQubeRequestException A request is not recognized by the
+     *                                      server.
+     * @throws SonarQubeException           When SonarQube server is not callable.
+     */
+    protected abstract JsonObject countIssuesAsJsonObject(final int page, final int maxPerPage,
+            final String filter)
+            throws BadSonarQubeRequestException, SonarQubeException;
 }
\ No newline at end of file
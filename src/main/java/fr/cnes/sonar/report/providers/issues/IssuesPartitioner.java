@@ -0,0 +1,329 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.providers.issues;
+
+import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
+import fr.cnes.sonar.report.exceptions.SonarQubeException;
+import fr.cnes.sonar.report.providers.ConcurrentFetcher;
+import fr.cnes.sonar.report.utils.StringManager;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Split an issues search into disjoint slices small enough to be fully
+ * browsed through the SonarQube search window.
+ * Slices are split successively on the resolution, the type and the severity
+ * of the issues, then by recursive bisection of their creation date range.
+ */
+final class IssuesPartitioner {
+
+    /** Logger for this class. */
+    private static final Logger LOGGER = Logger.getLogger(IssuesPartitioner.class.getName());
+
+    /** Format of the dates exchanged with SonarQube. */
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssZ");
+    /** Parameter "total" of the JSON response. */
+    private static final String TOTAL = "total";
+    /** Parameter "issues" of the JSON response. */
+    private static final String ISSUES = "issues";
+    /** Parameter "creationDate" of an issue. */
+    private static final String CREATION_DATE = "creationDate";
+    /** Filter sorting the issues from the oldest to the newest. */
+    private static final String OLDEST_FIRST = "&s=CREATION_DATE&asc=true";
+    /** Filter sorting the issues from the newest to the oldest. */
+    private static final String NEWEST_FIRST = "&s=CREATION_DATE&asc=false";
+    /** Filter restricting the creation date range (inclusive lower bound, exclusive upper bound). */
+    private static final String CREATION_RANGE = "&createdAfter=%s&createdBefore=%s";
+    /** Name of the report property listing the issues types. */
+    private static final String ISSUES_TYPES = "issues.types";
+    /** Name of the report property listing the issues severities. */
+    private static final String ISSUES_SEVERITIES = "issues.severities";
+
+    /**
+     * Request giving a page of the issues matching a filter
+     */
+    @FunctionalInterface
+    interface SliceRequest {
+        /**
+         * Get a page of issues
+         * @param page       The page to get.
+         * @param maxPerPage The maximum page size.
+         * @param filter     Additional parameters of the search, possibly empty.
+         * @return The response as a JsonObject.
+         * @throws BadSonarQubeRequestException A request is not recognized by the server.
+         * @throws SonarQubeException           When SonarQube server is not callable.
+         */
+        JsonObject get(int page, int maxPerPage, String filter) throws BadSonarQubeRequestException, SonarQubeException;
+    }
+
+    /**
+     * Part of an issues search
+     */
+    static final class Slice {
+        /** Additional parameters of the search selecting this slice. */
+        private final String filter;
+        /** Number of issues in this slice. */
+        private final int total;
+
+        /**
+         * Complete constructor
+         * @param pFilter Additional parameters of the search.
+         * @param pTotal  Number of issues in the slice.
+         */
+        Slice(final String pFilter, final int pTotal) {
+            this.filter = pFilter;
+            this.total = pTotal;
+        }
+
+        /**
+         * Getter for filter
+         * @return the additional parameters of the search
+         */
+        String getFilter() {
+            return filter;
+        }
+
+        /**
+         * Getter for total
+         * @return the number of issues in the slice
+         */
+        int getTotal() {
+            return total;
+        }
+    }
+
+    /** Request used to count the issues of a slice. */
+    private final SliceRequest request;
+    /** Maximum number of issues which can be browsed in a single search. */
+    private final int limit;
+    /** Number of counting requests sent concurrently. */
+    private final int parallelism;
+    /** Successive dimensions used to split a slice, as a parameter name followed by its values. */
+    private final List<List<String>> dimensions;
+
+    /**
+     * Complete constructor
+     * @param pRequest     Request giving a page of the issues matching a filter.
+     * @param pLimit       Maximum number of issues which can be browsed in a single search.
+     * @param pParallelism Number of counting requests sent concurrently.
+     */
+    IssuesPartitioner(final SliceRequest pRequest, final int pLimit, final int pParallelism) {
+        this.request = pRequest;
+        this.limit = pLimit;
+        this.parallelism = pParallelism;
+        this.dimensions = new ArrayList<>();
+        this.dimensions.add(Arrays.asList("resolved", "false", "true"));
+        this.dimensions.add(dimension("types", StringManager.getProperty(ISSUES_TYPES)));
+        this.dimensions.add(dimension("severities", StringManager.getProperty(ISSUES_SEVERITIES)));
+    }
+
+    /**
+     * Split a search into slices holding each at most limit issues. A slice can only
+     * exceed this limit when its issues cannot be told apart by any dimension,
+     * i.e. they share their resolution, type, severity and creation second.
+     * @param slice The whole search.
+     * @return The disjoint slices covering the search, empty slices are discarded.
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     * @throws SonarQubeException           When SonarQube server is not callable.
+     */
+    List<Slice> partition(final Slice slice) throws BadSonarQubeRequestException, SonarQubeException {
+        return split(slice, 0);
+    }
+
+    /**
+     * Split a slice on a dimension and recursively on the next ones.
+     * A dimension is skipped when its values do not cover exactly the slice.
+     * @param slice     The slice to split.
+     * @param dimension Index of the first dimension to use.
+     * @return The disjoint slices covering the slice.
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     * @throws SonarQubeException           When SonarQube server is not callable.
+     */
+    private List<Slice> split(final Slice slice, final int dimension)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        if (slice.getTotal() <= limit) {
+            return slice.getTotal() == 0 ? Collections.emptyList() : Collections.singletonList(slice);
+        }
+        if (dimension >= dimensions.size()) {
+            return bisect(slice);
+        }
+
+        // count the issues of each value of the dimension
+        final List<String> values = dimensions.get(dimension);
+        final List<String> filters = new ArrayList<>();
+        for (String value : values.subList(1, values.size())) {
+            filters.add(String.format("%s&%s=%s", slice.getFilter(), values.get(0), value));
+        }
+        final List<Slice> children = count(filters);
+
+        // values may not cover every issue, e.g. a type unknown by the report
+        int covered = 0;
+        for (Slice child : children) {
+            covered += child.getTotal();
+        }
+        if (covered != slice.getTotal()) {
+            return split(slice, dimension + 1);
+        }
+
+        final List<Slice> res = new ArrayList<>();
+        for (Slice child : children) {
+            res.addAll(split(child, dimension + 1));
+        }
+        return res;
+    }
+
+    /**
+     * Split a slice by recursive bisection of the creation date range of its issues.
+     * @param slice The slice to split.
+     * @return The disjoint slices covering the slice.
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     * @throws SonarQubeException           When SonarQube server is not callable.
+     */
+    private List<Slice> bisect(final Slice slice) throws BadSonarQubeRequestException, SonarQubeException {
+        final List<JsonObject> bounds = ConcurrentFetcher.fetchAll(Arrays.asList(
+                () -> request.get(1, 1, slice.getFilter() + OLDEST_FIRST),
+                () -> request.get(1, 1, slice.getFilter() + NEWEST_FIRST)), parallelism);
+        final Long oldest = creationSecond(bounds.get(0));
+        final Long newest = creationSecond(bounds.get(1));
+
+        if (oldest == null || newest == null) {
+            return overflow(slice);
+        }
+        return bisect(slice.getFilter(), slice.getTotal(), oldest, newest + 1);
+    }
+
+    /**
+     * Split a creation date range of issues in two halves until each one is small enough.
+     * @param filter The filter of the slice, without date range.
+     * @param total  Number of issues in the range.
+     * @param from   First second of the range, inclusive.
+     * @param to     Last second of the range, exclusive.
+     * @return The disjoint slices covering the range.
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     * @throws SonarQubeException           When SonarQube server is not callable.
+     */
+    private List<Slice> bisect(final String filter, final int total, final long from, final long to)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        final Slice range = new Slice(filter + range(from, to), total);
+        if (total <= limit) {
+            return split(range, dimensions.size());
+        }
+        if (to - from <= 1) {
+            return overflow(range);
+        }
+
+        final long middle = from + (to - from) / 2;
+        final List<Slice> halves = count(Arrays.asList(filter + range(from, middle), filter + range(middle, to)));
+
+        final List<Slice> res = new ArrayList<>();
+        res.addAll(bisect(filter, halves.get(0).getTotal(), from, middle));
+        res.addAll(bisect(filter, halves.get(1).getTotal(), middle, to));
+        return res;
+    }
+
+    /**
+     * Count concurrently the issues matching some filters.
+     * @param filters The filters of the slices.
+     * @return The slices with their number of issues, in the order of the filters.
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     * @throws SonarQubeException           When SonarQube server is not callable.
+     */
+    private List<Slice> count(final List<String> filters) throws BadSonarQubeRequestException, SonarQubeException {
+        final List<ConcurrentFetcher.Fetch<Slice>> fetches = new ArrayList<>();
+        for (String filter : filters) {
+            fetches.add(() -> new Slice(filter, request.get(1, 1, filter).get(TOTAL).getAsInt()));
+        }
+        return ConcurrentFetcher.fetchAll(fetches, parallelism);
+    }
+
+    /**
+     * Keep a slice which cannot be split anymore and warn that it will be truncated.
+     * @param slice The slice exceeding the limit.
+     * @return The slice alone.
+     */
+    private List<Slice> overflow(final Slice slice) {
+        LOGGER.warning(StringManager.string(StringManager.ISSUES_OVERFLOW_MSG));
+        return Collections.singletonList(slice);
+    }
+
+    /**
+     * Build a dimension from a comma separated list of values.
+     * @param parameter Name of the search parameter.
+     * @param values    Comma separated values of the parameter.
+     * @return The parameter name followed by its values.
+     */
+    private static List<String> dimension(final String parameter, final String values) {
+        final List<String> res = new ArrayList<>();
+        res.add(parameter);
+        res.addAll(Arrays.asList(values.split(",")));
+        return res;
+    }
+
+    /**
+     * Format a creation date range filter.
+     * @param from First second of the range, inclusive.
+     * @param to   Last second of the range, exclusive.
+     * @return The filter.
+     */
+    private static String range(final long from, final long to) {
+        return String.format(CREATION_RANGE, format(from), format(to));
+    }
+
+    /**
+     * Format a date as expected by SonarQube.
+     * @param second The date in seconds since the epoch.
+     * @return The formatted date.
+     */
+    private static String format(final long second) {
+        return DATE_TIME.format(Instant.ofEpochSecond(second).atOffset(ZoneOffset.UTC));
+    }
+
+    /**
+     * Creation date of the first issue of a response.
+     * @param jo The response.
+     * @return The creation date in seconds since the epoch, null if it is unknown.
+     */
+    private static Long creationSecond(final JsonObject jo) {
+        final JsonArray issues = jo.getAsJsonArray(ISSUES);
+        if (issues == null || issues.size() == 0) {
+            return null;
+        }
+        final JsonElement date = issues.get(0).getAsJsonObject().get(CREATION_DATE);
+        if (date == null || date.isJsonNull()) {
+            return null;
+        }
+        try {
+            return OffsetDateTime.parse(date.getAsString(), DATE_TIME).toEpochSecond();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
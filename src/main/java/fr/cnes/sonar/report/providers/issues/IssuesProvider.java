@@ -20,6 +20,7 @@ package fr.cnes.sonar.report.providers.issues;
 import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
 import fr.cnes.sonar.report.exceptions.SonarQubeException;
 import fr.cnes.sonar.report.model.Issue;
+import fr.cnes.sonar.report.model.ProjectIssues;
 
 import java.util.List;
 import java.util.Map;
@@ -49,4 +50,11 @@ public interface IssuesProvider {
      * @throws SonarQubeException When SonarQube server is not callable.
      */
     List<Map<String,String>> getRawIssues() throws BadSonarQubeRequestException, SonarQubeException;
+    /**
+     * Get all the real, unconfirmed and raw issues of a project, downloading each page only once
+     * @return All the issues of the project
+     * @throws BadSonarQubeRequestException A request is not recognized by the server
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    ProjectIssues getProjectIssues() throws BadSonarQubeRequestException, SonarQubeException;
 }
\ No newline at end of file
@@ -0,0 +1,201 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.providers.issues;
+
+import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
+import fr.cnes.sonar.report.exceptions.SonarQubeException;
+import fr.cnes.sonar.report.model.Issue;
+import fr.cnes.sonar.report.model.ProjectIssues;
+import fr.cnes.sonar.report.providers.ProtobufMapper;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.JsonObject;
+
+import org.sonarqube.ws.Common;
+import org.sonarqube.ws.Issues;
+import org.sonarqube.ws.client.WsClient;
+import org.sonarqube.ws.client.issues.SearchRequest;
+
+/**
+ * Provides issue items in plugin mode
+ */
+public class IssuesProviderPlugin extends AbstractIssuesProvider implements IssuesProvider {
+
+    /**
+     * Complete constructor.
+     * 
+     * @param wsClient The web client.
+     * @param project  The id of the project to report.
+     * @param branch   The branch of the project to report.
+     */
+    public IssuesProviderPlugin(final WsClient wsClient, final String project, final String branch) {
+        super(wsClient, project, branch);
+    }
+
+    @Override
+    public List<Issue> getIssues()
+            throws BadSonarQubeRequestException, SonarQubeException {
+        return getIssuesByStatusAbstract(CONFIRMED);
+    }
+
+    @Override
+    public List<Issue> getUnconfirmedIssues()
+            throws BadSonarQubeRequestException, SonarQubeException {
+        return getIssuesByStatusAbstract(UNCONFIRMED);
+    }
+
+    @Override
+    public List<Map<String, String>> getRawIssues() throws BadSonarQubeRequestException, SonarQubeException {
+        return getRawIssuesAbstract();
+    }
+
+    @Override
+    public ProjectIssues getProjectIssues() throws BadSonarQubeRequestException, SonarQubeException {
+        return getProjectIssuesAbstract();
+    }
+
+    @Override
+    protected JsonObject getIssuesAsJsonObject(final int page, final int maxPerPage, final String confirmed)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        return responseToJsonObject(search(getIssuesRequest(page, maxPerPage).setResolved(confirmed)));
+    }
+
+    @Override
+    protected JsonObject getAllIssuesAsJsonObject(final int page, final int maxPerPage, final String filter)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        return responseToJsonObject(search(applyFilter(getIssuesRequest(page, maxPerPage), filter)));
+    }
+
+    @Override
+    protected JsonObject countIssuesAsJsonObject(final int page, final int maxPerPage, final String filter)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        final SearchRequest request = new SearchRequest()
+                .setProjects(Collections.singletonList(getProjectKey()))
+                .setPs(String.valueOf(maxPerPage))
+                .setP(String.valueOf(page))
+                .setBranch(getBranchParameter());
+        return responseToJsonObject(search(applyFilter(request, filter)));
+    }
+
+    @Override
+    protected int readIssuesPage(final int page, final int maxPerPage, final String confirmed,
+            final IssuesPageReceiver receiver) throws BadSonarQubeRequestException, SonarQubeException {
+        return read(search(getIssuesRequest(page, maxPerPage).setResolved(confirmed)), receiver);
+    }
+
+    @Override
+    protected int readAllIssuesPage(final int page, final int maxPerPage, final String filter,
+            final IssuesPageReceiver receiver) throws BadSonarQubeRequestException, SonarQubeException {
+        return read(search(applyFilter(getIssuesRequest(page, maxPerPage), filter)), receiver);
+    }
+
+    /**
+     * Search a page of issues
+     * 
+     * @param request The request.
+     * @return The page of issues.
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     */
+    private Issues.SearchWsResponse search(final SearchRequest request) throws BadSonarQubeRequestException {
+        return call(() -> this.wsClient.issues().search(request));
+    }
+
+    /**
+     * Hand the issues and rules of a page to a receiver, converted from the protobuf response
+     * 
+     * @param response The page of issues.
+     * @param receiver The receiver of the page.
+     * @return The total number of issues of the search.
+     */
+    private static int read(final Issues.SearchWsResponse response, final IssuesPageReceiver receiver) {
+        for (Issues.Issue issue : response.getIssuesList()) {
+            receiver.addIssue(ProtobufMapper.toIssue(issue), () -> ProtobufMapper.toRawIssue(issue));
+        }
+        for (Common.Rule rule : response.getRules().getRulesList()) {
+            receiver.addRule(ProtobufMapper.toRule(rule));
+        }
+        return (int) response.getPaging().getTotal();
+    }
+
+    /**
+     * Prepare the request to get a page of issues
+     * 
+     * @param page       The current page.
+     * @param maxPerPage The maximum page size.
+     * @return The request.
+     */
+    private SearchRequest getIssuesRequest(final int page, final int maxPerPage) {
+        return new SearchRequest()
+                .setProjects(Collections.singletonList(getProjectKey()))
+                .setFacets(Arrays.asList(getMetrics(ISSUES_FACETS).split(",")))
+                .setPs(String.valueOf(maxPerPage))
+                .setP(String.valueOf(page))
+                .setAdditionalFields(Arrays.asList(getMetrics(ISSUES_ADDITIONAL_FIELDS).split(",")))
+                .setBranch(getBranchParameter());
+    }
+
+    /**
+     * Set the parameters of a search filter, as given by the partition of the issues, on a request
+     * 
+     * @param request The request.
+     * @param filter  Additional parameters of the search, as url parameters, possibly empty.
+     * @return The request.
+     * @throws BadSonarQubeRequestException The filter uses a parameter the web client does not know.
+     */
+    private static SearchRequest applyFilter(final SearchRequest request, final String filter)
+            throws BadSonarQubeRequestException {
+        for (String parameter : filter.split("&")) {
+            if (parameter.isEmpty()) {
+                continue;
+            }
+            final String[] pair = parameter.split("=", 2);
+            final String value = pair.length > 1 ? pair[1] : "";
+            switch (pair[0]) {
+                case "resolved":
+                    request.setResolved(value);
+                    break;
+                case "types":
+                    request.setTypes(Arrays.asList(value.split(",")));
+                    break;
+                case "severities":
+                    request.setSeverities(Arrays.asList(value.split(",")));
+                    break;
+                case "createdAfter":
+                    request.setCreatedAfter(value);
+                    break;
+                case "createdBefore":
+                    request.setCreatedBefore(value);
+                    break;
+                case "s":
+                    request.setS(value);
+                    break;
+                case "asc":
+                    request.setAsc(value);
+                    break;
+                default:
+                    throw new BadSonarQubeRequestException(
+                            String.format("Unsupported parameter '%s' in a search of issues.", pair[0]));
+            }
+        }
+        return request;
+    }
+}
@@ -20,10 +20,13 @@ package fr.cnes.sonar.report.providers.issues;
 import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
 import fr.cnes.sonar.report.exceptions.SonarQubeException;
 import fr.cnes.sonar.report.model.Issue;
+import fr.cnes.sonar.report.model.ProjectIssues;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 
 /**
@@ -35,6 +38,14 @@ public class IssuesProviderStandalone extends AbstractIssuesProvider implements
      * Name of the request for getting issues
      */
     private static final String GET_ISSUES_REQUEST = "GET_ISSUES_REQUEST";
+    /**
+     * Name of the request for getting issues whatever their resolution
+     */
+    private static final String GET_ALL_ISSUES_REQUEST = "GET_ALL_ISSUES_REQUEST";
+    /**
+     * Name of the request for counting issues
+     */
+    private static final String COUNT_ISSUES_REQUEST = "COUNT_ISSUES_REQUEST";
 
     /**
      * Complete constructor.
@@ -80,14 +91,72 @@ public class IssuesProviderStandalone extends AbstractIssuesProvider implements
         return getRawIssuesAbstract();
     }
 
+    @Override
+    public ProjectIssues getProjectIssues() throws BadSonarQubeRequestException, SonarQubeException {
+        return getProjectIssuesAbstract();
+    }
+
     @Override
     protected JsonObject getIssuesAsJsonObject(final int page, final int maxPerPage, final String confirmed)
             throws BadSonarQubeRequestException, SonarQubeException {
-        // prepare the server to get all the issues
-        final String request = String.format(getRequest(GET_ISSUES_REQUEST), getServer(), getProjectKey(),
+        // perform the request to the server
+        return request(getIssuesRequest(page, maxPerPage, confirmed));
+    }
+
+    @Override
+    protected JsonObject getIssuesAsJsonObject(final int page, final int maxPerPage, final String confirmed,
+            final Map<String, Consumer<JsonElement>> arrays) throws BadSonarQubeRequestException, SonarQubeException {
+        // perform the request to the server and read the issues while they are received
+        return request(getIssuesRequest(page, maxPerPage, confirmed), arrays);
+    }
+
+    @Override
+    protected JsonObject getAllIssuesAsJsonObject(final int page, final int maxPerPage, final String filter)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        // perform the request to the server
+        return request(getAllIssuesRequest(page, maxPerPage, filter));
+    }
+
+    @Override
+    protected JsonObject getAllIssuesAsJsonObject(final int page, final int maxPerPage, final String filter,
+            final Map<String, Consumer<JsonElement>> arrays) throws BadSonarQubeRequestException, SonarQubeException {
+        // perform the request to the server and read the issues while they are received
+        return request(getAllIssuesRequest(page, maxPerPage, filter), arrays);
+    }
+
+    @Override
+    protected JsonObject countIssuesAsJsonObject(final int page, final int maxPerPage, final String filter)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        // perform the request to the server
+        return request(String.format(getRequest(COUNT_ISSUES_REQUEST), getServer(), getProjectKey(), maxPerPage,
+                page, getBranch(), filter));
+    }
+
+    /**
+     * Prepare the request to get a page of issues depending on their resolved status
+     * 
+     * @param page       The current page.
+     * @param maxPerPage The maximum page size.
+     * @param confirmed  Equals "true" if Unconfirmed and "false" if confirmed.
+     * @return The url of the request.
+     */
+    private String getIssuesRequest(final int page, final int maxPerPage, final String confirmed) {
+        return String.format(getRequest(GET_ISSUES_REQUEST), getServer(), getProjectKey(),
                 getMetrics(ISSUES_FACETS), maxPerPage, page, getMetrics(ISSUES_ADDITIONAL_FIELDS), confirmed,
                 getBranch());
-        // perform the request to the server
-        return request(request);
+    }
+
+    /**
+     * Prepare the request to get a page of issues whatever their resolution
+     * 
+     * @param page       The current page.
+     * @param maxPerPage The maximum page size.
+     * @param filter     Additional parameters of the search, possibly empty.
+     * @return The url of the request.
+     */
+    private String getAllIssuesRequest(final int page, final int maxPerPage, final String filter) {
+        return String.format(getRequest(GET_ALL_ISSUES_REQUEST), getServer(), getProjectKey(),
+                getMetrics(ISSUES_FACETS), maxPerPage, page, getMetrics(ISSUES_ADDITIONAL_FIELDS), getBranch(),
+                filter);
     }
 }
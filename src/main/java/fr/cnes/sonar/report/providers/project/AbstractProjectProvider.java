@@ -22,6 +22,7 @@ import java.util.Map;
 
 import org.sonarqube.ws.client.WsClient;
 
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 
 import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
@@ -80,6 +81,7 @@ public abstract class AbstractProjectProvider extends AbstractDataProvider {
     protected Project getProjectAbstract(final String projectKey, final String branch)
             throws BadSonarQubeRequestException, SonarQubeException {
         final JsonObject jo = getProjectAsJsonObject(projectKey, branch);
+        readAnalysisDate(jo);
 
         // put json in a Project class
         final Project project = (getGson().fromJson(jo, Project.class));
@@ -127,6 +129,7 @@ public abstract class AbstractProjectProvider extends AbstractDataProvider {
     protected boolean hasProjectAbstract(final String projectKey, final String branch)
             throws BadSonarQubeRequestException, SonarQubeException {
         final JsonObject jsonObject = getProjectAsJsonObject(projectKey, branch);
+        readAnalysisDate(jsonObject);
 
         // Retrieve project key if the project exists or null.
         final String project = jsonObject.get("key").getAsString();
@@ -134,6 +137,16 @@ public abstract class AbstractProjectProvider extends AbstractDataProvider {
         return project != null && project.equals(projectKey);
     }
 
+    /**
+     * Record the date of the last analysis of the project, so that the responses
+     * cached since this analysis can be used for the rest of the report.
+     * @param jsonObject The response of a get component request.
+     */
+    private void readAnalysisDate(final JsonObject jsonObject) {
+        final JsonElement analysisDate = jsonObject.get("analysisDate");
+        setAnalysisDate(analysisDate != null && !analysisDate.isJsonNull() ? analysisDate.getAsString() : null);
+    }
+
     /**
      * Get a JsonObject from the response of a get component request.
      * @return The response as a JsonObject.
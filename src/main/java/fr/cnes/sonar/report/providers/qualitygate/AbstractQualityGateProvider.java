@@ -34,6 +34,7 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 
 import org.apache.commons.math3.util.Precision;
+import org.sonarqube.ws.client.WsClient;
 
 /**
  * Contains common code for quality gate providers
@@ -125,6 +126,16 @@ public abstract class AbstractQualityGateProvider extends AbstractDataProvider {
         super(pServer, pToken, pProject, pBranch);
     }
 
+    /**
+     * Complete constructor.
+     * @param wsClient The web client.
+     * @param project The id of the project to report.
+     * @param branch The branch of the project to report.
+     */
+    protected AbstractQualityGateProvider(final WsClient wsClient, final String project, final String branch) {
+        super(wsClient, project, branch);
+    }
+
     /**
      * Generic getter for all the quality gates.
      * @return List<QualityGate> containing all the issues.
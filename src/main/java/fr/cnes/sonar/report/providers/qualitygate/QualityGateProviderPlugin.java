@@ -0,0 +1,108 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.providers.qualitygate;
+
+import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
+import fr.cnes.sonar.report.exceptions.SonarQubeException;
+import fr.cnes.sonar.report.exceptions.UnknownQualityGateException;
+import fr.cnes.sonar.report.model.QualityGate;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.JsonObject;
+
+import org.sonarqube.ws.client.WsClient;
+import org.sonarqube.ws.client.measures.ComponentRequest;
+import org.sonarqube.ws.client.qualitygates.ListRequest;
+import org.sonarqube.ws.client.qualitygates.ProjectStatusRequest;
+import org.sonarqube.ws.client.qualitygates.ShowRequest;
+
+/**
+ * Provides quality gates in plugin mode
+ */
+public class QualityGateProviderPlugin extends AbstractQualityGateProvider implements QualityGateProvider {
+
+    /**
+     * Complete constructor.
+     * @param wsClient The web client.
+     * @param project The id of the project to report.
+     * @param branch The branch of the project to report.
+     */
+    public QualityGateProviderPlugin(final WsClient wsClient, final String project, final String branch) {
+        super(wsClient, project, branch);
+    }
+
+    @Override
+    public List<QualityGate> getQualityGates()
+            throws BadSonarQubeRequestException, SonarQubeException {
+        return getQualityGatesAbstract();
+    }
+
+    @Override
+    public QualityGate getProjectQualityGate()
+            throws UnknownQualityGateException, BadSonarQubeRequestException, SonarQubeException {
+        return getProjectQualityGateAbstract();
+    }
+
+    @Override
+    public Map<String, String> getQualityGateStatus() throws BadSonarQubeRequestException, SonarQubeException {
+        return getQualityGateStatusAbstract();
+    }
+
+    @Override
+    protected JsonObject getQualityGatesAsJsonObject() throws BadSonarQubeRequestException, SonarQubeException {
+        return responseToJsonObject(call(() -> this.wsClient.qualitygates().list(new ListRequest())));
+    }
+
+    @Override
+    protected JsonObject getQualityGatesDetailsAsJsonObject(final QualityGate qualityGate)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        final ShowRequest request = new ShowRequest().setName(qualityGate.getName());
+        return responseToJsonObject(call(() -> this.wsClient.qualitygates().show(request)));
+    }
+
+    @Override
+    protected JsonObject getProjectAsJsonObject() throws BadSonarQubeRequestException, SonarQubeException {
+        final org.sonarqube.ws.client.navigation.ComponentRequest request =
+                new org.sonarqube.ws.client.navigation.ComponentRequest()
+                        .setComponent(getProjectKey())
+                        .setBranch(getBranchParameter());
+        return responseToJsonObject(call(() -> this.wsClient.navigation().component(request)));
+    }
+
+    @Override
+    protected JsonObject getQualityGateStatusAsJsonObject() throws BadSonarQubeRequestException, SonarQubeException {
+        final ProjectStatusRequest request = new ProjectStatusRequest()
+                .setProjectKey(getProjectKey())
+                .setBranch(getBranchParameter());
+        return responseToJsonObject(call(() -> this.wsClient.qualitygates().projectStatus(request)));
+    }
+
+    @Override
+    protected JsonObject getMetricAsJsonObject(final String metricKey)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        final ComponentRequest request = new ComponentRequest()
+                .setComponent(getProjectKey())
+                .setMetricKeys(Collections.singletonList(metricKey))
+                .setAdditionalFields(Collections.singletonList("metrics"))
+                .setBranch(getBranchParameter());
+        return responseToJsonObject(call(() -> this.wsClient.measures().component(request)));
+    }
+}
@@ -17,6 +17,7 @@
 
 package fr.cnes.sonar.report.providers.qualityprofile;
 
+import fr.cnes.sonar.report.events.PaginationEvent;
 import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
 import fr.cnes.sonar.report.exceptions.SonarQubeException;
 import fr.cnes.sonar.report.model.ProfileData;
@@ -25,12 +26,16 @@ import fr.cnes.sonar.report.model.Project;
 import fr.cnes.sonar.report.model.QualityProfile;
 import fr.cnes.sonar.report.model.Rule;
 import fr.cnes.sonar.report.providers.AbstractDataProvider;
+import fr.cnes.sonar.report.providers.JsonStreamReader;
 import fr.cnes.sonar.report.utils.StringManager;
 
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 
 import org.sonarqube.ws.client.WsClient;
@@ -111,31 +116,17 @@ public abstract class AbstractQualityProfileProvider extends AbstractDataProvide
             final String profileKey = profileMetaData.getKey().replaceAll(
                     String.valueOf(StringManager.SPACE),
                     StringManager.URI_SPACE);
+            final PaginationEvent event = PaginationEvent.start(RULES);
             // continue until there are no more results
             while(goon) {
-                jo = getQualityProfilesRulesAsJsonObject(page, profileKey);
-                // convert json to Rule objects
-                final Rule [] tmp = (getGson().fromJson(jo.get(RULES), Rule[].class));
-
-                // Redefine the rule's severity, based on the active Quality Profile (not only the default one)
-                for (Rule r: tmp) {
-                    // If the rule is active in the Quality Profile
-                    if(jo.get(ACTIVES).getAsJsonObject().has(r.getKey())) {
-                        // Retrieve the severity set in the Quality Profile, and override the rule's default severity
-                        String severity = jo.get(ACTIVES).getAsJsonObject().get(r.getKey()).getAsJsonArray().get(0)
-                                .getAsJsonObject().get("severity").getAsString();
-                        r.setSeverity(severity);
-                    }
-                }
-
-                // add rules to the result list
-                rules.addAll(Arrays.asList(tmp));
+                // add the rules of the page to the result list
+                final int number = readQualityProfileRulesPage(page, profileKey, rules);
 
                 // check if there are other pages
-                final int number = (jo.get(TOTAL).getAsInt());
                 goon = page* Integer.valueOf(getRequest(MAX_PER_PAGE_SONARQUBE)) < number;
                 page++;
             }
+            event.complete(page - 1, rules.size());
             profileData.setRules(rules);
 
             jo = getQualityProfilesProjectsAsJsonObject(profileMetaData);
@@ -151,6 +142,40 @@ public abstract class AbstractQualityProfileProvider extends AbstractDataProvide
         return res;
     }
 
+    /**
+     * Read a page of the rules of a quality profile, with the severity they have in this quality profile.
+     * By default the response is read as json and its rules are deserialized while it is read.
+     * @param page The current page.
+     * @param profileKey The key of the quality profile.
+     * @param rules The list receiving the rules of the page.
+     * @return The total number of rules of the quality profile.
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    protected int readQualityProfileRulesPage(final int page, final String profileKey, final List<Rule> rules)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        // convert json to Rule objects while the response is read
+        final List<Rule> tmp = new ArrayList<>();
+        final JsonObject jo = getQualityProfilesRulesAsJsonObject(page, profileKey, Collections.singletonMap(RULES,
+                element -> tmp.add(getGson().fromJson(element, Rule.class))));
+
+        // Redefine the rule's severity, based on the active Quality Profile (not only the default one)
+        for (Rule r: tmp) {
+            // If the rule is active in the Quality Profile
+            if(jo.get(ACTIVES).getAsJsonObject().has(r.getKey())) {
+                // Retrieve the severity set in the Quality Profile, and override the rule's default severity
+                String severity = jo.get(ACTIVES).getAsJsonObject().get(r.getKey()).getAsJsonArray().get(0)
+                        .getAsJsonObject().get("severity").getAsString();
+                r.setSeverity(severity);
+            }
+        }
+
+        // add rules to the result list
+        rules.addAll(tmp);
+
+        return jo.get(TOTAL).getAsInt();
+    }
+
     /**
      * Get a JsonObject from the response of a search quality profiles request.
      * @return The response as a JsonObject.
@@ -180,6 +205,21 @@ public abstract class AbstractQualityProfileProvider extends AbstractDataProvide
     protected abstract JsonObject getQualityProfilesRulesAsJsonObject(final int page, final String profileKey)
             throws BadSonarQubeRequestException, SonarQubeException;
 
+    /**
+     * Read a search rules request as a stream. By default the response
+     * is fully read then its arrays are handed to their handler.
+     * @param page The current page.
+     * @param profileKey The key of the quality profile.
+     * @param arrays Handlers of the elements of the arrays, indexed by field name.
+     * @return The other fields of the response as a JsonObject.
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    protected JsonObject getQualityProfilesRulesAsJsonObject(final int page, final String profileKey,
+            final Map<String, Consumer<JsonElement>> arrays) throws BadSonarQubeRequestException, SonarQubeException {
+        return JsonStreamReader.dispatch(getQualityProfilesRulesAsJsonObject(page, profileKey), arrays);
+    }
+
     /**
      * Get a JsonObject from the response of a get quality profiles projects request.
      * @param profileMetaData The quality profile metadata.
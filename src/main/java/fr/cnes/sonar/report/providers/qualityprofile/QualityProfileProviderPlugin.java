@@ -0,0 +1,121 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.providers.qualityprofile;
+
+import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
+import fr.cnes.sonar.report.exceptions.SonarQubeException;
+import fr.cnes.sonar.report.model.ProfileMetaData;
+import fr.cnes.sonar.report.model.QualityProfile;
+import fr.cnes.sonar.report.model.Rule;
+import fr.cnes.sonar.report.providers.ProtobufMapper;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.JsonObject;
+
+import org.sonarqube.ws.Rules;
+import org.sonarqube.ws.client.WsClient;
+import org.sonarqube.ws.client.qualityprofiles.ExportRequest;
+import org.sonarqube.ws.client.qualityprofiles.ProjectsRequest;
+import org.sonarqube.ws.client.qualityprofiles.SearchRequest;
+
+/**
+ * Provides quality profiles in plugin mode
+ */
+public class QualityProfileProviderPlugin extends AbstractQualityProfileProvider implements QualityProfileProvider {
+
+    /**
+     * Complete constructor.
+     * @param wsClient The web client.
+     * @param project The id of the project to report.
+     */
+    public QualityProfileProviderPlugin(final WsClient wsClient, final String project) {
+        super(wsClient, project);
+    }
+
+    @Override
+    public List<QualityProfile> getQualityProfiles()
+            throws BadSonarQubeRequestException, SonarQubeException {
+        return getQualityProfilesAbstract();
+    }
+
+    @Override
+    protected JsonObject getQualityProfilesAsJsonObject() throws BadSonarQubeRequestException, SonarQubeException {
+        final SearchRequest request = new SearchRequest().setProject(getProjectKey());
+        return responseToJsonObject(call(() -> this.wsClient.qualityprofiles().search(request)));
+    }
+
+    @Override
+    protected String getQualityProfilesConfAsXml(final ProfileMetaData profileMetaData)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        final ExportRequest request = new ExportRequest()
+                .setLanguage(profileMetaData.getLanguage())
+                .setQualityProfile(profileMetaData.getName());
+        return call(() -> this.wsClient.qualityprofiles().export(request));
+    }
+
+    @Override
+    protected JsonObject getQualityProfilesRulesAsJsonObject(final int page, final String profileKey)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        return responseToJsonObject(searchRules(page, profileKey));
+    }
+
+    @Override
+    protected int readQualityProfileRulesPage(final int page, final String profileKey, final List<Rule> rules)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        final Rules.SearchResponse response = searchRules(page, profileKey);
+        final Map<String, Rules.ActiveList> actives = response.getActives().getActivesMap();
+        for (Rules.Rule rule : response.getRulesList()) {
+            final Rule res = ProtobufMapper.toRule(rule);
+            // the severity of the rule in the quality profile overrides its default severity
+            final Rules.ActiveList active = actives.get(rule.getKey());
+            if (active != null && active.getActiveListCount() > 0) {
+                res.setSeverity(active.getActiveList(0).getSeverity());
+            }
+            rules.add(res);
+        }
+        return (int) response.getPaging().getTotal();
+    }
+
+    /**
+     * Search a page of the rules activated in a quality profile.
+     * @param page The current page.
+     * @param profileKey The key of the quality profile.
+     * @return The page of rules.
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     */
+    private Rules.SearchResponse searchRules(final int page, final String profileKey)
+            throws BadSonarQubeRequestException {
+        final org.sonarqube.ws.client.rules.SearchRequest request = new org.sonarqube.ws.client.rules.SearchRequest()
+                .setQprofile(profileKey)
+                .setF(Arrays.asList(getMetrics(QP_ISSUES_FIELDS).split(",")))
+                .setPs(getRequest(MAX_PER_PAGE_SONARQUBE))
+                .setP(String.valueOf(page))
+                .setActivation("true");
+        return call(() -> this.wsClient.rules().search(request));
+    }
+
+    @Override
+    protected JsonObject getQualityProfilesProjectsAsJsonObject(final ProfileMetaData profileMetaData)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        final ProjectsRequest request = new ProjectsRequest().setKey(profileMetaData.getKey());
+        return responseToJsonObject(call(() -> this.wsClient.qualityprofiles().projects(request)));
+    }
+}
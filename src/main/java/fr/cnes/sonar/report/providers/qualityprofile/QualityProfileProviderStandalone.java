@@ -24,7 +24,10 @@ import fr.cnes.sonar.report.model.QualityProfile;
 import fr.cnes.sonar.report.utils.UrlEncoder;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 
 /**
@@ -83,8 +86,14 @@ public class QualityProfileProviderStandalone extends AbstractQualityProfileProv
         @Override
         protected JsonObject getQualityProfilesRulesAsJsonObject(final int page, final String profileKey)
                         throws BadSonarQubeRequestException, SonarQubeException {
-                return request(String.format(getRequest(GET_QUALITY_PROFILES_RULES_REQUEST), getServer(), profileKey,
-                                getMetrics(QP_ISSUES_FIELDS), Integer.valueOf(getRequest(MAX_PER_PAGE_SONARQUBE)), page));
+                return request(getQualityProfilesRulesRequest(page, profileKey));
+        }
+
+        @Override
+        protected JsonObject getQualityProfilesRulesAsJsonObject(final int page, final String profileKey,
+                        final Map<String, Consumer<JsonElement>> arrays)
+                        throws BadSonarQubeRequestException, SonarQubeException {
+                return request(getQualityProfilesRulesRequest(page, profileKey), arrays);
         }
 
         @Override
@@ -93,4 +102,15 @@ public class QualityProfileProviderStandalone extends AbstractQualityProfileProv
                 return request(String.format(getRequest(GET_QUALITY_PROFILES_PROJECTS_REQUEST), getServer(),
                                 profileMetaData.getKey()));
         }
+
+        /**
+         * Prepare the request to get a page of the rules of a quality profile.
+         * @param page The current page.
+         * @param profileKey The key of the quality profile.
+         * @return The url of the request.
+         */
+        private String getQualityProfilesRulesRequest(final int page, final String profileKey) {
+                return String.format(getRequest(GET_QUALITY_PROFILES_RULES_REQUEST), getServer(), profileKey,
+                                getMetrics(QP_ISSUES_FIELDS), Integer.valueOf(getRequest(MAX_PER_PAGE_SONARQUBE)), page);
+        }
 }
@@ -17,16 +17,26 @@
 
 package fr.cnes.sonar.report.providers.securityhotspots;
 
+import fr.cnes.sonar.report.events.PaginationEvent;
 import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
 import fr.cnes.sonar.report.exceptions.SonarQubeException;
 import fr.cnes.sonar.report.model.Comment;
+import fr.cnes.sonar.report.model.Rule;
 import fr.cnes.sonar.report.model.SecurityHotspot;
 import fr.cnes.sonar.report.providers.AbstractDataProvider;
+import fr.cnes.sonar.report.providers.ConcurrentFetcher;
+import fr.cnes.sonar.report.providers.JsonStreamReader;
+import fr.cnes.sonar.report.utils.StringManager;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 
 import org.sonarqube.ws.client.WsClient;
@@ -52,13 +62,17 @@ public abstract class AbstractSecurityHotspotsProvider extends AbstractDataProvi
      */
     private static final String COMMENTS = "comment";
     /**
-     * Field to search in json to get the security hotspot's severity
+     * Name of the setting giving the number of security hotspots details fetched concurrently
      */
-    private static final String SEVERITY = "severity";
+    private static final String HOTSPOTS_PARALLELISM = "securityhotspots.fetch.parallelism";
     /**
-     * Field to search in json to get the security hotspot's language
+     * Name of the setting enabling the search of the next page during the fetch of the details
      */
-    private static final String LANGUAGE = "langName";
+    private static final String HOTSPOTS_PREFETCH = "securityhotspots.fetch.prefetch";
+    /**
+     * Name of the setting giving the number of rules requested at once
+     */
+    private static final String RULES_BATCH_SIZE = "securityhotspots.rules.batchSize";
     /**
      * Value of the status parameter to get security hotspots to review
      */
@@ -68,6 +82,31 @@ public abstract class AbstractSecurityHotspotsProvider extends AbstractDataProvi
      */
     protected static final String REVIEWED = "REVIEWED";
 
+    /**
+     * Page of security hotspots
+     */
+    private static final class HotspotsPage {
+        /** Security hotspots of the page */
+        private final List<SecurityHotspot> hotspots;
+        /** Total number of security hotspots of the search */
+        private final int total;
+
+        /**
+         * Complete constructor
+         * @param pHotspots Security hotspots of the page.
+         * @param pTotal Total number of security hotspots of the search.
+         */
+        private HotspotsPage(final List<SecurityHotspot> pHotspots, final int pTotal) {
+            this.hotspots = pHotspots;
+            this.total = pTotal;
+        }
+    }
+
+    /**
+     * Rules of the security hotspots already met, indexed by key
+     */
+    private final Map<String, Rule> rulesCache = new ConcurrentHashMap<>();
+
     /**
      * Complete constructor.
      * @param pServer SonarQube server.
@@ -101,54 +140,209 @@ public abstract class AbstractSecurityHotspotsProvider extends AbstractDataProvi
             throws BadSonarQubeRequestException, SonarQubeException {
         // results variable
         final List<SecurityHotspot> res = new ArrayList<>();
-        // stop condition
-        boolean goOn = true;
         // current page
         int page = 1;
         // get maximum number of results per page
         final int maxPerPage = Integer.parseInt(getRequest(MAX_PER_PAGE_SONARQUBE));
+        // whether the next page is searched while the details of the current one are fetched
+        final boolean prefetch = isConcurrent() && Boolean.parseBoolean(StringManager.getSetting(HOTSPOTS_PREFETCH));
 
         // search all security hotspots of the project
-        while(goOn) {
-            final JsonObject searchHotspotsResult = getSecurityHotspotsAsJsonObject(page, maxPerPage, status);
-            // transform json to SecurityHotspot[]
-            SecurityHotspot[] securityHotspotTemp = getGson().fromJson(searchHotspotsResult.get(HOTSPOTS),
-                    SecurityHotspot[].class);
-            // perform requests to get more information about each security hotspot
-            for (SecurityHotspot securityHotspot : securityHotspotTemp) {
-                final String securityHotspotKey = securityHotspot.getKey();
-                final JsonObject showHotspotsResult = getSecurityHotspotAsJsonObject(securityHotspotKey);
-                JsonObject rule = showHotspotsResult.get(RULE).getAsJsonObject();
-                String key = rule.get(KEY).getAsString();
-                Comment[] comments = getGson().fromJson(showHotspotsResult.get(COMMENTS), Comment[].class);
-                securityHotspot.setRule(key);
-                securityHotspot.setComments(comments);
-                if(status.equals(REVIEWED)) {
-                    String resolution = showHotspotsResult.get(RESOLUTION).getAsString();
-                    securityHotspot.setResolution(resolution);
+        final PaginationEvent event = PaginationEvent.start(HOTSPOTS);
+        HotspotsPage current = readPage(page, maxPerPage, status);
+        while(current != null) {
+            // start the search of the next page if any
+            final int nextPage = page + 1;
+            final boolean goOn = page*maxPerPage < current.total;
+            final ConcurrentFetcher.Pending<HotspotsPage> next = goOn && prefetch ?
+                    ConcurrentFetcher.submit(() -> readPage(nextPage, maxPerPage, status)) : null;
+
+            try {
+                // perform requests to get more information about each security hotspot
+                setDetails(current.hotspots, status);
+                // get severity and language of the rules in bulk
+                loadRules(current.hotspots);
+            } catch (BadSonarQubeRequestException | SonarQubeException | RuntimeException e) {
+                // the next page will not be used
+                if (next != null) {
+                    next.cancel();
                 }
-                final String securityHotspotRule = securityHotspot.getRule();
-                final JsonObject showRuleResult = getRuleAsJsonObject(securityHotspotRule);
-                JsonObject ruleContent = showRuleResult.get(RULE).getAsJsonObject();
-                String severity = ruleContent.get(SEVERITY).getAsString();
-                String language = ruleContent.get(LANGUAGE).getAsString();
-                securityHotspot.setSeverity(severity);
-                securityHotspot.setLanguage(language);
+                throw e;
+            }
+            for (SecurityHotspot securityHotspot : current.hotspots) {
+                final Rule rule = rulesCache.getOrDefault(securityHotspot.getRule(), new Rule());
+                securityHotspot.setSeverity(rule.getSeverity());
+                securityHotspot.setLanguage(rule.getLangName());
             }
             // add security hotspots to the final result
-            res.addAll(Arrays.asList(securityHotspotTemp));
-            // get total number of items
-            JsonObject paging = searchHotspotsResult.get(PAGING).getAsJsonObject();
-            int number = paging.get(TOTAL).getAsInt();
-            // update stop condition and increment current page
-            goOn = page*maxPerPage < number;
+            res.addAll(current.hotspots);
+
+            // go to the next page
+            if (!goOn) {
+                current = null;
+            } else if (next != null) {
+                current = next.get();
+            } else {
+                current = readPage(nextPage, maxPerPage, status);
+            }
             page++;
         }
+        event.complete(page - 1, res.size());
 
         // return the security hotspots
         return res;
     }
 
+    /**
+     * Search a page of security hotspots.
+     * @param page The page to get.
+     * @param maxPerPage The maximum page size.
+     * @param status The status of security hotspots.
+     * @return The page of security hotspots.
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    private HotspotsPage readPage(final int page, final int maxPerPage, final String status)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        final List<SecurityHotspot> hotspots = new ArrayList<>();
+        final int total = readSecurityHotspotsPage(page, maxPerPage, status, hotspots);
+        return new HotspotsPage(hotspots, total);
+    }
+
+    /**
+     * Search a page of security hotspots. By default the response is read as json
+     * and its security hotspots are deserialized while it is read.
+     * @param page The page to get.
+     * @param maxPerPage The maximum page size.
+     * @param status The status of security hotspots.
+     * @param hotspots The list receiving the security hotspots of the page.
+     * @return The total number of security hotspots of the search.
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    protected int readSecurityHotspotsPage(final int page, final int maxPerPage, final String status,
+            final List<SecurityHotspot> hotspots) throws BadSonarQubeRequestException, SonarQubeException {
+        final JsonObject searchHotspotsResult = getSecurityHotspotsAsJsonObject(page, maxPerPage, status,
+                Collections.singletonMap(HOTSPOTS,
+                        element -> hotspots.add(getGson().fromJson(element, SecurityHotspot.class))));
+        // get total number of items
+        final JsonObject paging = searchHotspotsResult.get(PAGING).getAsJsonObject();
+        return paging.get(TOTAL).getAsInt();
+    }
+
+    /**
+     * Complete a security hotspot with its rule, comments and resolution. By default the response is read as json.
+     * @param securityHotspot The security hotspot.
+     * @param status The status of security hotspots, the resolution is only read for reviewed ones.
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    protected void readSecurityHotspotDetails(final SecurityHotspot securityHotspot, final String status)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        final JsonObject showHotspotsResult = getSecurityHotspotAsJsonObject(securityHotspot.getKey());
+        JsonObject rule = showHotspotsResult.get(RULE).getAsJsonObject();
+        securityHotspot.setRule(rule.get(KEY).getAsString());
+        securityHotspot.setComments(getGson().fromJson(showHotspotsResult.get(COMMENTS), Comment[].class));
+        if(status.equals(REVIEWED)) {
+            securityHotspot.setResolution(showHotspotsResult.get(RESOLUTION).getAsString());
+        }
+    }
+
+    /**
+     * Search rules by key. By default the response is read as json.
+     * @param ruleKeys The comma separated keys of the rules.
+     * @return The rules.
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    protected List<Rule> getRules(final String ruleKeys) throws BadSonarQubeRequestException, SonarQubeException {
+        return Arrays.asList(getGson().fromJson(getRulesAsJsonObject(ruleKeys).get(RULES), Rule[].class));
+    }
+
+    /**
+     * Show a rule by key. By default the response is read as json.
+     * @param ruleKey The key of the rule.
+     * @return The rule.
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    protected Rule getRule(final String ruleKey) throws BadSonarQubeRequestException, SonarQubeException {
+        return getGson().fromJson(getRuleAsJsonObject(ruleKey).get(RULE), Rule.class);
+    }
+
+    /**
+     * Complete security hotspots with their rule, comments and resolution.
+     * Details of the security hotspots are requested concurrently.
+     * @param securityHotspots The security hotspots.
+     * @param status The status of security hotspots.
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    private void setDetails(final List<SecurityHotspot> securityHotspots, final String status)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        // each security hotspot is completed by its own fetch
+        final List<ConcurrentFetcher.Fetch<SecurityHotspot>> fetches = new ArrayList<>();
+        for (SecurityHotspot securityHotspot : securityHotspots) {
+            fetches.add(() -> {
+                readSecurityHotspotDetails(securityHotspot, status);
+                return securityHotspot;
+            });
+        }
+        final int parallelism = getParallelism(HOTSPOTS_PARALLELISM);
+        ConcurrentFetcher.fetchAll(fetches, parallelism);
+    }
+
+    /**
+     * Retrieve the rules of some security hotspots which are not known yet.
+     * Rules are requested by batches and kept for the whole run.
+     * @param securityHotspots The security hotspots.
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    private void loadRules(final List<SecurityHotspot> securityHotspots)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        // rules not met yet
+        final List<String> missing = new ArrayList<>();
+        for (SecurityHotspot securityHotspot : securityHotspots) {
+            final String rule = securityHotspot.getRule();
+            if (!rulesCache.containsKey(rule) && !missing.contains(rule)) {
+                missing.add(rule);
+            }
+        }
+
+        // request them by batches
+        final int batchSize = Integer.parseInt(StringManager.getSetting(RULES_BATCH_SIZE));
+        for (int start = 0; start < missing.size(); start += batchSize) {
+            final List<String> batch = missing.subList(start, Math.min(start + batchSize, missing.size()));
+            for (Rule rule : getRules(String.join(",", batch))) {
+                rulesCache.put(rule.getKey(), rule);
+            }
+        }
+
+        // removed rules are not found by the search, they are shown one by one
+        for (String key : missing) {
+            if (!rulesCache.containsKey(key)) {
+                rulesCache.put(key, showRule(key));
+            }
+        }
+    }
+
+    /**
+     * Show a rule which is not found by the search of rules.
+     * @param ruleKey The key of the rule.
+     * @return The rule, empty if SonarQube does not know it at all.
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    private Rule showRule(final String ruleKey) throws SonarQubeException {
+        try {
+            return getRule(ruleKey);
+        } catch (BadSonarQubeRequestException e) {
+            LOGGER.warning(String.format("Rule %s of security hotspots cannot be found, "
+                    + "their severity and language are not reported: %s", ruleKey, e.getMessage()));
+            return new Rule();
+        }
+    }
+
     /**
      * Get a JsonObject from the response of a search hotspots request.
      * @param page The current page.
@@ -161,6 +355,22 @@ public abstract class AbstractSecurityHotspotsProvider extends AbstractDataProvi
     protected abstract JsonObject getSecurityHotspotsAsJsonObject(final int page, final int maxPerPage, final String status)
             throws BadSonarQubeRequestException, SonarQubeException;
 
+    /**
+     * Read a search hotspots request as a stream. By default the response
+     * is fully read then its arrays are handed to their handler.
+     * @param page The current page.
+     * @param maxPerPage The maximum page size.
+     * @param status The status of security hotspots.
+     * @param arrays Handlers of the elements of the arrays, indexed by field name.
+     * @return The other fields of the response as a JsonObject.
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    protected JsonObject getSecurityHotspotsAsJsonObject(final int page, final int maxPerPage, final String status,
+            final Map<String, Consumer<JsonElement>> arrays) throws BadSonarQubeRequestException, SonarQubeException {
+        return JsonStreamReader.dispatch(getSecurityHotspotsAsJsonObject(page, maxPerPage, status), arrays);
+    }
+
     /**
      * Get a JsonObject from the response of a search hotspots request.
      * @param securityHotspotKey The key of the security hotspot.
@@ -171,13 +381,23 @@ public abstract class AbstractSecurityHotspotsProvider extends AbstractDataProvi
     protected abstract JsonObject getSecurityHotspotAsJsonObject(final String securityHotspotKey)
             throws BadSonarQubeRequestException, SonarQubeException;
     
+    /**
+     * Get a JsonObject from the response of a search rules request.
+     * @param ruleKeys The comma separated keys of the rules.
+     * @return The response as a JsonObject.
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    protected abstract JsonObject getRulesAsJsonObject(final String ruleKeys)
+            throws BadSonarQubeRequestException, SonarQubeException;
+
     /**
      * Get a JsonObject from the response of a show rule request.
-     * @param securityHotspotRule The key of the rule.
+     * @param ruleKey The key of the rule.
      * @return The response as a JsonObject.
      * @throws BadSonarQubeRequestException A request is not recognized by the server.
      * @throws SonarQubeException When SonarQube server is not callable.
      */
-    protected abstract JsonObject getRuleAsJsonObject(final String securityHotspotRule)
+    protected abstract JsonObject getRuleAsJsonObject(final String ruleKey)
             throws BadSonarQubeRequestException, SonarQubeException;
-}
\ No newline at end of file
+}
@@ -0,0 +1,193 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.providers.securityhotspots;
+
+import fr.cnes.sonar.report.model.Rule;
+import fr.cnes.sonar.report.model.SecurityHotspot;
+import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
+import fr.cnes.sonar.report.exceptions.SonarQubeException;
+import fr.cnes.sonar.report.providers.ProtobufMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.JsonObject;
+
+import org.sonarqube.ws.Hotspots;
+import org.sonarqube.ws.Rules;
+import org.sonarqube.ws.client.GetRequest;
+import org.sonarqube.ws.client.WsClient;
+import org.sonarqube.ws.client.hotspots.SearchRequest;
+import org.sonarqube.ws.client.hotspots.ShowRequest;
+
+/**
+ * Provides security hotspots items in plugin mode
+ */
+public class SecurityHotspotsProviderPlugin extends AbstractSecurityHotspotsProvider implements SecurityHotspotsProvider {
+
+    /**
+     * Path of the web service searching rules
+     */
+    private static final String RULES_SEARCH = "api/rules/search";
+    /**
+     * Path of the web service showing a rule
+     */
+    private static final String RULES_SHOW = "api/rules/show";
+
+    /**
+     * Complete constructor.
+     *
+     * @param wsClient The web client.
+     * @param project  The id of the project to report.
+     * @param branch   The branch of the project to report.
+     */
+    public SecurityHotspotsProviderPlugin(final WsClient wsClient, final String project, final String branch) {
+        super(wsClient, project, branch);
+    }
+
+    @Override
+    public List<SecurityHotspot> getToReviewSecurityHotspots()
+            throws BadSonarQubeRequestException, SonarQubeException {
+        return getSecurityHotspotsByStatusAbstract(TO_REVIEW);
+    }
+
+    @Override
+    public List<SecurityHotspot> getReviewedSecurityHotspots()
+            throws BadSonarQubeRequestException, SonarQubeException {
+        return getSecurityHotspotsByStatusAbstract(REVIEWED);
+    }
+
+    @Override
+    protected JsonObject getSecurityHotspotsAsJsonObject(final int page, final int maxPerPage, final String status)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        return responseToJsonObject(search(page, maxPerPage, status));
+    }
+
+    @Override
+    protected JsonObject getSecurityHotspotAsJsonObject(final String securityHotspotKey)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        return responseToJsonObject(show(securityHotspotKey));
+    }
+
+    @Override
+    protected JsonObject getRulesAsJsonObject(final String ruleKeys)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        return responseToJsonObject(searchRules(ruleKeys));
+    }
+
+    @Override
+    protected JsonObject getRuleAsJsonObject(final String ruleKey)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        return responseToJsonObject(showRule(ruleKey));
+    }
+
+    @Override
+    protected int readSecurityHotspotsPage(final int page, final int maxPerPage, final String status,
+            final List<SecurityHotspot> hotspots) throws BadSonarQubeRequestException, SonarQubeException {
+        final Hotspots.SearchWsResponse response = search(page, maxPerPage, status);
+        for (Hotspots.SearchWsResponse.Hotspot hotspot : response.getHotspotsList()) {
+            hotspots.add(ProtobufMapper.toSecurityHotspot(hotspot));
+        }
+        return (int) response.getPaging().getTotal();
+    }
+
+    @Override
+    protected void readSecurityHotspotDetails(final SecurityHotspot securityHotspot, final String status)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        final Hotspots.ShowWsResponse details = show(securityHotspot.getKey());
+        securityHotspot.setRule(details.getRule().getKey());
+        securityHotspot.setComments(ProtobufMapper.toComments(details.getCommentList()));
+        if (status.equals(REVIEWED)) {
+            securityHotspot.setResolution(details.getResolution());
+        }
+    }
+
+    @Override
+    protected List<Rule> getRules(final String ruleKeys) throws BadSonarQubeRequestException, SonarQubeException {
+        final List<Rule> rules = new ArrayList<>();
+        for (Rules.Rule rule : searchRules(ruleKeys).getRulesList()) {
+            rules.add(ProtobufMapper.toRule(rule));
+        }
+        return rules;
+    }
+
+    @Override
+    protected Rule getRule(final String ruleKey) throws BadSonarQubeRequestException, SonarQubeException {
+        return ProtobufMapper.toRule(showRule(ruleKey).getRule());
+    }
+
+    /**
+     * Search a page of security hotspots.
+     * @param page The current page.
+     * @param maxPerPage The maximum page size.
+     * @param status The status of security hotspots.
+     * @return The page of security hotspots.
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     */
+    private Hotspots.SearchWsResponse search(final int page, final int maxPerPage, final String status)
+            throws BadSonarQubeRequestException {
+        final SearchRequest request = new SearchRequest()
+                .setProjectKey(getProjectKey())
+                .setBranch(getBranchParameter())
+                .setP(String.valueOf(page))
+                .setPs(String.valueOf(maxPerPage))
+                .setStatus(status);
+        return call(() -> this.wsClient.hotspots().search(request));
+    }
+
+    /**
+     * Show the details of a security hotspot.
+     * @param securityHotspotKey The key of the security hotspot.
+     * @return The security hotspot.
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     */
+    private Hotspots.ShowWsResponse show(final String securityHotspotKey) throws BadSonarQubeRequestException {
+        final ShowRequest request = new ShowRequest().setHotspot(securityHotspotKey);
+        return call(() -> this.wsClient.hotspots().show(request));
+    }
+
+    /**
+     * Search rules by key.
+     * @param ruleKeys The comma separated keys of the rules.
+     * @return The rules found.
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    private Rules.SearchResponse searchRules(final String ruleKeys)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        // the typed search of the web client cannot search several rules by key
+        final GetRequest request = new GetRequest(RULES_SEARCH)
+                .setParam("rule_keys", ruleKeys)
+                .setParam("f", "severity,langName")
+                .setParam("ps", getRequest(MAX_PER_PAGE_SONARQUBE));
+        return call(request, Rules.SearchResponse.parser());
+    }
+
+    /**
+     * Show a rule by key.
+     * @param ruleKey The key of the rule.
+     * @return The rule.
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    private Rules.ShowResponse showRule(final String ruleKey)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        final GetRequest request = new GetRequest(RULES_SHOW).setParam("key", ruleKey);
+        return call(request, Rules.ShowResponse.parser());
+    }
+}
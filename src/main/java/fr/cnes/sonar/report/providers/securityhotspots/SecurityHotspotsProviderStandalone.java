@@ -22,7 +22,10 @@ import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
 import fr.cnes.sonar.report.exceptions.SonarQubeException;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 
 /**
@@ -38,6 +41,10 @@ public class SecurityHotspotsProviderStandalone extends AbstractSecurityHotspots
      * Name of the request for getting a specific security hotspot
      */
     private static final String GET_SECURITY_HOTSPOT_REQUEST = "GET_SECURITY_HOTSPOT_REQUEST";
+    /**
+     * Name of the request for getting rules by keys
+     */
+    private static final String GET_RULES_REQUEST = "GET_RULES_REQUEST";
     /**
      * Name of the request for getting a specific rule
      */
@@ -82,8 +89,13 @@ public class SecurityHotspotsProviderStandalone extends AbstractSecurityHotspots
     @Override
     protected JsonObject getSecurityHotspotsAsJsonObject(final int page, final int maxPerPage, final String status)
             throws BadSonarQubeRequestException, SonarQubeException {
-        return request(String.format(getRequest(GET_SECURITY_HOTSPOTS_REQUEST), getServer(), getBranch(), page,
-                getProjectKey(), maxPerPage, status));
+        return request(getSecurityHotspotsRequest(page, maxPerPage, status));
+    }
+
+    @Override
+    protected JsonObject getSecurityHotspotsAsJsonObject(final int page, final int maxPerPage, final String status,
+            final Map<String, Consumer<JsonElement>> arrays) throws BadSonarQubeRequestException, SonarQubeException {
+        return request(getSecurityHotspotsRequest(page, maxPerPage, status), arrays);
     }
 
     @Override
@@ -93,8 +105,27 @@ public class SecurityHotspotsProviderStandalone extends AbstractSecurityHotspots
     }
 
     @Override
-    protected JsonObject getRuleAsJsonObject(final String securityHotspotRule)
+    protected JsonObject getRulesAsJsonObject(final String ruleKeys)
             throws BadSonarQubeRequestException, SonarQubeException {
-        return request(String.format(getRequest(GET_RULE_REQUEST), getServer(), securityHotspotRule));
+        return request(String.format(getRequest(GET_RULES_REQUEST), getServer(), ruleKeys,
+                getRequest(MAX_PER_PAGE_SONARQUBE)));
+    }
+
+    @Override
+    protected JsonObject getRuleAsJsonObject(final String ruleKey)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        return request(String.format(getRequest(GET_RULE_REQUEST), getServer(), ruleKey));
+    }
+
+    /**
+     * Prepare the request to get a page of security hotspots.
+     * @param page The current page.
+     * @param maxPerPage The maximum page size.
+     * @param status The status of security hotspots.
+     * @return The url of the request.
+     */
+    private String getSecurityHotspotsRequest(final int page, final int maxPerPage, final String status) {
+        return String.format(getRequest(GET_SECURITY_HOTSPOTS_REQUEST), getServer(), getBranch(), page,
+                getProjectKey(), maxPerPage, status);
     }
-}
\ No newline at end of file
+}
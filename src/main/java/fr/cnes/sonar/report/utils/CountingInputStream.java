@@ -0,0 +1,73 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.utils;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.LongConsumer;
+
+/**
+ * Stream giving the number of bytes read from it to a counter as they are read.
+ */
+public class CountingInputStream extends FilterInputStream {
+
+    /** Counter of the bytes read. */
+    private final LongConsumer counter;
+
+    /**
+     * Constructor.
+     * @param pInput Stream to read.
+     * @param pCounter Counter of the bytes read.
+     */
+    public CountingInputStream(final InputStream pInput, final LongConsumer pCounter) {
+        super(pInput);
+        this.counter = pCounter;
+    }
+
+    /**
+     * Read a byte and count it.
+     * @return The byte, -1 at the end of the stream.
+     * @throws IOException When the stream cannot be read.
+     */
+    @Override
+    public int read() throws IOException {
+        final int read = super.read();
+        if (read >= 0) {
+            counter.accept(1);
+        }
+        return read;
+    }
+
+    /**
+     * Read bytes and count them.
+     * @param buffer Buffer receiving the bytes.
+     * @param offset Offset of the first byte in the buffer.
+     * @param length Maximum number of bytes to read.
+     * @return The number of bytes read, -1 at the end of the stream.
+     * @throws IOException When the stream cannot be read.
+     */
+    @Override
+    public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+        final int read = super.read(buffer, offset, length);
+        if (read > 0) {
+            counter.accept(read);
+        }
+        return read;
+    }
+}
@@ -0,0 +1,539 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.utils;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+/**
+ * Measure the phases of report generations: wall time, http calls, bytes received, pages fetched,
+ * bytes allocated and peak heap of each phase.
+ * A generation is measured from the root phase given by {@link #start(String)}, several generations
+ * may be measured at the same time in different threads. Phases are nested, a phase opened in a thread
+ * is a child of the phase currently open in this thread, nothing is measured in a thread without root phase.
+ * Work given to other threads is attributed to the phase which gave it with {@link #propagate(Callable)}.
+ * Counters of a phase include the ones of its children.
+ */
+public final class Profiler {
+
+    /** Property for the interval in milliseconds between two samples of the heap. */
+    public static final String SAMPLING = "profile.sampling";
+
+    /** Number of bytes in a megabyte. */
+    private static final double MEGABYTE = 1024.0 * 1024.0;
+    /** Number of bytes in a kilobyte. */
+    private static final double KILOBYTE = 1024.0;
+    /** Format of a line of the summary. */
+    private static final String SUMMARY_LINE = "%n%-34s %10s %10s %13s %8s %14s %14s";
+
+    /** Unique instance of the profiler. */
+    private static final Profiler INSTANCE = new Profiler();
+
+    /** Phase given in a thread which is not measured, it measures nothing. */
+    private static final Phase NONE = new Phase("", null, null, null);
+
+    /** Measure of the memory allocated by threads, null if the JVM does not give it. */
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+    /** Measure of the heap. */
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    /** Phases currently open, updated by the heap samples. */
+    private final Set<Phase> open = ConcurrentHashMap.newKeySet();
+    /** Phase measured in each thread. */
+    private final ThreadLocal<Frame> frames = ThreadLocal.withInitial(Frame::new);
+    /** Number of root phases currently open. */
+    private int roots;
+    /** Thread sampling the heap while a root phase is open, null otherwise. */
+    private Thread sampler;
+
+    /**
+     * A measured phase, closed at the end of the measure.
+     */
+    public static final class Phase implements AutoCloseable {
+
+        /** Name of the phase. */
+        private final String name;
+        /** Enclosing phase, null for a root phase. */
+        private final Phase parent;
+        /** Phases opened inside this one, in opening order. */
+        private final List<Phase> children = new CopyOnWriteArrayList<>();
+        /** Profiler measuring this phase, null for a phase which is not measured. */
+        private final Profiler profiler;
+        /** Phase measured in the thread before this one was opened. */
+        private final Phase previous;
+        /** Start of the phase in nanoseconds. */
+        private final long start;
+        /** End of the phase in nanoseconds, 0 while it is open. */
+        private volatile long end;
+        /** Number of http calls made by this phase, without its children. */
+        private final AtomicLong calls = new AtomicLong();
+        /** Number of bytes received by this phase, without its children. */
+        private final AtomicLong bytes = new AtomicLong();
+        /** Number of pages read by this phase, without its children. */
+        private final AtomicLong pages = new AtomicLong();
+        /** Number of bytes allocated by this phase, without its children. */
+        private final AtomicLong allocated = new AtomicLong();
+        /** Highest heap used while the phase was open. */
+        private final AtomicLong peakHeap = new AtomicLong();
+
+        /**
+         * Constructor.
+         * @param pName Name of the phase.
+         * @param pParent Enclosing phase, null for a root phase.
+         * @param pProfiler Profiler measuring this phase, null for a phase which is not measured.
+         * @param pPrevious Phase measured in the thread before this one was opened.
+         */
+        private Phase(final String pName, final Phase pParent, final Profiler pProfiler, final Phase pPrevious) {
+            this.name = pName;
+            this.parent = pParent;
+            this.profiler = pProfiler;
+            this.previous = pPrevious;
+            this.start = System.nanoTime();
+        }
+
+        /**
+         * End the measure of the phase, in the thread which opened it or in the thread it was handed over to
+         * with {@link Profiler#detach(Phase)}.
+         */
+        @Override
+        public void close() {
+            if (profiler != null && end == 0) {
+                profiler.sample();
+                end = System.nanoTime();
+                profiler.open.remove(this);
+                if (profiler.frames.get().phase == this) {
+                    profiler.switchTo(previous);
+                }
+                if (parent == null) {
+                    profiler.stopSampling();
+                }
+            }
+        }
+
+        /**
+         * Whether the phase is measured and not closed yet.
+         * @return True while the phase is open.
+         */
+        public boolean isOpen() {
+            return profiler != null && end == 0;
+        }
+
+        /**
+         * Name of the phase.
+         * @return The name.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Phases opened inside this one.
+         * @return The child phases, in opening order.
+         */
+        public List<Phase> getChildren() {
+            return new ArrayList<>(children);
+        }
+
+        /**
+         * Find a phase by its name among this phase and the phases opened inside it.
+         * @param pName Name of the phase.
+         * @return The first phase of this name in opening order, null if there is none.
+         */
+        public Phase find(final String pName) {
+            if (name.equals(pName)) {
+                return this;
+            }
+            for (Phase child : children) {
+                final Phase found = child.find(pName);
+                if (found != null) {
+                    return found;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Wall time of the phase, up to now if it is still open.
+         * @return The time in milliseconds.
+         */
+        public long getWallTime() {
+            return TimeUnit.NANOSECONDS.toMillis((end != 0 ? end : System.nanoTime()) - start);
+        }
+
+        /**
+         * Number of http calls sent to SonarQube during the phase.
+         * @return The number of calls.
+         */
+        public long getHttpCalls() {
+            return calls.get() + children.stream().mapToLong(Phase::getHttpCalls).sum();
+        }
+
+        /**
+         * Number of bytes of the http responses received during the phase.
+         * @return The number of bytes.
+         */
+        public long getBytesReceived() {
+            return bytes.get() + children.stream().mapToLong(Phase::getBytesReceived).sum();
+        }
+
+        /**
+         * Number of responses read during the phase, from SonarQube, the cache or a replayed archive.
+         * @return The number of pages.
+         */
+        public long getPages() {
+            return pages.get() + children.stream().mapToLong(Phase::getPages).sum();
+        }
+
+        /**
+         * Number of bytes allocated by the objects created during the phase.
+         * @return The number of bytes, 0 if the JVM does not measure it.
+         */
+        public long getAllocatedBytes() {
+            return allocated.get() + children.stream().mapToLong(Phase::getAllocatedBytes).sum();
+        }
+
+        /**
+         * Highest heap used while the phase was open, as seen by the samples of the heap.
+         * @return The number of bytes.
+         */
+        public long getPeakHeap() {
+            return peakHeap.get();
+        }
+
+        /**
+         * Machine readable breakdown of this phase and the phases opened inside it.
+         * @return The phases as a json document.
+         */
+        public String toJson() {
+            final JsonArray array = new JsonArray();
+            for (Phase phase : flatten()) {
+                final JsonObject json = new JsonObject();
+                json.addProperty("name", phase.name);
+                if (phase != this) {
+                    json.addProperty("parent", phase.parent.name);
+                }
+                json.addProperty("wallTimeMs", phase.getWallTime());
+                json.addProperty("httpCalls", phase.getHttpCalls());
+                json.addProperty("bytesReceived", phase.getBytesReceived());
+                json.addProperty("pages", phase.getPages());
+                json.addProperty("allocatedBytes", phase.getAllocatedBytes());
+                json.addProperty("peakHeapBytes", phase.getPeakHeap());
+                array.add(json);
+            }
+            final JsonObject result = new JsonObject();
+            result.add("phases", array);
+            return new GsonBuilder().setPrettyPrinting().create().toJson(result);
+        }
+
+        /**
+         * Human readable summary of this phase and the phases opened inside it,
+         * children are indented under their parent.
+         * @return The summary as a table.
+         */
+        public String summary() {
+            final StringBuilder summary = new StringBuilder("Profile of the report generation:");
+            summary.append(String.format(SUMMARY_LINE, "Phase", "Wall (ms)", "HTTP calls", "Received (KB)",
+                    "Pages", "Allocated (MB)", "Peak heap (MB)"));
+            final int depth = getDepth();
+            for (Phase phase : flatten()) {
+                final String indent = new String(new char[2 * (phase.getDepth() - depth)]).replace('\0', ' ');
+                summary.append(String.format(SUMMARY_LINE, indent + phase.name, phase.getWallTime(),
+                        phase.getHttpCalls(), String.format("%.1f", phase.getBytesReceived() / KILOBYTE),
+                        phase.getPages(), String.format("%.1f", phase.getAllocatedBytes() / MEGABYTE),
+                        String.format("%.1f", phase.getPeakHeap() / MEGABYTE)));
+            }
+            return summary.toString();
+        }
+
+        /**
+         * This phase followed by the phases opened inside it, depth first in opening order.
+         * @return The phases.
+         */
+        private List<Phase> flatten() {
+            final List<Phase> res = new ArrayList<>();
+            res.add(this);
+            for (Phase child : children) {
+                res.addAll(child.flatten());
+            }
+            return res;
+        }
+
+        /**
+         * Depth of the phase in the tree of phases.
+         * @return 0 for a root phase.
+         */
+        private int getDepth() {
+            return parent == null ? 0 : parent.getDepth() + 1;
+        }
+    }
+
+    /**
+     * Phase measured in a thread, and the memory allocated by the thread when it started to measure it.
+     */
+    private static final class Frame {
+        /** Phase measured in the thread, null if none. */
+        private Phase phase;
+        /** Memory allocated by the thread when the phase started to be measured in it. */
+        private long mark;
+    }
+
+    /**
+     * Private constructor, use getInstance instead.
+     */
+    private Profiler() {}
+
+    /**
+     * Give the unique instance of the profiler.
+     * @return The profiler.
+     */
+    public static Profiler getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Start measuring a generation in the current thread, or a phase of it if a generation is already measured.
+     * @param name Name of the root phase.
+     * @return The root phase to close at the end of the generation.
+     */
+    public Phase start(final String name) {
+        if (isMeasured()) {
+            return phase(name);
+        }
+        startSampling();
+        return open(name, null);
+    }
+
+    /**
+     * Open a phase in the current thread, as a child of its current phase.
+     * @param name Name of the phase.
+     * @return The phase to close at its end, it does nothing if the current thread is not measured.
+     */
+    public Phase phase(final String name) {
+        final Phase parent = frames.get().phase;
+        if (parent == null) {
+            return NONE;
+        }
+        final Phase phase = open(name, parent);
+        parent.children.add(phase);
+        return phase;
+    }
+
+    /**
+     * Whether the current thread is measured.
+     * @return True if a phase is open in the current thread.
+     */
+    public boolean isMeasured() {
+        return frames.get().phase != null;
+    }
+
+    /**
+     * Stop measuring the current thread in a phase left open, to hand it over to another thread which
+     * measures its tasks in it with {@link #propagate(Callable)} and closes it.
+     * @param phase The phase, the current phase of the thread.
+     */
+    public void detach(final Phase phase) {
+        if (phase.profiler != null && frames.get().phase == phase) {
+            switchTo(phase.previous);
+        }
+    }
+
+    /**
+     * Attribute a task run by another thread to the current phase of the calling thread.
+     * @param task The task.
+     * @param <T> Type of the result of the task.
+     * @return The task measured in the current phase.
+     */
+    public <T> Callable<T> propagate(final Callable<T> task) {
+        final Phase phase = frames.get().phase;
+        if (phase == null) {
+            return task;
+        }
+        return () -> {
+            final Phase previous = switchTo(phase);
+            try {
+                return task.call();
+            } finally {
+                switchTo(previous);
+            }
+        };
+    }
+
+    /**
+     * Attribute a task run by another thread to the current phase of the calling thread.
+     * @param task The task.
+     * @return The task measured in the current phase.
+     */
+    public Runnable propagate(final Runnable task) {
+        final Phase phase = frames.get().phase;
+        if (phase == null) {
+            return task;
+        }
+        return () -> {
+            final Phase previous = switchTo(phase);
+            try {
+                task.run();
+            } finally {
+                switchTo(previous);
+            }
+        };
+    }
+
+    /**
+     * Count an http call sent by the current thread.
+     */
+    public void recordHttpCall() {
+        final Phase phase = frames.get().phase;
+        if (phase != null) {
+            phase.calls.incrementAndGet();
+        }
+    }
+
+    /**
+     * Count a page read by the current thread.
+     */
+    public void recordPage() {
+        final Phase phase = frames.get().phase;
+        if (phase != null) {
+            phase.pages.incrementAndGet();
+        }
+    }
+
+    /**
+     * Count the bytes read from a response received by the current thread.
+     * @param input Stream of the response.
+     * @return The stream counting the bytes read.
+     */
+    public InputStream count(final InputStream input) {
+        final Phase phase = frames.get().phase;
+        if (phase == null) {
+            return input;
+        }
+        return new CountingInputStream(input, phase.bytes::addAndGet);
+    }
+
+    /**
+     * Open a measured phase in the current thread.
+     * @param name Name of the phase.
+     * @param parent Enclosing phase, null for a root phase.
+     * @return The phase.
+     */
+    private Phase open(final String name, final Phase parent) {
+        final Phase phase = new Phase(name, parent, this, frames.get().phase);
+        open.add(phase);
+        switchTo(phase);
+        sample();
+        return phase;
+    }
+
+    /**
+     * Start the sampling of the heap if no root phase was open.
+     */
+    private synchronized void startSampling() {
+        if (roots++ > 0) {
+            return;
+        }
+        final long interval = Long.parseLong(StringManager.getSetting(SAMPLING));
+        sampler = new Thread(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    sample();
+                    Thread.sleep(interval);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "cnesreport-profiler");
+        sampler.setDaemon(true);
+        sampler.start();
+    }
+
+    /**
+     * Stop the sampling of the heap once the last root phase is closed.
+     */
+    private synchronized void stopSampling() {
+        if (--roots == 0 && sampler != null) {
+            sampler.interrupt();
+            sampler = null;
+        }
+    }
+
+    /**
+     * Change the phase measured in the current thread, the memory allocated by the thread
+     * since the last change is attributed to the previous phase.
+     * @param phase The phase now measured, null for none.
+     * @return The previously measured phase.
+     */
+    private Phase switchTo(final Phase phase) {
+        final Frame frame = frames.get();
+        final long now = allocatedBytes();
+        if (frame.phase != null && now >= 0 && frame.mark >= 0) {
+            frame.phase.allocated.addAndGet(now - frame.mark);
+        }
+        final Phase previous = frame.phase;
+        frame.phase = phase;
+        frame.mark = now;
+        return previous;
+    }
+
+    /**
+     * Take a sample of the heap used for the open phases.
+     */
+    private void sample() {
+        final long used = MEMORY.getHeapMemoryUsage().getUsed();
+        for (Phase phase : open) {
+            phase.peakHeap.accumulateAndGet(used, Math::max);
+        }
+    }
+
+    /**
+     * Memory allocated by the current thread since it started.
+     * @return The number of bytes, -1 if the JVM does not measure it.
+     */
+    private static long allocatedBytes() {
+        return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    /**
+     * Give the measure of the memory allocated by threads.
+     * @return The measure, null if the JVM does not give it.
+     */
+    private static com.sun.management.ThreadMXBean threads() {
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            final com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+            if (allocations.isThreadAllocatedMemorySupported() && allocations.isThreadAllocatedMemoryEnabled()) {
+                return allocations;
+            }
+        }
+        return null;
+    }
+}
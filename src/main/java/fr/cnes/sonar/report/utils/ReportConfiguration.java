@@ -61,6 +61,8 @@ public class ReportConfiguration {
     private String templateSpreadsheet;
     /** Options for n. */
     private String templateMarkdown;
+    /** Options for i. */
+    private boolean profile;
 
     /**
      * Private constructor, use create method instead.
@@ -79,6 +81,7 @@ public class ReportConfiguration {
      * @param templateReport Value for r option.
      * @param templateSpreadsheet Value for x option.
      * @param branch Value for b option.
+     * @param profile Value for i option.
      */
     private ReportConfiguration(final boolean help, final boolean version, final String server,
                                 final String token, final String project, final String output,
@@ -86,7 +89,8 @@ public class ReportConfiguration {
                                 final boolean enableConf, final boolean enableReport,
                                 final boolean enableSpreadsheet, final boolean enableCSV,
                                 final boolean enableMarkdown, String templateReport,
-                                final String templateSpreadsheet, final String templateMarkdown, final String branch) {
+                                final String templateSpreadsheet, final String templateMarkdown, final String branch,
+                                final boolean profile) {
         this.help = help;
         this.version = version;
         this.server = server;
@@ -105,6 +109,7 @@ public class ReportConfiguration {
         this.templateSpreadsheet = templateSpreadsheet;
         this.templateMarkdown = templateMarkdown;
         this.branch = branch;
+        this.profile = profile;
     }
 
     /**
@@ -139,7 +144,8 @@ public class ReportConfiguration {
                 commandLineManager.getOptionValue("r", StringManager.EMPTY),
                 commandLineManager.getOptionValue("x", StringManager.EMPTY),
                 commandLineManager.getOptionValue("n", StringManager.EMPTY),
-                branch.isEmpty()?StringManager.NO_BRANCH:branch
+                branch.isEmpty()?StringManager.NO_BRANCH:branch,
+                commandLineManager.hasOption("i")
         );
     }
 
@@ -210,4 +216,8 @@ public class ReportConfiguration {
     public String getTemplateMarkdown(){
         return templateMarkdown;
     }
+
+    public boolean isProfile() {
+        return profile;
+    }
 }
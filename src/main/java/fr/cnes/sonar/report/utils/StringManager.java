@@ -50,6 +50,8 @@ public final class StringManager {
     public static final String SONAR_URL = "sonar.url";
     /** Name of the property giving the token to authenticate to SonarQube. */
     public static final String SONAR_TOKEN = "sonar.token";
+    /** Prefix of the system properties overriding report settings. */
+    public static final String SETTINGS_PREFIX = "cnesreport.";
     /** Logged message when there are too much issues to export. */
     public static final String ISSUES_OVERFLOW_MSG = "log.overflow.msg";
     /** Pattern to format the date. */
@@ -149,6 +151,16 @@ public final class StringManager {
         return properties.getProperty(property);
     }
 
+    /**
+     * Give the value of a report property which can be overridden at runtime
+     * by the JVM system property "cnesreport.[property]".
+     * @param property Key of the property you want.
+     * @return The overridden value if any, the value of report.properties otherwise.
+     */
+    public static String getSetting(final String property) {
+        return System.getProperty(SETTINGS_PREFIX + property, properties.getProperty(property));
+    }
+
     /**
      * Change the locale and reload messages
      * @param language String in lowercase
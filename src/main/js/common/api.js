@@ -113,4 +113,25 @@ export function getBranches(project) {
   return getJSON("/api/project_branches/list", { "project": project }).then(response => {
     return response.branches;
   });
-}
\ No newline at end of file
+}
+
+// Function used to queue the generation of a report, gives the job identifier
+export function submitReport(params) {
+  return postJSON("/api/cnesreport/submit", params).then(response => {
+    return response.id;
+  });
+}
+
+// Function used to get the state and the progress of a report job
+export function getReportStatus(id) {
+  return getJSON("/api/cnesreport/status", { "id": id });
+}
+
+// Function used to get the message of an error sent by the report actions
+export function getReportError(error) {
+  const fallback = "The report can't be generated, please retry later.";
+  if (error && error.response && typeof error.response.json === "function") {
+    return error.response.json().then(json => json.error || fallback, () => fallback);
+  }
+  return Promise.resolve(fallback);
+}
@@ -5,7 +5,10 @@
 
 import React from "react";
 
-import { initiatePluginToken, isCompatible } from "../../common/api";
+import { initiatePluginToken, isCompatible, submitReport, getReportStatus, getReportError } from "../../common/api";
+
+// Delay between two polls of the state of a report job, in milliseconds
+const POLL_DELAY = 2000;
 
 export default class CnesReportProject extends React.PureComponent {
     state = {
@@ -18,7 +21,10 @@ export default class CnesReportProject extends React.PureComponent {
         enableXlsx: true,
         enableCsv: true,
         enableConf: true,
-        isSupported: true
+        isSupported: true,
+        job: null,
+        status: null,
+        error: ""
     };
 
     onChangeAuthor = (event) => {
@@ -51,6 +57,61 @@ export default class CnesReportProject extends React.PureComponent {
             || this.state.enableCsv || this.state.enableConf);
     }
 
+    // queue the report then poll its state until it can be downloaded
+    onSubmit = (event) => {
+        event.preventDefault();
+        const params = {};
+        new FormData(event.target).forEach((value, name) => {
+            if (value !== "") {
+                params[name] = value;
+            }
+        });
+        this.setState({ status: { state: "QUEUED" }, error: "" });
+        submitReport(params).then(job => {
+            this.setState({ job });
+            this.poll(job);
+        }).catch(this.onError);
+    }
+
+    poll = (job) => {
+        getReportStatus(job).then(status => {
+            if (this.state.job !== job) {
+                return;
+            }
+            this.setState({ status });
+            if (status.state === "DONE") {
+                this.setState({ job: null, status: null });
+                window.location.href = window.baseUrl + "/api/cnesreport/download?id=" + encodeURIComponent(job);
+            } else if (status.state === "FAILED") {
+                this.setState({ job: null, status: null, error: status.error });
+            } else {
+                this.timer = setTimeout(() => this.poll(job), POLL_DELAY);
+            }
+        }).catch(this.onError);
+    }
+
+    onError = (error) => {
+        getReportError(error).then(message => {
+            this.setState({ job: null, status: null, error: message });
+        });
+    }
+
+    // describe the progress of the report job
+    progressMessage = () => {
+        const status = this.state.status;
+        if (status.state === "QUEUED") {
+            return status.position > 0
+                ? "The report is queued behind " + status.position + " other report(s)."
+                : "The report is queued.";
+        }
+        const step = status.step ? " (" + status.step + ")" : "";
+        return "The report is being generated" + step + ", " + Math.round(status.elapsed / 1000) + " s elapsed.";
+    }
+
+    componentWillUnmount() {
+        clearTimeout(this.timer);
+    }
+
     componentDidMount() {
         // Initialize compatibility check
         isCompatible().then(isSupported => {
@@ -86,7 +147,7 @@ export default class CnesReportProject extends React.PureComponent {
                             <p>For further information, please refer to the <a href="https://github.com/cnescatlab/sonar-cnes-report#compatibility-matrix">compatibility matrix</a> on the project GitHub page.</p>
                         </div>
                     }
-                    <form id="generation-form" action="../../../api/cnesreport/report" method="get">
+                    <form id="generation-form" action="../../../api/cnesreport/report" method="get" onSubmit={this.onSubmit}>
                         <div class='forminput'>
                             <label for="language" id="languageLabel" class="login-label"><strong>Report language</strong></label>
                             <select id="language"
@@ -166,9 +227,15 @@ export default class CnesReportProject extends React.PureComponent {
                         </div>
                         <br />
                         <input id="generation" name="generation" type="submit" value="Generate"
-                            disabled={this.shouldDisableGeneration()}/>
+                            disabled={this.shouldDisableGeneration() || this.state.status !== null}/>
                         <br />
-                        <em class="info-message">This operation may take some time, please wait while the report is being generated.</em>
+                        { this.state.status !== null
+                            ? <em class="info-message">{this.progressMessage()}</em>
+                            : <em class="info-message">This operation may take some time, the report is downloaded once it is generated.</em>
+                        }
+                        { this.state.error &&
+                            <p class="compatibility-warning">{this.state.error}</p>
+                        }
                     </form>
                 </div>
             </div>
@@ -0,0 +1,103 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.cnes.sonar.report.exporters.data.IssuesAdapter;
+import fr.cnes.sonar.report.exporters.data.SecurityHotspotsAdapter;
+import fr.cnes.sonar.report.model.Report;
+
+/**
+ * Tables built from the report by the adapters, before they are written by the exporters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AdaptersBenchmark {
+
+    /** Number of issues of the report. */
+    @Param({"1000", "10000", "100000"})
+    public int issues;
+
+    /** Report of the synthetic project. */
+    private Report report;
+
+    /**
+     * Build the report once for all the iterations.
+     * @throws IOException When the report cannot be built.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        report = Reports.create(issues);
+    }
+
+    /**
+     * Table of the issues by rule.
+     * @return The table.
+     */
+    @Benchmark
+    public List<List<String>> issues() {
+        return IssuesAdapter.getIssues(report);
+    }
+
+    /**
+     * Table of the issues by type and severity.
+     * @return The table.
+     */
+    @Benchmark
+    public List<List<String>> types() {
+        return IssuesAdapter.getTypes(report);
+    }
+
+    /**
+     * Table of the security hotspots by rule.
+     * @return The table.
+     */
+    @Benchmark
+    public List<List<String>> securityHotspots() {
+        return SecurityHotspotsAdapter.getSecurityHotspots(report);
+    }
+
+    /**
+     * Table of the security hotspots by category and priority.
+     * @return The table.
+     */
+    @Benchmark
+    public List<List<String>> securityHotspotsByCategory() {
+        return SecurityHotspotsAdapter.getSecurityHotspotsByCategoryAndPriority(report);
+    }
+}
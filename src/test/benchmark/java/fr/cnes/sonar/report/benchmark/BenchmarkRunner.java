@@ -0,0 +1,148 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Run the benchmarks with the allocation profiler and compare them to a previous run.
+ * Arguments are the usual JMH options, e.g. a regex of the benchmarks to run.
+ * Results are written as json in the file given by the system property benchmark.result,
+ * and compared to the results of the file given by benchmark.baseline if any.
+ * A run gives the baseline of the next one by copying its result file.
+ */
+public final class BenchmarkRunner {
+
+    /** Logger of the comparison. */
+    private static final Logger LOGGER = Logger.getLogger(BenchmarkRunner.class.getName());
+    /** System property giving the result file. */
+    private static final String RESULT = "benchmark.result";
+    /** System property giving the baseline file. */
+    private static final String BASELINE = "benchmark.baseline";
+    /** Name of the secondary metric giving the bytes allocated by operation. */
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+
+    /**
+     * Private constructor, this class only has a main method.
+     */
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * Run the benchmarks.
+     * @param args JMH options.
+     * @throws CommandLineOptionException When the options are not valid.
+     * @throws RunnerException When a benchmark fails.
+     * @throws IOException When the results cannot be read.
+     */
+    public static void main(final String[] args) throws CommandLineOptionException, RunnerException, IOException {
+        final File result = new File(System.getProperty(RESULT, "target/benchmarks/result.json"));
+        Files.createDirectories(result.getAbsoluteFile().getParentFile().toPath());
+
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result.getPath())
+                .build()).run();
+
+        final String baseline = System.getProperty(BASELINE, "");
+        if (!baseline.isEmpty()) {
+            LOGGER.info(compare(read(new File(baseline)), read(result)));
+        }
+    }
+
+    /**
+     * Read the scores of a result file.
+     * @param file The result file of a run.
+     * @return The score and the allocation by operation of each benchmark, indexed by name and parameters.
+     * @throws IOException When the file cannot be read.
+     */
+    private static Map<String, double[]> read(final File file) throws IOException {
+        final Map<String, double[]> res = new LinkedHashMap<>();
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            for (JsonElement element : JsonParser.parseReader(reader).getAsJsonArray()) {
+                final JsonObject benchmark = element.getAsJsonObject();
+                final StringBuilder name = new StringBuilder(benchmark.get("benchmark").getAsString());
+                if (benchmark.has("params")) {
+                    benchmark.getAsJsonObject("params").entrySet().forEach(param ->
+                            name.append(' ').append(param.getKey()).append('=').append(param.getValue().getAsString()));
+                }
+                final JsonObject secondary = benchmark.getAsJsonObject("secondaryMetrics");
+                final double allocation = secondary != null && secondary.has(ALLOCATION) ?
+                        secondary.getAsJsonObject(ALLOCATION).get("score").getAsDouble() : Double.NaN;
+                res.put(name.toString(), new double[] {
+                    benchmark.getAsJsonObject("primaryMetric").get("score").getAsDouble(), allocation});
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Compare the benchmarks of a run to the same benchmarks of the baseline.
+     * @param baseline Scores of the baseline.
+     * @param current Scores of the run.
+     * @return A table of the scores and of their changes.
+     */
+    private static String compare(final Map<String, double[]> baseline, final Map<String, double[]> current) {
+        final StringBuilder res = new StringBuilder("Comparison with the baseline (throughput, bytes allocated by operation):");
+        current.forEach((name, scores) -> {
+            final double[] reference = baseline.get(name);
+            res.append(System.lineSeparator());
+            if (reference == null) {
+                res.append(String.format(Locale.ENGLISH, "%-80s %12.3f %14.0f B/op    (no baseline)",
+                        name, scores[0], scores[1]));
+            } else {
+                res.append(String.format(Locale.ENGLISH, "%-80s %12.3f %+8.1f%% %14.0f B/op %+8.1f%%",
+                        name, scores[0], change(reference[0], scores[0]), scores[1],
+                        change(reference[1], scores[1])));
+            }
+        });
+        return res.toString();
+    }
+
+    /**
+     * Relative change between two scores.
+     * @param before Score of the baseline.
+     * @param after Score of the run.
+     * @return The change in percent.
+     */
+    private static double change(final double before, final double after) {
+        return before == 0 ? Double.NaN : (after - before) * 100 / before;
+    }
+}
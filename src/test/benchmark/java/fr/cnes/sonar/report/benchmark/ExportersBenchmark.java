@@ -0,0 +1,126 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.cnes.sonar.report.exporters.CSVExporter;
+import fr.cnes.sonar.report.exporters.docx.DocXExporter;
+import fr.cnes.sonar.report.exporters.md.MarkdownExporter;
+import fr.cnes.sonar.report.exporters.xlsx.XlsXExporter;
+import fr.cnes.sonar.report.model.Report;
+import fr.cnes.sonar.report.utils.StringManager;
+
+/**
+ * Export of a whole report in each format, with the default templates.
+ * An export of a large report takes seconds, so iterations are long and few.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 1, time = 10)
+@Measurement(iterations = 3, time = 10)
+public class ExportersBenchmark {
+
+    /** Number of issues of the report. */
+    @Param({"1000", "10000", "100000"})
+    public int issues;
+
+    /** Report of the synthetic project. */
+    private Report report;
+    /** Directory of the exported files. */
+    private File output;
+
+    /**
+     * Build the report once for all the iterations.
+     * @throws IOException When the report cannot be built.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        report = Reports.create(issues);
+        output = Files.createTempDirectory("cnesreport-benchmark").toFile();
+    }
+
+    /**
+     * Remove the exported files.
+     * @throws IOException When the files cannot be removed.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(output);
+    }
+
+    /**
+     * Export the analysis report.
+     * @return The exported file.
+     * @throws Exception When the export fails.
+     */
+    @Benchmark
+    public File docx() throws Exception {
+        return new DocXExporter().export(report, new File(output, "report.docx").getPath(), StringManager.EMPTY);
+    }
+
+    /**
+     * Export the issues spreadsheet.
+     * @return The exported file.
+     * @throws Exception When the export fails.
+     */
+    @Benchmark
+    public File xlsx() throws Exception {
+        return new XlsXExporter().export(report, new File(output, "issues.xlsx").getPath(), StringManager.EMPTY);
+    }
+
+    /**
+     * Export the markdown report.
+     * @return The exported file.
+     * @throws Exception When the export fails.
+     */
+    @Benchmark
+    public File markdown() throws Exception {
+        return new MarkdownExporter().export(report, new File(output, "report.md").getPath(), StringManager.EMPTY);
+    }
+
+    /**
+     * Export the issues as csv.
+     * @return The exported file.
+     * @throws Exception When the export fails.
+     */
+    @Benchmark
+    public File csv() throws Exception {
+        return new CSVExporter().export(report, new File(output, "issues.csv").getPath(), report.getProjectName());
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.benchmark;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import fr.cnes.sonar.report.model.Components;
+import fr.cnes.sonar.report.model.Issue;
+import fr.cnes.sonar.report.model.Report;
+
+/**
+ * Operations of the model used by the exporters on every issue or file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ModelBenchmark {
+
+    /** Number of issues of the report. */
+    @Param({"1000", "10000", "100000"})
+    public int issues;
+
+    /** Report of the synthetic project. */
+    private Report report;
+    /** Keys of the rules raising the issues of the report. */
+    private String[] rules;
+    /** Files of the report. */
+    private Components components;
+
+    /**
+     * Build the report once for all the iterations.
+     * @throws IOException When the report cannot be built.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        report = Reports.create(issues);
+        rules = report.getIssues().getIssuesList().stream().map(Issue::getRule).distinct().toArray(String[]::new);
+        components = new Components();
+        components.setComponentsList(report.getComponents());
+    }
+
+    /**
+     * Count the issues of each rule.
+     * @return The counts.
+     */
+    @Benchmark
+    public Map<String, Long> issuesFacets() {
+        return report.getIssues().getIssuesFacets();
+    }
+
+    /**
+     * Find the description of each rule raising issues, as the docx export does.
+     * @param blackhole Consumer of the rules.
+     */
+    @Benchmark
+    public void getRule(final Blackhole blackhole) {
+        for (String rule : rules) {
+            blackhole.consume(report.getRule(rule));
+        }
+    }
+
+    /**
+     * Compute the statistics of the measures of the files.
+     * @return The statistics.
+     */
+    @Benchmark
+    public Map<String, Double> metricStats() {
+        return components.getMetricStats();
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.benchmark;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.gson.JsonObject;
+
+import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
+import fr.cnes.sonar.report.exceptions.SonarQubeException;
+import fr.cnes.sonar.report.mock.MockSonarQube;
+import fr.cnes.sonar.report.mock.SyntheticProject;
+import fr.cnes.sonar.report.providers.AbstractDataProvider;
+import fr.cnes.sonar.report.utils.StringManager;
+
+/**
+ * Read full pages of issues, security hotspots and files through {@link AbstractDataProvider#request},
+ * either as a whole json tree or as a stream. Pages are served by a local {@link MockSonarQube},
+ * whose own rendering of the pages is part of the measure and stays the same between runs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProvidersBenchmark {
+
+    /** Number of issues of the served project. */
+    private static final int ISSUES = 10000;
+
+    /** Kind of page to read, also the name of the array of its elements. */
+    @Param({"issues", "hotspots", "components"})
+    public String page;
+
+    /** Server of the pages. */
+    private MockSonarQube sonarQube;
+    /** Provider sending the requests. */
+    private PageProvider provider;
+    /** Url of the page. */
+    private String url;
+
+    /**
+     * Provider giving access to the requests of all the providers.
+     */
+    private static final class PageProvider extends AbstractDataProvider {
+
+        /**
+         * Constructor.
+         * @param pServer Url of the server.
+         * @param pProject Key of the project.
+         */
+        private PageProvider(final String pServer, final String pProject) {
+            super(pServer, StringManager.getProperty(StringManager.SONAR_TOKEN), pProject, StringManager.NO_BRANCH);
+        }
+
+        /**
+         * Url of the first full page of a kind, as sent by the providers.
+         * @param page Kind of page.
+         * @return The url.
+         */
+        private String url(final String page) {
+            final int maxPerPage = Integer.parseInt(getRequest(MAX_PER_PAGE_SONARQUBE));
+            switch (page) {
+                case "issues":
+                    return String.format(getRequest("GET_ALL_ISSUES_REQUEST"), server, projectKey,
+                            getMetrics("ISSUES_FACETS"), maxPerPage, 1, getMetrics("ISSUES_ADDITIONAL_FIELDS"),
+                            branch, StringManager.EMPTY);
+                case "hotspots":
+                    return String.format(getRequest("GET_SECURITY_HOTSPOTS_REQUEST"), server, branch, 1,
+                            projectKey, maxPerPage, "TO_REVIEW");
+                default:
+                    return String.format(getRequest("GET_COMPONENTS_REQUEST"), server, projectKey,
+                            getMetrics("SHEETS_METRICS"), 1, maxPerPage, branch);
+            }
+        }
+    }
+
+    /**
+     * Start the server once for all the iterations.
+     * @throws IOException When the server cannot be started.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        final SyntheticProject project = new SyntheticProject(Reports.PROJECT, ISSUES, ISSUES / 10, ISSUES / 10,
+                Reports.SEED);
+        sonarQube = new MockSonarQube(project);
+        provider = new PageProvider(sonarQube.getUrl(), project.getKey());
+        url = provider.url(page);
+    }
+
+    /**
+     * Stop the server.
+     * @throws IOException When the server cannot be stopped.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        sonarQube.close();
+    }
+
+    /**
+     * Read a page as a whole json tree.
+     * @return The page.
+     * @throws BadSonarQubeRequestException When the request is refused.
+     * @throws SonarQubeException When the server cannot be reached.
+     */
+    @Benchmark
+    public JsonObject tree() throws BadSonarQubeRequestException, SonarQubeException {
+        return provider.request(url);
+    }
+
+    /**
+     * Read a page as a stream, handing its elements one by one.
+     * @param blackhole Consumer of the elements.
+     * @return The other fields of the page.
+     * @throws BadSonarQubeRequestException When the request is refused.
+     * @throws SonarQubeException When the server cannot be reached.
+     */
+    @Benchmark
+    public JsonObject stream(final Blackhole blackhole) throws BadSonarQubeRequestException, SonarQubeException {
+        return provider.request(url, Collections.singletonMap(page, blackhole::consume));
+    }
+}
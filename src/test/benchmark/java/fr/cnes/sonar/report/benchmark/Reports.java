@@ -0,0 +1,61 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.benchmark;
+
+import java.io.IOException;
+
+import fr.cnes.sonar.report.mock.SyntheticProject;
+import fr.cnes.sonar.report.mock.SyntheticReportFactory;
+import fr.cnes.sonar.report.model.Report;
+
+/**
+ * Synthetic projects and reports shared by the benchmarks.
+ * They all have the same seed, so that runs can be compared to each other.
+ */
+final class Reports {
+
+    /** Seed of the synthetic projects. */
+    static final long SEED = 20240101L;
+    /** Key of the synthetic projects. */
+    static final String PROJECT = "benchmark";
+
+    /**
+     * Private constructor, this class only has static methods.
+     */
+    private Reports() {
+    }
+
+    /**
+     * Synthetic project of a given size, with a security hotspot per hundred issues and a file per ten issues.
+     * @param issues Number of issues.
+     * @return The project.
+     */
+    static SyntheticProject project(final int issues) {
+        return new SyntheticProject(PROJECT, issues, Math.max(10, issues / 100), Math.max(10, issues / 10), SEED);
+    }
+
+    /**
+     * Report of a synthetic project of a given size.
+     * @param issues Number of issues.
+     * @return The report.
+     * @throws IOException When the metrics of the report cannot be read.
+     */
+    static Report create(final int issues) throws IOException {
+        return new SyntheticReportFactory(project(issues)).create();
+    }
+}
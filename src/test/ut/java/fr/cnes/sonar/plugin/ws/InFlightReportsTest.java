@@ -0,0 +1,142 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.plugin.ws;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import fr.cnes.sonar.report.exceptions.SonarQubeException;
+
+public class InFlightReportsTest {
+
+    private final InFlightReports reports = new InFlightReports();
+
+    /**
+     * Wait until a number of requests wait for the report in progress.
+     * @param requests the expected number of requests
+     */
+    private void awaitWaiting(final int requests) throws InterruptedException {
+        final long timeout = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (reports.waiting("key") < requests && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+        assertEquals(requests, reports.waiting("key"));
+    }
+
+    @Test
+    public void testIdenticalRequestsShareTheGeneration() throws Exception {
+        final File zip = Files.createTempFile("cnesreport", ".zip").toFile();
+        Files.write(zip.toPath(), "report".getBytes(StandardCharsets.UTF_8));
+        final AtomicInteger generations = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ReportJob.Generation generation = () -> {
+            generations.incrementAndGet();
+            started.countDown();
+            release.await();
+            return zip;
+        };
+
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            final Future<File> first = executor.submit(() -> reports.generate("key", generation));
+            started.await();
+            final Future<File> second = executor.submit(() -> reports.generate("key", generation));
+            final Future<File> third = executor.submit(() -> reports.generate("key", generation));
+            awaitWaiting(2);
+            release.countDown();
+
+            assertSame(zip, first.get());
+            final File secondZip = second.get();
+            final File thirdZip = third.get();
+            assertEquals(1, generations.get());
+            assertNotEquals(zip, secondZip);
+            assertNotEquals(secondZip, thirdZip);
+            assertArrayEquals(Files.readAllBytes(zip.toPath()), Files.readAllBytes(secondZip.toPath()));
+
+            // each request owns its file
+            Files.delete(zip.toPath());
+            assertArrayEquals("report".getBytes(StandardCharsets.UTF_8), Files.readAllBytes(thirdZip.toPath()));
+            Files.delete(secondZip.toPath());
+            Files.delete(thirdZip.toPath());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(-1, reports.waiting("key"));
+    }
+
+    @Test
+    public void testFailureIsNotShared() throws Exception {
+        final File zip = Files.createTempFile("cnesreport", ".zip").toFile();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger generations = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<File> first = executor.submit(() -> reports.generate("key", () -> {
+                started.countDown();
+                release.await();
+                throw new SonarQubeException("down");
+            }));
+            started.await();
+            final Future<File> second = executor.submit(() -> reports.generate("key", () -> {
+                generations.incrementAndGet();
+                return zip;
+            }));
+            awaitWaiting(1);
+            release.countDown();
+            assertEquals(SonarQubeException.class,
+                    assertThrows(Exception.class, first::get).getCause().getClass());
+
+            // the waiting request generates the report on its own
+            assertSame(zip, second.get());
+            assertEquals(1, generations.get());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(-1, reports.waiting("key"));
+        Files.delete(zip.toPath());
+    }
+
+    @Test
+    public void testReportKey() {
+        final String key = ExportTask.reportKey(new String[] {"report", "-o", "/tmp/a", "-s", "http://localhost:9000",
+            "-p", "project", "-b", "main", "-a", "Alice", "-t", "token1", "-l", "en_US", "-w"});
+        assertEquals(key, ExportTask.reportKey(new String[] {"report", "-o", "/tmp/b", "-s", "http://localhost:9000",
+            "-p", "project", "-b", "main", "-a", "Bob", "-t", "token2", "-l", "en_US", "-w"}));
+        assertNotEquals(key, ExportTask.reportKey(new String[] {"report", "-o", "/tmp/a", "-s", "http://localhost:9000",
+            "-p", "project", "-b", "main", "-a", "Alice", "-t", "token1", "-l", "fr_FR", "-w"}));
+        assertNotEquals(key, ExportTask.reportKey(new String[] {"report", "-o", "/tmp/a", "-s", "http://localhost:9000",
+            "-p", "project", "-b", "main", "-a", "Alice", "-t", "token1", "-l", "en_US"}));
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.plugin.ws;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+import org.sonarqube.ws.Components;
+import org.sonarqube.ws.client.WsClient;
+import org.sonarqube.ws.client.components.ComponentsService;
+import org.sonarqube.ws.client.components.ShowRequest;
+
+import fr.cnes.sonar.plugin.tools.FileTools;
+
+public class ReportCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Create a zip of a given size.
+     * @param name name of the file
+     * @param size size in bytes
+     * @return the zip
+     */
+    private File zip(final String name, final int size) throws Exception {
+        final File zip = new File(folder.getRoot(), name);
+        Files.write(zip.toPath(), new byte[size]);
+        return zip;
+    }
+
+    @Test
+    public void testGetGivesACopyOfTheCachedZip() throws Exception {
+        final ReportCache cache = new ReportCache(folder.newFolder("cache").toPath(), 1000);
+        final File zip = zip("report.zip", 100);
+        final File target = new File(folder.getRoot(), "download.zip");
+        assertFalse(cache.get("key", target));
+        assertFalse(target.exists());
+
+        cache.put("key", zip);
+        assertTrue(zip.exists());
+        assertEquals(100, cache.getSize());
+        Files.delete(zip.toPath());
+
+        assertTrue(cache.get("key", target));
+        assertArrayEquals(new byte[100], Files.readAllBytes(target.toPath()));
+        // the caller owns its file
+        Files.delete(target.toPath());
+        assertTrue(cache.get("key", target));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedZipsAreEvicted() throws Exception {
+        final Path directory = folder.newFolder("cache").toPath();
+        final ReportCache cache = new ReportCache(directory, 250);
+        cache.put("a", zip("a.zip", 100));
+        cache.put("b", zip("b.zip", 100));
+        Files.setLastModifiedTime(directory.resolve("a.zip"), FileTime.fromMillis(1000));
+        Files.setLastModifiedTime(directory.resolve("b.zip"), FileTime.fromMillis(2000));
+
+        // using a makes b the least recently used one
+        assertTrue(cache.get("a", new File(folder.getRoot(), "a-download.zip")));
+        cache.put("c", zip("c.zip", 100));
+        assertEquals(200, cache.getSize());
+        assertTrue(cache.get("a", new File(folder.getRoot(), "a-download2.zip")));
+        assertFalse(cache.get("b", new File(folder.getRoot(), "b-download.zip")));
+        assertTrue(cache.get("c", new File(folder.getRoot(), "c-download.zip")));
+
+        // a zip bigger than the cache is not kept
+        cache.put("d", zip("d.zip", 300));
+        assertFalse(cache.get("d", new File(folder.getRoot(), "d-download.zip")));
+
+        // the size of the cache is read again at startup
+        assertEquals(200, new ReportCache(directory, 250).getSize());
+        assertEquals(100, new ReportCache(directory, 150).getSize());
+    }
+
+    @Test
+    public void testDisabledCache() throws Exception {
+        final ReportCache cache = ReportCache.disabled();
+        cache.put("key", zip("report.zip", 10));
+        assertFalse(cache.get("key", new File(folder.getRoot(), "download.zip")));
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void testCachedReportIsShared() throws Exception {
+        final ReportCache cache = new ReportCache(folder.newFolder("cache").toPath(), 1000);
+        final File output = new File(folder.getRoot(), "output");
+        final File generated = zip("output.zip", 10);
+        cache.put("key", generated);
+        Files.delete(generated.toPath());
+
+        final File zip = ExportTask.generateShared(cache, "key", output,
+                () -> ExportTask.generate(new String[] {"report"}, null, output));
+        assertEquals(new File(output.getAbsolutePath() + ".zip"), zip);
+        assertEquals(10, zip.length());
+    }
+
+    @Test
+    public void testKeyChangesWithTheAnalysisAndTheTemplates() throws Exception {
+        final File template = folder.newFile("template.docx");
+        Files.write(template.toPath(), "v1".getBytes(StandardCharsets.UTF_8));
+        final String[] params = {"report", "-o", "/tmp/a", "-p", "project", "-b", "main", "-a", "Alice",
+            "-t", "token", "-l", "en_US", "-r", template.getAbsolutePath()};
+        final String[] otherUser = params.clone();
+        otherUser[8] = "Bob";
+        otherUser[10] = "other";
+
+        final WsClient wsClient = Mockito.mock(WsClient.class);
+        final ComponentsService components = Mockito.mock(ComponentsService.class);
+        Mockito.when(wsClient.components()).thenReturn(components);
+        Mockito.when(components.show(Mockito.any(ShowRequest.class))).thenReturn(analysis("2024-01-01T10:00:00+0000"));
+
+        final String key = ExportTask.reportKey(wsClient, params);
+        assertEquals(key, ExportTask.reportKey(wsClient, otherUser));
+        assertTrue(key.matches("[0-9a-f]{64}"));
+
+        Files.write(template.toPath(), "v2".getBytes(StandardCharsets.UTF_8));
+        final String newTemplate = ExportTask.reportKey(wsClient, params);
+        assertNotEquals(key, newTemplate);
+
+        Mockito.when(components.show(Mockito.any(ShowRequest.class))).thenReturn(analysis("2024-01-02T10:00:00+0000"));
+        assertNotEquals(newTemplate, ExportTask.reportKey(wsClient, params));
+        Mockito.verify(components, Mockito.atLeastOnce()).show(Mockito.argThat(
+                request -> "project".equals(request.getComponent()) && "main".equals(request.getBranch())));
+    }
+
+    /**
+     * Create the response describing a component.
+     * @param analysisDate date of its last analysis
+     * @return the response
+     */
+    private static Components.ShowWsResponse analysis(final String analysisDate) {
+        return Components.ShowWsResponse.newBuilder()
+                .setComponent(Components.Component.newBuilder().setKey("project").setAnalysisDate(analysisDate))
+                .build();
+    }
+
+    @Test
+    public void testLinkOrCopy() throws Exception {
+        final File source = zip("source.zip", 5);
+        final File target = new File(folder.getRoot(), "target.zip");
+        FileTools.linkOrCopy(source, target);
+        Files.delete(source.toPath());
+        assertEquals(5, target.length());
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.plugin.ws;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import fr.cnes.sonar.plugin.tools.PluginStringManager;
+import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
+import fr.cnes.sonar.report.utils.Profiler;
+
+public class ReportJobQueueTest {
+
+    /**
+     * Create a job which generates nothing.
+     * @param owner login of the user
+     * @return the job
+     */
+    private static ReportJob job(final String owner) {
+        return new ReportJob(owner, "project", () -> null);
+    }
+
+    @Test
+    public void testUsersAreServedInTurn() {
+        final ReportJobQueue queue = new ReportJobQueue(0, 10, 3, 60000);
+        final ReportJob alice1 = job("alice");
+        final ReportJob alice2 = job("alice");
+        final ReportJob alice3 = job("alice");
+        final ReportJob bob1 = job("bob");
+        final ReportJob carol1 = job("carol");
+        queue.submit(alice1);
+        queue.submit(alice2);
+        queue.submit(alice3);
+        queue.submit(bob1);
+        queue.submit(carol1);
+
+        assertEquals(0, queue.position(alice1));
+        assertEquals(1, queue.position(bob1));
+        assertEquals(2, queue.position(carol1));
+        assertEquals(3, queue.position(alice2));
+        assertEquals(4, queue.position(alice3));
+
+        assertSame(alice1, queue.next());
+        assertSame(bob1, queue.next());
+        assertSame(carol1, queue.next());
+        assertSame(alice2, queue.next());
+        assertSame(alice3, queue.next());
+        assertNull(queue.next());
+        assertEquals(-1, queue.position(alice1));
+    }
+
+    @Test
+    public void testLimits() {
+        final ReportJobQueue queue = new ReportJobQueue(0, 3, 2, 60000);
+        queue.submit(job("alice"));
+        final ReportJob alice = job("alice");
+        queue.submit(alice);
+        assertThrows(RejectedExecutionException.class, () -> queue.submit(job("alice")));
+
+        // a finished job does not count in the limit of its user
+        queue.next().run();
+        queue.submit(job("alice"));
+        queue.submit(job("bob"));
+        assertThrows(RejectedExecutionException.class, () -> queue.submit(job("carol")));
+        assertSame(alice, queue.get(alice.getId(), "alice"));
+        assertNull(queue.get(alice.getId(), "bob"));
+    }
+
+    @Test
+    public void testFinishedJobsExpire() {
+        final ReportJobQueue queue = new ReportJobQueue(0, 10, 3, -1);
+        final ReportJob job = job("alice");
+        queue.submit(job);
+        assertSame(job, queue.get(job.getId(), "alice"));
+        queue.next().run();
+        assertNull(queue.get(job.getId(), "alice"));
+    }
+
+    @Test
+    public void testJobStates() throws Exception {
+        final File zip = Files.createTempFile("cnesreport", ".zip").toFile();
+        final String[] step = new String[1];
+        final ReportJob[] running = new ReportJob[1];
+        running[0] = new ReportJob("alice", "project", () -> {
+            try (Profiler.Phase report = Profiler.getInstance().phase("report");
+                 Profiler.Phase export = Profiler.getInstance().phase("export")) {
+                Profiler.getInstance().recordHttpCall();
+                step[0] = running[0].getStep();
+                assertEquals(ReportJob.State.RUNNING, running[0].getState());
+            }
+            return zip;
+        });
+        final ReportJob job = running[0];
+        assertEquals(ReportJob.State.QUEUED, job.getState());
+        job.run();
+        assertEquals("report > export", step[0]);
+        assertEquals(ReportJob.State.DONE, job.getState());
+        assertEquals("", job.getStep());
+        assertEquals(1, job.getSonarQubeCalls());
+        assertSame(zip, job.getZip());
+        assertTrue(job.isFinished());
+
+        job.delete();
+        assertNull(job.getZip());
+        assertFalse(zip.exists());
+
+        final ReportJob failed = new ReportJob("alice", "project", () -> {
+            throw new BadSonarQubeRequestException("denied");
+        });
+        failed.run();
+        assertEquals(ReportJob.State.FAILED, failed.getState());
+        assertEquals(PluginStringManager.getProperty("api.tokenerror"), failed.getError());
+    }
+
+    @Test
+    public void testJobStartedInTheRequestIsClosedByTheWorker() throws Exception {
+        final Profiler profiler = Profiler.getInstance();
+        final Profiler.Phase submit = profiler.start("api report job");
+        try (Profiler.Phase model = profiler.phase("report")) {
+            profiler.recordHttpCall();
+        }
+        final Callable<File> render = profiler.propagate(() -> {
+            try (Profiler.Phase export = profiler.phase("export")) {
+                profiler.recordHttpCall();
+            }
+            return null;
+        });
+        profiler.detach(submit);
+        final ReportJob job = new ReportJob("alice", "project", render::call, submit);
+        assertSame(submit, job.getPhase());
+        assertEquals(1, job.getSonarQubeCalls());
+
+        final ExecutorService worker = Executors.newSingleThreadExecutor();
+        try {
+            worker.submit(job).get();
+            assertFalse(worker.submit(profiler::isMeasured).get());
+        } finally {
+            worker.shutdownNow();
+        }
+        assertFalse(profiler.isMeasured());
+        assertEquals(ReportJob.State.DONE, job.getState());
+        assertFalse(submit.isOpen());
+        assertEquals(2, job.getSonarQubeCalls());
+        assertEquals(2, submit.getChildren().size());
+    }
+
+    @Test
+    public void testErrorFailsTheJob() {
+        final ReportJob job = new ReportJob("alice", "project", () -> {
+            throw new OutOfMemoryError("Java heap space");
+        });
+        job.run();
+        assertEquals(ReportJob.State.FAILED, job.getState());
+        assertEquals("Java heap space", job.getError());
+        assertTrue(job.isFinished());
+    }
+
+    @Test
+    public void testDeadWorkerIsReplaced() throws Exception {
+        final ReportJobQueue queue = new ReportJobQueue(1, 10, 3, 60000);
+        final CountDownLatch release = new CountDownLatch(1);
+        // the first job kills its worker
+        queue.submit(new ReportJob("alice", "project", () -> null) {
+            @Override
+            public void run() {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IllegalStateException("worker killed");
+            }
+        });
+        final ReportJob next = job("bob");
+        queue.submit(next);
+        release.countDown();
+
+        final long timeout = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (!next.isFinished() && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+        assertEquals(ReportJob.State.DONE, next.getState());
+    }
+}
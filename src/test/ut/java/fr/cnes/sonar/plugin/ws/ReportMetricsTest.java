@@ -0,0 +1,221 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.plugin.ws;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.sonar.api.server.ws.LocalConnector;
+import org.sonar.api.server.ws.Request;
+import org.sonar.api.server.ws.Response;
+import org.sonarqube.ws.MediaTypes;
+import org.sonarqube.ws.Users;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpServer;
+
+import fr.cnes.sonar.plugin.tools.PluginStringManager;
+import fr.cnes.sonar.report.exceptions.SonarQubeException;
+import fr.cnes.sonar.report.providers.RequestManager;
+import fr.cnes.sonar.report.utils.Profiler;
+
+public class ReportMetricsTest {
+
+    private final ReportMetrics metrics = ReportMetrics.getInstance();
+
+    /**
+     * Give the metrics as json.
+     * @return the metrics
+     */
+    private JsonObject json() {
+        return JsonParser.parseString(metrics.toJson()).getAsJsonObject();
+    }
+
+    /**
+     * Call the metrics action as a system administrator.
+     * @param format the requested format
+     * @param mediaType the expected media type
+     * @return the content of the response
+     */
+    private static String call(final String format, final String mediaType) throws Exception {
+        final Response.Stream stream = Mockito.mock(Response.Stream.class);
+        final String content = call(format, stream, "admin", "provisioning");
+        Mockito.verify(stream).setMediaType(mediaType);
+        return content;
+    }
+
+    /**
+     * Call the metrics action.
+     * @param format the requested format
+     * @param stream the stream of the response
+     * @param permissions global permissions of the user
+     * @return the content of the response
+     */
+    private static String call(final String format, final Response.Stream stream, final String... permissions)
+            throws Exception {
+        final Request request = Mockito.mock(Request.class);
+        Mockito.when(request.mandatoryParam(PluginStringManager.getProperty("api.metrics.args.format")))
+                .thenReturn(format);
+        final byte[] user = Users.CurrentWsResponse.newBuilder().setIsLoggedIn(true).setLogin("jdoe")
+                .setPermissions(Users.CurrentWsResponse.Permissions.newBuilder().addAllGlobal(Arrays.asList(permissions)))
+                .build().toByteArray();
+        final LocalConnector.LocalResponse userResponse = Mockito.mock(LocalConnector.LocalResponse.class);
+        Mockito.when(userResponse.getStatus()).thenReturn(200);
+        Mockito.when(userResponse.getMediaType()).thenReturn(MediaTypes.PROTOBUF);
+        Mockito.when(userResponse.getBytes()).thenReturn(user);
+        final LocalConnector connector = Mockito.mock(LocalConnector.class);
+        Mockito.when(connector.call(Mockito.any())).thenReturn(userResponse);
+        Mockito.when(request.localConnector()).thenReturn(connector);
+
+        final Response response = Mockito.mock(Response.class);
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Mockito.when(response.stream()).thenReturn(stream);
+        Mockito.when(stream.output()).thenReturn(output);
+        new MetricsTask().handle(request, response);
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testHistogramBuckets() {
+        final ReportMetrics.Histogram histogram = new ReportMetrics.Histogram(new double[] {1, 10});
+        histogram.observe(0.5);
+        histogram.observe(1);
+        histogram.observe(5);
+        histogram.observe(50);
+        assertArrayEquals(new long[] {2, 3, 4}, histogram.getCumulativeCounts());
+        assertEquals(56.5, histogram.getSum());
+        assertEquals("10", histogram.getBound(1));
+        assertEquals("+Inf", histogram.getBound(2));
+    }
+
+    @Test
+    public void testExportsAreCounted() {
+        final JsonObject before = json();
+        final Profiler profiler = Profiler.getInstance();
+        final Profiler.Phase export = profiler.start("api report");
+        metrics.exportStarted();
+        try (Profiler.Phase report = profiler.phase("report")) {
+            try (Profiler.Phase docx = profiler.phase("export docx")) {
+                profiler.recordHttpCall();
+            }
+            profiler.phase(ExportTask.ZIP_PHASE).close();
+            assertEquals(before.get("inFlight").getAsLong() + 1, json().get("inFlight").getAsLong());
+            metrics.reportGenerated(export, 1000);
+        } finally {
+            export.close();
+            metrics.exportEnded();
+        }
+        metrics.reportFailed(new SonarQubeException("down"));
+
+        final JsonObject after = json();
+        assertEquals(before.get("inFlight").getAsLong(), after.get("inFlight").getAsLong());
+        assertEquals(before.get("bytesStreamed").getAsLong() + 1000, after.get("bytesStreamed").getAsLong());
+        assertTrue(after.getAsJsonObject("reports").get("success").getAsLong() >= 1);
+        assertTrue(after.getAsJsonObject("failures").get("SonarQubeException").getAsLong() >= 1);
+        final JsonObject durations = after.getAsJsonObject("durationSeconds");
+        assertTrue(durations.has(ReportMetrics.TOTAL));
+        assertTrue(durations.has("docx"));
+        final JsonObject calls = after.getAsJsonObject("sonarQubeCallsPerReport");
+        assertEquals(calls.get("count").getAsLong(), calls.getAsJsonObject("buckets").get("+Inf").getAsLong());
+    }
+
+    @Test
+    public void testCachedExportsAreNotObserved() {
+        final JsonObject before = json();
+        try (Profiler.Phase export = Profiler.getInstance().start("api report")) {
+            metrics.reportCached();
+            metrics.reportGenerated(export, 1000);
+        }
+
+        final JsonObject after = json();
+        assertEquals(before.get("cachedReports").getAsLong() + 1, after.get("cachedReports").getAsLong());
+        assertEquals(before.get("bytesStreamed").getAsLong() + 1000, after.get("bytesStreamed").getAsLong());
+        assertEquals(before.getAsJsonObject("sonarQubeCallsPerReport").get("count").getAsLong(),
+                after.getAsJsonObject("sonarQubeCallsPerReport").get("count").getAsLong());
+        assertEquals(totalDurations(before), totalDurations(after));
+    }
+
+    /**
+     * Number of durations of whole exports in the metrics.
+     * @param json the metrics
+     * @return the number of durations, 0 before the first one
+     */
+    private static long totalDurations(final JsonObject json) {
+        final JsonObject total = json.getAsJsonObject("durationSeconds").getAsJsonObject(ReportMetrics.TOTAL);
+        return total != null ? total.get("count").getAsLong() : 0;
+    }
+
+    @Test
+    public void testMetricsAction() throws Exception {
+        metrics.reportFailed(new SonarQubeException("down"));
+
+        // a request to a server gives it a concurrency limit
+        final HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/system/status", exchange -> {
+            final byte[] body = "{\"status\":\"UP\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        });
+        server.start();
+        try {
+            RequestManager.getInstance().get(String.format("http://127.0.0.1:%d/api/system/status",
+                    server.getAddress().getPort()), "token");
+        } finally {
+            server.stop(0);
+        }
+        final String serverKey = String.format("http|127.0.0.1|%d", server.getAddress().getPort());
+
+        final JsonObject json = JsonParser.parseString(call("json", MediaTypes.JSON)).getAsJsonObject();
+        assertTrue(json.getAsJsonObject("sonarQubeConcurrencyLimits").has(serverKey));
+        assertTrue(json.has("sonarQubeRetries"));
+        assertTrue(json.has("sharedReports"));
+        assertTrue(json.has("cachedReports"));
+
+        final String text = call("prometheus", "text/plain; version=0.0.4; charset=utf-8");
+        assertTrue(text.contains("# TYPE cnesreport_report_duration_seconds histogram\n"));
+        assertTrue(text.contains("cnesreport_failures_total{exception=\"SonarQubeException\"} "));
+        assertTrue(text.contains("cnesreport_sonarqube_calls_bucket{le=\"+Inf\"} "));
+        assertTrue(text.contains("# TYPE cnesreport_sonarqube_concurrency_limit gauge\n"));
+        assertTrue(text.contains("cnesreport_sonarqube_concurrency_limit{server=\"" + serverKey + "\"} "));
+        for (String line : text.split("\n")) {
+            assertTrue(line.startsWith("# ") || line.matches("cnesreport_[a-z_]+(\\{.*\\})? [0-9.E+-]+"), line);
+        }
+    }
+
+    @Test
+    public void testMetricsActionIsForAdministrators() throws Exception {
+        final Response.Stream stream = Mockito.mock(Response.Stream.class);
+        final JsonObject json = JsonParser.parseString(call("json", stream, "provisioning")).getAsJsonObject();
+        Mockito.verify(stream).setStatus(403);
+        assertEquals(PluginStringManager.getProperty("api.metrics.forbidden"), json.get("error").getAsString());
+        assertFalse(json.has("reports"));
+    }
+}
@@ -47,6 +47,8 @@ public class ReportWsTest {
         testActionMd();
         testActionToken();
         testActionXlsx();
+        testMetricsAction();
+        testJobActions();
     }
 
     public void testWebservice() {
@@ -61,7 +63,7 @@ public class ReportWsTest {
         assertEquals(PluginStringManager.getProperty("api.url"), this.controller.path());
         assertEquals(PluginStringManager.getProperty("api.description"), this.controller.description());
         assertEquals(PluginStringManager.getProperty("plugin.since"), this.controller.since());
-        assertEquals(1, this.controller.actions().size());
+        assertEquals(5, this.controller.actions().size());
     }
 
     public void testAction() {
@@ -220,4 +222,35 @@ public class ReportWsTest {
                 .possibleValues().contains("no"));
     }
 
+    public void testMetricsAction() {
+        // Control the webservice metrics action and its format parameter
+        final WebService.Action metricsAction =
+                this.controller.action(PluginStringManager.getProperty("api.metrics.actionKey"));
+        assertNotNull(metricsAction);
+        assertEquals(PluginStringManager.getProperty("api.metrics.description"), metricsAction.description());
+        assertTrue(metricsAction.handler() instanceof MetricsTask);
+        final WebService.Param format = metricsAction.param(PluginStringManager.getProperty("api.metrics.args.format"));
+        assertEquals(false, format.isRequired());
+        assertEquals(PluginStringManager.getProperty("api.metrics.args.defaultValue.format"), format.defaultValue());
+        assertTrue(format.possibleValues().contains(PluginStringManager.getProperty("api.metrics.args.possibleValue.format")));
+    }
+
+
+    public void testJobActions() {
+        // Control the submit action, taking the arguments of the report action
+        final WebService.Action submit = this.controller.action(PluginStringManager.getProperty("api.submit.actionKey"));
+        assertNotNull(submit);
+        assertNotNull(submit.handler());
+        assertTrue(submit.isPost());
+        assertEquals(this.reportAction.params().size(), submit.params().size());
+        assertEquals(true, submit.param(PluginStringManager.getProperty("api.report.args.key")).isRequired());
+
+        // Control the status and download actions
+        for (String action : new String[] {"api.status.actionKey", "api.download.actionKey"}) {
+            final WebService.Action jobAction = this.controller.action(PluginStringManager.getProperty(action));
+            assertNotNull(jobAction);
+            assertNotNull(jobAction.handler());
+            assertEquals(true, jobAction.param(PluginStringManager.getProperty("api.status.args.id")).isRequired());
+        }
+    }
 }
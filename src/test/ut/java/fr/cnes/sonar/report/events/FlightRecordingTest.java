@@ -0,0 +1,91 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import fr.cnes.sonar.report.ReportCommandLine;
+import fr.cnes.sonar.report.mock.MockSonarQube;
+import fr.cnes.sonar.report.mock.SyntheticProject;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class FlightRecordingTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Keep the recorded events of a type.
+     * @param events all the recorded events
+     * @param type the event class
+     * @return the events of this type
+     */
+    private static List<RecordedEvent> filter(final List<RecordedEvent> events, final Class<?> type) {
+        return events.stream().filter(event -> event.getEventType().getName().equals(
+                type.getAnnotation(jdk.jfr.Name.class).value())).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testGenerationIsRecorded() throws Exception {
+        final List<RecordedEvent> events;
+        try (MockSonarQube sonarQube = new MockSonarQube(new SyntheticProject("recorded", 700, 20, 60));
+             Recording recording = new Recording()) {
+            recording.enable(SonarQubeRequestEvent.class).withoutThreshold();
+            recording.enable(PaginationEvent.class).withoutThreshold();
+            recording.enable(ExportStageEvent.class).withoutThreshold();
+            recording.start();
+            final File output = folder.newFolder();
+            ReportCommandLine.execute(new String[] {"-s", sonarQube.getUrl(), "-p", sonarQube.getProject().getKey(),
+                    "-o", output.getAbsolutePath(), "-c", "-f"});
+            recording.stop();
+            final Path dump = new File(folder.getRoot(), "generation.jfr").toPath();
+            recording.dump(dump);
+            events = RecordingFile.readAllEvents(dump);
+
+            final List<RecordedEvent> requests = filter(events, SonarQubeRequestEvent.class);
+            assertEquals(sonarQube.getRequestCount(), requests.size());
+            assertTrue(requests.stream().allMatch(event -> event.getInt("status") == 200));
+            assertTrue(requests.stream().anyMatch(event -> event.getString("urlTemplate")
+                    .startsWith("/api/issues/search?") && event.getLong("bytes") > 0));
+            assertTrue(requests.stream().noneMatch(event -> event.getString("urlTemplate").contains("=")));
+        }
+
+        final RecordedEvent issues = filter(events, PaginationEvent.class).stream()
+                .filter(event -> event.getString("resource").equals("issues")).findFirst().orElseThrow();
+        assertEquals(2, issues.getInt("pages"));
+        assertEquals(700, issues.getLong("items"));
+
+        final List<String> stages = filter(events, ExportStageEvent.class).stream()
+                .map(event -> event.getString("format") + " " + event.getString("stage")).collect(Collectors.toList());
+        assertTrue(stages.contains("docx replaceIssuesPlaceholders"));
+        assertTrue(stages.contains("markdown replaceIssueTable"));
+        assertTrue(stages.stream().anyMatch(stage -> stage.startsWith("xlsx addListOfMap")));
+    }
+}
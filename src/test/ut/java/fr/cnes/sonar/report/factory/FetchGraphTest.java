@@ -0,0 +1,138 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.factory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
+import fr.cnes.sonar.report.exceptions.SonarQubeException;
+import fr.cnes.sonar.report.exceptions.UnknownQualityGateException;
+
+public class FetchGraphTest {
+
+    @Test
+    public void testIndependentStepsRunConcurrently()
+            throws BadSonarQubeRequestException, UnknownQualityGateException, SonarQubeException {
+        final CountDownLatch latch = new CountDownLatch(2);
+        final List<String> steps = new CopyOnWriteArrayList<>();
+
+        // each step waits for the other one, they can only succeed together
+        new FetchGraph()
+                .add("root", () -> steps.add("root"))
+                .add("a", () -> meet(latch, steps, "a"), "root")
+                .add("b", () -> meet(latch, steps, "b"), "root")
+                .add("c", () -> steps.add("c"), "a", "b")
+                .run(2, 10);
+
+        assertEquals(4, steps.size());
+        assertEquals("root", steps.get(0));
+        assertEquals("c", steps.get(3));
+    }
+
+    @Test
+    public void testFirstDeclaredErrorIsThrown() {
+        final List<String> steps = new CopyOnWriteArrayList<>();
+
+        // the second step fails first but the first one is declared before
+        final SonarQubeException error = assertThrows(SonarQubeException.class, () -> new FetchGraph()
+                .add("first", () -> {
+                    sleep(100);
+                    throw new SonarQubeException("first");
+                })
+                .add("second", () -> {
+                    throw new SonarQubeException("second");
+                })
+                .add("dependent", () -> steps.add("dependent"), "second")
+                .add("independent", () -> steps.add("independent"))
+                .run(4, 10));
+
+        assertEquals("first", error.getMessage());
+        // steps depending on a failed step are skipped, the others are done
+        assertFalse(steps.contains("dependent"));
+        assertTrue(steps.contains("independent"));
+    }
+
+    @Test
+    public void testErrorTypeIsKept() {
+        assertThrows(UnknownQualityGateException.class, () -> new FetchGraph()
+                .add("gate", () -> {
+                    throw new UnknownQualityGateException("gate");
+                })
+                .run(2, 0));
+    }
+
+    @Test
+    public void testTimeout() {
+        final SonarQubeException error = assertThrows(SonarQubeException.class, () -> new FetchGraph()
+                .add("fast", () -> { })
+                .add("slow", () -> sleep(5000))
+                .run(2, 1));
+
+        assertTrue(error.getMessage().contains("slow"));
+        assertFalse(error.getMessage().contains("fast"));
+    }
+
+    @Test
+    public void testSequentialRunKeepsDeclarationOrder()
+            throws BadSonarQubeRequestException, UnknownQualityGateException, SonarQubeException {
+        final List<String> steps = new CopyOnWriteArrayList<>();
+
+        new FetchGraph()
+                .add("a", () -> steps.add("a"))
+                .add("b", () -> steps.add("b"))
+                .add("c", () -> steps.add("c"), "a")
+                .run(1, 0);
+
+        assertEquals(List.of("a", "b", "c"), steps);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownDependency() {
+        new FetchGraph().add("a", () -> { }, "b");
+    }
+
+    private static void meet(CountDownLatch latch, List<String> steps, String name) throws SonarQubeException {
+        latch.countDown();
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new SonarQubeException("steps did not run concurrently");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        steps.add(name);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
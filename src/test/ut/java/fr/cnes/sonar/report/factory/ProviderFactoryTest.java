@@ -1,6 +1,9 @@
 package fr.cnes.sonar.report.factory;
 
 import fr.cnes.sonar.report.CommonTest;
+import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
+import fr.cnes.sonar.report.exceptions.SonarQubeException;
+import fr.cnes.sonar.report.model.Project;
 import fr.cnes.sonar.report.providers.facets.*;
 import fr.cnes.sonar.report.providers.issues.*;
 import fr.cnes.sonar.report.providers.measure.*;
@@ -13,6 +16,14 @@ import fr.cnes.sonar.report.providers.securityhotspots.*;
 import fr.cnes.sonar.report.providers.sonarqubeinfo.*;
 import org.junit.Assert;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.sonarqube.ws.Measures;
+import org.sonarqube.ws.client.WsClient;
+import org.sonarqube.ws.client.languages.LanguagesService;
+import org.sonarqube.ws.client.measures.ComponentRequest;
+import org.sonarqube.ws.client.measures.MeasuresService;
+import org.sonarqube.ws.client.navigation.NavigationService;
 
 public class ProviderFactoryTest extends CommonTest {
 
@@ -50,4 +61,54 @@ public class ProviderFactoryTest extends CommonTest {
         Assert.assertTrue(sonarQubeInfoProvider instanceof SonarQubeInfoProviderStandalone);
     }
 
+    @Test
+    public void createPluginTest() {
+        final PluginProviderFactory pluginProviderFactory =
+                new PluginProviderFactory(Mockito.mock(WsClient.class), PROJECT_KEY, BRANCH);
+        Assert.assertFalse(pluginProviderFactory.isConcurrent());
+        Assert.assertTrue(standaloneProviderFactory.isConcurrent());
+
+        Assert.assertTrue(pluginProviderFactory.createFacetsProvider() instanceof FacetsProviderPlugin);
+        Assert.assertTrue(pluginProviderFactory.createIssuesProvider() instanceof IssuesProviderPlugin);
+        Assert.assertTrue(pluginProviderFactory.createMeasureProvider() instanceof MeasureProviderPlugin);
+        Assert.assertTrue(pluginProviderFactory.createProjectProvider() instanceof ProjectProviderPlugin);
+        Assert.assertTrue(pluginProviderFactory.createQualityProfileProvider() instanceof QualityProfileProviderPlugin);
+        Assert.assertTrue(pluginProviderFactory.createQualityGateProvider() instanceof QualityGateProviderPlugin);
+        Assert.assertTrue(pluginProviderFactory.createLanguageProvider() instanceof LanguageProviderPlugin);
+        Assert.assertTrue(pluginProviderFactory.createComponentProvider() instanceof ComponentProviderPlugin);
+        Assert.assertTrue(pluginProviderFactory.createSecurityHotspotsProvider() instanceof SecurityHotspotsProviderPlugin);
+        Assert.assertTrue(pluginProviderFactory.createSonarQubeInfoProvider() instanceof SonarQubeInfoProviderPlugin);
+    }
+
+    @Test
+    public void pluginProvidersCallTheClientTest() throws SonarQubeException, BadSonarQubeRequestException {
+        final MeasuresService measures = Mockito.mock(MeasuresService.class);
+        Mockito.when(measures.component(Mockito.any())).thenReturn(Measures.ComponentWsResponse.newBuilder()
+                .setComponent(Measures.Component.newBuilder().setKey(PROJECT_KEY)
+                        .addMeasures(Measures.Measure.newBuilder().setMetric("ncloc").setValue("1234")))
+                .build());
+        final NavigationService navigation = Mockito.mock(NavigationService.class);
+        Mockito.when(navigation.component(Mockito.any())).thenReturn("{\"key\":\"" + PROJECT_KEY + "\","
+                + "\"qualityProfiles\":[{\"key\":\"AXqp\",\"name\":\"Sonar way\",\"language\":\"java\"}]}");
+        final LanguagesService languages = Mockito.mock(LanguagesService.class);
+        Mockito.when(languages.list(Mockito.any())).thenReturn("{\"languages\":[{\"key\":\"java\",\"name\":\"Java\"}]}");
+        final WsClient wsClient = Mockito.mock(WsClient.class);
+        Mockito.when(wsClient.measures()).thenReturn(measures);
+        Mockito.when(wsClient.navigation()).thenReturn(navigation);
+        Mockito.when(wsClient.languages()).thenReturn(languages);
+        final PluginProviderFactory pluginProviderFactory = new PluginProviderFactory(wsClient, PROJECT_KEY, BRANCH);
+
+        // the providers request the project and the branch of the factory
+        Assert.assertEquals("1234", pluginProviderFactory.createMeasureProvider().getMeasures().get(0).getValue());
+        final ArgumentCaptor<ComponentRequest> request = ArgumentCaptor.forClass(ComponentRequest.class);
+        Mockito.verify(measures).component(request.capture());
+        Assert.assertEquals(PROJECT_KEY, request.getValue().getComponent());
+        Assert.assertEquals(BRANCH, request.getValue().getBranch());
+
+        // the languages of the project are read with the same client
+        final Project project = pluginProviderFactory.createProjectProvider().getProject(PROJECT_KEY, BRANCH);
+        Assert.assertEquals("Java", project.getQualityProfiles()[0].getLanguageName());
+        Mockito.verify(languages).list(Mockito.any());
+    }
+
 }
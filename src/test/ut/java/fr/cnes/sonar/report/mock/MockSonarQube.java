@@ -0,0 +1,1049 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.mock;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+
+import org.sonarqube.ws.client.HttpException;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+/**
+ * In-process SonarQube server serving a {@link SyntheticProject} on a local port.
+ * It implements the web services listed in requests.properties, with their paging
+ * and the limit of 10000 results of a search, so that the whole generation of a report
+ * goes through the real http stack. A latency can be set for each web service.
+ * The server reads the requests itself, as the query of cnesreport may not be a valid URI
+ * (e.g. branch=% for the main branch), which SonarQube tolerates but not the JDK http server.
+ * The same web services answer in process the web client of the plugin, see {@link MockWsClient}.
+ */
+public final class MockSonarQube implements Closeable {
+
+    /** Version of SonarQube given by the system status. */
+    public static final String VERSION = "10.4.1.88267";
+    /** Highest page size accepted by SonarQube. */
+    private static final int MAX_PAGE_SIZE = 500;
+    /** Highest number of results SonarQube gives for a search. */
+    private static final int MAX_RESULTS = 10000;
+    /** Number of issue searches whose results are kept, as reports go through their pages. */
+    private static final int SEARCHES_CACHE_SIZE = 32;
+    /** Served project. */
+    private final SyntheticProject project;
+    /** Socket accepting the connections. */
+    private final ServerSocket server;
+    /** Open connections, closed with the server. */
+    private final Set<Socket> connections = Collections.synchronizedSet(new HashSet<>());
+    /** Threads accepting the connections and answering the requests. */
+    private final ExecutorService executor;
+    /** Web services, indexed by path. */
+    private final Map<String, Function<Map<String, String>, Response>> services = new HashMap<>();
+    /** Latency in milliseconds of the web services, indexed by path. */
+    private final Map<String, Long> latencies = new ConcurrentHashMap<>();
+    /** Number of requests received by each web service, indexed by path. */
+    private final Map<String, AtomicLong> requests = new ConcurrentHashMap<>();
+    /** Last issues searches, indexed by filters. */
+    private final Map<String, Search> searches = Collections.synchronizedMap(
+            new LinkedHashMap<String, Search>(SEARCHES_CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<String, Search> eldest) {
+                    return size() > SEARCHES_CACHE_SIZE;
+                }
+            });
+    /** Latency in milliseconds of the web services without their own latency. */
+    private volatile long defaultLatency = 0;
+
+    /**
+     * Response of a web service.
+     */
+    private static final class Response {
+        /** Http status. */
+        private final int status;
+        /** Content type. */
+        private final String type;
+        /** Body. */
+        private final String body;
+
+        /**
+         * Constructor.
+         * @param pStatus Http status.
+         * @param pType Content type.
+         * @param pBody Body.
+         */
+        private Response(final int pStatus, final String pType, final String pBody) {
+            this.status = pStatus;
+            this.type = pType;
+            this.body = pBody;
+        }
+
+        /**
+         * Successful json response.
+         * @param json The body.
+         * @return The response.
+         */
+        private static Response ok(final JsonObject json) {
+            return new Response(200, "application/json", json.toString());
+        }
+
+        /**
+         * Error as given by SonarQube.
+         * @param status Http status.
+         * @param message Message of the error.
+         * @return The response.
+         */
+        private static Response error(final int status, final String message) {
+            final JsonObject error = new JsonObject();
+            error.addProperty("msg", message);
+            final JsonArray errors = new JsonArray();
+            errors.add(error);
+            final JsonObject json = new JsonObject();
+            json.add("errors", errors);
+            return new Response(status, "application/json", json.toString());
+        }
+    }
+
+    /**
+     * Issues matching some filters, with their facets once they are counted.
+     */
+    private static final class Search {
+        /** Indexes of the issues, in creation order. */
+        private final int[] matches;
+        /** Facets of the issues, indexed by name. */
+        private final Map<String, JsonObject> facets = new ConcurrentHashMap<>();
+
+        /**
+         * Constructor.
+         * @param pMatches Indexes of the issues, in creation order.
+         */
+        private Search(final int[] pMatches) {
+            this.matches = pMatches;
+        }
+    }
+
+    /**
+     * Error of a request, answered as SonarQube does.
+     */
+    private static final class RequestError extends RuntimeException {
+        /** Serialization id. */
+        private static final long serialVersionUID = 1L;
+        /** Http status. */
+        private final int status;
+
+        /**
+         * Constructor.
+         * @param pStatus Http status.
+         * @param pMessage Message of the error.
+         */
+        private RequestError(final int pStatus, final String pMessage) {
+            super(pMessage);
+            this.status = pStatus;
+        }
+    }
+
+    /**
+     * Start a server on a free local port.
+     * @param pProject Served project.
+     * @throws IOException When the server cannot be started.
+     */
+    public MockSonarQube(final SyntheticProject pProject) throws IOException {
+        this.project = pProject;
+
+        services.put("/api/system/status", this::status);
+        services.put("/api/navigation/component", this::navigation);
+        services.put("/api/languages/list", params -> languages());
+        services.put("/api/measures/component", this::measures);
+        services.put("/api/measures/component_tree", this::componentTree);
+        services.put("/api/measures/search_history", this::history);
+        services.put("/api/issues/search", this::issues);
+        services.put("/api/hotspots/search", this::hotspots);
+        services.put("/api/hotspots/show", this::hotspot);
+        services.put("/api/rules/search", this::rules);
+        services.put("/api/qualityprofiles/search", params -> qualityProfiles());
+        services.put("/api/qualityprofiles/export", this::exportQualityProfile);
+        services.put("/api/qualityprofiles/projects", params -> qualityProfileProjects());
+        services.put("/api/qualitygates/list", params -> qualityGates());
+        services.put("/api/qualitygates/show", params -> qualityGate());
+        services.put("/api/qualitygates/project_status", params -> qualityGateStatus());
+
+        this.executor = Executors.newCachedThreadPool(task -> {
+            final Thread thread = new Thread(task, "mock-sonarqube");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = new ServerSocket(0, 0, InetAddress.getLoopbackAddress());
+        this.executor.execute(this::accept);
+    }
+
+    /**
+     * Url of the server, to give to cnesreport.
+     * @return The url.
+     */
+    public String getUrl() {
+        return String.format("http://%s:%d", server.getInetAddress().getHostAddress(), server.getLocalPort());
+    }
+
+    /**
+     * Served project.
+     * @return The project.
+     */
+    public SyntheticProject getProject() {
+        return project;
+    }
+
+    /**
+     * Set the latency of all the web services without their own latency.
+     * @param millis Latency in milliseconds.
+     */
+    public void setLatency(final long millis) {
+        this.defaultLatency = millis;
+    }
+
+    /**
+     * Set the latency of a web service.
+     * @param service Path of the web service, e.g. api/issues/search.
+     * @param millis Latency in milliseconds.
+     */
+    public void setLatency(final String service, final long millis) {
+        latencies.put(path(service), millis);
+    }
+
+    /**
+     * Number of requests received by a web service.
+     * @param service Path of the web service, e.g. api/issues/search.
+     * @return The number of requests.
+     */
+    public long getRequestCount(final String service) {
+        final AtomicLong count = requests.get(path(service));
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * Number of requests received by the server.
+     * @return The number of requests.
+     */
+    public long getRequestCount() {
+        long res = 0;
+        for (AtomicLong count : requests.values()) {
+            res += count.get();
+        }
+        return res;
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+        synchronized (connections) {
+            for (Socket connection : connections) {
+                connection.close();
+            }
+        }
+        executor.shutdownNow();
+    }
+
+    /**
+     * Answer a request without going through http, as SonarQube answers the web client of the plugin.
+     * @param service Path of the web service, e.g. api/issues/search.
+     * @param params Decoded parameters of the request.
+     * @return The body of the response.
+     * @throws HttpException When the web service answers with an error, as the web client does.
+     */
+    String call(final String service, final Map<String, String> params) {
+        final Response response;
+        try {
+            response = handle(path(service), params);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        if (response.status >= 300) {
+            throw new HttpException(getUrl() + path(service), response.status, response.body);
+        }
+        return response.body;
+    }
+
+    /**
+     * Normalize the path of a web service.
+     * @param service Path of the web service, with or without a leading slash.
+     * @return The path with a leading slash.
+     */
+    private static String path(final String service) {
+        return service.startsWith("/") ? service : "/" + service;
+    }
+
+    /**
+     * Accept connections until the server is closed.
+     */
+    private void accept() {
+        while (!server.isClosed()) {
+            try {
+                final Socket connection = server.accept();
+                connections.add(connection);
+                executor.execute(() -> serve(connection));
+            } catch (IOException e) {
+                // the server is closed
+            }
+        }
+    }
+
+    /**
+     * Answer the requests of a connection until the client closes it.
+     * @param connection The connection.
+     */
+    private void serve(final Socket connection) {
+        try (Socket socket = connection;
+             InputStream in = new BufferedInputStream(socket.getInputStream());
+             OutputStream out = socket.getOutputStream()) {
+            String line = readLine(in);
+            while (line != null) {
+                // request line then headers, a GET has no body
+                final String[] request = line.split(" ");
+                boolean keepAlive = request.length < 3 || !"HTTP/1.0".equals(request[2]);
+                String header = readLine(in);
+                while (header != null && !header.isEmpty()) {
+                    if (header.toLowerCase(Locale.ENGLISH).replace(" ", "").equals("connection:close")) {
+                        keepAlive = false;
+                    }
+                    header = readLine(in);
+                }
+
+                final Response response = request.length < 2 ? Response.error(400, "Bad request") : handle(request[1]);
+                final byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+                final String head = String.format("HTTP/1.1 %d %s\r\nContent-Type: %s;charset=utf-8\r\n"
+                        + "Content-Length: %d\r\nConnection: %s\r\n\r\n", response.status,
+                        response.status < 300 ? "OK" : "Error", response.type, body.length,
+                        keepAlive ? "keep-alive" : "close");
+                out.write(head.getBytes(StandardCharsets.ISO_8859_1));
+                out.write(body);
+                out.flush();
+
+                line = keepAlive ? readLine(in) : null;
+            }
+        } catch (IOException e) {
+            // the connection is closed by the client or by the server
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            connections.remove(connection);
+        }
+    }
+
+    /**
+     * Read a line of the head of a request.
+     * @param in The request.
+     * @return The line without its end, null at the end of the stream.
+     * @throws IOException When the request cannot be read.
+     */
+    private static String readLine(final InputStream in) throws IOException {
+        final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int c = in.read();
+        if (c < 0) {
+            return null;
+        }
+        while (c >= 0 && c != '\n') {
+            if (c != '\r') {
+                line.write(c);
+            }
+            c = in.read();
+        }
+        return new String(line.toByteArray(), StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Answer a request.
+     * @param target The target of the request, its path and its raw query.
+     * @return The response.
+     * @throws InterruptedException When the thread is interrupted during the latency.
+     */
+    private Response handle(final String target) throws InterruptedException {
+        final int question = target.indexOf('?');
+        return handle(question < 0 ? target : target.substring(0, question),
+                parameters(question < 0 ? null : target.substring(question + 1)));
+    }
+
+    /**
+     * Answer a request to a web service.
+     * @param path Path of the web service, with a leading slash.
+     * @param params Decoded parameters of the request.
+     * @return The response.
+     * @throws InterruptedException When the thread is interrupted during the latency.
+     */
+    private Response handle(final String path, final Map<String, String> params) throws InterruptedException {
+        requests.computeIfAbsent(path, p -> new AtomicLong()).incrementAndGet();
+
+        final long latency = latencies.getOrDefault(path, defaultLatency);
+        if (latency > 0) {
+            Thread.sleep(latency);
+        }
+
+        final Function<Map<String, String>, Response> service = services.get(path);
+        if (service == null) {
+            return Response.error(404, "Unknown url : " + path);
+        }
+        try {
+            return service.apply(params);
+        } catch (RequestError e) {
+            return Response.error(e.status, e.getMessage());
+        }
+    }
+
+    /**
+     * Parse the parameters of a request.
+     * @param query The raw query, possibly null.
+     * @return The decoded parameters, indexed by name.
+     */
+    private static Map<String, String> parameters(final String query) {
+        final Map<String, String> res = new HashMap<>();
+        if (query == null) {
+            return res;
+        }
+        for (String parameter : query.split("&")) {
+            final int equals = parameter.indexOf('=');
+            if (equals > 0) {
+                res.put(decode(parameter.substring(0, equals)), decode(parameter.substring(equals + 1)));
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Decode a parameter. Dates of the issues searches are not encoded,
+     * so a plus is kept as is rather than read as a space.
+     * @param value The raw value.
+     * @return The decoded value.
+     */
+    private static String decode(final String value) {
+        try {
+            return URLDecoder.decode(value.replace("+", "%2B"), StandardCharsets.UTF_8.name());
+        } catch (IllegalArgumentException | IOException e) {
+            return value;
+        }
+    }
+
+    /**
+     * Read an integer parameter.
+     * @param params Parameters of the request.
+     * @param name Name of the parameter.
+     * @param defaultValue Value when the parameter is not given.
+     * @return The value.
+     */
+    private static int intParameter(final Map<String, String> params, final String name, final int defaultValue) {
+        final String value = params.get(name);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new RequestError(400, String.format("'%s' value '%s' is not an integer", name, value));
+        }
+    }
+
+    /**
+     * Read a list parameter.
+     * @param params Parameters of the request.
+     * @param name Name of the parameter.
+     * @return The values, empty when the parameter is not given.
+     */
+    private static List<String> listParameter(final Map<String, String> params, final String name) {
+        final String value = params.get(name);
+        return value == null || value.isEmpty() ? Collections.emptyList() : Arrays.asList(value.split(","));
+    }
+
+    /**
+     * Check the project of a request.
+     * @param params Parameters of the request.
+     * @param name Name of the parameter giving the project.
+     * @throws RequestError When the project is not the served one.
+     */
+    private void checkProject(final Map<String, String> params, final String name) {
+        if (!project.getKey().equals(params.get(name))) {
+            throw new RequestError(404, String.format("Component key '%s' not found", params.get(name)));
+        }
+    }
+
+    /**
+     * Page of a search.
+     * @param params Parameters of the request.
+     * @param defaultSize Page size when it is not given.
+     * @return The page index and the page size.
+     */
+    private static int[] page(final Map<String, String> params, final int defaultSize) {
+        final int page = intParameter(params, "p", 1);
+        final int size = intParameter(params, "ps", defaultSize);
+        if (page < 1 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new RequestError(400, String.format("'ps' value (%d) must be less than %d", size, MAX_PAGE_SIZE));
+        }
+        return new int[] {page, size};
+    }
+
+    /**
+     * Paging of a response.
+     * @param page The page index and the page size.
+     * @param total Number of results.
+     * @return The paging as given by SonarQube.
+     */
+    private static JsonObject paging(final int[] page, final int total) {
+        final JsonObject paging = new JsonObject();
+        paging.addProperty("pageIndex", page[0]);
+        paging.addProperty("pageSize", page[1]);
+        paging.addProperty("total", total);
+        return paging;
+    }
+
+    /**
+     * Answer api/system/status.
+     * @param params Parameters of the request.
+     * @return The status of the server.
+     */
+    private Response status(final Map<String, String> params) {
+        final JsonObject json = new JsonObject();
+        json.addProperty("id", "mock-sonarqube");
+        json.addProperty("version", VERSION);
+        json.addProperty("status", "UP");
+        return Response.ok(json);
+    }
+
+    /**
+     * Answer api/navigation/component.
+     * @param params Parameters of the request.
+     * @return The project.
+     */
+    private Response navigation(final Map<String, String> params) {
+        if (!project.getKey().equals(params.get("component"))) {
+            return Response.error(404, String.format("Component key '%s' not found", params.get("component")));
+        }
+        return Response.ok(project.project());
+    }
+
+    /**
+     * Answer api/languages/list.
+     * @return The languages.
+     */
+    private Response languages() {
+        final JsonArray languages = new JsonArray();
+        for (int i = 0; i < SyntheticProject.LANGUAGES.length; i++) {
+            final JsonObject language = new JsonObject();
+            language.addProperty("key", SyntheticProject.LANGUAGES[i]);
+            language.addProperty("name", SyntheticProject.LANGUAGE_NAMES[i]);
+            languages.add(language);
+        }
+        final JsonObject json = new JsonObject();
+        json.add("languages", languages);
+        return Response.ok(json);
+    }
+
+    /**
+     * Answer api/measures/component, with or without the description of the metrics.
+     * @param params Parameters of the request.
+     * @return The measures of the project.
+     */
+    private Response measures(final Map<String, String> params) {
+        checkProject(params, "component");
+        final List<String> metricKeys = listParameter(params, "metricKeys");
+        final Map<String, String> values = project.getProjectMeasures();
+
+        final JsonArray measures = new JsonArray();
+        for (String metric : metricKeys) {
+            final JsonObject measure = new JsonObject();
+            measure.addProperty("metric", metric);
+            measure.addProperty("value", values.getOrDefault(metric, "0"));
+            measures.add(measure);
+        }
+        final JsonObject component = new JsonObject();
+        component.addProperty("key", project.getKey());
+        component.addProperty("name", project.getName());
+        component.addProperty("qualifier", "TRK");
+        component.add("measures", measures);
+        final JsonObject json = new JsonObject();
+        json.add("component", component);
+
+        if ("metrics".equals(params.get("additionalFields"))) {
+            final JsonArray metrics = new JsonArray();
+            for (String metricKey : metricKeys) {
+                final JsonObject metric = new JsonObject();
+                metric.addProperty("key", metricKey);
+                metric.addProperty("name", SyntheticProject.getMetricName(metricKey));
+                metric.addProperty("type", SyntheticProject.getMetricType(metricKey));
+                metrics.add(metric);
+            }
+            json.add("metrics", metrics);
+        }
+        return Response.ok(json);
+    }
+
+    /**
+     * Answer api/measures/component_tree.
+     * @param params Parameters of the request.
+     * @return A page of files with their measures.
+     */
+    private Response componentTree(final Map<String, String> params) {
+        checkProject(params, "component");
+        final int[] page = page(params, 100);
+        final List<String> metrics = listParameter(params, "metricKeys");
+
+        final JsonArray components = new JsonArray();
+        final int from = (page[0] - 1) * page[1];
+        for (int c = from; c < Math.min(from + page[1], project.getComponents()); c++) {
+            components.add(project.component(c, metrics));
+        }
+        final JsonObject base = new JsonObject();
+        base.addProperty("key", project.getKey());
+        base.addProperty("qualifier", "TRK");
+        final JsonObject json = new JsonObject();
+        json.add("paging", paging(page, project.getComponents()));
+        json.add("baseComponent", base);
+        json.add("components", components);
+        return Response.ok(json);
+    }
+
+    /**
+     * Answer api/measures/search_history, with a point each week.
+     * @param params Parameters of the request.
+     * @return A page of the history of the measures.
+     */
+    private Response history(final Map<String, String> params) {
+        checkProject(params, "component");
+        final int[] page = page(params, 100);
+        final int from = (page[0] - 1) * page[1];
+
+        final JsonArray measures = new JsonArray();
+        for (String metric : listParameter(params, "metrics")) {
+            final JsonArray history = new JsonArray();
+            for (int week = from; week < Math.min(from + page[1], project.getHistoryLength()); week++) {
+                final JsonObject point = new JsonObject();
+                point.addProperty("date", project.getHistoryDate(week));
+                point.addProperty("value", project.getHistoryValue(metric, week));
+                history.add(point);
+            }
+            final JsonObject measure = new JsonObject();
+            measure.addProperty("metric", metric);
+            measure.add("history", history);
+            measures.add(measure);
+        }
+        final JsonObject json = new JsonObject();
+        json.add("paging", paging(page, project.getHistoryLength()));
+        json.add("measures", measures);
+        return Response.ok(json);
+    }
+
+    /**
+     * Give the issues matching a search, in creation order.
+     * The results of the last searches are kept, as reports go through all their pages.
+     * @param params Parameters of the request.
+     * @return The issues.
+     */
+    private Search search(final Map<String, String> params) {
+        final TreeMap<String, String> filters = new TreeMap<>();
+        for (String filter : Arrays.asList("resolved", "types", "severities", "createdAfter", "createdBefore")) {
+            if (params.containsKey(filter)) {
+                filters.put(filter, params.get(filter));
+            }
+        }
+        final String search = filters.toString();
+        Search res = searches.get(search);
+        if (res == null) {
+            res = new Search(filter(filters));
+            searches.put(search, res);
+        }
+        return res;
+    }
+
+    /**
+     * Find the issues matching some filters.
+     * @param filters Filters of the search, indexed by parameter.
+     * @return Indexes of the issues, in creation order.
+     */
+    private int[] filter(final Map<String, String> filters) {
+        // dates restrict the issues to scan, as issues are created one second apart
+        long from = 0;
+        long to = project.getIssues();
+        if (filters.containsKey("createdAfter")) {
+            from = Math.max(from, project.getIssueCreatedAt(parseDate(filters.get("createdAfter"))));
+        }
+        if (filters.containsKey("createdBefore")) {
+            to = Math.min(to, project.getIssueCreatedAt(parseDate(filters.get("createdBefore"))));
+        }
+
+        IntPredicate predicate = i -> true;
+        final String resolved = filters.get("resolved");
+        if (resolved != null && !resolved.isEmpty()) {
+            final boolean value = Boolean.parseBoolean(resolved);
+            predicate = predicate.and(i -> project.isResolved(i) == value);
+        }
+        if (filters.containsKey("types")) {
+            final List<String> types = Arrays.asList(filters.get("types").split(","));
+            predicate = predicate.and(i -> types.contains(project.getType(i)));
+        }
+        if (filters.containsKey("severities")) {
+            final List<String> severities = Arrays.asList(filters.get("severities").split(","));
+            predicate = predicate.and(i -> severities.contains(project.getSeverity(i)));
+        }
+
+        final int[] matches = new int[(int) Math.max(0, to - from)];
+        int count = 0;
+        for (int i = (int) from; i < to; i++) {
+            if (predicate.test(i)) {
+                matches[count++] = i;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    /**
+     * Parse a date parameter.
+     * @param date The date as given by cnesreport, possibly with a space in place of a plus.
+     * @return Seconds since the epoch.
+     */
+    private static long parseDate(final String date) {
+        try {
+            return OffsetDateTime.parse(date.replace(' ', '+'), SyntheticProject.DATE_TIME).toEpochSecond();
+        } catch (DateTimeParseException e) {
+            throw new RequestError(400, String.format("'%s' cannot be parsed as a date", date));
+        }
+    }
+
+    /**
+     * Answer api/issues/search.
+     * @param params Parameters of the request.
+     * @return A page of issues, with their rules and the requested facets.
+     */
+    private Response issues(final Map<String, String> params) {
+        checkProject(params, "projects");
+        final int[] page = page(params, 100);
+        if ((long) page[0] * page[1] > MAX_RESULTS) {
+            throw new RequestError(400, String.format("Can return only the first %d results. %dth result asked.",
+                    MAX_RESULTS, (long) page[0] * page[1]));
+        }
+        final Search search = search(params);
+        final int[] matches = search.matches;
+        final boolean newestFirst = "CREATION_DATE".equals(params.get("s")) && "false".equals(params.get("asc"));
+
+        final JsonArray issues = new JsonArray();
+        final Map<String, JsonObject> rules = new TreeMap<>();
+        final int from = (page[0] - 1) * page[1];
+        for (int rank = from; rank < Math.min(from + page[1], matches.length); rank++) {
+            final JsonObject issue = project.issue(matches[newestFirst ? matches.length - 1 - rank : rank]);
+            final String rule = issue.get("rule").getAsString();
+            rules.computeIfAbsent(rule, SyntheticProject::rule);
+            issues.add(issue);
+        }
+
+        final JsonObject json = new JsonObject();
+        json.addProperty("total", matches.length);
+        json.addProperty("p", page[0]);
+        json.addProperty("ps", page[1]);
+        json.add("paging", paging(page, matches.length));
+        json.add("issues", issues);
+        if (listParameter(params, "additionalFields").contains("rules")) {
+            final JsonArray array = new JsonArray();
+            rules.values().forEach(array::add);
+            json.add("rules", array);
+        }
+        final JsonArray facets = new JsonArray();
+        for (String facet : listParameter(params, "facets")) {
+            facets.add(search.facets.computeIfAbsent(facet, name -> facet(matches, name)));
+        }
+        json.add("facets", facets);
+        return Response.ok(json);
+    }
+
+    /**
+     * Count the issues of a search by value of an attribute.
+     * @param matches Indexes of the issues.
+     * @param name Name of the facet.
+     * @return The facet as given by SonarQube.
+     */
+    private JsonObject facet(final int[] matches, final String name) {
+        final Map<String, Integer> counts = new TreeMap<>();
+        switch (name) {
+            case "types":
+                for (int i : matches) {
+                    counts.merge(project.getType(i), 1, Integer::sum);
+                }
+                break;
+            case "severities":
+                for (int i : matches) {
+                    counts.merge(project.getSeverity(i), 1, Integer::sum);
+                }
+                break;
+            case "rules":
+                final int[] rules = new int[SyntheticProject.LANGUAGES.length * SyntheticProject.RULES_PER_LANGUAGE];
+                for (int i : matches) {
+                    rules[project.getRule(i)]++;
+                }
+                for (int r = 0; r < rules.length; r++) {
+                    if (rules[r] > 0) {
+                        counts.put(SyntheticProject.getRuleKey(r), rules[r]);
+                    }
+                }
+                break;
+            case "files":
+            case "directories":
+                // keys are only built once per file
+                final int[] files = new int[project.getComponents()];
+                for (int i : matches) {
+                    files[project.getComponent(i)]++;
+                }
+                for (int c = 0; c < files.length; c++) {
+                    if (files[c] > 0) {
+                        final String file = project.getComponentKey(c);
+                        counts.merge("files".equals(name) ? file : file.substring(0, file.lastIndexOf('/')),
+                                files[c], Integer::sum);
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+
+        final JsonArray values = new JsonArray();
+        counts.forEach((val, count) -> {
+            final JsonObject value = new JsonObject();
+            value.addProperty("val", val);
+            value.addProperty("count", count);
+            values.add(value);
+        });
+        final JsonObject facet = new JsonObject();
+        facet.addProperty("property", name);
+        facet.add("values", values);
+        return facet;
+    }
+
+    /**
+     * Answer api/hotspots/search.
+     * @param params Parameters of the request.
+     * @return A page of security hotspots.
+     */
+    private Response hotspots(final Map<String, String> params) {
+        checkProject(params, "project");
+        final int[] page = page(params, 100);
+        final String status = params.get("status");
+
+        final List<Integer> matches = new ArrayList<>();
+        for (int i = 0; i < project.getHotspots(); i++) {
+            if (status == null || status.equals(project.isReviewed(i) ? "REVIEWED" : "TO_REVIEW")) {
+                matches.add(i);
+            }
+        }
+        final JsonArray hotspots = new JsonArray();
+        final int from = (page[0] - 1) * page[1];
+        for (int rank = from; rank < Math.min(from + page[1], matches.size()); rank++) {
+            hotspots.add(project.hotspot(matches.get(rank)));
+        }
+
+        final JsonObject json = new JsonObject();
+        json.add("paging", paging(page, matches.size()));
+        json.add("hotspots", hotspots);
+        return Response.ok(json);
+    }
+
+    /**
+     * Answer api/hotspots/show.
+     * @param params Parameters of the request.
+     * @return The security hotspot with its rule and comments.
+     */
+    private Response hotspot(final Map<String, String> params) {
+        final String key = String.valueOf(params.get("hotspot"));
+        int index = -1;
+        if (key.startsWith("hotspot-")) {
+            try {
+                index = Integer.parseInt(key.substring("hotspot-".length()));
+            } catch (NumberFormatException e) {
+                index = -1;
+            }
+        }
+        if (index < 0 || index >= project.getHotspots()) {
+            return Response.error(404, String.format("Hotspot '%s' not found", key));
+        }
+        return Response.ok(project.hotspotDetails(index));
+    }
+
+    /**
+     * Answer api/rules/search, either for some rules or for the rules of a quality profile.
+     * @param params Parameters of the request.
+     * @return A page of rules.
+     */
+    private Response rules(final Map<String, String> params) {
+        final int[] page = page(params, 100);
+        final List<String> keys;
+        final String profile = params.get("qprofile");
+        if (profile != null) {
+            final int language = profile.startsWith("profile-") ?
+                    SyntheticProject.language(profile.substring("profile-".length())) : -1;
+            keys = language < 0 ? Collections.emptyList() : SyntheticProject.getRuleKeys(language);
+        } else {
+            keys = listParameter(params, "rule_keys");
+        }
+
+        final JsonArray rules = new JsonArray();
+        final JsonObject actives = new JsonObject();
+        final int from = (page[0] - 1) * page[1];
+        int total = 0;
+        for (String key : keys) {
+            final JsonObject rule = SyntheticProject.rule(key);
+            if (rule != null) {
+                if (total >= from && total < from + page[1]) {
+                    rules.add(rule);
+                    final JsonObject active = new JsonObject();
+                    active.addProperty("qProfile", profile);
+                    active.addProperty("inherit", "NONE");
+                    active.add("severity", rule.get("severity"));
+                    active.add("params", new JsonArray());
+                    final JsonArray activations = new JsonArray();
+                    activations.add(active);
+                    actives.add(key, activations);
+                }
+                total++;
+            }
+        }
+
+        final JsonObject json = new JsonObject();
+        json.addProperty("total", total);
+        json.addProperty("p", page[0]);
+        json.addProperty("ps", page[1]);
+        json.add("rules", rules);
+        if (profile != null) {
+            json.add("actives", actives);
+        }
+        return Response.ok(json);
+    }
+
+    /**
+     * Answer api/qualityprofiles/search.
+     * @return The quality profiles of the project, one by language.
+     */
+    private Response qualityProfiles() {
+        final JsonArray profiles = new JsonArray();
+        for (int i = 0; i < SyntheticProject.LANGUAGES.length; i++) {
+            profiles.add(SyntheticProject.qualityProfile(i));
+        }
+        final JsonObject json = new JsonObject();
+        json.add("profiles", profiles);
+        return Response.ok(json);
+    }
+
+    /**
+     * Answer api/qualityprofiles/export.
+     * @param params Parameters of the request.
+     * @return The quality profile as xml.
+     */
+    private Response exportQualityProfile(final Map<String, String> params) {
+        final String language = String.valueOf(params.get("language"));
+        final int index = SyntheticProject.language(language);
+        if (index < 0) {
+            return Response.error(404, String.format("No language '%s'", language));
+        }
+        return new Response(200, "application/xml", SyntheticProject.qualityProfileXml(index));
+    }
+
+    /**
+     * Answer api/qualityprofiles/projects.
+     * @return The projects of a quality profile.
+     */
+    private Response qualityProfileProjects() {
+        final JsonObject result = new JsonObject();
+        result.addProperty("id", "project-" + project.getKey());
+        result.addProperty("key", project.getKey());
+        result.addProperty("name", project.getName());
+        result.addProperty("selected", true);
+        final JsonArray results = new JsonArray();
+        results.add(result);
+        final JsonObject json = new JsonObject();
+        json.add("results", results);
+        json.add("paging", paging(new int[] {1, 100}, 1));
+        return Response.ok(json);
+    }
+
+    /**
+     * Answer api/qualitygates/list.
+     * @return The quality gates.
+     */
+    private Response qualityGates() {
+        final JsonObject gate = new JsonObject();
+        gate.addProperty("id", SyntheticProject.GATE);
+        gate.addProperty("name", SyntheticProject.SONAR_WAY);
+        gate.addProperty("isDefault", true);
+        gate.addProperty("isBuiltIn", true);
+        final JsonArray gates = new JsonArray();
+        gates.add(gate);
+        final JsonObject json = new JsonObject();
+        json.add("qualitygates", gates);
+        json.addProperty("default", SyntheticProject.GATE);
+        return Response.ok(json);
+    }
+
+    /**
+     * Answer api/qualitygates/show.
+     * @return The quality gate.
+     */
+    private Response qualityGate() {
+        return Response.ok(SyntheticProject.qualityGate());
+    }
+
+    /**
+     * Answer api/qualitygates/project_status.
+     * @return The status of the quality gate on the project.
+     */
+    private Response qualityGateStatus() {
+        final JsonArray conditions = new JsonArray();
+        for (String[] condition : SyntheticProject.CONDITIONS) {
+            final JsonObject json = new JsonObject();
+            json.addProperty("status", condition[4]);
+            json.addProperty("metricKey", condition[0]);
+            json.addProperty("comparator", condition[1]);
+            json.addProperty("errorThreshold", condition[2]);
+            json.addProperty("actualValue", condition[3]);
+            conditions.add(json);
+        }
+        final JsonObject status = new JsonObject();
+        status.addProperty("status", "ERROR");
+        status.add("conditions", conditions);
+        final JsonObject json = new JsonObject();
+        json.add("projectStatus", status);
+        return Response.ok(json);
+    }
+}
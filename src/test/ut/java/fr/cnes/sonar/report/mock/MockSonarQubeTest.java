@@ -0,0 +1,221 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.mock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import fr.cnes.sonar.report.ReportCommandLine;
+
+/**
+ * Generate whole reports from a mock SonarQube through the real http stack.
+ * A large project can be generated with the system properties mock.issues, mock.hotspots,
+ * mock.components and mock.latency, e.g.
+ * mvn test -Dtest=MockSonarQubeTest -Dmock.issues=1000000 -Dmock.hotspots=5000 -Dmock.components=20000
+ */
+public class MockSonarQubeTest {
+
+    private static final Logger LOGGER = Logger.getLogger(MockSonarQubeTest.class.getName());
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Generate a report.
+     * @param sonarQube the mock SonarQube
+     * @param output the output folder
+     * @param options options of the command line added to the server, the project and the output
+     */
+    private static void generate(final MockSonarQube sonarQube, final File output, final String... options)
+            throws Exception {
+        final List<String> args = new ArrayList<>(Arrays.asList("-s", sonarQube.getUrl(),
+                "-p", sonarQube.getProject().getKey(), "-o", output.getAbsolutePath(), "-a", "Tester"));
+        args.addAll(Arrays.asList(options));
+        ReportCommandLine.execute(args.toArray(new String[0]));
+    }
+
+    /**
+     * Find a generated file.
+     * @param output the output folder
+     * @param suffix the end of the name of the file
+     * @return the file
+     */
+    private static File find(final File output, final String suffix) {
+        final File[] files = output.listFiles((dir, name) -> name.endsWith(suffix));
+        assertTrue(files != null && files.length == 1, "No file ending with " + suffix);
+        return files[0];
+    }
+
+    /**
+     * Read the issues exported in csv.
+     * @param output the output folder
+     * @return the lines of the csv export, without its header
+     */
+    private static List<String> readIssues(final File output) throws IOException {
+        final List<String> lines = Files.readAllLines(find(output, "-issues-report.csv").toPath(),
+                StandardCharsets.UTF_8);
+        return lines.subList(1, lines.size());
+    }
+
+    /**
+     * Read the columns of the issues exported in csv.
+     * @param output the output folder
+     * @return the values of each issue, indexed by column
+     */
+    private static List<Map<String, String>> readIssueColumns(final File output) throws IOException {
+        final List<String> lines = Files.readAllLines(find(output, "-issues-report.csv").toPath(),
+                StandardCharsets.UTF_8);
+        final String[] header = lines.get(0).split("\t", -1);
+        final List<Map<String, String>> res = new ArrayList<>();
+        for (String line : lines.subList(1, lines.size())) {
+            final String[] values = line.split("\t", -1);
+            final Map<String, String> issue = new HashMap<>();
+            for (int i = 0; i < header.length && i < values.length; i++) {
+                issue.put(header[i], values[i]);
+            }
+            res.add(issue);
+        }
+        return res;
+    }
+
+    @Test
+    public void testReportIsGeneratedThroughHttp() throws Exception {
+        try (MockSonarQube sonarQube = new MockSonarQube(new SyntheticProject("mock", 600, 40, 120))) {
+            sonarQube.setLatency("api/hotspots/show", 2);
+            final File output = folder.newFolder();
+            generate(sonarQube, output);
+
+            find(output, "-analysis-report.docx");
+            find(output, "-issues-report.xlsx");
+            find(output, "-analysis-report.md");
+            assertTrue(new File(output, "conf").isDirectory());
+            assertEquals(sonarQube.getProject().getUnresolvedIssues(), readIssues(output).size());
+            assertEquals(40, sonarQube.getRequestCount("api/hotspots/show"));
+            assertTrue(sonarQube.getRequestCount("api/issues/search") >= 3);
+        }
+    }
+
+    @Test
+    public void testReportIsGeneratedThroughThePlugin() throws Exception {
+        try (MockSonarQube sonarQube = new MockSonarQube(new SyntheticProject("plugin", 600, 40, 120))) {
+            // only the issues are exported through http, to be compared
+            final File http = folder.newFolder();
+            generate(sonarQube, http, "-c", "-w", "-e", "-m");
+            final long httpRequests = sonarQube.getRequestCount();
+
+            // the web client of the plugin answers in process, the server given to the command line is never called
+            final File output = folder.newFolder();
+            ReportCommandLine.execute(new String[] {"-s", "http://127.0.0.1:1", "-p", sonarQube.getProject().getKey(),
+                    "-o", output.getAbsolutePath(), "-a", "Tester"}, MockWsClient.create(sonarQube));
+
+            find(output, "-analysis-report.docx");
+            find(output, "-issues-report.xlsx");
+            find(output, "-analysis-report.md");
+            assertTrue(new File(output, "conf").isDirectory());
+            // protobuf responses give all the repeated fields of an issue, the synthetic json only some of them
+            final List<Map<String, String>> expected = readIssueColumns(http);
+            final List<Map<String, String>> actual = readIssueColumns(output);
+            assertEquals(sonarQube.getProject().getUnresolvedIssues(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                for (Map.Entry<String, String> column : expected.get(i).entrySet()) {
+                    assertEquals(column.getValue(), actual.get(i).get(column.getKey()), column.getKey());
+                }
+            }
+            assertEquals(80, sonarQube.getRequestCount("api/hotspots/show"));
+            assertTrue(sonarQube.getRequestCount() > httpRequests);
+        }
+    }
+
+    @Test
+    public void testLargeSearchesAreSliced() throws Exception {
+        // more issues than SonarQube gives for a search
+        try (MockSonarQube sonarQube = new MockSonarQube(new SyntheticProject("large", 12000, 0, 30))) {
+            final File output = folder.newFolder();
+            generate(sonarQube, output, "-c", "-w", "-e", "-m");
+
+            final List<String> issues = readIssues(output);
+            assertEquals(sonarQube.getProject().getUnresolvedIssues(), issues.size());
+            assertEquals(issues.size(), new HashSet<>(issues).size());
+        }
+    }
+
+    @Test
+    public void testGenerationIsProfiled() throws Exception {
+        try (MockSonarQube sonarQube = new MockSonarQube(new SyntheticProject("profiled", 300, 10, 50))) {
+            final File output = folder.newFolder();
+            generate(sonarQube, output, "-c", "-w", "-e", "-m", "--profile");
+
+            final JsonArray phases = JsonParser.parseString(new String(Files.readAllBytes(
+                    find(output, "-profile.json").toPath()), StandardCharsets.UTF_8))
+                    .getAsJsonObject().getAsJsonArray("phases");
+            final Map<String, JsonObject> byName = new HashMap<>();
+            phases.forEach(phase -> byName.put(phase.getAsJsonObject().get("name").getAsString(),
+                    phase.getAsJsonObject()));
+            final JsonObject report = byName.get("report");
+            assertEquals(sonarQube.getRequestCount(), report.get("httpCalls").getAsLong());
+            assertTrue(report.get("bytesReceived").getAsLong() > 0);
+            assertTrue(report.get("peakHeapBytes").getAsLong() > 0);
+            assertTrue(byName.get("fetch issues").get("pages").getAsLong() > 0);
+            long fetched = 0;
+            for (JsonObject phase : byName.values()) {
+                fetched += phase.get("name").getAsString().startsWith("fetch ") ? phase.get("httpCalls").getAsLong() : 0;
+            }
+            assertEquals(byName.get("model").get("httpCalls").getAsLong(), fetched);
+            assertEquals("model", byName.get("fetch issues").get("parent").getAsString());
+            assertEquals("export", byName.get("export csv").get("parent").getAsString());
+        }
+    }
+
+    @Test
+    public void testLargeProject() throws Exception {
+        Assume.assumeTrue(System.getProperty("mock.issues") != null);
+        final SyntheticProject project = new SyntheticProject("scale", Integer.getInteger("mock.issues"),
+                Integer.getInteger("mock.hotspots", 1000), Integer.getInteger("mock.components", 10000));
+        try (MockSonarQube sonarQube = new MockSonarQube(project)) {
+            sonarQube.setLatency(Long.getLong("mock.latency", 0L));
+            final File output = folder.newFolder();
+            final long start = System.nanoTime();
+            generate(sonarQube, output);
+
+            LOGGER.info(String.format("Report of %d issues generated in %d ms with %d requests.",
+                    project.getIssues(), (System.nanoTime() - start) / 1000000, sonarQube.getRequestCount()));
+            assertEquals(project.getUnresolvedIssues(), readIssues(output).size());
+        }
+    }
+}
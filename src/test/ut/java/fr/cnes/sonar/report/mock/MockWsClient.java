@@ -0,0 +1,314 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.mock;
+
+import java.io.ByteArrayInputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.mockito.Mockito;
+import org.sonarqube.ws.Hotspots;
+import org.sonarqube.ws.Issues;
+import org.sonarqube.ws.Measures;
+import org.sonarqube.ws.Qualitygates;
+import org.sonarqube.ws.Qualityprofiles;
+import org.sonarqube.ws.Rules;
+import org.sonarqube.ws.client.WsClient;
+import org.sonarqube.ws.client.WsConnector;
+import org.sonarqube.ws.client.WsRequest;
+import org.sonarqube.ws.client.WsResponse;
+import org.sonarqube.ws.client.hotspots.HotspotsService;
+import org.sonarqube.ws.client.issues.IssuesService;
+import org.sonarqube.ws.client.languages.LanguagesService;
+import org.sonarqube.ws.client.measures.MeasuresService;
+import org.sonarqube.ws.client.navigation.NavigationService;
+import org.sonarqube.ws.client.qualitygates.QualitygatesService;
+import org.sonarqube.ws.client.qualityprofiles.QualityprofilesService;
+import org.sonarqube.ws.client.rules.RulesService;
+import org.sonarqube.ws.client.system.SystemService;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.Message;
+
+/**
+ * Web client of the plugin answered in process by a {@link MockSonarQube}.
+ * The typed requests of the web client are given to the web services of the mock SonarQube
+ * and their json responses are converted to the protobuf responses of SonarQube,
+ * so that a whole report can be generated through the providers of the plugin.
+ */
+public final class MockWsClient {
+
+    /**
+     * Private constructor, the web client is given by {@link #create(MockSonarQube)}.
+     */
+    private MockWsClient() {
+    }
+
+    /**
+     * Create a web client answered by a mock SonarQube.
+     * @param sonarQube the mock SonarQube answering the requests
+     * @return the web client
+     */
+    public static WsClient create(final MockSonarQube sonarQube) {
+        final SystemService system = Mockito.mock(SystemService.class);
+        Mockito.when(system.status()).thenAnswer(invocation -> parse(sonarQube.call("api/system/status", params()),
+                org.sonarqube.ws.System.StatusResponse.newBuilder()).buildPartial());
+
+        // the navigation, the languages and the exports of quality profiles are only given as text by SonarQube
+        final NavigationService navigation = Mockito.mock(NavigationService.class);
+        Mockito.when(navigation.component(Mockito.any())).thenAnswer(invocation -> {
+            final org.sonarqube.ws.client.navigation.ComponentRequest request = invocation.getArgument(0);
+            return sonarQube.call("api/navigation/component",
+                    params("component", request.getComponent(), "branch", request.getBranch()));
+        });
+        final LanguagesService languages = Mockito.mock(LanguagesService.class);
+        Mockito.when(languages.list(Mockito.any())).thenAnswer(invocation ->
+                sonarQube.call("api/languages/list", params()));
+
+        final MeasuresService measures = Mockito.mock(MeasuresService.class);
+        Mockito.when(measures.component(Mockito.any())).thenAnswer(invocation -> {
+            final org.sonarqube.ws.client.measures.ComponentRequest request = invocation.getArgument(0);
+            return parse(sonarQube.call("api/measures/component", params("component", request.getComponent(),
+                    "branch", request.getBranch(), "metricKeys", request.getMetricKeys(),
+                    "additionalFields", request.getAdditionalFields())),
+                    Measures.ComponentWsResponse.newBuilder()).buildPartial();
+        });
+        Mockito.when(measures.componentTree(Mockito.any())).thenAnswer(invocation -> {
+            final org.sonarqube.ws.client.measures.ComponentTreeRequest request = invocation.getArgument(0);
+            return parse(sonarQube.call("api/measures/component_tree", params("component", request.getComponent(),
+                    "branch", request.getBranch(), "metricKeys", request.getMetricKeys(),
+                    "p", request.getP(), "ps", request.getPs())),
+                    Measures.ComponentTreeWsResponse.newBuilder()).buildPartial();
+        });
+        Mockito.when(measures.searchHistory(Mockito.any())).thenAnswer(invocation -> {
+            final org.sonarqube.ws.client.measures.SearchHistoryRequest request = invocation.getArgument(0);
+            return parse(sonarQube.call("api/measures/search_history", params("component", request.getComponent(),
+                    "branch", request.getBranch(), "metrics", request.getMetrics(),
+                    "p", request.getP(), "ps", request.getPs())),
+                    Measures.SearchHistoryResponse.newBuilder()).buildPartial();
+        });
+
+        final IssuesService issues = Mockito.mock(IssuesService.class);
+        Mockito.when(issues.search(Mockito.any())).thenAnswer(invocation -> {
+            final org.sonarqube.ws.client.issues.SearchRequest request = invocation.getArgument(0);
+            return parse(sonarQube.call("api/issues/search", params("projects", request.getProjects(),
+                    "branch", request.getBranch(), "facets", request.getFacets(),
+                    "additionalFields", request.getAdditionalFields(), "resolved", request.getResolved(),
+                    "types", request.getTypes(), "severities", request.getSeverities(),
+                    "createdAfter", request.getCreatedAfter(), "createdBefore", request.getCreatedBefore(),
+                    "s", request.getS(), "asc", request.getAsc(), "p", request.getP(), "ps", request.getPs())),
+                    Issues.SearchWsResponse.newBuilder()).buildPartial();
+        });
+
+        final HotspotsService hotspots = Mockito.mock(HotspotsService.class);
+        Mockito.when(hotspots.search(Mockito.any())).thenAnswer(invocation -> {
+            final org.sonarqube.ws.client.hotspots.SearchRequest request = invocation.getArgument(0);
+            return parse(sonarQube.call("api/hotspots/search", params("project", request.getProjectKey(),
+                    "branch", request.getBranch(), "status", request.getStatus(),
+                    "p", request.getP(), "ps", request.getPs())),
+                    Hotspots.SearchWsResponse.newBuilder()).buildPartial();
+        });
+        Mockito.when(hotspots.show(Mockito.any())).thenAnswer(invocation -> {
+            final org.sonarqube.ws.client.hotspots.ShowRequest request = invocation.getArgument(0);
+            return parse(sonarQube.call("api/hotspots/show", params("hotspot", request.getHotspot())),
+                    Hotspots.ShowWsResponse.newBuilder()).buildPartial();
+        });
+
+        // the rules of security hotspots are read with requests of the connector
+        final WsConnector connector = Mockito.mock(WsConnector.class);
+        Mockito.when(connector.call(Mockito.any())).thenAnswer(invocation -> {
+            final WsRequest request = invocation.getArgument(0);
+            final String json = sonarQube.call(request.getPath(), request.getParams());
+            final Message body = "api/rules/show".equals(request.getPath())
+                    ? parse(json, Rules.ShowResponse.newBuilder()).buildPartial()
+                    : parse(json, Rules.SearchResponse.newBuilder()).buildPartial();
+            final WsResponse response = Mockito.mock(WsResponse.class);
+            Mockito.when(response.failIfNotSuccessful()).thenReturn(response);
+            Mockito.when(response.contentStream()).thenReturn(new ByteArrayInputStream(body.toByteArray()));
+            return response;
+        });
+
+        final RulesService rules = Mockito.mock(RulesService.class);
+        Mockito.when(rules.search(Mockito.any())).thenAnswer(invocation -> {
+            final org.sonarqube.ws.client.rules.SearchRequest request = invocation.getArgument(0);
+            return parse(sonarQube.call("api/rules/search", params("qprofile", request.getQprofile(),
+                    "p", request.getP(), "ps", request.getPs())), Rules.SearchResponse.newBuilder()).buildPartial();
+        });
+
+        final QualityprofilesService qualityProfiles = Mockito.mock(QualityprofilesService.class);
+        Mockito.when(qualityProfiles.search(Mockito.any())).thenAnswer(invocation -> {
+            final org.sonarqube.ws.client.qualityprofiles.SearchRequest request = invocation.getArgument(0);
+            return parse(sonarQube.call("api/qualityprofiles/search", params("project", request.getProject())),
+                    Qualityprofiles.SearchWsResponse.newBuilder()).buildPartial();
+        });
+        Mockito.when(qualityProfiles.export(Mockito.any())).thenAnswer(invocation -> {
+            final org.sonarqube.ws.client.qualityprofiles.ExportRequest request = invocation.getArgument(0);
+            return sonarQube.call("api/qualityprofiles/export", params("language", request.getLanguage(),
+                    "qualityProfile", request.getQualityProfile()));
+        });
+        Mockito.when(qualityProfiles.projects(Mockito.any())).thenAnswer(invocation -> {
+            final org.sonarqube.ws.client.qualityprofiles.ProjectsRequest request = invocation.getArgument(0);
+            return sonarQube.call("api/qualityprofiles/projects", params("key", request.getKey()));
+        });
+
+        final QualitygatesService qualityGates = Mockito.mock(QualitygatesService.class);
+        Mockito.when(qualityGates.list(Mockito.any())).thenAnswer(invocation -> parse(
+                sonarQube.call("api/qualitygates/list", params()), Qualitygates.ListWsResponse.newBuilder())
+                .buildPartial());
+        Mockito.when(qualityGates.show(Mockito.any())).thenAnswer(invocation -> {
+            final org.sonarqube.ws.client.qualitygates.ShowRequest request = invocation.getArgument(0);
+            return parse(sonarQube.call("api/qualitygates/show", params("name", request.getName())),
+                    Qualitygates.ShowWsResponse.newBuilder()).buildPartial();
+        });
+        Mockito.when(qualityGates.projectStatus(Mockito.any())).thenAnswer(invocation -> {
+            final org.sonarqube.ws.client.qualitygates.ProjectStatusRequest request = invocation.getArgument(0);
+            return parse(sonarQube.call("api/qualitygates/project_status", params("projectKey",
+                    request.getProjectKey(), "branch", request.getBranch())),
+                    Qualitygates.ProjectStatusResponse.newBuilder()).buildPartial();
+        });
+
+        final WsClient wsClient = Mockito.mock(WsClient.class);
+        Mockito.when(wsClient.system()).thenReturn(system);
+        Mockito.when(wsClient.navigation()).thenReturn(navigation);
+        Mockito.when(wsClient.languages()).thenReturn(languages);
+        Mockito.when(wsClient.measures()).thenReturn(measures);
+        Mockito.when(wsClient.issues()).thenReturn(issues);
+        Mockito.when(wsClient.hotspots()).thenReturn(hotspots);
+        Mockito.when(wsClient.wsConnector()).thenReturn(connector);
+        Mockito.when(wsClient.rules()).thenReturn(rules);
+        Mockito.when(wsClient.qualityprofiles()).thenReturn(qualityProfiles);
+        Mockito.when(wsClient.qualitygates()).thenReturn(qualityGates);
+        return wsClient;
+    }
+
+    /**
+     * Parameters of a request, as decoded by the mock SonarQube.
+     * @param pairs names and values of the parameters, lists being joined by commas and null values left out
+     * @return the parameters, indexed by name
+     */
+    private static Map<String, String> params(final Object... pairs) {
+        final Map<String, String> res = new HashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            final Object value = pairs[i + 1];
+            if (value instanceof List) {
+                res.put((String) pairs[i], ((List<?>) value).stream().map(String::valueOf)
+                        .collect(Collectors.joining(",")));
+            } else if (value != null) {
+                res.put((String) pairs[i], value.toString());
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Convert a json response to its protobuf message. The required fields SonarQube adds,
+     * e.g. the CaYC status of a quality gate, are not part of the synthetic responses,
+     * so the messages are built partially.
+     * @param json the json response
+     * @param builder the builder of the message
+     * @param <B> type of the builder
+     * @return the builder with the fields of the response
+     */
+    private static <B extends Message.Builder> B parse(final String json, final B builder) {
+        merge(JsonParser.parseString(json).getAsJsonObject(), builder);
+        return builder;
+    }
+
+    /**
+     * Set the fields of a message from a json object, by name. The fields unknown to the message are left out.
+     * @param json the json object
+     * @param builder the builder of the message
+     */
+    private static void merge(final JsonObject json, final Message.Builder builder) {
+        for (Map.Entry<String, JsonElement> entry : json.entrySet()) {
+            final Descriptors.FieldDescriptor field = builder.getDescriptorForType().findFieldByName(entry.getKey());
+            if (field == null || entry.getValue().isJsonNull()) {
+                continue;
+            }
+            if (field.isMapField()) {
+                // entries of a map are messages with a key and a value
+                for (Map.Entry<String, JsonElement> element : entry.getValue().getAsJsonObject().entrySet()) {
+                    final Message.Builder pair = builder.newBuilderForField(field);
+                    final Descriptors.FieldDescriptor value = pair.getDescriptorForType().findFieldByName("value");
+                    pair.setField(pair.getDescriptorForType().findFieldByName("key"), element.getKey());
+                    pair.setField(value, toValue(pair, value, element.getValue()));
+                    builder.addRepeatedField(field, pair.buildPartial());
+                }
+            } else if (field.isRepeated()) {
+                for (JsonElement element : entry.getValue().getAsJsonArray()) {
+                    final Object value = toValue(builder, field, element);
+                    if (value != null) {
+                        builder.addRepeatedField(field, value);
+                    }
+                }
+            } else {
+                final Object value = toValue(builder, field, entry.getValue());
+                if (value != null) {
+                    builder.setField(field, value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Convert a json value to the value of a field.
+     * @param builder the builder of the message of the field
+     * @param field the field
+     * @param json the json value
+     * @return the value, null if the json value does not fit the field,
+     * e.g. an unknown enum constant or the key of a component given as a message
+     */
+    private static Object toValue(final Message.Builder builder, final Descriptors.FieldDescriptor field,
+            final JsonElement json) {
+        switch (field.getJavaType()) {
+            case MESSAGE:
+                final Message.Builder message = builder.newBuilderForField(field);
+                if (json.isJsonArray()) {
+                    // lists are wrapped in a message in the protobuf responses, e.g. the comments of an issue
+                    final Descriptors.FieldDescriptor list = message.getDescriptorForType().getFields().get(0);
+                    for (JsonElement element : json.getAsJsonArray()) {
+                        message.addRepeatedField(list, toValue(message, list, element));
+                    }
+                } else if (json.isJsonObject()) {
+                    merge(json.getAsJsonObject(), message);
+                } else {
+                    return null;
+                }
+                return message.buildPartial();
+            case ENUM:
+                return field.getEnumType().findValueByName(json.getAsString());
+            case BOOLEAN:
+                return json.getAsBoolean();
+            case INT:
+                return json.getAsInt();
+            case LONG:
+                return json.getAsLong();
+            case FLOAT:
+                return json.getAsFloat();
+            case DOUBLE:
+                return json.getAsDouble();
+            default:
+                return json.getAsString();
+        }
+    }
+}
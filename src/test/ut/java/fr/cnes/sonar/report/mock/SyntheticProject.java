@@ -0,0 +1,932 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.mock;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import fr.cnes.sonar.report.utils.StringManager;
+
+/**
+ * Synthetic SonarQube project, giving the payloads of the SonarQube web services.
+ * Every attribute of an issue, a security hotspot or a file only depends on its index and on the seed,
+ * so that projects with millions of issues are generated without being held in memory,
+ * and that two projects with the same seed give the same payloads.
+ * Distributions are skewed as in real projects: a few rules and files gather most issues,
+ * a few issues have long comment threads, and a few files are much larger than the others.
+ * Issues are created one second apart, so that searches can be sliced on their creation date.
+ */
+public final class SyntheticProject {
+
+    /** Types of issues. */
+    static final String[] TYPES = {"BUG", "VULNERABILITY", "CODE_SMELL"};
+    /** Relative frequencies of the types of issues. */
+    private static final int[] TYPE_WEIGHTS = {10, 5, 85};
+    /** Severities of issues and rules. */
+    static final String[] SEVERITIES = {"BLOCKER", "CRITICAL", "MAJOR", "MINOR", "INFO"};
+    /** Relative frequencies of the severities of issues. */
+    private static final int[] SEVERITY_WEIGHTS = {5, 15, 45, 25, 10};
+    /** Keys of the languages of the project. */
+    static final String[] LANGUAGES = {"java", "py", "xml"};
+    /** Names of the languages of the project. */
+    static final String[] LANGUAGE_NAMES = {"Java", "Python", "XML"};
+    /** Relative frequencies of the languages of the files. */
+    private static final int[] LANGUAGE_WEIGHTS = {60, 30, 10};
+    /** Resolutions of resolved issues. */
+    private static final String[] RESOLUTIONS = {"FIXED", "FALSE-POSITIVE", "WONTFIX"};
+    /** Resolutions of reviewed security hotspots. */
+    private static final String[] HOTSPOT_RESOLUTIONS = {"FIXED", "SAFE", "ACKNOWLEDGED"};
+    /** Vulnerability probabilities of security hotspots. */
+    private static final String[] PROBABILITIES = {"HIGH", "MEDIUM", "LOW"};
+    /** Tags of issues. */
+    private static final String[] TAGS = {"cert", "cwe", "pitfall", "suspicious", "convention", "performance"};
+    /** Names of the directories, a path is made of the digits of its directory in this base. */
+    private static final String[] DIRECTORIES = {"core", "api", "util", "impl"};
+    /** Number of files in a directory. */
+    private static final int FILES_PER_DIRECTORY = 25;
+    /** Number of rules raising issues in each language. */
+    static final int RULES_PER_LANGUAGE = 100;
+    /** Number of rules raising security hotspots in each language. */
+    static final int HOTSPOT_RULES_PER_LANGUAGE = 10;
+    /** Number of the first rule raising security hotspots, to tell them apart from the other rules. */
+    private static final int HOTSPOT_RULES_OFFSET = 4000;
+    /** Exponent of the skewed distributions, the higher the more skewed. */
+    private static final double SKEW = 3;
+    /** Prime number scattering the most frequent files among the others. */
+    private static final long SCATTER = 1000003;
+    /** Longest comment thread. */
+    private static final int MAX_COMMENTS = 40;
+    /** Ratio of the issues and security hotspots with comments. */
+    private static final double COMMENTED = 0.15;
+    /** Creation date of the first issue, in seconds since the epoch (2020-01-01). */
+    static final long START = 1577836800L;
+    /** Number of seconds in a week. */
+    private static final long WEEK = 7L * 24 * 3600;
+    /** Number of years of measures history. */
+    private static final int HISTORY_YEARS = 3;
+    /** Seed of the projects whose seed is not given. */
+    public static final long DEFAULT_SEED = 0;
+    /** Name of the quality profiles and of the quality gate. */
+    static final String SONAR_WAY = "Sonar way";
+    /** Key of the quality gate. */
+    static final String GATE = "gate-1";
+    /**
+     * Conditions of the quality gate with their status on the project.
+     * Each condition is given as metric, comparator, threshold, actual value and status.
+     */
+    static final String[][] CONDITIONS = {
+        {"new_reliability_rating", "GT", "1", "3", "ERROR"},
+        {"new_security_rating", "GT", "1", "1", "OK"},
+        {"new_maintainability_rating", "GT", "1", "1", "OK"},
+        {"new_coverage", "LT", "80", "71.5", "ERROR"},
+        {"new_duplicated_lines_density", "GT", "3", "1.2", "OK"},
+        {"new_security_hotspots_reviewed", "LT", "100", "50.0", "ERROR"}
+    };
+    /** Names of the metrics which are ratings. */
+    private static final List<String> RATINGS = Arrays.asList("sqale_rating", "reliability_rating",
+            "security_rating", "security_review_rating", "new_reliability_rating", "new_security_rating",
+            "new_maintainability_rating");
+    /** Format of the dates in SonarQube responses. */
+    static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssZ", Locale.ENGLISH)
+            .withZone(ZoneOffset.UTC);
+
+    /** Key of the project. */
+    private final String key;
+    /** Number of issues, resolved or not. */
+    private final int issues;
+    /** Number of security hotspots, reviewed or not. */
+    private final int hotspots;
+    /** Number of files. */
+    private final int components;
+    /** Seed of the pseudo random attributes. */
+    private final long seed;
+    /** Keys of the security hotspots categories, in alphabetical order. */
+    private final List<String> categories;
+    /** Measures of the project, computed once. */
+    private volatile Map<String, String> measures;
+
+    /**
+     * Constructor with the default seed.
+     * @param pKey Key of the project.
+     * @param pIssues Number of issues, resolved or not.
+     * @param pHotspots Number of security hotspots, reviewed or not.
+     * @param pComponents Number of files, at least 1.
+     */
+    public SyntheticProject(final String pKey, final int pIssues, final int pHotspots, final int pComponents) {
+        this(pKey, pIssues, pHotspots, pComponents, DEFAULT_SEED);
+    }
+
+    /**
+     * Complete constructor.
+     * @param pKey Key of the project.
+     * @param pIssues Number of issues, resolved or not.
+     * @param pHotspots Number of security hotspots, reviewed or not.
+     * @param pComponents Number of files, at least 1.
+     * @param pSeed Seed of the pseudo random attributes.
+     */
+    public SyntheticProject(final String pKey, final int pIssues, final int pHotspots, final int pComponents,
+                            final long pSeed) {
+        this.key = pKey;
+        this.issues = pIssues;
+        this.hotspots = pHotspots;
+        this.components = Math.max(1, pComponents);
+        this.seed = pSeed;
+        this.categories = new ArrayList<>(new TreeSet<>(StringManager.getSecurityHotspotsCategories().keySet()));
+    }
+
+    /**
+     * Key of the project.
+     * @return The key.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Name of the project.
+     * @return The name.
+     */
+    public String getName() {
+        return "Synthetic project " + key;
+    }
+
+    /**
+     * Number of issues, resolved or not.
+     * @return The number of issues.
+     */
+    public int getIssues() {
+        return issues;
+    }
+
+    /**
+     * Number of security hotspots, reviewed or not.
+     * @return The number of security hotspots.
+     */
+    public int getHotspots() {
+        return hotspots;
+    }
+
+    /**
+     * Number of files.
+     * @return The number of files.
+     */
+    public int getComponents() {
+        return components;
+    }
+
+    /**
+     * Seed of the pseudo random attributes.
+     * @return The seed.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Number of unresolved issues, i.e. the issues listed by a report.
+     * @return The number of issues.
+     */
+    public int getUnresolvedIssues() {
+        return Integer.parseInt(getProjectMeasures().get("violations"));
+    }
+
+    /**
+     * Pseudo random value of an attribute of an element.
+     * @param index Index of the element.
+     * @param attribute Number of the attribute, so that attributes are independent.
+     * @return A positive value.
+     */
+    int random(final int index, final int attribute) {
+        // splitmix64 finalizer
+        long z = seed + index * 0x9E3779B97F4A7C15L + attribute * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return (int) ((z ^ (z >>> 31)) >>> 33);
+    }
+
+    /**
+     * Pseudo random value of an attribute of an element, uniformly distributed.
+     * @param index Index of the element.
+     * @param attribute Number of the attribute.
+     * @return A value between 0 included and 1 excluded.
+     */
+    private double uniform(final int index, final int attribute) {
+        return random(index, attribute) / (double) (1L << 31);
+    }
+
+    /**
+     * Pseudo random rank of an attribute of an element, low ranks are much more frequent than high ones.
+     * @param index Index of the element.
+     * @param attribute Number of the attribute.
+     * @param count Number of ranks.
+     * @return A rank between 0 included and count excluded.
+     */
+    private int skewed(final int index, final int attribute, final int count) {
+        return Math.min(count - 1, (int) (count * Math.pow(uniform(index, attribute), SKEW)));
+    }
+
+    /**
+     * Pseudo random choice of an attribute of an element, following relative frequencies.
+     * @param index Index of the element.
+     * @param attribute Number of the attribute.
+     * @param weights Relative frequency of each choice.
+     * @return Index of the choice.
+     */
+    private int weighted(final int index, final int attribute, final int[] weights) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int value = random(index, attribute) % total;
+        int res = 0;
+        while (value >= weights[res]) {
+            value -= weights[res];
+            res++;
+        }
+        return res;
+    }
+
+    /**
+     * Format a date as SonarQube does.
+     * @param second Seconds since the epoch.
+     * @return The formatted date.
+     */
+    static String date(final long second) {
+        return DATE_TIME.format(Instant.ofEpochSecond(second));
+    }
+
+    /**
+     * Type of an issue.
+     * @param index Index of the issue.
+     * @return One of {@link #TYPES}.
+     */
+    String getType(final int index) {
+        return TYPES[weighted(index, 1, TYPE_WEIGHTS)];
+    }
+
+    /**
+     * Severity of an issue.
+     * @param index Index of the issue.
+     * @return One of {@link #SEVERITIES}.
+     */
+    String getSeverity(final int index) {
+        return SEVERITIES[weighted(index, 2, SEVERITY_WEIGHTS)];
+    }
+
+    /**
+     * Tell whether an issue is resolved.
+     * @param index Index of the issue.
+     * @return true for one issue out of ten.
+     */
+    boolean isResolved(final int index) {
+        return random(index, 3) % 10 == 0;
+    }
+
+    /**
+     * File of an issue, a few files gather most issues.
+     * @param index Index of the issue.
+     * @return Index of the file.
+     */
+    int getComponent(final int index) {
+        // scatter the most frequent files in the tree
+        return (int) (skewed(index, 4, components) * SCATTER % components);
+    }
+
+    /**
+     * Rule of an issue, in the language of its file, a few rules raise most issues.
+     * @param index Index of the issue.
+     * @return Index of the rule.
+     */
+    int getRule(final int index) {
+        return getComponentLanguage(getComponent(index)) * RULES_PER_LANGUAGE
+                + skewed(index, 5, RULES_PER_LANGUAGE);
+    }
+
+    /**
+     * Creation date of an issue.
+     * @param index Index of the issue.
+     * @return Seconds since the epoch.
+     */
+    long getCreation(final int index) {
+        return START + index;
+    }
+
+    /**
+     * Index of the issue created at a given date.
+     * @param second Seconds since the epoch.
+     * @return Index of the issue, possibly out of the range of issues.
+     */
+    long getIssueCreatedAt(final long second) {
+        return second - START;
+    }
+
+    /**
+     * Number of comments of an issue or a security hotspot, most have none and a few have long threads.
+     * @param index Index of the issue or of the security hotspot.
+     * @param attribute Number of the attribute.
+     * @return The number of comments.
+     */
+    private int getCommentCount(final int index, final int attribute) {
+        final double value = uniform(index, attribute);
+        if (value >= COMMENTED) {
+            return 0;
+        }
+        return 1 + (int) ((MAX_COMMENTS - 1) * Math.pow(value / COMMENTED, SKEW));
+    }
+
+    /**
+     * Key of a rule.
+     * @param rule Index of the rule.
+     * @return The key, prefixed by the key of its language.
+     */
+    static String getRuleKey(final int rule) {
+        return String.format("%s:S%d", LANGUAGES[rule / RULES_PER_LANGUAGE], 100 + rule % RULES_PER_LANGUAGE);
+    }
+
+    /**
+     * Key of a rule raising security hotspots.
+     * @param rule Index of the rule.
+     * @return The key, prefixed by the key of its language.
+     */
+    static String getHotspotRuleKey(final int rule) {
+        return String.format("%s:S%d", LANGUAGES[rule / HOTSPOT_RULES_PER_LANGUAGE],
+                HOTSPOT_RULES_OFFSET + rule % HOTSPOT_RULES_PER_LANGUAGE);
+    }
+
+    /**
+     * Description of a rule, whether it raises issues or security hotspots.
+     * @param ruleKey Key of the rule.
+     * @return The rule as given by a search rules request, null if the rule is unknown.
+     */
+    static JsonObject rule(final String ruleKey) {
+        final int separator = ruleKey.indexOf(":S");
+        if (separator < 0) {
+            return null;
+        }
+        final int language = language(ruleKey.substring(0, separator));
+        final int number;
+        try {
+            number = Integer.parseInt(ruleKey.substring(separator + 2));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        final boolean hotspot = number >= HOTSPOT_RULES_OFFSET;
+        final int rank = hotspot ? number - HOTSPOT_RULES_OFFSET : number - 100;
+        if (language < 0 || rank < 0 || rank >= (hotspot ? HOTSPOT_RULES_PER_LANGUAGE : RULES_PER_LANGUAGE)) {
+            return null;
+        }
+
+        final JsonObject rule = new JsonObject();
+        rule.addProperty("key", ruleKey);
+        rule.addProperty("repo", LANGUAGES[language]);
+        rule.addProperty("name", String.format("%s rule number %d", LANGUAGE_NAMES[language], number));
+        rule.addProperty("htmlDesc", String.format("<p>Description of the rule %s.</p>", ruleKey));
+        rule.addProperty("severity", SEVERITIES[rank % SEVERITIES.length]);
+        rule.addProperty("status", "READY");
+        rule.addProperty("type", hotspot ? "SECURITY_HOTSPOT" : TYPES[rank % TYPES.length]);
+        rule.addProperty("lang", LANGUAGES[language]);
+        rule.addProperty("langName", LANGUAGE_NAMES[language]);
+        rule.addProperty("defaultRemFnType", "CONSTANT_ISSUE");
+        rule.addProperty("defaultRemFnBaseEffort", (5 + rank % 6 * 5) + "min");
+        return rule;
+    }
+
+    /**
+     * Index of a language.
+     * @param language Key of the language.
+     * @return The index, -1 if the language is unknown.
+     */
+    static int language(final String language) {
+        for (int i = 0; i < LANGUAGES.length; i++) {
+            if (LANGUAGES[i].equals(language)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Keys of all the rules of a language, raising issues or security hotspots.
+     * @param language Index of the language.
+     * @return The keys of the rules.
+     */
+    static List<String> getRuleKeys(final int language) {
+        final List<String> res = new ArrayList<>();
+        for (int rank = 0; rank < RULES_PER_LANGUAGE; rank++) {
+            res.add(getRuleKey(language * RULES_PER_LANGUAGE + rank));
+        }
+        for (int rank = 0; rank < HOTSPOT_RULES_PER_LANGUAGE; rank++) {
+            res.add(getHotspotRuleKey(language * HOTSPOT_RULES_PER_LANGUAGE + rank));
+        }
+        return res;
+    }
+
+    /**
+     * Comment thread of an issue or a security hotspot.
+     * @param element Key of the commented element.
+     * @param second Creation date of the element in seconds since the epoch.
+     * @param count Number of comments.
+     * @return The comments, one hour apart.
+     */
+    private static JsonArray comments(final String element, final long second, final int count) {
+        final JsonArray comments = new JsonArray();
+        for (int i = 0; i < count; i++) {
+            final String text = i == 0 ? "Is this really an issue here?" :
+                    String.format("Answer number %d in the discussion of %s.", i, element);
+            final JsonObject comment = new JsonObject();
+            comment.addProperty("key", element + "-comment-" + i);
+            comment.addProperty("login", "reviewer" + i % 3);
+            comment.addProperty("htmlText", text);
+            comment.addProperty("markdown", text);
+            comment.addProperty("updatable", false);
+            comment.addProperty("createdAt", date(second + 3600L * (i + 1)));
+            comments.add(comment);
+        }
+        return comments;
+    }
+
+    /**
+     * Issue as given by a search issues request.
+     * @param index Index of the issue.
+     * @return The issue.
+     */
+    JsonObject issue(final int index) {
+        final String issueKey = "issue-" + index;
+        final String date = date(getCreation(index));
+        final JsonObject issue = new JsonObject();
+        issue.addProperty("key", issueKey);
+        issue.addProperty("rule", getRuleKey(getRule(index)));
+        issue.addProperty("severity", getSeverity(index));
+        issue.addProperty("component", getComponentKey(getComponent(index)));
+        issue.addProperty("project", key);
+        issue.addProperty("line", 1 + random(index, 6) % getLines(getComponent(index)));
+        issue.addProperty("status", isResolved(index) ? "RESOLVED" : "OPEN");
+        if (isResolved(index)) {
+            issue.addProperty("resolution", RESOLUTIONS[random(index, 7) % RESOLUTIONS.length]);
+        }
+        issue.addProperty("message", String.format("Synthetic issue number %d.", index));
+        final String effort = (5 + random(index, 8) % 12 * 5) + "min";
+        issue.addProperty("effort", effort);
+        issue.addProperty("debt", effort);
+        issue.addProperty("author", "developer" + skewed(index, 9, 50) + "@example.com");
+        final JsonArray tags = new JsonArray();
+        if (random(index, 19) % 4 == 0) {
+            tags.add(TAGS[skewed(index, 20, TAGS.length)]);
+        }
+        issue.add("tags", tags);
+        issue.add("comments", comments(issueKey, getCreation(index), getCommentCount(index, 21)));
+        issue.addProperty("creationDate", date);
+        issue.addProperty("updateDate", date);
+        issue.addProperty("type", getType(index));
+        return issue;
+    }
+
+    /**
+     * Tell whether a security hotspot is reviewed.
+     * @param index Index of the security hotspot.
+     * @return true for one security hotspot out of three.
+     */
+    boolean isReviewed(final int index) {
+        return random(index, 10) % 3 == 0;
+    }
+
+    /**
+     * Security category of a security hotspot. Each category of the report
+     * has a security hotspot as soon as there are enough security hotspots.
+     * @param index Index of the security hotspot.
+     * @return Key of the category.
+     */
+    private String getCategory(final int index) {
+        return categories.get(index < categories.size() ? index : skewed(index, 22, categories.size()));
+    }
+
+    /**
+     * Rule of a security hotspot, in the language of its file.
+     * @param index Index of the security hotspot.
+     * @return Index of the rule.
+     */
+    private int getHotspotRule(final int index) {
+        return getComponentLanguage(getHotspotComponent(index)) * HOTSPOT_RULES_PER_LANGUAGE
+                + random(index, 11) % HOTSPOT_RULES_PER_LANGUAGE;
+    }
+
+    /**
+     * File of a security hotspot.
+     * @param index Index of the security hotspot.
+     * @return Index of the file.
+     */
+    private int getHotspotComponent(final int index) {
+        return (int) (skewed(index, 12, components) * SCATTER % components);
+    }
+
+    /**
+     * Security hotspot as given by a search hotspots request.
+     * @param index Index of the security hotspot.
+     * @return The security hotspot.
+     */
+    JsonObject hotspot(final int index) {
+        final String date = date(START + index);
+        final JsonObject hotspot = new JsonObject();
+        hotspot.addProperty("key", "hotspot-" + index);
+        hotspot.addProperty("component", getComponentKey(getHotspotComponent(index)));
+        hotspot.addProperty("project", key);
+        hotspot.addProperty("securityCategory", getCategory(index));
+        hotspot.addProperty("vulnerabilityProbability", PROBABILITIES[random(index, 14) % PROBABILITIES.length]);
+        hotspot.addProperty("status", isReviewed(index) ? "REVIEWED" : "TO_REVIEW");
+        if (isReviewed(index)) {
+            hotspot.addProperty("resolution", HOTSPOT_RESOLUTIONS[random(index, 15) % HOTSPOT_RESOLUTIONS.length]);
+        }
+        hotspot.addProperty("line", 1 + random(index, 16) % getLines(getHotspotComponent(index)));
+        hotspot.addProperty("message", String.format("Synthetic security hotspot number %d.", index));
+        hotspot.addProperty("author", "developer" + skewed(index, 17, 50) + "@example.com");
+        hotspot.addProperty("creationDate", date);
+        hotspot.addProperty("updateDate", date);
+        hotspot.addProperty("ruleKey", getHotspotRuleKey(getHotspotRule(index)));
+        return hotspot;
+    }
+
+    /**
+     * Security hotspot as given by a show hotspot request.
+     * @param index Index of the security hotspot.
+     * @return The security hotspot with its rule and comments.
+     */
+    JsonObject hotspotDetails(final int index) {
+        final JsonObject hotspot = hotspot(index);
+        final String ruleKey = hotspot.remove("ruleKey").getAsString();
+        final JsonObject rule = new JsonObject();
+        rule.addProperty("key", ruleKey);
+        rule.addProperty("name", SyntheticProject.rule(ruleKey).get("name").getAsString());
+        rule.add("securityCategory", hotspot.get("securityCategory"));
+        rule.add("vulnerabilityProbability", hotspot.get("vulnerabilityProbability"));
+        hotspot.add("rule", rule);
+        // reviewed security hotspots are discussed at least once
+        final int count = getCommentCount(index, 23);
+        hotspot.add("comment", comments(hotspot.get("key").getAsString(), START + index,
+                isReviewed(index) ? Math.max(1, count) : count));
+        return hotspot;
+    }
+
+    /**
+     * Language of a file, all the files of a directory have the same language.
+     * @param index Index of the file.
+     * @return Index of the language.
+     */
+    int getComponentLanguage(final int index) {
+        return weighted(index / FILES_PER_DIRECTORY, 24, LANGUAGE_WEIGHTS);
+    }
+
+    /**
+     * Key of a file.
+     * @param index Index of the file.
+     * @return The key, prefixed by the key of the project.
+     */
+    String getComponentKey(final int index) {
+        return key + ":" + getComponentPath(index);
+    }
+
+    /**
+     * Path of a file. Directories are nested along the digits of their number,
+     * so that the tree gets deeper as the project grows.
+     * @param index Index of the file.
+     * @return The path in the project.
+     */
+    String getComponentPath(final int index) {
+        final String language = LANGUAGES[getComponentLanguage(index)];
+        final StringBuilder path = new StringBuilder("src/").append(language);
+        int directory = index / FILES_PER_DIRECTORY;
+        do {
+            path.append('/').append(DIRECTORIES[directory % DIRECTORIES.length]);
+            directory /= DIRECTORIES.length;
+        } while (directory > 0);
+        return path.append("/File").append(index).append('.').append(language).toString();
+    }
+
+    /**
+     * File as given by a component tree request.
+     * @param index Index of the file.
+     * @param metrics Keys of the measures to give.
+     * @return The file with its measures.
+     */
+    JsonObject component(final int index, final List<String> metrics) {
+        final String path = getComponentPath(index);
+        final JsonObject component = new JsonObject();
+        component.addProperty("id", "component-" + index);
+        component.addProperty("key", getComponentKey(index));
+        component.addProperty("name", path.substring(path.lastIndexOf('/') + 1));
+        component.addProperty("qualifier", "FIL");
+        component.addProperty("path", path);
+        component.addProperty("language", LANGUAGES[getComponentLanguage(index)]);
+        final JsonArray measures = new JsonArray();
+        for (String metric : metrics) {
+            final JsonObject measure = new JsonObject();
+            measure.addProperty("metric", metric);
+            measure.addProperty("value", getComponentMeasure(index, metric));
+            measures.add(measure);
+        }
+        component.add("measures", measures);
+        return component;
+    }
+
+    /**
+     * Value of a measure of a file.
+     * @param index Index of the file.
+     * @param metric Key of the metric.
+     * @return The value as given by SonarQube.
+     */
+    String getComponentMeasure(final int index, final String metric) {
+        final int value = random(index, 100 + Math.abs(metric.hashCode() % 1000));
+        switch (metric) {
+            case "ncloc":
+                return String.valueOf(getLines(index));
+            case "complexity":
+                return String.valueOf(getLines(index) / (4 + value % 8));
+            case "cognitive_complexity":
+                return String.valueOf(getLines(index) / (3 + value % 12));
+            case "comment_lines_density":
+                return String.format(Locale.ENGLISH, "%.1f", value % 400 / 10.0);
+            case "duplicated_lines_density":
+                // most files are not duplicated
+                return String.format(Locale.ENGLISH, "%.1f", value % 5 == 0 ? value % 1000 / 10.0 : 0.0);
+            case "coverage":
+                return String.format(Locale.ENGLISH, "%.1f", value % 1001 / 10.0);
+            default:
+                return String.valueOf(value % 100);
+        }
+    }
+
+    /**
+     * Number of lines of code of a file, a few files are much larger than the others.
+     * @param index Index of the file.
+     * @return The number of lines.
+     */
+    int getLines(final int index) {
+        return 10 + (int) (5000 * Math.pow(uniform(index, 18), SKEW + 1));
+    }
+
+    /**
+     * Name of a metric.
+     * @param metric Key of the metric.
+     * @return The key as words, e.g. New Coverage.
+     */
+    static String getMetricName(final String metric) {
+        final StringBuilder res = new StringBuilder();
+        for (String word : metric.split("_")) {
+            if (res.length() > 0) {
+                res.append(' ');
+            }
+            res.append(Character.toUpperCase(word.charAt(0))).append(word.substring(1));
+        }
+        return res.toString();
+    }
+
+    /**
+     * Type of a metric.
+     * @param metric Key of the metric.
+     * @return The type as given by SonarQube.
+     */
+    static String getMetricType(final String metric) {
+        if (RATINGS.contains(metric)) {
+            return "RATING";
+        }
+        if (metric.endsWith("density") || metric.endsWith("coverage") || metric.endsWith("reviewed")) {
+            return "PERCENT";
+        }
+        if (metric.endsWith("effort") || metric.endsWith("sqale_index")) {
+            return "WORK_DUR";
+        }
+        return "INT";
+    }
+
+    /**
+     * Project as given by a navigation component request.
+     * @return The project with its quality profiles and quality gate.
+     */
+    JsonObject project() {
+        final JsonObject json = new JsonObject();
+        json.addProperty("key", key);
+        json.addProperty("id", "project-" + key);
+        json.addProperty("name", getName());
+        json.addProperty("description", String.format("%d issues, %d security hotspots and %d files.",
+                issues, hotspots, components));
+        json.addProperty("branch", "main");
+        json.addProperty("isFavorite", false);
+        json.addProperty("analysisDate", date(START + issues));
+        json.addProperty("version", "1.0.0");
+        final JsonArray profiles = new JsonArray();
+        for (int i = 0; i < LANGUAGES.length; i++) {
+            final JsonObject profile = new JsonObject();
+            profile.addProperty("key", "profile-" + LANGUAGES[i]);
+            profile.addProperty("name", SONAR_WAY);
+            profile.addProperty("language", LANGUAGES[i]);
+            profile.addProperty("deleted", false);
+            profiles.add(profile);
+        }
+        json.add("qualityProfiles", profiles);
+        final JsonObject gate = new JsonObject();
+        gate.addProperty("key", GATE);
+        gate.addProperty("name", SONAR_WAY);
+        gate.addProperty("isDefault", true);
+        json.add("qualityGate", gate);
+        return json;
+    }
+
+    /**
+     * Quality profile as given by a search quality profiles request.
+     * @param language Index of the language of the quality profile.
+     * @return The quality profile.
+     */
+    static JsonObject qualityProfile(final int language) {
+        final JsonObject profile = new JsonObject();
+        profile.addProperty("key", "profile-" + LANGUAGES[language]);
+        profile.addProperty("name", SONAR_WAY);
+        profile.addProperty("language", LANGUAGES[language]);
+        profile.addProperty("languageName", LANGUAGE_NAMES[language]);
+        profile.addProperty("isInherited", false);
+        profile.addProperty("isDefault", true);
+        profile.addProperty("isBuiltIn", true);
+        profile.addProperty("activeRuleCount", getRuleKeys(language).size());
+        profile.addProperty("activeDeprecatedRuleCount", 0);
+        return profile;
+    }
+
+    /**
+     * Quality profile as given by an export quality profile request.
+     * @param language Index of the language of the quality profile.
+     * @return The quality profile as xml.
+     */
+    static String qualityProfileXml(final int language) {
+        final StringBuilder xml = new StringBuilder("<?xml version='1.0' encoding='UTF-8'?>");
+        xml.append("<profile><name>").append(SONAR_WAY).append("</name><language>")
+                .append(LANGUAGES[language]).append("</language><rules>");
+        for (String ruleKey : getRuleKeys(language)) {
+            final JsonObject rule = rule(ruleKey);
+            xml.append("<rule><repositoryKey>").append(LANGUAGES[language]).append("</repositoryKey><key>")
+                    .append(ruleKey.substring(ruleKey.indexOf(':') + 1)).append("</key><type>")
+                    .append(rule.get("type").getAsString()).append("</type><priority>")
+                    .append(rule.get("severity").getAsString()).append("</priority><parameters/></rule>");
+        }
+        return xml.append("</rules></profile>").toString();
+    }
+
+    /**
+     * Quality gate as given by a show quality gate request.
+     * @return The quality gate with its conditions.
+     */
+    static JsonObject qualityGate() {
+        final JsonArray conditions = new JsonArray();
+        for (int i = 0; i < CONDITIONS.length; i++) {
+            final JsonObject condition = new JsonObject();
+            condition.addProperty("id", i + 1);
+            condition.addProperty("metric", CONDITIONS[i][0]);
+            condition.addProperty("op", CONDITIONS[i][1]);
+            condition.addProperty("error", CONDITIONS[i][2]);
+            conditions.add(condition);
+        }
+        final JsonObject json = new JsonObject();
+        json.addProperty("id", GATE);
+        json.addProperty("name", SONAR_WAY);
+        json.add("conditions", conditions);
+        json.addProperty("isBuiltIn", true);
+        return json;
+    }
+
+    /**
+     * Measures of the project, consistent with its issues and files.
+     * @return The values of the measures, indexed by metric.
+     */
+    Map<String, String> getProjectMeasures() {
+        Map<String, String> res = measures;
+        if (res == null) {
+            res = computeProjectMeasures();
+            measures = res;
+        }
+        return res;
+    }
+
+    /**
+     * Compute the measures of the project from all its issues and files.
+     * @return The values of the measures, indexed by metric.
+     */
+    private Map<String, String> computeProjectMeasures() {
+        final Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < issues; i++) {
+            if (!isResolved(i)) {
+                counts.merge(getType(i), 1, Integer::sum);
+                counts.merge(getSeverity(i), 1, Integer::sum);
+                counts.merge("violations", 1, Integer::sum);
+            }
+        }
+        final long[] lines = new long[LANGUAGES.length];
+        long complexity = 0;
+        for (int c = 0; c < components; c++) {
+            lines[getComponentLanguage(c)] += getLines(c);
+            complexity += Integer.parseInt(getComponentMeasure(c, "complexity"));
+        }
+        final StringBuilder distribution = new StringBuilder();
+        long ncloc = 0;
+        for (int i = 0; i < lines.length; i++) {
+            if (lines[i] > 0) {
+                distribution.append(distribution.length() == 0 ? "" : ";").append(LANGUAGES[i]).append('=')
+                        .append(lines[i]);
+            }
+            ncloc += lines[i];
+        }
+
+        final Map<String, String> res = new HashMap<>();
+        res.put("ncloc", String.valueOf(ncloc));
+        res.put("ncloc_language_distribution", distribution.toString());
+        res.put("complexity", String.valueOf(complexity));
+        res.put("violations", String.valueOf(counts.getOrDefault("violations", 0)));
+        res.put("new_violations", String.valueOf(counts.getOrDefault("violations", 0) / 10));
+        res.put("bugs", String.valueOf(counts.getOrDefault("BUG", 0)));
+        res.put("vulnerabilities", String.valueOf(counts.getOrDefault("VULNERABILITY", 0)));
+        res.put("code_smells", String.valueOf(counts.getOrDefault("CODE_SMELL", 0)));
+        for (String severity : SEVERITIES) {
+            res.put(severity.toLowerCase(Locale.ENGLISH) + "_violations",
+                    String.valueOf(counts.getOrDefault(severity, 0)));
+        }
+        res.put("duplicated_lines_density", "3.2");
+        res.put("comment_lines_density", "14.8");
+        res.put("coverage", "71.5");
+        res.put("sqale_rating", "1.0");
+        res.put("reliability_rating", "3.0");
+        res.put("security_rating", "2.0");
+        res.put("security_review_rating", "4.0");
+        res.put("alert_status", "ERROR");
+        res.put("reliability_remediation_effort", String.valueOf(counts.getOrDefault("BUG", 0) * 10));
+        res.put("security_remediation_effort", String.valueOf(counts.getOrDefault("VULNERABILITY", 0) * 15));
+        res.put("sqale_index", String.valueOf(counts.getOrDefault("CODE_SMELL", 0) * 5));
+        res.put("sqale_debt_ratio", getHistoryValue("sqale_debt_ratio", getHistoryLength() - 1));
+        res.put("tests", "1200");
+        res.put("test_errors", "0");
+        res.put("test_failures", "2");
+        res.put("skipped_tests", "5");
+        res.put("test_success_density", "99.8");
+        return Collections.unmodifiableMap(res);
+    }
+
+    /**
+     * Number of points of the measures history, one a week.
+     * @return The number of points.
+     */
+    int getHistoryLength() {
+        return HISTORY_YEARS * 52;
+    }
+
+    /**
+     * Date of a point of the measures history.
+     * @param week Index of the point.
+     * @return The date as given by SonarQube.
+     */
+    String getHistoryDate(final int week) {
+        return date(START + week * WEEK);
+    }
+
+    /**
+     * Value of a point of the measures history. The number of issues
+     * grows up to its current value while the technical debt ratio decreases.
+     * @param metric Key of the metric.
+     * @param week Index of the point.
+     * @return The value as given by SonarQube.
+     */
+    String getHistoryValue(final String metric, final int week) {
+        final double progress = (week + 1) / (double) getHistoryLength();
+        // noise of plus or minus 5%
+        final double noise = 0.95 + 0.1 * uniform(week, 25 + Math.abs(metric.hashCode() % 1000));
+        if ("sqale_debt_ratio".equals(metric)) {
+            return String.format(Locale.ENGLISH, "%.1f", (12.0 - 8.0 * progress) * noise);
+        }
+        if (week == getHistoryLength() - 1) {
+            return getProjectMeasures().getOrDefault(metric, "0");
+        }
+        final double current = Double.parseDouble(getProjectMeasures().getOrDefault(metric, "0"));
+        return String.valueOf(Math.round(current * (0.3 + 0.7 * progress) * noise));
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.mock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import fr.cnes.sonar.report.model.Report;
+import fr.cnes.sonar.report.model.TimeValue;
+import fr.cnes.sonar.report.utils.StringManager;
+
+/**
+ * Check the distributions of the synthetic projects and the reports built from them.
+ * The memory and the time taken by the report of a large project can be measured with the system
+ * properties mock.issues, mock.hotspots, mock.components and mock.seed, e.g.
+ * mvn test -Dtest=SyntheticProjectTest -Dmock.issues=1000000 -Dmock.hotspots=5000 -Dmock.components=20000
+ */
+public class SyntheticProjectTest {
+
+    private static final Logger LOGGER = Logger.getLogger(SyntheticProjectTest.class.getName());
+
+    @Test
+    public void testSameSeedGivesSameProject() {
+        final SyntheticProject first = new SyntheticProject("seed", 500, 50, 100, 42);
+        final SyntheticProject second = new SyntheticProject("seed", 500, 50, 100, 42);
+        final SyntheticProject other = new SyntheticProject("seed", 500, 50, 100, 43);
+
+        boolean differs = false;
+        for (int i = 0; i < 500; i++) {
+            assertEquals(first.issue(i), second.issue(i));
+            differs |= !first.issue(i).equals(other.issue(i));
+        }
+        for (int i = 0; i < 50; i++) {
+            assertEquals(first.hotspotDetails(i), second.hotspotDetails(i));
+        }
+        assertEquals(first.getProjectMeasures(), second.getProjectMeasures());
+        assertTrue(differs);
+    }
+
+    @Test
+    public void testDistributionsAreSkewed() {
+        final SyntheticProject project = new SyntheticProject("skew", 20000, 0, 500);
+        final int[] rules = new int[SyntheticProject.LANGUAGES.length * SyntheticProject.RULES_PER_LANGUAGE];
+        final int[] files = new int[project.getComponents()];
+        int commented = 0;
+        int longest = 0;
+        for (int i = 0; i < project.getIssues(); i++) {
+            rules[project.getRule(i)]++;
+            files[project.getComponent(i)]++;
+            final int comments = project.issue(i).getAsJsonArray("comments").size();
+            commented += comments > 0 ? 1 : 0;
+            longest = Math.max(longest, comments);
+        }
+        Arrays.sort(rules);
+        Arrays.sort(files);
+
+        // the most frequent rule and file gather far more issues than the median ones
+        assertTrue(rules[rules.length - 1] > 10 * Math.max(1, rules[rules.length / 2]));
+        assertTrue(files[files.length - 1] > 10 * Math.max(1, files[files.length / 2]));
+        // most issues have no comment and a few have long threads
+        assertTrue(commented < project.getIssues() / 4);
+        assertTrue(longest > 20);
+    }
+
+    @Test
+    public void testComponentTreeIsDeep() {
+        final SyntheticProject project = new SyntheticProject("tree", 0, 0, 10000);
+        final Set<String> directories = new HashSet<>();
+        int depth = 0;
+        for (int c = 0; c < project.getComponents(); c++) {
+            final String path = project.getComponentPath(c);
+            directories.add(path.substring(0, path.lastIndexOf('/')));
+            depth = Math.max(depth, path.split("/").length);
+        }
+        assertTrue(directories.size() >= project.getComponents() / 25);
+        assertTrue(depth >= 8);
+    }
+
+    @Test
+    public void testHotspotsCoverAllCategories() {
+        final Set<String> categories = StringManager.getSecurityHotspotsCategories().keySet();
+        final SyntheticProject project = new SyntheticProject("hotspots", 0, categories.size(), 10);
+        final Set<String> found = new HashSet<>();
+        for (int i = 0; i < project.getHotspots(); i++) {
+            found.add(project.hotspot(i).get("securityCategory").getAsString());
+        }
+        assertEquals(categories, found);
+    }
+
+    @Test
+    public void testReportIsConsistent() throws Exception {
+        final SyntheticProject project = new SyntheticProject("report", 3000, 60, 200, 7);
+        final Report report = new SyntheticReportFactory(project).create();
+
+        assertEquals(project.getUnresolvedIssues(), report.getIssues().getIssuesList().size());
+        assertEquals(project.getIssues(), report.getIssues().getIssuesList().size() + report.getUnconfirmed().size());
+        assertEquals(report.getIssues().getIssuesList().size(), report.getRawIssues().size());
+        assertEquals(project.getHotspots(),
+                report.getToReviewSecurityHotspots().size() + report.getReviewedSecurityHotspots().size());
+        assertEquals(project.getComponents(), report.getComponents().size());
+        assertEquals(SyntheticProject.LANGUAGES.length, report.getQualityProfiles().size());
+        assertEquals("main", report.getProjectBranch());
+        final List<TimeValue> history = report.getTimeFacets().getFacetValues("violations");
+        assertEquals(3 * 52, history.size());
+        assertEquals(3 * 52, report.getTimeFacets().getFacetValues("sqale_debt_ratio").size());
+        final String violations = history.get(history.size() - 1).getValue();
+        assertEquals(String.valueOf(project.getUnresolvedIssues()), violations);
+        assertNotEquals(0, report.getMetricsStats().size());
+    }
+
+    @Test
+    public void testLargeReportFootprint() throws Exception {
+        Assume.assumeTrue(System.getProperty("mock.issues") != null);
+        final SyntheticProject project = new SyntheticProject("scale", Integer.getInteger("mock.issues"),
+                Integer.getInteger("mock.hotspots", 1000), Integer.getInteger("mock.components", 10000),
+                Long.getLong("mock.seed", SyntheticProject.DEFAULT_SEED));
+        final Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        final long before = runtime.totalMemory() - runtime.freeMemory();
+        final long start = System.nanoTime();
+        final Report report = new SyntheticReportFactory(project).create();
+        final long elapsed = (System.nanoTime() - start) / 1000000;
+        System.gc();
+        final long used = runtime.totalMemory() - runtime.freeMemory() - before;
+
+        LOGGER.info(String.format("Report of %d issues built in %d ms, taking %d MB of heap.",
+                project.getIssues(), elapsed, used / (1024 * 1024)));
+        assertEquals(project.getUnresolvedIssues(), report.getIssues().getIssuesList().size());
+    }
+}
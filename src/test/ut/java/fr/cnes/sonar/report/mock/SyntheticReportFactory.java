@@ -0,0 +1,301 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.mock;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+import fr.cnes.sonar.report.model.Comment;
+import fr.cnes.sonar.report.model.Component;
+import fr.cnes.sonar.report.model.Components;
+import fr.cnes.sonar.report.model.Facet;
+import fr.cnes.sonar.report.model.Facets;
+import fr.cnes.sonar.report.model.Issue;
+import fr.cnes.sonar.report.model.Language;
+import fr.cnes.sonar.report.model.Measure;
+import fr.cnes.sonar.report.model.ProfileData;
+import fr.cnes.sonar.report.model.ProfileMetaData;
+import fr.cnes.sonar.report.model.Project;
+import fr.cnes.sonar.report.model.QualityGate;
+import fr.cnes.sonar.report.model.QualityProfile;
+import fr.cnes.sonar.report.model.Report;
+import fr.cnes.sonar.report.model.Rule;
+import fr.cnes.sonar.report.model.SecurityHotspot;
+import fr.cnes.sonar.report.model.TimeFacet;
+import fr.cnes.sonar.report.model.TimeFacets;
+import fr.cnes.sonar.report.model.TimeValue;
+import fr.cnes.sonar.report.model.Value;
+import fr.cnes.sonar.report.utils.DateConverter;
+
+/**
+ * Build the report of a {@link SyntheticProject} straight from its payloads, without any request,
+ * as the providers would build it. It gives reports of any size to the exporters,
+ * and a measure of the memory a report takes.
+ */
+public final class SyntheticReportFactory {
+
+    /** Name of the file giving the metrics of the reports. */
+    private static final String METRICS_PROPERTIES = "metrics.properties";
+
+    /** Project to report. */
+    private final SyntheticProject project;
+    /** Json tool, as used by the providers. */
+    private final Gson gson = new Gson();
+    /** Metrics of the reports. */
+    private final Properties metrics = new Properties();
+
+    /**
+     * Constructor.
+     * @param pProject Project to report.
+     * @throws IOException When the metrics of the reports cannot be read.
+     */
+    public SyntheticReportFactory(final SyntheticProject pProject) throws IOException {
+        this.project = pProject;
+        try (InputStream input = getClass().getClassLoader().getResourceAsStream(METRICS_PROPERTIES)) {
+            if (input != null) {
+                metrics.load(input);
+            }
+        }
+    }
+
+    /**
+     * Create the report of the project.
+     * @return The report, as given by the providers.
+     */
+    public Report create() {
+        final Report report = new Report();
+        report.setProjectAuthor("Synthetic");
+        report.setProjectDate("2024-01-01");
+
+        final Project model = gson.fromJson(project.project(), Project.class);
+        final Map<String, Language> languages = new HashMap<>();
+        for (ProfileMetaData profile : model.getQualityProfiles()) {
+            final int language = SyntheticProject.language(profile.getLanguage());
+            profile.setLanguageName(SyntheticProject.LANGUAGE_NAMES[language]);
+            final Language value = new Language();
+            value.setKey(profile.getLanguage());
+            value.setName(profile.getLanguageName());
+            languages.put(value.getKey(), value);
+        }
+        model.setLanguages(languages);
+        report.setProject(model);
+        report.setProjectName(model.getName());
+        report.setProjectBranch(model.getBranch());
+        report.setAnalysisDate(model.getAnalysisDate());
+        report.truncateAnalysisDate();
+
+        setIssues(report);
+        report.setToReviewSecurityHotspots(getHotspots(false));
+        report.setReviewedSecurityHotspots(getHotspots(true));
+        setComponents(report);
+
+        final List<Measure> measures = new ArrayList<>();
+        for (String metric : getMetrics("REPORTS_METRICS")) {
+            measures.add(new Measure(metric, project.getProjectMeasures().getOrDefault(metric, "0")));
+        }
+        report.setMeasures(measures);
+        report.setFacets(getFacets());
+        report.setTimeFacets(getTimeFacets());
+        report.setQualityProfiles(getQualityProfiles());
+
+        final QualityGate gate = gson.fromJson(SyntheticProject.qualityGate(), QualityGate.class);
+        gate.setConf(SyntheticProject.qualityGate().toString());
+        gate.setDefault(true);
+        report.setQualityGate(gate);
+        final Map<String, String> status = new LinkedHashMap<>();
+        for (String[] condition : SyntheticProject.CONDITIONS) {
+            status.put(SyntheticProject.getMetricName(condition[0]), condition[4]);
+        }
+        report.setQualityGateStatus(status);
+        return report;
+    }
+
+    /**
+     * Metrics of a list of metrics.properties.
+     * @param name Name of the list.
+     * @return The keys of the metrics.
+     */
+    private List<String> getMetrics(final String name) {
+        return Arrays.asList(metrics.getProperty(name, "").split(","));
+    }
+
+    /**
+     * Set the issues, unconfirmed issues and raw issues of a report.
+     * @param report The report.
+     */
+    @SuppressWarnings("unchecked")
+    private void setIssues(final Report report) {
+        final List<Issue> issues = new ArrayList<>();
+        final List<Issue> unconfirmed = new ArrayList<>();
+        final List<Map<String, String>> rawIssues = new ArrayList<>();
+        // languages of the rules are given by their language name
+        final IntFunction<String> language = rule ->
+                SyntheticProject.LANGUAGE_NAMES[rule / SyntheticProject.RULES_PER_LANGUAGE];
+        for (int i = 0; i < project.getIssues(); i++) {
+            final JsonObject json = project.issue(i);
+            final Issue issue = gson.fromJson(json, Issue.class);
+            issue.setLanguage(language.apply(project.getRule(i)));
+            if (json.has("resolution")) {
+                unconfirmed.add(issue);
+            } else {
+                issues.add(issue);
+                rawIssues.add(gson.fromJson(json, Map.class));
+            }
+        }
+        report.setIssues(issues);
+        report.setUnconfirmed(unconfirmed);
+        report.setRawIssues(rawIssues);
+    }
+
+    /**
+     * Security hotspots of the project with their details.
+     * @param reviewed Whether to give the reviewed security hotspots or the ones to review.
+     * @return The security hotspots.
+     */
+    private List<SecurityHotspot> getHotspots(final boolean reviewed) {
+        final List<SecurityHotspot> res = new ArrayList<>();
+        for (int i = 0; i < project.getHotspots(); i++) {
+            if (project.isReviewed(i) == reviewed) {
+                final JsonObject details = project.hotspotDetails(i);
+                final SecurityHotspot hotspot = gson.fromJson(project.hotspot(i), SecurityHotspot.class);
+                final Rule rule = gson.fromJson(SyntheticProject.rule(
+                        details.getAsJsonObject("rule").get("key").getAsString()), Rule.class);
+                hotspot.setRule(rule.getKey());
+                hotspot.setComments(gson.fromJson(details.get("comment"), Comment[].class));
+                hotspot.setSeverity(rule.getSeverity());
+                hotspot.setLanguage(rule.getLangName());
+                res.add(hotspot);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Set the files of a report with their measures and statistics.
+     * @param report The report.
+     */
+    private void setComponents(final Report report) {
+        final List<String> sheetsMetrics = getMetrics("SHEETS_METRICS");
+        final List<Map<String, String>> list = new ArrayList<>();
+        for (int c = 0; c < project.getComponents(); c++) {
+            list.add(gson.fromJson(project.component(c, sheetsMetrics), Component.class).toMap());
+        }
+        final Components components = new Components();
+        components.setComponentsList(list);
+        report.setComponents(components.getComponentsList());
+        report.setMetricsStats(components.getMetricStats());
+    }
+
+    /**
+     * Facets of the unresolved issues, as listed in PROJECT_FACETS.
+     * @return The facets.
+     */
+    private Facets getFacets() {
+        final Map<String, Map<String, Integer>> counts = new TreeMap<>();
+        final List<String> names = getMetrics("PROJECT_FACETS");
+        for (String name : names) {
+            counts.put(name, new TreeMap<>());
+        }
+        for (int i = 0; i < project.getIssues(); i++) {
+            if (!project.isResolved(i)) {
+                final int issue = i;
+                counts.computeIfPresent("rules", (name, values) -> count(values,
+                        SyntheticProject.getRuleKey(project.getRule(issue))));
+                counts.computeIfPresent("severities", (name, values) -> count(values, project.getSeverity(issue)));
+                counts.computeIfPresent("types", (name, values) -> count(values, project.getType(issue)));
+            }
+        }
+        final List<Facet> list = new ArrayList<>();
+        for (String name : names) {
+            final List<Value> values = new ArrayList<>();
+            counts.get(name).forEach((val, count) -> values.add(new Value(val, count)));
+            final Facet facet = new Facet();
+            facet.setProperty(name);
+            facet.setValues(values);
+            list.add(facet);
+        }
+        final Facets facets = new Facets();
+        facets.setFacets(list);
+        return facets;
+    }
+
+    /**
+     * Count a value of a facet.
+     * @param values Counts of the values of the facet.
+     * @param value The value.
+     * @return The counts.
+     */
+    private static Map<String, Integer> count(final Map<String, Integer> values, final String value) {
+        values.merge(value, 1, Integer::sum);
+        return values;
+    }
+
+    /**
+     * History of the metrics listed in CHARTS_METRICS.
+     * @return The time facets.
+     */
+    private TimeFacets getTimeFacets() {
+        final List<TimeFacet> list = new ArrayList<>();
+        for (String metric : getMetrics("CHARTS_METRICS")) {
+            final List<TimeValue> values = new ArrayList<>();
+            for (int week = 0; week < project.getHistoryLength(); week++) {
+                values.add(new TimeValue(DateConverter.sonarQubeDateToExcelDate(project.getHistoryDate(week)),
+                        project.getHistoryValue(metric, week)));
+            }
+            list.add(new TimeFacet(metric, values));
+        }
+        final TimeFacets timeFacets = new TimeFacets();
+        timeFacets.setTimeFacets(list);
+        return timeFacets;
+    }
+
+    /**
+     * Quality profiles of the project, with their rules and projects.
+     * @return The quality profiles.
+     */
+    private List<QualityProfile> getQualityProfiles() {
+        final List<QualityProfile> res = new ArrayList<>();
+        for (int language = 0; language < SyntheticProject.LANGUAGES.length; language++) {
+            final ProfileData data = new ProfileData();
+            data.setConf(SyntheticProject.qualityProfileXml(language));
+            final List<Rule> rules = new ArrayList<>();
+            for (String ruleKey : SyntheticProject.getRuleKeys(language)) {
+                rules.add(gson.fromJson(SyntheticProject.rule(ruleKey), Rule.class));
+            }
+            data.setRules(rules);
+            final QualityProfile profile = new QualityProfile(data,
+                    gson.fromJson(SyntheticProject.qualityProfile(language), ProfileMetaData.class));
+            profile.setProjects(new Project[] {new Project(project.getKey(), project.getName(), "",
+                    "", "", "main", null)});
+            res.add(profile);
+        }
+        return res;
+    }
+}
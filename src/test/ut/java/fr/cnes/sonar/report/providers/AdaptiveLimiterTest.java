@@ -0,0 +1,95 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.providers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class AdaptiveLimiterTest {
+
+    private static final String SEARCH = "/api/issues/search";
+    private static final String SHOW = "/api/rules/show";
+
+    @Test
+    public void testLimitGrowsWhileServerIsFast() throws InterruptedException {
+        final AdaptiveLimiter limiter = new AdaptiveLimiter(2, 1, 4, 2.0, 0.5);
+        for (int i = 0; i < 50; i++) {
+            limiter.release(limiter.acquire(), SEARCH, 100, false);
+        }
+        // the limit never exceeds its maximum
+        assertEquals(4, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void testLimitDecreasesOncePerWindowOnOverload() throws InterruptedException {
+        final AdaptiveLimiter limiter = new AdaptiveLimiter(8, 1, 16, 2.0, 0.5);
+        final long first = limiter.acquire();
+        final long second = limiter.acquire();
+
+        // both requests were rejected with a 429, but they were sent before the first decrease
+        limiter.release(first, SEARCH, 0, true);
+        limiter.release(second, SEARCH, 0, true);
+        assertEquals(4, limiter.getLimit());
+
+        // the limit never goes under its minimum
+        for (int i = 0; i < 10; i++) {
+            limiter.release(limiter.acquire(), SEARCH, 0, true);
+        }
+        assertEquals(1, limiter.getLimit());
+    }
+
+    @Test
+    public void testLatencyIsComparedByEndpoint() throws InterruptedException {
+        final AdaptiveLimiter limiter = new AdaptiveLimiter(8, 1, 16, 2.0, 0.5);
+        limiter.release(limiter.acquire(), SHOW, 10, false);
+        limiter.release(limiter.acquire(), SEARCH, 500, false);
+        assertEquals(8, limiter.getLimit());
+
+        // a search slower than the previous searches reveals an overload
+        limiter.release(limiter.acquire(), SEARCH, 5000, false);
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    public void testCallersAreBlockedAtLimit() throws InterruptedException {
+        final AdaptiveLimiter limiter = new AdaptiveLimiter(1, 1, 1, 2.0, 0.5);
+        final long start = limiter.acquire();
+        final CountDownLatch acquired = new CountDownLatch(1);
+        final Thread waiting = new Thread(() -> {
+            try {
+                limiter.acquire();
+                acquired.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiting.start();
+
+        assertFalse(acquired.await(200, TimeUnit.MILLISECONDS));
+        limiter.release(start, SEARCH, 100, false);
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        waiting.join();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.providers;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.Test;
+
+public class CircuitBreakerTest {
+
+    @Test
+    public void testCircuitOpensAfterConsecutiveFailures() {
+        final CircuitBreaker breaker = new CircuitBreaker(3, 60000);
+        assertFalse(breaker.failure());
+        assertFalse(breaker.failure());
+        // a success resets the count of consecutive failures
+        breaker.success();
+        assertFalse(breaker.failure());
+        assertFalse(breaker.failure());
+        assertTrue(breaker.allow());
+        assertTrue(breaker.failure());
+        assertTrue(breaker.isOpen());
+        assertFalse(breaker.allow());
+    }
+
+    @Test
+    public void testSingleTrialAfterOpenDuration() {
+        final CircuitBreaker breaker = new CircuitBreaker(1, 0);
+        assertTrue(breaker.failure());
+
+        // only one trial request is let through
+        assertTrue(breaker.allow());
+        assertFalse(breaker.allow());
+
+        // the trial failed, the circuit is open again
+        assertTrue(breaker.failure());
+        assertTrue(breaker.allow());
+
+        // the trial succeeded, the circuit is closed
+        breaker.success();
+        assertFalse(breaker.isOpen());
+        assertTrue(breaker.allow());
+        assertTrue(breaker.allow());
+    }
+
+    @Test
+    public void testReleasedTrialLetsTheNextRequestTry() {
+        final CircuitBreaker breaker = new CircuitBreaker(1, 0);
+        assertTrue(breaker.failure());
+        assertTrue(breaker.allow());
+        assertFalse(breaker.allow());
+
+        // the trial ended without an outcome, e.g. the request could not be built
+        breaker.release();
+        assertTrue(breaker.isOpen());
+        assertTrue(breaker.allow());
+    }
+
+    @Test
+    public void testCircuitNeverOpensWithoutThreshold() {
+        final CircuitBreaker breaker = new CircuitBreaker(0, 60000);
+        for (int i = 0; i < 100; i++) {
+            assertFalse(breaker.failure());
+        }
+        assertTrue(breaker.allow());
+    }
+}
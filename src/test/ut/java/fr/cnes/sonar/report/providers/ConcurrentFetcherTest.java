@@ -0,0 +1,108 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.providers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
+import fr.cnes.sonar.report.exceptions.SonarQubeException;
+
+public class ConcurrentFetcherTest {
+
+    @Test
+    public void testOrderIsPreserved() throws BadSonarQubeRequestException, SonarQubeException {
+        final List<ConcurrentFetcher.Fetch<Integer>> fetches = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            final int value = i;
+            fetches.add(() -> {
+                // last fetches finish first
+                sleep(20 - value);
+                return value;
+            });
+        }
+
+        final List<Integer> results = ConcurrentFetcher.fetchAll(fetches, 4);
+        assertEquals(20, results.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i, results.get(i));
+        }
+    }
+
+    @Test
+    public void testParallelismIsBounded() throws BadSonarQubeRequestException, SonarQubeException {
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        final List<ConcurrentFetcher.Fetch<Integer>> fetches = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            fetches.add(() -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                sleep(10);
+                return inFlight.decrementAndGet();
+            });
+        }
+
+        ConcurrentFetcher.fetchAll(fetches, 3);
+        assertTrue(maxInFlight.get() <= 3);
+    }
+
+    @Test
+    public void testSubmitRunsInBackground() throws BadSonarQubeRequestException, SonarQubeException {
+        final String caller = Thread.currentThread().getName();
+        final ConcurrentFetcher.Pending<String> pending = ConcurrentFetcher.submit(
+                () -> Thread.currentThread().getName());
+        assertTrue(!caller.equals(pending.get()));
+    }
+
+    @Test(expected = SonarQubeException.class)
+    public void testSubmitErrorIsPropagated() throws BadSonarQubeRequestException, SonarQubeException {
+        ConcurrentFetcher.submit(() -> {
+            throw new SonarQubeException("error");
+        }).get();
+    }
+
+    @Test(expected = BadSonarQubeRequestException.class)
+    public void testErrorIsPropagated() throws BadSonarQubeRequestException, SonarQubeException {
+        final List<ConcurrentFetcher.Fetch<Integer>> fetches = new ArrayList<>();
+        fetches.add(() -> 1);
+        fetches.add(() -> {
+            throw new BadSonarQubeRequestException("error");
+        });
+        fetches.add(() -> 3);
+
+        ConcurrentFetcher.fetchAll(fetches, 2);
+    }
+
+    /**
+     * Sleep without checked exception
+     * @param millis time to sleep
+     */
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.providers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class IoExecutorsTest {
+
+    private static final String PROPERTY = "cnesreport." + IoExecutors.VIRTUAL_THREADS;
+
+    @After
+    public void cleanSystemProperties() {
+        System.clearProperty(PROPERTY);
+    }
+
+    @Test
+    public void testPlatformThreadsByDefault() throws InterruptedException, ExecutionException {
+        final ExecutorService pool = IoExecutors.newFixedPool(2, "test");
+        try {
+            final Thread thread = pool.submit(Thread::currentThread).get();
+            assertFalse(IoExecutors.isVirtual());
+            assertTrue(thread.getName().startsWith("test-"));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testVirtualThreadsWhenSupported() throws InterruptedException, ExecutionException {
+        System.setProperty(PROPERTY, "true");
+        final boolean supported = Runtime.version().feature() >= 21;
+
+        // older JVMs fall back on platform threads
+        assertEquals(supported, IoExecutors.isVirtual());
+        final ExecutorService pool = IoExecutors.newFixedPool(2, "test");
+        try {
+            final Thread thread = pool.submit(Thread::currentThread).get();
+            assertTrue(thread.getName().startsWith("test-"));
+            assertEquals(supported, thread.toString().startsWith("VirtualThread"));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.providers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import org.junit.Test;
+
+import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
+import fr.cnes.sonar.report.model.Issue;
+import fr.cnes.sonar.report.model.Rule;
+
+public class JsonStreamReaderTest {
+
+    private static final String RESPONSE = "{\"total\":2,\"paging\":{\"pageIndex\":1,\"total\":2},"
+            + "\"issues\":[{\"key\":\"AX1\",\"rule\":\"java:S112\"},{\"key\":\"AX2\",\"rule\":\"java:S100\"}],"
+            + "\"rules\":[{\"key\":\"java:S112\",\"langName\":\"Java\"}],"
+            + "\"facets\":[{\"property\":\"severities\",\"values\":[]}]}";
+
+    @Test
+    public void testArraysAreStreamed() throws IOException, BadSonarQubeRequestException {
+        final Gson gson = new Gson();
+        final List<Issue> issues = new ArrayList<>();
+        final List<Rule> rules = new ArrayList<>();
+        final Map<String, Consumer<JsonElement>> arrays = new HashMap<>();
+        arrays.put("issues", element -> issues.add(gson.fromJson(element, Issue.class)));
+        arrays.put("rules", element -> rules.add(gson.fromJson(element, Rule.class)));
+
+        final JsonObject header = JsonStreamReader.read(new StringReader(RESPONSE), arrays);
+
+        // Streamed arrays are converted and left out of the other fields
+        assertEquals(2, issues.size());
+        assertEquals("AX2", issues.get(1).getKey());
+        assertEquals(1, rules.size());
+        assertEquals("Java", rules.get(0).getLangName());
+        assertFalse(header.has("issues"));
+        assertFalse(header.has("rules"));
+        assertEquals(2, header.get("total").getAsInt());
+        assertEquals(2, header.getAsJsonObject("paging").get("total").getAsInt());
+        assertTrue(header.has("facets"));
+    }
+
+    @Test
+    public void testDispatchMatchesRead() throws IOException, BadSonarQubeRequestException {
+        final List<String> streamed = new ArrayList<>();
+        final List<String> dispatched = new ArrayList<>();
+
+        final JsonObject header = JsonStreamReader.read(new StringReader(RESPONSE),
+                Collections.singletonMap("issues", element -> streamed.add(element.toString())));
+        final JsonObject response = new Gson().fromJson(RESPONSE, JsonObject.class);
+        final JsonObject dispatchedHeader = JsonStreamReader.dispatch(response,
+                Collections.singletonMap("issues", element -> dispatched.add(element.toString())));
+
+        assertEquals(streamed, dispatched);
+        assertEquals(header, dispatchedHeader);
+        // The response in memory is left untouched
+        assertTrue(response.has("issues"));
+    }
+
+    @Test
+    public void testErrorsAreKept() throws IOException, BadSonarQubeRequestException {
+        final JsonObject header = JsonStreamReader.read(
+                new StringReader("{\"errors\":[{\"msg\":\"Component key 'foo' not found\"}]}"),
+                Collections.singletonMap("issues", element -> { }));
+
+        assertEquals("Component key 'foo' not found",
+                header.getAsJsonArray("errors").get(0).getAsJsonObject().get("msg").getAsString());
+    }
+
+    @Test(expected = BadSonarQubeRequestException.class)
+    public void testEmptyResponse() throws IOException, BadSonarQubeRequestException {
+        JsonStreamReader.read(new StringReader(""), Collections.emptyMap());
+    }
+
+    @Test(expected = BadSonarQubeRequestException.class)
+    public void testMalformedResponse() throws IOException, BadSonarQubeRequestException {
+        JsonStreamReader.read(new StringReader("{\"total\":2,\"issues\":[{\"key\""), Collections.emptyMap());
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.providers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Map;
+
+import org.junit.Test;
+import org.sonar.core.util.ProtobufJsonFormat;
+import org.sonarqube.ws.Common;
+import org.sonarqube.ws.Hotspots;
+import org.sonarqube.ws.Issues;
+import org.sonarqube.ws.Measures;
+import org.sonarqube.ws.Rules;
+
+import com.google.gson.Gson;
+import com.google.protobuf.Message;
+
+import fr.cnes.sonar.report.model.Component;
+import fr.cnes.sonar.report.model.Issue;
+import fr.cnes.sonar.report.model.Rule;
+import fr.cnes.sonar.report.model.SecurityHotspot;
+
+/**
+ * The protobuf responses must give the same model objects as their json conversion.
+ */
+public class ProtobufMapperTest {
+
+    private final Gson gson = new Gson();
+
+    /**
+     * Deserialize a message as the json path does.
+     * @param message the message
+     * @param type the model class
+     * @return the model object
+     */
+    private <T> T fromJson(final Message message, final Class<T> type) {
+        return gson.fromJson(ProtobufJsonFormat.toJson(message), type);
+    }
+
+    @Test
+    public void testIssue() {
+        final Issues.Issue issue = Issues.Issue.newBuilder()
+                .setKey("AX1").setRule("java:S1").setSeverity(Common.Severity.MAJOR).setComponent("project:Main.java")
+                .setProject("project").setLine(12).setStatus("RESOLVED").setResolution("FIXED").setEffort("5min")
+                .setMessage("Remove this").setType(Common.RuleType.CODE_SMELL)
+                .setTextRange(Common.TextRange.newBuilder().setStartLine(12).setEndLine(13))
+                .addTags("unused")
+                .setComments(Issues.Comments.newBuilder().addComments(Common.Comment.newBuilder()
+                        .setKey("c1").setLogin("jdoe").setMarkdown("fixed").setUpdatable(true)))
+                .build();
+        final Issue expected = fromJson(issue, Issue.class);
+        final Issue actual = ProtobufMapper.toIssue(issue);
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(expected.getResolution(), actual.getResolution());
+        assertEquals(expected.getRule(), actual.getRule());
+        assertEquals(expected.getEffort(), actual.getEffort());
+        assertEquals("[jdoe] fixed\n", actual.getComments());
+
+        assertEquals(fromJson(issue, Map.class), ProtobufMapper.toRawIssue(issue));
+    }
+
+    @Test
+    public void testUnsetFieldsKeepDefaults() {
+        final Issues.Issue issue = Issues.Issue.newBuilder().setKey("AX2").build();
+        final Issue expected = fromJson(issue, Issue.class);
+        final Issue actual = ProtobufMapper.toIssue(issue);
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals("0", actual.getEffort());
+        assertEquals(fromJson(issue, Map.class), ProtobufMapper.toRawIssue(issue));
+    }
+
+    @Test
+    // the mapper still reports the deprecated severity, type and description of the rules
+    @SuppressWarnings("deprecation")
+    public void testRules() {
+        final Common.Rule issueRule = Common.Rule.newBuilder().setKey("java:S1").setName("Name").setLang("java")
+                .setLangName("Java").setStatus(Common.RuleStatus.READY).build();
+        assertRuleEquals(fromJson(issueRule, Rule.class), ProtobufMapper.toRule(issueRule));
+
+        final Rules.Rule rule = Rules.Rule.newBuilder().setKey("java:S1").setRepo("java").setName("Name")
+                .setSeverity("MINOR").setHtmlDesc("<p>desc</p>").setLang("java").setLangName("Java")
+                .setType(Common.RuleType.BUG).setStatus(Common.RuleStatus.DEPRECATED)
+                .setRemFnGapMultiplier("5min").build();
+        assertRuleEquals(fromJson(rule, Rule.class), ProtobufMapper.toRule(rule));
+        assertEquals("5min", ProtobufMapper.toRule(rule).getDebt());
+    }
+
+    /**
+     * Check two rules have the same fields.
+     * @param expected the expected rule
+     * @param actual the actual rule
+     */
+    private static void assertRuleEquals(final Rule expected, final Rule actual) {
+        assertEquals(expected.getKey(), actual.getKey());
+        assertEquals(expected.getRepo(), actual.getRepo());
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getSeverity(), actual.getSeverity());
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.getHtmlDesc(), actual.getHtmlDesc());
+        assertEquals(expected.getLang(), actual.getLang());
+        assertEquals(expected.getStatus(), actual.getStatus());
+        assertEquals(expected.getLangName(), actual.getLangName());
+        assertEquals(expected.getDebt(), actual.getDebt());
+    }
+
+    @Test
+    public void testSecurityHotspot() {
+        final Hotspots.SearchWsResponse.Hotspot hotspot = Hotspots.SearchWsResponse.Hotspot.newBuilder()
+                .setKey("H1").setComponent("project:Main.java").setProject("project").setSecurityCategory("sql-injection")
+                .setVulnerabilityProbability("HIGH").setStatus("REVIEWED").setResolution("SAFE").setLine(3)
+                .setMessage("Check this").setRuleKey("java:S2").build();
+        final SecurityHotspot expected = fromJson(hotspot, SecurityHotspot.class);
+        final SecurityHotspot actual = ProtobufMapper.toSecurityHotspot(hotspot);
+        assertEquals(expected.getKey(), actual.getKey());
+        assertEquals(expected.getComponent(), actual.getComponent());
+        assertEquals(expected.getLine(), actual.getLine());
+        assertEquals(expected.getSecurityCategory(), actual.getSecurityCategory());
+        assertEquals(expected.getVulnerabilityProbability(), actual.getVulnerabilityProbability());
+        assertEquals(expected.getStatus(), actual.getStatus());
+        assertEquals(expected.getMessage(), actual.getMessage());
+        assertEquals(expected.getResolution(), actual.getResolution());
+        assertEquals(expected.getRule(), actual.getRule());
+    }
+
+    @Test
+    public void testComponent() {
+        final Measures.Component component = Measures.Component.newBuilder().setKey("project:src")
+                .setName("src").setPath("src").setQualifier("DIR")
+                .addMeasures(Measures.Measure.newBuilder().setMetric("ncloc").setValue("120"))
+                .addMeasures(Measures.Measure.newBuilder().setMetric("new_bugs"))
+                .build();
+        assertEquals(fromJson(component, Component.class).toMap(), ProtobufMapper.toComponent(component).toMap());
+        assertEquals("project:src", ProtobufMapper.toComponent(component).getId());
+    }
+}
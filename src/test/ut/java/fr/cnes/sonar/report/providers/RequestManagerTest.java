@@ -4,14 +4,45 @@ import fr.cnes.sonar.report.CommonTest;
 import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
 import fr.cnes.sonar.report.exceptions.SonarQubeException;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
 import org.junit.After;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 public class RequestManagerTest extends CommonTest {
 
     private static final String HOST = "http://sonarqube.fake:9393/";
     private static final String TOKEN = "token";
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @After
     public void cleanSystemProperties() {
         // Clear all System properties linked to proxy settings
@@ -20,6 +51,14 @@ public class RequestManagerTest extends CommonTest {
         System.clearProperty(RequestManager.STR_PROXY_USER);
         System.clearProperty(RequestManager.STR_PROXY_PASS);
         System.clearProperty(RequestManager.STR_NON_PROXY_HOSTS);
+        System.clearProperty("cnesreport." + RequestManager.MAX_IN_FLIGHT_PER_SERVER);
+        System.clearProperty("cnesreport." + RequestManager.RETRY_MAX_RETRIES);
+        System.clearProperty("cnesreport." + RequestManager.RETRY_INITIAL_DELAY);
+        System.clearProperty("cnesreport." + RequestManager.CIRCUIT_FAILURE_THRESHOLD);
+        System.clearProperty("cnesreport." + ResponseCache.ENABLED);
+        System.clearProperty("cnesreport." + ResponseCache.DIRECTORY);
+        System.clearProperty("cnesreport." + TrafficArchive.RECORD);
+        System.clearProperty("cnesreport." + TrafficArchive.REPLAY);
     }
 
     @Test(expected = SonarQubeException.class)
@@ -42,5 +81,276 @@ public class RequestManagerTest extends CommonTest {
         RequestManager req = RequestManager.getInstance();
         req.get(HOST, TOKEN);
     }
-    
+
+    @Test
+    public void testTransportIsSharedByServer() throws SonarQubeException {
+        RequestManager req = RequestManager.getInstance();
+        HttpTransport issues = req.getTransport("http://sonarqube.fake:9393/api/issues/search?p=1", TOKEN);
+        HttpTransport rules = req.getTransport("http://sonarqube.fake:9393/api/rules/show?key=java:S112", TOKEN);
+        HttpTransport other = req.getTransport("http://sonarqube.fake:9393/api/rules/show?key=java:S112", "other");
+        assertSame(issues, rules);
+        assertNotSame(issues, other);
+    }
+
+    @Test
+    public void testConnectionIsReused() throws IOException, SonarQubeException, BadSonarQubeRequestException {
+        // Local server recording the client port of each request
+        final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+        final HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/system/status", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            final byte[] body = "{\"status\":\"UP\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        });
+        server.start();
+
+        try {
+            final String url = String.format("http://127.0.0.1:%d/api/system/status", server.getAddress().getPort());
+            RequestManager req = RequestManager.getInstance();
+            for (int i = 0; i < 5; i++) {
+                assertEquals("{\"status\":\"UP\"}", req.get(url, TOKEN));
+            }
+            assertEquals(1, clientPorts.size());
+        } finally {
+            RequestManager.getInstance().close();
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testRequestsInFlightAreLimited() throws IOException, SonarQubeException, BadSonarQubeRequestException {
+        System.setProperty("cnesreport." + RequestManager.MAX_IN_FLIGHT_PER_SERVER, "2");
+
+        // Local server recording the maximum number of requests handled at the same time
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        final ExecutorService handlers = Executors.newFixedThreadPool(8);
+        final HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(handlers);
+        server.createContext("/api/system/status", exchange -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            inFlight.decrementAndGet();
+            final byte[] body = "{\"status\":\"UP\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        });
+        server.start();
+
+        try {
+            final String url = String.format("http://127.0.0.1:%d/api/system/status", server.getAddress().getPort());
+            final List<ConcurrentFetcher.Fetch<String>> fetches = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                fetches.add(() -> RequestManager.getInstance().get(url, TOKEN));
+            }
+            assertEquals(8, ConcurrentFetcher.fetchAll(fetches, 8).size());
+            assertTrue(maxInFlight.get() <= 2);
+            // the limit is exported by server
+            assertTrue(RequestManager.getInstance().getConcurrencyLimits().get(
+                    String.format("http|127.0.0.1|%d", server.getAddress().getPort())) <= 2);
+        } finally {
+            RequestManager.getInstance().close();
+            server.stop(0);
+            handlers.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testTransientErrorsAreRetried() throws IOException, SonarQubeException, BadSonarQubeRequestException {
+        System.setProperty("cnesreport." + RequestManager.RETRY_INITIAL_DELAY, "10");
+
+        // Local server failing twice before answering
+        final AtomicInteger calls = new AtomicInteger();
+        final HttpServer server = statusServer(exchange -> calls.incrementAndGet() <= 2 ? 502 : 200, null);
+
+        try {
+            final RequestManager req = RequestManager.getInstance();
+            final long retries = req.getRetryCount();
+            assertEquals("{\"status\":\"UP\"}", req.get(statusUrl(server), TOKEN));
+            assertEquals(3, calls.get());
+            assertEquals(retries + 2, req.getRetryCount());
+        } finally {
+            RequestManager.getInstance().close();
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testRetryAfterIsHonored() throws IOException, SonarQubeException, BadSonarQubeRequestException {
+        System.setProperty("cnesreport." + RequestManager.RETRY_INITIAL_DELAY, "10");
+
+        // Local server asking to wait one second
+        final AtomicInteger calls = new AtomicInteger();
+        final HttpServer server = statusServer(exchange -> calls.incrementAndGet() == 1 ? 429 : 200, "1");
+
+        try {
+            final long start = System.currentTimeMillis();
+            assertEquals("{\"status\":\"UP\"}", RequestManager.getInstance().get(statusUrl(server), TOKEN));
+            assertTrue(System.currentTimeMillis() - start >= 900);
+        } finally {
+            RequestManager.getInstance().close();
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testCircuitOpensWhenServerIsDown() throws IOException, SonarQubeException, BadSonarQubeRequestException {
+        System.setProperty("cnesreport." + RequestManager.RETRY_MAX_RETRIES, "0");
+        System.setProperty("cnesreport." + RequestManager.CIRCUIT_FAILURE_THRESHOLD, "2");
+
+        // Local server always unavailable
+        final AtomicInteger calls = new AtomicInteger();
+        final HttpServer server = statusServer(exchange -> {
+            calls.incrementAndGet();
+            return 503;
+        }, null);
+
+        try {
+            final RequestManager req = RequestManager.getInstance();
+            final long trips = req.getCircuitTripCount();
+            final String url = statusUrl(server);
+            req.get(url, TOKEN);
+            req.get(url, TOKEN);
+
+            // the third request fails fast without reaching the server
+            assertThrows(SonarQubeException.class, () -> req.get(url, TOKEN));
+            assertEquals(2, calls.get());
+            assertEquals(trips + 1, req.getCircuitTripCount());
+        } finally {
+            RequestManager.getInstance().close();
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testUnusableCacheIsOpenedOnce() throws IOException {
+        // the directory of the cache is a file
+        System.setProperty("cnesreport." + ResponseCache.ENABLED, "true");
+        System.setProperty("cnesreport." + ResponseCache.DIRECTORY, folder.newFile("not-a-directory").getAbsolutePath());
+
+        final List<LogRecord> warnings = new ArrayList<>();
+        final Handler handler = new Handler() {
+            @Override
+            public void publish(final LogRecord logRecord) {
+                warnings.add(logRecord);
+            }
+
+            @Override
+            public void flush() {
+                // nothing to flush
+            }
+
+            @Override
+            public void close() {
+                // nothing to close
+            }
+        };
+        final Logger logger = Logger.getLogger(RequestManager.class.getName());
+        logger.addHandler(handler);
+        try {
+            assertNull(RequestManager.getInstance().getCache());
+            assertNull(RequestManager.getInstance().getCache());
+            assertEquals(1, warnings.size());
+        } finally {
+            logger.removeHandler(handler);
+        }
+    }
+
+    @Test
+    public void testCachedResponsesAreReused() throws IOException, SonarQubeException, BadSonarQubeRequestException {
+        System.setProperty("cnesreport." + ResponseCache.ENABLED, "true");
+        System.setProperty("cnesreport." + ResponseCache.DIRECTORY, folder.getRoot().getAbsolutePath());
+
+        // Local server answering 304 when the client already has the response
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicInteger notModified = new AtomicInteger();
+        final HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/system/status", exchange -> {
+            calls.incrementAndGet();
+            exchange.getResponseHeaders().add("ETag", "\"v1\"");
+            if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            final byte[] body = "{\"status\":\"UP\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        });
+        server.start();
+
+        try {
+            final RequestManager req = RequestManager.getInstance();
+            final String url = statusUrl(server);
+            assertEquals("{\"status\":\"UP\"}", req.get(url, TOKEN, "2024-01-01T00:00:00+0000"));
+            // the server confirms the cached response
+            assertEquals("{\"status\":\"UP\"}", req.get(url, TOKEN, "2024-02-01T00:00:00+0000"));
+            assertEquals(1, notModified.get());
+            // the project was not analysed again, the server is not called
+            assertEquals("{\"status\":\"UP\"}", req.get(url, TOKEN, "2024-02-01T00:00:00+0000"));
+            assertEquals(2, calls.get());
+        } finally {
+            RequestManager.getInstance().close();
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testRecordedTrafficIsReplayedWithoutNetwork()
+            throws IOException, SonarQubeException, BadSonarQubeRequestException {
+        final String archive = folder.getRoot().toPath().resolve("traffic.zip").toString();
+        final HttpServer server = statusServer(exchange -> 200, null);
+        final String url = statusUrl(server);
+
+        try {
+            System.setProperty("cnesreport." + TrafficArchive.RECORD, archive);
+            assertEquals("{\"status\":\"UP\"}", RequestManager.getInstance().get(url, TOKEN));
+        } finally {
+            RequestManager.getInstance().closeArchives();
+            System.clearProperty("cnesreport." + TrafficArchive.RECORD);
+            server.stop(0);
+        }
+
+        // the server is stopped, the response comes from the archive
+        try {
+            System.setProperty("cnesreport." + TrafficArchive.REPLAY, archive);
+            assertEquals("{\"status\":\"UP\"}", RequestManager.getInstance().get(url, TOKEN));
+        } finally {
+            RequestManager.getInstance().close();
+        }
+    }
+
+    private static HttpServer statusServer(ToIntFunction<HttpExchange> code,
+                                           String retryAfter) throws IOException {
+        final HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/system/status", exchange -> {
+            final byte[] body = "{\"status\":\"UP\"}".getBytes(StandardCharsets.UTF_8);
+            if (retryAfter != null) {
+                exchange.getResponseHeaders().add("Retry-After", retryAfter);
+            }
+            exchange.sendResponseHeaders(code.applyAsInt(exchange), body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private static String statusUrl(HttpServer server) {
+        return String.format("http://127.0.0.1:%d/api/system/status", server.getAddress().getPort());
+    }
+
 }
@@ -0,0 +1,96 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.providers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
+import fr.cnes.sonar.report.exceptions.SonarQubeException;
+
+public class RequestSessionTest {
+
+    private static final String PROJECT = "http://sonarqube:9000/api/components/show?component=project";
+
+    @Test
+    public void testConcurrentRequestsShareOneCall() throws BadSonarQubeRequestException, SonarQubeException {
+        final RequestSession session = new RequestSession();
+        final AtomicInteger calls = new AtomicInteger();
+
+        final List<ConcurrentFetcher.Fetch<String>> fetches = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            fetches.add(() -> session.get(PROJECT, () -> {
+                calls.incrementAndGet();
+                // leave time to the other callers to ask for the same response
+                sleep(200);
+                return "{\"component\":{}}";
+            }));
+        }
+
+        assertEquals(Collections.nCopies(8, "{\"component\":{}}"), ConcurrentFetcher.fetchAll(fetches, 8));
+        assertEquals(1, calls.get());
+        assertEquals(1, session.getCallCount());
+        assertEquals(7, session.getHitCount());
+
+        // the response is kept for the next callers
+        assertEquals("{\"component\":{}}", session.get(PROJECT, () -> {
+            throw new SonarQubeException("not expected");
+        }));
+    }
+
+    @Test
+    public void testFailedRequestIsNotKept() throws BadSonarQubeRequestException, SonarQubeException {
+        final RequestSession session = new RequestSession();
+
+        assertThrows(SonarQubeException.class, () -> session.get(PROJECT, () -> {
+            throw new SonarQubeException("Impossible to reach SonarQube instance.");
+        }));
+
+        assertEquals("{\"component\":{}}", session.get(PROJECT, () -> "{\"component\":{}}"));
+        assertEquals(2, session.getCallCount());
+    }
+
+    @Test
+    public void testErrorIsNotKept() throws BadSonarQubeRequestException, SonarQubeException {
+        final RequestSession session = new RequestSession();
+
+        assertThrows(OutOfMemoryError.class, () -> session.get(PROJECT, () -> {
+            throw new OutOfMemoryError("Java heap space");
+        }));
+
+        // the next caller does not wait for the failed fetch
+        assertEquals("{\"component\":{}}", session.get(PROJECT, () -> "{\"component\":{}}"));
+        assertEquals(2, session.getCallCount());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
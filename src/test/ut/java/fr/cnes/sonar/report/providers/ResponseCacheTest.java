@@ -0,0 +1,143 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.providers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
+
+public class ResponseCacheTest {
+
+    private static final String URL = "http://sonarqube:9000/api/issues/search?componentKeys=project&p=1";
+    private static final String TOKEN = "token";
+    private static final String BODY = "{\"total\":1,\"issues\":[{\"key\":\"AX1\"}]}";
+    private static final RequestManager.BodyReader<String> READ_ALL =
+            body -> new BufferedReader(body).lines().collect(Collectors.joining("\n"));
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testResponseIsKeptByUrlAndIdentity() throws IOException, BadSonarQubeRequestException {
+        final ResponseCache cache = new ResponseCache(folder.getRoot().toPath(), 1024 * 1024);
+        assertNull(cache.lookup(URL, TOKEN));
+
+        // the body is read while it is written
+        assertEquals(BODY, cache.store(URL, TOKEN, "\"v1\"", null, "2024-01-01T00:00:00+0000",
+                new StringReader(BODY), READ_ALL));
+
+        final ResponseCache.Entry entry = cache.lookup(URL, TOKEN);
+        assertNotNull(entry);
+        assertEquals("2024-01-01T00:00:00+0000", entry.getAnalysisDate());
+        assertEquals("\"v1\"", entry.getValidators().get("If-None-Match"));
+        assertEquals(BODY, cache.hit(entry, READ_ALL));
+        assertNull(cache.lookup(URL, "other"));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        // the token is not written on disk
+        try (Stream<Path> files = Files.list(folder.getRoot().toPath())) {
+            for (Path file : files.collect(Collectors.toList())) {
+                assertFalse(new String(Files.readAllBytes(file)).contains(TOKEN));
+            }
+        }
+    }
+
+    @Test
+    public void testUnvalidatedResponseIsNotKept() throws IOException, BadSonarQubeRequestException {
+        final ResponseCache cache = new ResponseCache(folder.getRoot().toPath(), 1024 * 1024);
+        assertEquals(BODY, cache.store(URL, TOKEN, null, null, null, new StringReader(BODY), READ_ALL));
+        assertNull(cache.lookup(URL, TOKEN));
+    }
+
+    @Test
+    public void testTruncatedResponseIsDiscarded() throws IOException, BadSonarQubeRequestException {
+        final ResponseCache cache = new ResponseCache(folder.getRoot().toPath(), 1024 * 1024);
+        cache.store(URL, TOKEN, "\"v1\"", null, "2024-01-01T00:00:00+0000", new StringReader(BODY), READ_ALL);
+
+        // cut the compressed body before its checksum
+        try (Stream<Path> files = Files.list(folder.getRoot().toPath())) {
+            for (Path file : files.filter(f -> f.toString().endsWith(".gz")).collect(Collectors.toList())) {
+                final byte[] content = Files.readAllBytes(file);
+                Files.write(file, Arrays.copyOf(content, content.length - 4));
+            }
+        }
+
+        // nothing is handed to a reader, the response is requested again
+        assertNull(cache.lookup(URL, TOKEN));
+        try (Stream<Path> files = Files.list(folder.getRoot().toPath())) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    public void testRevalidationUpdatesAnalysisDate() throws IOException, BadSonarQubeRequestException {
+        final ResponseCache cache = new ResponseCache(folder.getRoot().toPath(), 1024 * 1024);
+        cache.store(URL, TOKEN, null, "Mon, 01 Jan 2024 00:00:00 GMT", "2024-01-01T00:00:00+0000",
+                new StringReader(BODY), READ_ALL);
+
+        assertEquals(BODY, cache.revalidated(cache.lookup(URL, TOKEN), "2024-02-01T00:00:00+0000", READ_ALL));
+        assertEquals("2024-02-01T00:00:00+0000", cache.lookup(URL, TOKEN).getAnalysisDate());
+        assertEquals(1, cache.getRevalidationCount());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedResponsesAreEvicted()
+            throws IOException, BadSonarQubeRequestException, InterruptedException {
+        final ResponseCache probe = new ResponseCache(folder.newFolder().toPath(), Long.MAX_VALUE);
+        probe.store(URL, TOKEN, "\"v\"", null, null, new StringReader(body(0)), READ_ALL);
+        final long entrySize = probe.getSize();
+
+        // room for two responses only
+        final ResponseCache cache = new ResponseCache(folder.getRoot().toPath(), entrySize * 2 + entrySize / 2);
+        cache.store(URL + 0, TOKEN, "\"v\"", null, null, new StringReader(body(0)), READ_ALL);
+        Thread.sleep(20);
+        cache.store(URL + 1, TOKEN, "\"v\"", null, null, new StringReader(body(1)), READ_ALL);
+        Thread.sleep(20);
+        // the first response is used, the second one becomes the least recently used
+        cache.hit(cache.lookup(URL + 0, TOKEN), READ_ALL);
+        Thread.sleep(20);
+        cache.store(URL + 2, TOKEN, "\"v\"", null, null, new StringReader(body(2)), READ_ALL);
+
+        assertNotNull(cache.lookup(URL + 0, TOKEN));
+        assertNull(cache.lookup(URL + 1, TOKEN));
+        assertNotNull(cache.lookup(URL + 2, TOKEN));
+        assertTrue(cache.getSize() <= entrySize * 2 + entrySize / 2);
+    }
+
+    private static String body(int index) {
+        return BODY.replace("AX1", "AX" + index);
+    }
+}
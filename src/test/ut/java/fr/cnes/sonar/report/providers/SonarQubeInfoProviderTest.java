@@ -8,6 +8,11 @@ import fr.cnes.sonar.report.providers.sonarqubeinfo.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import org.junit.Test;
+import org.mockito.Mockito;
+import org.sonarqube.ws.System;
+import org.sonarqube.ws.client.HttpException;
+import org.sonarqube.ws.client.WsClient;
+import org.sonarqube.ws.client.system.SystemService;
 
 public class SonarQubeInfoProviderTest extends CommonTest {
 
@@ -27,5 +32,41 @@ public class SonarQubeInfoProviderTest extends CommonTest {
         assertEquals(expected, actual);
     }
 
+    /**
+     * Mock a web client whose status is given by the service.
+     * @param system the service of the system of the client
+     * @return the web client
+     */
+    private static WsClient mockWsClient(final SystemService system) {
+        final WsClient wsClient = Mockito.mock(WsClient.class);
+        Mockito.when(wsClient.system()).thenReturn(system);
+        return wsClient;
+    }
+
+    @Test
+    public void executeGetSonarQubeInfoPlugin() throws SonarQubeException, BadSonarQubeRequestException {
+        final SystemService service = Mockito.mock(SystemService.class);
+        Mockito.when(service.status()).thenReturn(System.StatusResponse.newBuilder()
+                .setId("20240101").setVersion("10.5.1.90531").setStatus(System.Status.UP).build());
+        final SonarQubeInfoProvider sonarQubeInfoProvider = new SonarQubeInfoProviderPlugin(mockWsClient(service));
+
+        assertEquals("10.5.1.90531", sonarQubeInfoProvider.getSonarQubeVersion());
+        assertEquals("UP", sonarQubeInfoProvider.getSonarQubeStatus());
+    }
 
-}
\ No newline at end of file
+    @Test
+    public void executeFaultyGetStatusPlugin() {
+        final SystemService service = Mockito.mock(SystemService.class);
+        Mockito.when(service.status()).thenThrow(new HttpException("api/system/status", 503, "Service Unavailable"));
+        final SonarQubeInfoProvider sonarQubeInfoProvider = new SonarQubeInfoProviderPlugin(mockWsClient(service));
+
+        assertEquals("DOWN", sonarQubeInfoProvider.getSonarQubeStatus());
+    }
+
+    @Test(expected = BadSonarQubeRequestException.class)
+    public void executeFaultyGetSonarQubeVersionPlugin() throws SonarQubeException, BadSonarQubeRequestException {
+        final SystemService service = Mockito.mock(SystemService.class);
+        Mockito.when(service.status()).thenThrow(new HttpException("api/system/status", 401, "Unauthorized"));
+        new SonarQubeInfoProviderPlugin(mockWsClient(service)).getSonarQubeVersion();
+    }
+}
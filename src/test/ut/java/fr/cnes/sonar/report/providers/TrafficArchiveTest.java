@@ -0,0 +1,104 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.providers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.stream.Collectors;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
+import fr.cnes.sonar.report.exceptions.SonarQubeException;
+
+public class TrafficArchiveTest {
+
+    private static final String ISSUES = "http://sonarqube:9000/api/issues/search?componentKeys=project&p=1";
+    private static final String RULES = "http://sonarqube:9000/api/rules/search?rule_keys=java:S112";
+    private static final String TOKEN = "token";
+    private static final RequestManager.BodyReader<String> READ_ALL =
+            body -> new BufferedReader(body).lines().collect(Collectors.joining("\n"));
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRecordedResponsesAreReplayed()
+            throws IOException, BadSonarQubeRequestException, SonarQubeException {
+        final Path path = folder.getRoot().toPath().resolve("traffic.zip");
+        final String issues = "{\"total\":1,\"issues\":[{\"key\":\"AX1\"}]}";
+        final String rules = "{\"rules\":[{\"key\":\"java:S112\"}]}";
+
+        try (TrafficArchive archive = TrafficArchive.record(path)) {
+            assertEquals(issues, archive.record(ISSUES, TOKEN, 120, new StringReader(issues), READ_ALL));
+            // the end of the body is recorded even if the reader stops before it
+            assertEquals("{", archive.record(RULES, TOKEN, 10, new StringReader(rules),
+                    body -> String.valueOf((char) body.read())));
+            assertEquals(2, archive.size());
+        }
+
+        try (TrafficArchive archive = TrafficArchive.replay(path)) {
+            assertEquals(2, archive.size());
+            assertEquals(issues, archive.replay(ISSUES, TOKEN, READ_ALL, 0, 0));
+            assertEquals(rules, archive.replay(RULES, TOKEN, READ_ALL, 0, 0));
+
+            // responses are bound to the identity which received them
+            assertThrows(SonarQubeException.class, () -> archive.replay(ISSUES, "other", READ_ALL, 0, 0));
+
+            // the recorded latency is replayed
+            final long start = System.currentTimeMillis();
+            archive.replay(ISSUES, TOKEN, READ_ALL, -1, 0);
+            assertTrue(System.currentTimeMillis() - start >= 100);
+        }
+    }
+
+    @Test
+    public void testBandwidthIsSimulated() throws IOException, BadSonarQubeRequestException, SonarQubeException {
+        final Path path = folder.getRoot().toPath().resolve("traffic.zip");
+        final String body = String.join("", Collections.nCopies(5 * 1024, "a"));
+        try (TrafficArchive archive = TrafficArchive.record(path)) {
+            archive.record(ISSUES, TOKEN, 0, new StringReader(body), READ_ALL);
+        }
+
+        try (TrafficArchive archive = TrafficArchive.replay(path)) {
+            final long start = System.currentTimeMillis();
+            assertEquals(body, archive.replay(ISSUES, TOKEN, READ_ALL, 0, 10));
+            // 5 kilobytes at 10 kilobytes per second
+            assertTrue(System.currentTimeMillis() - start >= 400);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testNotAnArchive() throws IOException {
+        final Path path = folder.newFile("traffic.zip").toPath();
+        // an empty zip has no index
+        new ZipOutputStream(Files.newOutputStream(path)).close();
+        TrafficArchive.replay(path);
+    }
+}
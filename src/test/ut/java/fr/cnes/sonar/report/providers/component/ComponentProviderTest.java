@@ -1,10 +1,23 @@
 package fr.cnes.sonar.report.providers.component;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Map;
+
 import fr.cnes.sonar.report.CommonTest;
 import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
 import fr.cnes.sonar.report.exceptions.SonarQubeException;
+import fr.cnes.sonar.report.model.Components;
 
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.sonarqube.ws.Common;
+import org.sonarqube.ws.Measures;
+import org.sonarqube.ws.client.HttpException;
+import org.sonarqube.ws.client.WsClient;
+import org.sonarqube.ws.client.measures.ComponentTreeRequest;
+import org.sonarqube.ws.client.measures.MeasuresService;
 
 public class ComponentProviderTest extends CommonTest {
 
@@ -16,4 +29,62 @@ public class ComponentProviderTest extends CommonTest {
         componentProvider.getComponents();
     }
 
-}
\ No newline at end of file
+    /**
+     * Mock a web client whose measures are given by the service.
+     * @param measures the service of measures of the client
+     * @return the web client
+     */
+    private static WsClient mockWsClient(final MeasuresService measures) {
+        final WsClient wsClient = Mockito.mock(WsClient.class);
+        Mockito.when(wsClient.measures()).thenReturn(measures);
+        return wsClient;
+    }
+
+    @Test
+    public void executeGetComponentsPlugin() throws SonarQubeException, BadSonarQubeRequestException {
+        final MeasuresService service = Mockito.mock(MeasuresService.class);
+        Mockito.when(service.componentTree(Mockito.any())).thenReturn(Measures.ComponentTreeWsResponse.newBuilder()
+                .setPaging(Common.Paging.newBuilder().setPageIndex(1).setPageSize(500).setTotal(1))
+                .addComponents(Measures.Component.newBuilder().setKey("cnesreport:src/Main.java").setName("Main.java")
+                        .setPath("src/Main.java")
+                        .addMeasures(Measures.Measure.newBuilder().setMetric("ncloc").setValue("42")))
+                .build());
+        final ComponentProvider componentProvider = new ComponentProviderPlugin(mockWsClient(service), PROJECT_KEY, BRANCH);
+
+        final Components components = componentProvider.getComponents();
+        assertEquals(1, components.getComponentsList().size());
+        final Map<String, String> component = components.getComponentsList().get(0);
+        assertEquals("cnesreport:src/Main.java", component.get("ID"));
+        assertEquals("Main.java", component.get("Name"));
+        assertEquals("src/Main.java", component.get("Path"));
+        assertEquals("42", component.get("ncloc"));
+
+        final ArgumentCaptor<ComponentTreeRequest> request = ArgumentCaptor.forClass(ComponentTreeRequest.class);
+        Mockito.verify(service).componentTree(request.capture());
+        assertEquals(PROJECT_KEY, request.getValue().getComponent());
+        assertEquals(BRANCH, request.getValue().getBranch());
+        assertEquals("1", request.getValue().getP());
+    }
+
+    @Test
+    public void executeGetComponentsPagesPlugin() throws SonarQubeException, BadSonarQubeRequestException {
+        final MeasuresService service = Mockito.mock(MeasuresService.class);
+        Mockito.when(service.componentTree(Mockito.any())).thenReturn(Measures.ComponentTreeWsResponse.newBuilder()
+                .setPaging(Common.Paging.newBuilder().setPageIndex(1).setPageSize(500).setTotal(501))
+                .addComponents(Measures.Component.newBuilder().setKey("a"))
+                .build());
+        final ComponentProvider componentProvider = new ComponentProviderPlugin(mockWsClient(service), PROJECT_KEY, BRANCH);
+
+        assertEquals(2, componentProvider.getComponents().getComponentsList().size());
+        Mockito.verify(service, Mockito.times(2)).componentTree(Mockito.any());
+    }
+
+    @Test(expected = BadSonarQubeRequestException.class)
+    public void executeFaultyGetComponentsPlugin() throws SonarQubeException, BadSonarQubeRequestException {
+        final MeasuresService service = Mockito.mock(MeasuresService.class);
+        Mockito.when(service.componentTree(Mockito.any()))
+                .thenThrow(new HttpException("api/measures/component_tree", 404, "Component not found"));
+        new ComponentProviderPlugin(mockWsClient(service), PROJECT_KEY, BRANCH).getComponents();
+    }
+
+}
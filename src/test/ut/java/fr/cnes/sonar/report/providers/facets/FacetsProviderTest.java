@@ -1,10 +1,30 @@
 package fr.cnes.sonar.report.providers.facets;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import fr.cnes.sonar.report.CommonTest;
 import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
 import fr.cnes.sonar.report.exceptions.SonarQubeException;
+import fr.cnes.sonar.report.model.Facets;
+import fr.cnes.sonar.report.model.TimeValue;
+import fr.cnes.sonar.report.model.Value;
 
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.sonarqube.ws.Common;
+import org.sonarqube.ws.Issues;
+import org.sonarqube.ws.Measures;
+import org.sonarqube.ws.client.HttpException;
+import org.sonarqube.ws.client.WsClient;
+import org.sonarqube.ws.client.issues.IssuesService;
+import org.sonarqube.ws.client.issues.SearchRequest;
+import org.sonarqube.ws.client.measures.MeasuresService;
+import org.sonarqube.ws.client.measures.SearchHistoryRequest;
 
 public class FacetsProviderTest extends CommonTest {
 
@@ -24,5 +44,71 @@ public class FacetsProviderTest extends CommonTest {
         facetsProvider.getTimeFacets();
     }    
 
+    @Test
+    public void executeGetFacetsPlugin() throws SonarQubeException, BadSonarQubeRequestException {
+        final IssuesService service = Mockito.mock(IssuesService.class);
+        Mockito.when(service.search(Mockito.any())).thenReturn(Issues.SearchWsResponse.newBuilder()
+                .setPaging(Common.Paging.newBuilder().setPageIndex(1).setPageSize(1).setTotal(12))
+                .setFacets(Common.Facets.newBuilder()
+                        .addFacets(Common.Facet.newBuilder().setProperty("severities")
+                                .addValues(Common.FacetValue.newBuilder().setVal("MAJOR").setCount(10))
+                                .addValues(Common.FacetValue.newBuilder().setVal("INFO").setCount(2)))
+                        .addFacets(Common.Facet.newBuilder().setProperty("types")
+                                .addValues(Common.FacetValue.newBuilder().setVal("BUG").setCount(12))))
+                .build());
+        final WsClient wsClient = Mockito.mock(WsClient.class);
+        Mockito.when(wsClient.issues()).thenReturn(service);
+        final FacetsProvider facetsProvider = new FacetsProviderPlugin(wsClient, PROJECT_KEY, BRANCH);
+
+        final Facets facets = facetsProvider.getFacets();
+        final List<Value> severities = facets.getFacetValues("severities");
+        assertEquals(2, severities.size());
+        assertEquals("MAJOR", severities.get(0).getVal());
+        assertEquals(10, severities.get(0).getCount());
+        assertEquals(12, facets.getFacetValues("types").get(0).getCount());
+
+        final ArgumentCaptor<SearchRequest> request = ArgumentCaptor.forClass(SearchRequest.class);
+        Mockito.verify(service).search(request.capture());
+        assertEquals(Collections.singletonList(PROJECT_KEY), request.getValue().getProjects());
+        assertEquals(Arrays.asList("rules", "severities", "types"), request.getValue().getFacets());
+        assertEquals(BRANCH, request.getValue().getBranch());
+    }
+
+    @Test
+    public void executeGetTimeFacetsPlugin() throws SonarQubeException, BadSonarQubeRequestException {
+        final MeasuresService service = Mockito.mock(MeasuresService.class);
+        Mockito.when(service.searchHistory(Mockito.any())).thenReturn(Measures.SearchHistoryResponse.newBuilder()
+                .setPaging(Common.Paging.newBuilder().setPageIndex(1).setPageSize(500).setTotal(1))
+                .addMeasures(Measures.SearchHistoryResponse.HistoryMeasure.newBuilder().setMetric("violations")
+                        .addHistory(Measures.SearchHistoryResponse.HistoryValue.newBuilder()
+                                .setDate("2020-10-10T14:05:22+0200").setValue("42"))
+                        .addHistory(Measures.SearchHistoryResponse.HistoryValue.newBuilder()
+                                .setDate("2020-10-11T14:05:22+0200").setValue("40")))
+                .build());
+        final WsClient wsClient = Mockito.mock(WsClient.class);
+        Mockito.when(wsClient.measures()).thenReturn(service);
+        final FacetsProvider facetsProvider = new FacetsProviderPlugin(wsClient, PROJECT_KEY, BRANCH);
+
+        final List<TimeValue> violations = facetsProvider.getTimeFacets().getFacetValues("violations");
+        assertEquals(2, violations.size());
+        assertEquals("42", violations.get(0).getValue());
+        assertEquals(1.0, violations.get(1).getDate() - violations.get(0).getDate(), 0.001);
+
+        final ArgumentCaptor<SearchHistoryRequest> request = ArgumentCaptor.forClass(SearchHistoryRequest.class);
+        Mockito.verify(service).searchHistory(request.capture());
+        assertEquals(PROJECT_KEY, request.getValue().getComponent());
+        assertEquals(Arrays.asList("violations", "sqale_debt_ratio"), request.getValue().getMetrics());
+        assertEquals(BRANCH, request.getValue().getBranch());
+    }
+
+    @Test(expected = BadSonarQubeRequestException.class)
+    public void executeFaultyGetFacetsPlugin() throws SonarQubeException, BadSonarQubeRequestException {
+        final IssuesService service = Mockito.mock(IssuesService.class);
+        Mockito.when(service.search(Mockito.any()))
+                .thenThrow(new HttpException("api/issues/search", 403, "Insufficient privileges"));
+        final WsClient wsClient = Mockito.mock(WsClient.class);
+        Mockito.when(wsClient.issues()).thenReturn(service);
+        new FacetsProviderPlugin(wsClient, PROJECT_KEY, BRANCH).getFacets();
+    }
 
-}
\ No newline at end of file
+}
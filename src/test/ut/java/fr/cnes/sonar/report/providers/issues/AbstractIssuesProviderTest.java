@@ -22,6 +22,8 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
@@ -31,6 +33,7 @@ import org.junit.Test;
 import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
 import fr.cnes.sonar.report.exceptions.SonarQubeException;
 import fr.cnes.sonar.report.model.Issue;
+import fr.cnes.sonar.report.model.ProjectIssues;
 
 
 public class AbstractIssuesProviderTest {
@@ -171,6 +174,77 @@ public class AbstractIssuesProviderTest {
         assertEquals(2, rawIssues.size());
     }
 
+    @Test
+    public void testPagesAreKeptInOrder() throws BadSonarQubeRequestException, SonarQubeException {
+        FakeIssuesProvider provider = new FakeIssuesProvider();
+        int maxPerPage = Integer.parseInt(provider.getProperty(MAX_PER_PAGE_SONARQUBE));
+        int pages = 6;
+
+        // Creates one response per page with a single issue identified by the page number
+        for (int page = 1; page <= pages; page++) {
+            JsonObject issue = new JsonObject();
+            issue.addProperty("key", "page-" + page);
+            issue.addProperty("rule", "java:S112");
+            JsonArray issues = new JsonArray();
+            issues.add(issue);
+
+            JsonObject response = new JsonObject();
+            response.addProperty("total", maxPerPage * pages);
+            response.add("issues", issues);
+            response.add("rules", new JsonArray());
+            provider.setFakePage(page, response);
+        }
+
+        // Call methods from abstract class & check result
+        List<Issue> issuesByStatus = provider.getIssuesByStatus();
+        assertEquals(pages, issuesByStatus.size());
+        for (int page = 1; page <= pages; page++) {
+            assertEquals("page-" + page, issuesByStatus.get(page - 1).getKey());
+        }
+    }
+
+    @Test
+    public void testProjectIssuesInSinglePass() throws BadSonarQubeRequestException, SonarQubeException {
+        // Creates a response from SonarQube with an unresolved and a resolved issue
+        JsonObject unresolved = new JsonObject();
+        unresolved.addProperty("key", "AXs6TiZb_DAZnba7Q_0P");
+        unresolved.addProperty("rule", "java:S112");
+        JsonObject resolved = new JsonObject();
+        resolved.addProperty("key", "AXs6TiZb_DAZnba7Q_0Q");
+        resolved.addProperty("rule", "java:S112");
+        resolved.addProperty("resolution", "FALSE-POSITIVE");
+        JsonArray issues = new JsonArray();
+        issues.add(unresolved);
+        issues.add(resolved);
+
+        JsonObject rule = new JsonObject();
+        rule.addProperty("key", "java:S112");
+        rule.addProperty("langName", "Java");
+        JsonArray rules = new JsonArray();
+        rules.add(rule);
+
+        FakeIssuesProvider provider = new FakeIssuesProvider();
+        int maxPerPage = Integer.parseInt(provider.getProperty(MAX_PER_PAGE_SONARQUBE));
+
+        JsonObject response = new JsonObject();
+        response.addProperty("total", maxPerPage * 3);
+        response.add("issues", issues);
+        response.add("rules", rules);
+        provider.setFakeObject(response);
+
+        // Call methods from abstract class & check result
+        ProjectIssues projectIssues = provider.getProjectIssues();
+        assertEquals(3, provider.getRequestCount());
+        assertEquals(3, projectIssues.getIssues().size());
+        assertEquals(3, projectIssues.getUnconfirmed().size());
+        assertEquals(3, projectIssues.getRawIssues().size());
+        assertEquals("AXs6TiZb_DAZnba7Q_0P", projectIssues.getIssues().get(0).getKey());
+        assertEquals("Java", projectIssues.getIssues().get(0).getLanguage());
+        assertEquals("AXs6TiZb_DAZnba7Q_0Q", projectIssues.getUnconfirmed().get(0).getKey());
+        assertEquals("FALSE-POSITIVE", projectIssues.getUnconfirmed().get(0).getResolution());
+        assertEquals("AXs6TiZb_DAZnba7Q_0P", projectIssues.getRawIssues().get(0).get("key"));
+    }
+
     @Test
     public void testTooManyIssues() throws BadSonarQubeRequestException, SonarQubeException {
         // Creates a response from SonarQube with some issues matching rules
@@ -197,8 +271,11 @@ public class AbstractIssuesProviderTest {
         // Call methods from abstract class & check result
         List<Issue> issuesByStatus = provider.getIssuesByStatus();
         List<Map<String,String>> rawIssues = provider.getRawIssues();
+        ProjectIssues projectIssues = provider.getProjectIssues();
         assertTrue(issuesByStatus.size() <= MAXIMUM_ISSUES_LIMIT);
         assertTrue(rawIssues.size() <= MAXIMUM_ISSUES_LIMIT);
+        assertTrue(projectIssues.getIssues().size() <= MAXIMUM_ISSUES_LIMIT);
+        assertTrue(projectIssues.getUnconfirmed().size() <= MAXIMUM_ISSUES_LIMIT);
     }
 
 }
@@ -211,6 +288,12 @@ class FakeIssuesProvider extends AbstractIssuesProvider {
     // Stores the fake JsonObject that the fake API will return
     private JsonObject fakeObject;
 
+    // Stores the fake JsonObject that the fake API will return for a given page
+    private final Map<Integer, JsonObject> fakePages = new ConcurrentHashMap<>();
+
+    // Counts the pages requested to the fake API
+    private final AtomicInteger requestCount = new AtomicInteger();
+
     public FakeIssuesProvider() {
         super("server", "token", "project", "branch");
     }
@@ -223,6 +306,15 @@ class FakeIssuesProvider extends AbstractIssuesProvider {
         this.fakeObject = pFake;
     }
 
+    /**
+     * Sets the fake JsonObject that the API should return for a given page
+     * @param page The page number
+     * @param pFake The fake JsonObject response from API
+     */
+    public void setFakePage(int page, JsonObject pFake) {
+        this.fakePages.put(page, pFake);
+    }
+
     /**
      * Fake implementation of interface
      */
@@ -237,11 +329,42 @@ class FakeIssuesProvider extends AbstractIssuesProvider {
         return getRawIssuesAbstract();
     }
 
+    /**
+     * Fake implementation of interface
+     */
+    public ProjectIssues getProjectIssues() throws BadSonarQubeRequestException, SonarQubeException {
+        return getProjectIssuesAbstract();
+    }
+
+    /**
+     * Number of pages requested to the fake API
+     */
+    public int getRequestCount() {
+        return this.requestCount.get();
+    }
+
     /**
      * Implements a fake method to return the response from API
      */
     public JsonObject getIssuesAsJsonObject(final int page, final int maxPerPage, final String confirmed) {
-        return this.fakeObject;
+        this.requestCount.incrementAndGet();
+        return this.fakePages.getOrDefault(page, this.fakeObject);
+    }
+
+    /**
+     * Implements a fake method to return the response from API
+     */
+    public JsonObject getAllIssuesAsJsonObject(final int page, final int maxPerPage, final String filter) {
+        this.requestCount.incrementAndGet();
+        return this.fakePages.getOrDefault(page, this.fakeObject);
+    }
+
+    /**
+     * Implements a fake method to return the response from API
+     */
+    public JsonObject countIssuesAsJsonObject(final int page, final int maxPerPage, final String filter) {
+        this.requestCount.incrementAndGet();
+        return this.fakePages.getOrDefault(page, this.fakeObject);
     }
 
     /**
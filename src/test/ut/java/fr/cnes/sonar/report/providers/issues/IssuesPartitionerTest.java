@@ -0,0 +1,174 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.providers.issues;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import org.junit.Test;
+
+import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
+import fr.cnes.sonar.report.exceptions.SonarQubeException;
+
+public class IssuesPartitionerTest {
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssZ");
+    private static final String[] TYPES = {"BUG", "VULNERABILITY", "CODE_SMELL"};
+    private static final String[] SEVERITIES = {"BLOCKER", "CRITICAL", "MAJOR", "MINOR", "INFO"};
+    private static final int LIMIT = 100;
+
+    @Test
+    public void testSlicesAreDisjointAndComplete() throws BadSonarQubeRequestException, SonarQubeException {
+        // Issues spread over a year with random attributes
+        final Random random = new Random(42);
+        final OffsetDateTime start = OffsetDateTime.of(2023, 1, 1, 0, 0, 0, 0, ZoneOffset.ofHours(2));
+        final List<JsonObject> issues = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            issues.add(issue("issue-" + i, TYPES[random.nextInt(TYPES.length)],
+                    SEVERITIES[random.nextInt(SEVERITIES.length)], random.nextInt(4) == 0,
+                    start.plusSeconds(random.nextInt(365 * 24 * 3600))));
+        }
+        final FakeSearch search = new FakeSearch(issues);
+
+        final List<IssuesPartitioner.Slice> slices = new IssuesPartitioner(search, LIMIT, 4)
+                .partition(new IssuesPartitioner.Slice("", issues.size()));
+
+        // Each slice fits in the window and the slices cover each issue once
+        final Set<String> keys = new HashSet<>();
+        int total = 0;
+        for (IssuesPartitioner.Slice slice : slices) {
+            assertTrue(slice.getTotal() <= LIMIT);
+            final JsonObject page = search.get(1, LIMIT, slice.getFilter());
+            assertEquals(slice.getTotal(), page.get("total").getAsInt());
+            for (JsonElement element : page.getAsJsonArray("issues")) {
+                keys.add(element.getAsJsonObject().get("key").getAsString());
+            }
+            total += slice.getTotal();
+        }
+        assertEquals(issues.size(), total);
+        assertEquals(issues.size(), keys.size());
+    }
+
+    @Test
+    public void testInseparableIssuesAreKept() throws BadSonarQubeRequestException, SonarQubeException {
+        // Issues created by the same analysis with the same attributes
+        final OffsetDateTime date = OffsetDateTime.of(2023, 1, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+        final List<JsonObject> issues = new ArrayList<>();
+        for (int i = 0; i < LIMIT + 50; i++) {
+            issues.add(issue("same-" + i, "BUG", "MAJOR", false, date));
+        }
+        issues.add(issue("other", "BUG", "MAJOR", false, date.plusDays(1)));
+        final FakeSearch search = new FakeSearch(issues);
+
+        final List<IssuesPartitioner.Slice> slices = new IssuesPartitioner(search, LIMIT, 1)
+                .partition(new IssuesPartitioner.Slice("", issues.size()));
+
+        // The creation second holding too many issues is kept as a whole
+        assertEquals(2, slices.size());
+        assertEquals(LIMIT + 50, slices.get(0).getTotal());
+        assertEquals(1, slices.get(1).getTotal());
+    }
+
+    private static JsonObject issue(String key, String type, String severity, boolean resolved,
+            OffsetDateTime creationDate) {
+        final JsonObject issue = new JsonObject();
+        issue.addProperty("key", key);
+        issue.addProperty("type", type);
+        issue.addProperty("severity", severity);
+        if (resolved) {
+            issue.addProperty("resolution", "FALSE-POSITIVE");
+        }
+        issue.addProperty("creationDate", DATE_TIME.format(creationDate));
+        return issue;
+    }
+
+    /**
+     * In-memory search applying the filters used by the partitioner
+     */
+    private static class FakeSearch implements IssuesPartitioner.SliceRequest {
+
+        private final List<JsonObject> issues;
+
+        FakeSearch(List<JsonObject> pIssues) {
+            this.issues = pIssues;
+        }
+
+        @Override
+        public JsonObject get(int page, int maxPerPage, String filter) {
+            final Map<String, String> parameters = new HashMap<>();
+            for (String parameter : filter.split("&")) {
+                if (!parameter.isEmpty()) {
+                    final String[] pair = parameter.split("=");
+                    parameters.put(pair[0], pair[1]);
+                }
+            }
+
+            List<JsonObject> matching = issues.stream()
+                    .filter(issue -> matches(issue, parameters))
+                    .sorted(Comparator.comparing(IssuesPartitionerTest::creationSecond))
+                    .collect(Collectors.toList());
+            if ("false".equals(parameters.get("asc"))) {
+                matching = new ArrayList<>(matching);
+                Collections.reverse(matching);
+            }
+
+            final JsonArray array = new JsonArray();
+            matching.stream().skip((long) (page - 1) * maxPerPage).limit(maxPerPage).forEach(array::add);
+            final JsonObject response = new JsonObject();
+            response.addProperty("total", matching.size());
+            response.add("issues", array);
+            return response;
+        }
+
+        private static boolean matches(JsonObject issue, Map<String, String> parameters) {
+            final long second = creationSecond(issue);
+            return (!parameters.containsKey("resolved")
+                        || Boolean.parseBoolean(parameters.get("resolved")) == issue.has("resolution"))
+                    && (!parameters.containsKey("types")
+                        || parameters.get("types").equals(issue.get("type").getAsString()))
+                    && (!parameters.containsKey("severities")
+                        || parameters.get("severities").equals(issue.get("severity").getAsString()))
+                    && (!parameters.containsKey("createdAfter")
+                        || second >= OffsetDateTime.parse(parameters.get("createdAfter"), DATE_TIME).toEpochSecond())
+                    && (!parameters.containsKey("createdBefore")
+                        || second < OffsetDateTime.parse(parameters.get("createdBefore"), DATE_TIME).toEpochSecond());
+        }
+    }
+
+    private static long creationSecond(JsonObject issue) {
+        return OffsetDateTime.parse(issue.get("creationDate").getAsString(), DATE_TIME).toEpochSecond();
+    }
+}
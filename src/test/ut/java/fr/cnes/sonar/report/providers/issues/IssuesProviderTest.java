@@ -3,8 +3,23 @@ package fr.cnes.sonar.report.providers.issues;
 import fr.cnes.sonar.report.CommonTest;
 import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
 import fr.cnes.sonar.report.exceptions.SonarQubeException;
+import fr.cnes.sonar.report.model.Issue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Collections;
+import java.util.List;
 
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.sonarqube.ws.Common;
+import org.sonarqube.ws.Issues;
+import org.sonarqube.ws.client.HttpException;
+import org.sonarqube.ws.client.WsClient;
+import org.sonarqube.ws.client.issues.IssuesService;
+import org.sonarqube.ws.client.issues.SearchRequest;
 
 public class IssuesProviderTest extends CommonTest {
 
@@ -28,5 +43,63 @@ public class IssuesProviderTest extends CommonTest {
         issuesProvider.getUnconfirmedIssues();
     }
 
+    /**
+     * Mock a web client whose search of issues gives the response.
+     * @param issues the service of issues of the client
+     * @return the web client
+     */
+    private static WsClient mockWsClient(final IssuesService issues) {
+        final WsClient wsClient = Mockito.mock(WsClient.class);
+        Mockito.when(wsClient.issues()).thenReturn(issues);
+        return wsClient;
+    }
+
+    @Test
+    public void executeGetIssuesPlugin() throws SonarQubeException, BadSonarQubeRequestException {
+        final IssuesService service = Mockito.mock(IssuesService.class);
+        Mockito.when(service.search(Mockito.any())).thenReturn(Issues.SearchWsResponse.newBuilder()
+                .setPaging(Common.Paging.newBuilder().setPageIndex(1).setPageSize(500).setTotal(1))
+                .addIssues(Issues.Issue.newBuilder().setKey("AX1").setRule("java:S1").setComponent(PROJECT_KEY))
+                .build());
+        final IssuesProvider issuesProvider = new IssuesProviderPlugin(mockWsClient(service), PROJECT_KEY, "%");
+
+        final List<Issue> issues = issuesProvider.getIssues();
+        assertEquals(1, issues.size());
+        assertEquals("AX1", issues.get(0).getKey());
+
+        final ArgumentCaptor<SearchRequest> request = ArgumentCaptor.forClass(SearchRequest.class);
+        Mockito.verify(service).search(request.capture());
+        assertEquals(Collections.singletonList(PROJECT_KEY), request.getValue().getProjects());
+        assertEquals("false", request.getValue().getResolved());
+        assertNull(request.getValue().getBranch());
+    }
+
+    @Test
+    // the partition of the issues reads the deprecated total, still given by SonarQube
+    @SuppressWarnings("deprecation")
+    public void executeCountIssuesPlugin() throws SonarQubeException, BadSonarQubeRequestException {
+        final IssuesService service = Mockito.mock(IssuesService.class);
+        Mockito.when(service.search(Mockito.any())).thenReturn(Issues.SearchWsResponse.newBuilder().setTotal(42)
+                .setPaging(Common.Paging.newBuilder().setPageIndex(1).setPageSize(1).setTotal(42))
+                .build());
+        final IssuesProviderPlugin issuesProvider = new IssuesProviderPlugin(mockWsClient(service), PROJECT_KEY, "%");
+
+        assertEquals(42, issuesProvider.countIssuesAsJsonObject(1, 1, "&types=BUG").get("total").getAsInt());
+
+        final ArgumentCaptor<SearchRequest> request = ArgumentCaptor.forClass(SearchRequest.class);
+        Mockito.verify(service).search(request.capture());
+        assertEquals(Collections.singletonList("BUG"), request.getValue().getTypes());
+        assertEquals("1", request.getValue().getPs());
+        assertNull(request.getValue().getFacets());
+        assertNull(request.getValue().getAdditionalFields());
+    }
+
+    @Test(expected = BadSonarQubeRequestException.class)
+    public void executeFaultyGetIssuesPlugin() throws SonarQubeException, BadSonarQubeRequestException {
+        final IssuesService service = Mockito.mock(IssuesService.class);
+        Mockito.when(service.search(Mockito.any()))
+                .thenThrow(new HttpException("api/issues/search", 403, "Insufficient privileges"));
+        new IssuesProviderPlugin(mockWsClient(service), PROJECT_KEY, BRANCH).getIssues();
+    }
 
-}
\ No newline at end of file
+}
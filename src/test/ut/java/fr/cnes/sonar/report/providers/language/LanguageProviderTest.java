@@ -1,10 +1,17 @@
 package fr.cnes.sonar.report.providers.language;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 import fr.cnes.sonar.report.CommonTest;
 import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
 import fr.cnes.sonar.report.exceptions.SonarQubeException;
+import fr.cnes.sonar.report.model.Languages;
 
 import org.junit.Test;
+import org.mockito.Mockito;
+import org.sonarqube.ws.client.HttpException;
+import org.sonarqube.ws.client.WsClient;
+import org.sonarqube.ws.client.languages.LanguagesService;
 
 public class LanguageProviderTest extends CommonTest {
 
@@ -15,4 +22,37 @@ public class LanguageProviderTest extends CommonTest {
         LanguageProvider languageProvider = new LanguageProviderStandalone(sonarQubeServer, TOKEN, PROJECT_KEY);
         languageProvider.getLanguages();
     }
-}
\ No newline at end of file
+
+    /**
+     * Mock a web client whose languages are given by the service.
+     * @param languages the service of languages of the client
+     * @return the web client
+     */
+    private static WsClient mockWsClient(final LanguagesService languages) {
+        final WsClient wsClient = Mockito.mock(WsClient.class);
+        Mockito.when(wsClient.languages()).thenReturn(languages);
+        return wsClient;
+    }
+
+    @Test
+    public void executeGetLanguagesPlugin() throws SonarQubeException, BadSonarQubeRequestException {
+        final LanguagesService service = Mockito.mock(LanguagesService.class);
+        // the list of languages is only given in json by SonarQube
+        Mockito.when(service.list(Mockito.any()))
+                .thenReturn("{\"languages\":[{\"key\":\"java\",\"name\":\"Java\"},{\"key\":\"py\",\"name\":\"Python\"}]}");
+        final LanguageProvider languageProvider = new LanguageProviderPlugin(mockWsClient(service), PROJECT_KEY);
+
+        final Languages languages = languageProvider.getLanguages();
+        assertEquals(2, languages.getLanguages().size());
+        assertEquals("Java", languages.getLanguage("java"));
+        assertEquals("Python", languages.getLanguage("py"));
+    }
+
+    @Test(expected = BadSonarQubeRequestException.class)
+    public void executeFaultyGetLanguagesPlugin() throws SonarQubeException, BadSonarQubeRequestException {
+        final LanguagesService service = Mockito.mock(LanguagesService.class);
+        Mockito.when(service.list(Mockito.any()))
+                .thenThrow(new HttpException("api/languages/list", 401, "Unauthorized"));
+        new LanguageProviderPlugin(mockWsClient(service), PROJECT_KEY).getLanguages();
+    }
+}
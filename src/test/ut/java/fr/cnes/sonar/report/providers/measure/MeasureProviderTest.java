@@ -1,10 +1,25 @@
 package fr.cnes.sonar.report.providers.measure;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
 import fr.cnes.sonar.report.CommonTest;
 import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
 import fr.cnes.sonar.report.exceptions.SonarQubeException;
+import fr.cnes.sonar.report.model.Measure;
+import fr.cnes.sonar.report.utils.StringManager;
 
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.sonarqube.ws.Measures;
+import org.sonarqube.ws.client.HttpException;
+import org.sonarqube.ws.client.WsClient;
+import org.sonarqube.ws.client.measures.ComponentRequest;
+import org.sonarqube.ws.client.measures.MeasuresService;
 
 public class MeasureProviderTest extends CommonTest {
 
@@ -16,4 +31,48 @@ public class MeasureProviderTest extends CommonTest {
         measureProvider.getMeasures();
     }
 
-}
\ No newline at end of file
+    /**
+     * Mock a web client whose measures are given by the service.
+     * @param measures the service of measures of the client
+     * @return the web client
+     */
+    private static WsClient mockWsClient(final MeasuresService measures) {
+        final WsClient wsClient = Mockito.mock(WsClient.class);
+        Mockito.when(wsClient.measures()).thenReturn(measures);
+        return wsClient;
+    }
+
+    @Test
+    public void executeGetMeasuresPlugin() throws SonarQubeException, BadSonarQubeRequestException {
+        final MeasuresService service = Mockito.mock(MeasuresService.class);
+        Mockito.when(service.component(Mockito.any())).thenReturn(Measures.ComponentWsResponse.newBuilder()
+                .setComponent(Measures.Component.newBuilder().setKey(PROJECT_KEY)
+                        .addMeasures(Measures.Measure.newBuilder().setMetric("ncloc").setValue("1234"))
+                        .addMeasures(Measures.Measure.newBuilder().setMetric("alert_status").setValue("OK")))
+                .build());
+        final MeasureProvider measureProvider = new MeasureProviderPlugin(mockWsClient(service), PROJECT_KEY,
+                StringManager.NO_BRANCH);
+
+        final List<Measure> measures = measureProvider.getMeasures();
+        assertEquals(2, measures.size());
+        assertEquals("ncloc", measures.get(0).getMetric());
+        assertEquals("1234", measures.get(0).getValue());
+        assertEquals("OK", measures.get(1).getValue());
+
+        final ArgumentCaptor<ComponentRequest> request = ArgumentCaptor.forClass(ComponentRequest.class);
+        Mockito.verify(service).component(request.capture());
+        assertEquals(PROJECT_KEY, request.getValue().getComponent());
+        assertTrue(request.getValue().getMetricKeys().contains("ncloc"));
+        // the default branch is not given to SonarQube
+        assertNull(request.getValue().getBranch());
+    }
+
+    @Test(expected = BadSonarQubeRequestException.class)
+    public void executeFaultyGetMeasuresPlugin() throws SonarQubeException, BadSonarQubeRequestException {
+        final MeasuresService service = Mockito.mock(MeasuresService.class);
+        Mockito.when(service.component(Mockito.any()))
+                .thenThrow(new HttpException("api/measures/component", 403, "Insufficient privileges"));
+        new MeasureProviderPlugin(mockWsClient(service), PROJECT_KEY, BRANCH).getMeasures();
+    }
+
+}
@@ -1,11 +1,25 @@
 package fr.cnes.sonar.report.providers.project;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 import fr.cnes.sonar.report.CommonTest;
 import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
 import fr.cnes.sonar.report.exceptions.SonarQubeException;
+import fr.cnes.sonar.report.model.Project;
 import fr.cnes.sonar.report.providers.language.*;
+import fr.cnes.sonar.report.utils.StringManager;
 
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.sonarqube.ws.client.HttpException;
+import org.sonarqube.ws.client.WsClient;
+import org.sonarqube.ws.client.languages.LanguagesService;
+import org.sonarqube.ws.client.navigation.ComponentRequest;
+import org.sonarqube.ws.client.navigation.NavigationService;
 
 public class ProjectProviderTest extends CommonTest {
 
@@ -25,5 +39,71 @@ public class ProjectProviderTest extends CommonTest {
         projectProvider.hasProject(PROJECT_KEY, BRANCH);
     }
 
+    /**
+     * Mock a web client whose project and languages are given by the services.
+     * @param navigation the service of navigation of the client
+     * @return the web client
+     */
+    private static WsClient mockWsClient(final NavigationService navigation) {
+        final LanguagesService languages = Mockito.mock(LanguagesService.class);
+        Mockito.when(languages.list(Mockito.any())).thenReturn("{\"languages\":[{\"key\":\"java\",\"name\":\"Java\"}]}");
+        final WsClient wsClient = Mockito.mock(WsClient.class);
+        Mockito.when(wsClient.navigation()).thenReturn(navigation);
+        Mockito.when(wsClient.languages()).thenReturn(languages);
+        return wsClient;
+    }
+
+    @Test
+    public void executeGetProjectPlugin() throws SonarQubeException, BadSonarQubeRequestException {
+        final NavigationService service = Mockito.mock(NavigationService.class);
+        // the navigation of a component is only given in json by SonarQube
+        Mockito.when(service.component(Mockito.any())).thenReturn("{\"key\":\"" + PROJECT_KEY + "\",\"name\":\"CNES Report\","
+                + "\"analysisDate\":\"2020-10-10T14:05:22+0200\",\"version\":\"4.3\","
+                + "\"qualityProfiles\":[{\"key\":\"AXqp\",\"name\":\"Sonar way\",\"language\":\"java\"}],"
+                + "\"qualityGate\":{\"key\":\"1\",\"name\":\"CNES\"}}");
+        final WsClient wsClient = mockWsClient(service);
+        final ProjectProvider projectProvider = new ProjectProviderPlugin(wsClient, PROJECT_KEY, BRANCH,
+                new LanguageProviderPlugin(wsClient, PROJECT_KEY));
+
+        final Project project = projectProvider.getProject(PROJECT_KEY, BRANCH);
+        assertEquals(PROJECT_KEY, project.getKey());
+        assertEquals("CNES Report", project.getName());
+        assertEquals("4.3", project.getVersion());
+        assertEquals("", project.getDescription());
+        assertEquals("2020-10-10T14:05:22+0200", project.getAnalysisDate());
+        assertEquals(1, project.getQualityProfiles().length);
+        assertEquals("Java", project.getQualityProfiles()[0].getLanguageName());
+        assertEquals("Java", project.getLanguage("java").getName());
+        assertTrue(projectProvider.hasProject(PROJECT_KEY, BRANCH));
+        assertFalse(projectProvider.hasProject("other", BRANCH));
+
+        final ArgumentCaptor<ComponentRequest> request = ArgumentCaptor.forClass(ComponentRequest.class);
+        Mockito.verify(service, Mockito.times(3)).component(request.capture());
+        assertEquals(PROJECT_KEY, request.getAllValues().get(0).getComponent());
+        assertEquals(BRANCH, request.getAllValues().get(0).getBranch());
+    }
+
+    @Test
+    public void executeGetProjectWithoutBranchPlugin() throws SonarQubeException, BadSonarQubeRequestException {
+        final NavigationService service = Mockito.mock(NavigationService.class);
+        Mockito.when(service.component(Mockito.any())).thenReturn("{\"key\":\"" + PROJECT_KEY + "\"}");
+        final WsClient wsClient = mockWsClient(service);
+        final ProjectProvider projectProvider = new ProjectProviderPlugin(wsClient, PROJECT_KEY, StringManager.NO_BRANCH,
+                new LanguageProviderPlugin(wsClient, PROJECT_KEY));
 
-}
\ No newline at end of file
+        assertTrue(projectProvider.hasProject(PROJECT_KEY, StringManager.NO_BRANCH));
+        final ArgumentCaptor<ComponentRequest> request = ArgumentCaptor.forClass(ComponentRequest.class);
+        Mockito.verify(service).component(request.capture());
+        assertNull(request.getValue().getBranch());
+    }
+
+    @Test(expected = BadSonarQubeRequestException.class)
+    public void executeFaultyGetProjectPlugin() throws SonarQubeException, BadSonarQubeRequestException {
+        final NavigationService service = Mockito.mock(NavigationService.class);
+        Mockito.when(service.component(Mockito.any()))
+                .thenThrow(new HttpException("api/navigation/component", 404, "Component not found"));
+        final WsClient wsClient = mockWsClient(service);
+        new ProjectProviderPlugin(wsClient, PROJECT_KEY, BRANCH, new LanguageProviderPlugin(wsClient, PROJECT_KEY))
+                .getProject(PROJECT_KEY, BRANCH);
+    }
+}
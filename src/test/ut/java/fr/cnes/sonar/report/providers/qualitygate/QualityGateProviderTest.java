@@ -1,10 +1,31 @@
 package fr.cnes.sonar.report.providers.qualitygate;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
 import fr.cnes.sonar.report.CommonTest;
 import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
 import fr.cnes.sonar.report.exceptions.SonarQubeException;
+import fr.cnes.sonar.report.exceptions.UnknownQualityGateException;
+import fr.cnes.sonar.report.model.QualityGate;
 
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.sonarqube.ws.Common;
+import org.sonarqube.ws.Measures;
+import org.sonarqube.ws.Qualitygates;
+import org.sonarqube.ws.client.HttpException;
+import org.sonarqube.ws.client.WsClient;
+import org.sonarqube.ws.client.measures.ComponentRequest;
+import org.sonarqube.ws.client.measures.MeasuresService;
+import org.sonarqube.ws.client.navigation.NavigationService;
+import org.sonarqube.ws.client.qualitygates.ProjectStatusRequest;
+import org.sonarqube.ws.client.qualitygates.QualitygatesService;
 
 public class QualityGateProviderTest extends CommonTest {
 
@@ -22,5 +43,107 @@ public class QualityGateProviderTest extends CommonTest {
         qualityGateProvider.getQualityGateStatus();
     }
 
+    /**
+     * Mock a web client with two quality gates, the second one being the quality gate of the project.
+     * @param qualityGates the service of quality gates of the client
+     * @return the web client
+     */
+    private static WsClient mockWsClient(final QualitygatesService qualityGates) {
+        Mockito.when(qualityGates.list(Mockito.any())).thenReturn(Qualitygates.ListWsResponse.newBuilder()
+                .addQualitygates(Qualitygates.ListWsResponse.QualityGate.newBuilder().setName("Sonar way").setIsDefault(true))
+                .addQualitygates(Qualitygates.ListWsResponse.QualityGate.newBuilder().setName(QUALITY_GATE_NAME))
+                .build());
+        Mockito.when(qualityGates.show(Mockito.any())).thenAnswer(invocation -> Qualitygates.ShowWsResponse.newBuilder()
+                .setName(invocation.<org.sonarqube.ws.client.qualitygates.ShowRequest>getArgument(0).getName())
+                .setIsBuiltIn(false).setIsDefault(false).setCaycStatus("compliant")
+                .addConditions(Qualitygates.ShowWsResponse.Condition.newBuilder().setId("1").setMetric("coverage").setOp("LT")
+                        .setError("80").setIsCaycCondition(false))
+                .build());
+        final NavigationService navigation = Mockito.mock(NavigationService.class);
+        Mockito.when(navigation.component(Mockito.any()))
+                .thenReturn("{\"key\":\"" + PROJECT_KEY + "\",\"qualityGate\":{\"key\":\"2\",\"name\":\"" + QUALITY_GATE_NAME + "\"}}");
+        final WsClient wsClient = Mockito.mock(WsClient.class);
+        Mockito.when(wsClient.qualitygates()).thenReturn(qualityGates);
+        Mockito.when(wsClient.navigation()).thenReturn(navigation);
+        return wsClient;
+    }
+
+    @Test
+    public void executeGetQualityGatesPlugin()
+            throws SonarQubeException, BadSonarQubeRequestException, UnknownQualityGateException {
+        final QualityGateProvider qualityGateProvider =
+                new QualityGateProviderPlugin(mockWsClient(Mockito.mock(QualitygatesService.class)), PROJECT_KEY, BRANCH);
+
+        final List<QualityGate> qualityGates = qualityGateProvider.getQualityGates();
+        assertEquals(2, qualityGates.size());
+        assertEquals("Sonar way", qualityGates.get(0).getName());
+        assertTrue(qualityGates.get(1).getConf().contains("\"coverage\""));
+
+        final QualityGate qualityGate = qualityGateProvider.getProjectQualityGate();
+        assertEquals(QUALITY_GATE_NAME, qualityGate.getName());
+    }
+
+    @Test(expected = UnknownQualityGateException.class)
+    public void executeGetUnknownQualityGatePlugin()
+            throws SonarQubeException, BadSonarQubeRequestException, UnknownQualityGateException {
+        final QualitygatesService service = Mockito.mock(QualitygatesService.class);
+        final WsClient wsClient = mockWsClient(service);
+        Mockito.when(service.list(Mockito.any())).thenReturn(Qualitygates.ListWsResponse.newBuilder()
+                .addQualitygates(Qualitygates.ListWsResponse.QualityGate.newBuilder().setName("Sonar way"))
+                .build());
+        new QualityGateProviderPlugin(wsClient, PROJECT_KEY, BRANCH).getProjectQualityGate();
+    }
+
+    @Test
+    public void executeGetQualityGateStatusPlugin() throws SonarQubeException, BadSonarQubeRequestException {
+        final QualitygatesService service = Mockito.mock(QualitygatesService.class);
+        Mockito.when(service.projectStatus(Mockito.any())).thenReturn(Qualitygates.ProjectStatusResponse.newBuilder()
+                .setProjectStatus(Qualitygates.ProjectStatusResponse.ProjectStatus.newBuilder()
+                        .setStatus(Qualitygates.ProjectStatusResponse.Status.ERROR)
+                        .addConditions(Qualitygates.ProjectStatusResponse.Condition.newBuilder()
+                                .setStatus(Qualitygates.ProjectStatusResponse.Status.OK).setMetricKey("new_violations")
+                                .setComparator(Qualitygates.ProjectStatusResponse.Comparator.GT)
+                                .setErrorThreshold("0").setActualValue("0"))
+                        .addConditions(Qualitygates.ProjectStatusResponse.Condition.newBuilder()
+                                .setStatus(Qualitygates.ProjectStatusResponse.Status.ERROR).setMetricKey("coverage")
+                                .setComparator(Qualitygates.ProjectStatusResponse.Comparator.LT)
+                                .setErrorThreshold("80").setActualValue("75.44")))
+                .build());
+        final MeasuresService measures = Mockito.mock(MeasuresService.class);
+        Mockito.when(measures.component(Mockito.any())).thenAnswer(invocation -> {
+            final String metric = invocation.<ComponentRequest>getArgument(0).getMetricKeys().get(0);
+            return Measures.ComponentWsResponse.newBuilder()
+                    .setComponent(Measures.Component.newBuilder().setKey(PROJECT_KEY))
+                    .setMetrics(Measures.Metrics.newBuilder().addMetrics(Common.Metric.newBuilder().setKey(metric)
+                            .setName(metric.equals("coverage") ? "Coverage" : "New Issues")
+                            .setType(metric.equals("coverage") ? "PERCENT" : "INT")))
+                    .build();
+        });
+        final WsClient wsClient = Mockito.mock(WsClient.class);
+        Mockito.when(wsClient.qualitygates()).thenReturn(service);
+        Mockito.when(wsClient.measures()).thenReturn(measures);
+
+        final Map<String, String> status = new QualityGateProviderPlugin(wsClient, PROJECT_KEY, BRANCH).getQualityGateStatus();
+        assertEquals(2, status.size());
+        assertEquals("OK", status.get("New Issues"));
+        assertEquals("ERROR (75.4% is less than 80%)", status.get("Coverage"));
 
-}
\ No newline at end of file
+        final ArgumentCaptor<ProjectStatusRequest> request = ArgumentCaptor.forClass(ProjectStatusRequest.class);
+        Mockito.verify(service).projectStatus(request.capture());
+        assertEquals(PROJECT_KEY, request.getValue().getProjectKey());
+        assertEquals(BRANCH, request.getValue().getBranch());
+        final ArgumentCaptor<ComponentRequest> metric = ArgumentCaptor.forClass(ComponentRequest.class);
+        Mockito.verify(measures, Mockito.times(2)).component(metric.capture());
+        assertEquals(Collections.singletonList("metrics"), metric.getValue().getAdditionalFields());
+    }
+
+    @Test(expected = BadSonarQubeRequestException.class)
+    public void executeFaultyGetQualityGatesPlugin() throws SonarQubeException, BadSonarQubeRequestException {
+        final QualitygatesService service = Mockito.mock(QualitygatesService.class);
+        Mockito.when(service.list(Mockito.any()))
+                .thenThrow(new HttpException("api/qualitygates/list", 401, "Unauthorized"));
+        final WsClient wsClient = Mockito.mock(WsClient.class);
+        Mockito.when(wsClient.qualitygates()).thenReturn(service);
+        new QualityGateProviderPlugin(wsClient, PROJECT_KEY, BRANCH).getQualityGates();
+    }
+}
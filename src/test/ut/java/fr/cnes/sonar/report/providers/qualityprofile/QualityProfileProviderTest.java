@@ -1,10 +1,26 @@
 package fr.cnes.sonar.report.providers.qualityprofile;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
 import fr.cnes.sonar.report.CommonTest;
 import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
 import fr.cnes.sonar.report.exceptions.SonarQubeException;
+import fr.cnes.sonar.report.model.QualityProfile;
 
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.sonarqube.ws.Common;
+import org.sonarqube.ws.Qualityprofiles;
+import org.sonarqube.ws.Rules;
+import org.sonarqube.ws.client.HttpException;
+import org.sonarqube.ws.client.WsClient;
+import org.sonarqube.ws.client.qualityprofiles.ExportRequest;
+import org.sonarqube.ws.client.qualityprofiles.QualityprofilesService;
+import org.sonarqube.ws.client.rules.RulesService;
+import org.sonarqube.ws.client.rules.SearchRequest;
 
 public class QualityProfileProviderTest extends CommonTest {
 
@@ -16,5 +32,59 @@ public class QualityProfileProviderTest extends CommonTest {
         qualityProfileProvider.getQualityProfiles();
     }
 
+    @Test
+    public void executeGetQualityProfilesPlugin() throws SonarQubeException, BadSonarQubeRequestException {
+        final QualityprofilesService profiles = Mockito.mock(QualityprofilesService.class);
+        Mockito.when(profiles.search(Mockito.any())).thenReturn(Qualityprofiles.SearchWsResponse.newBuilder()
+                .addProfiles(Qualityprofiles.SearchWsResponse.QualityProfile.newBuilder().setKey("AXqp")
+                        .setName("Sonar way").setLanguage("java").setIsDefault(true).setActiveDeprecatedRuleCount(3))
+                .build());
+        // the export and the projects of a quality profile are only given as text by SonarQube
+        Mockito.when(profiles.export(Mockito.any())).thenReturn("<profile><name>Sonar way</name></profile>");
+        Mockito.when(profiles.projects(Mockito.any()))
+                .thenReturn("{\"results\":[{\"key\":\"" + PROJECT_KEY + "\",\"name\":\"CNES Report\"}]}");
+        final RulesService rules = Mockito.mock(RulesService.class);
+        Mockito.when(rules.search(Mockito.any())).thenReturn(Rules.SearchResponse.newBuilder()
+                .setPaging(Common.Paging.newBuilder().setPageIndex(1).setPageSize(500).setTotal(2))
+                .addRules(Rules.Rule.newBuilder().setKey("java:S1").setName("First rule").setLang("java"))
+                .addRules(Rules.Rule.newBuilder().setKey("java:S2").setName("Second rule").setLang("java"))
+                .setActives(Rules.Actives.newBuilder().putActives("java:S1", Rules.ActiveList.newBuilder()
+                        .addActiveList(Rules.Active.newBuilder().setQProfile("AXqp").setSeverity("BLOCKER")).build()))
+                .build());
+        final WsClient wsClient = Mockito.mock(WsClient.class);
+        Mockito.when(wsClient.qualityprofiles()).thenReturn(profiles);
+        Mockito.when(wsClient.rules()).thenReturn(rules);
+
+        final List<QualityProfile> qualityProfiles = new QualityProfileProviderPlugin(wsClient, PROJECT_KEY).getQualityProfiles();
+        assertEquals(1, qualityProfiles.size());
+        final QualityProfile qualityProfile = qualityProfiles.get(0);
+        assertEquals("Sonar way", qualityProfile.getName());
+        assertEquals("AXqp", qualityProfile.getKey());
+        assertEquals("<profile><name>Sonar way</name></profile>", qualityProfile.getConf());
+        assertEquals(2, qualityProfile.getRules().size());
+        // the severity of the rule in the quality profile is reported
+        assertEquals("BLOCKER", qualityProfile.find("java:S1").getSeverity());
+        assertEquals("Second rule", qualityProfile.find("java:S2").getName());
+        assertEquals(1, qualityProfile.getProjects().length);
+        assertEquals(PROJECT_KEY, qualityProfile.getProjects()[0].getKey());
 
-}
\ No newline at end of file
+        final ArgumentCaptor<ExportRequest> export = ArgumentCaptor.forClass(ExportRequest.class);
+        Mockito.verify(profiles).export(export.capture());
+        assertEquals("java", export.getValue().getLanguage());
+        assertEquals("Sonar way", export.getValue().getQualityProfile());
+        final ArgumentCaptor<SearchRequest> search = ArgumentCaptor.forClass(SearchRequest.class);
+        Mockito.verify(rules).search(search.capture());
+        assertEquals("AXqp", search.getValue().getQprofile());
+        assertEquals("true", search.getValue().getActivation());
+    }
+
+    @Test(expected = BadSonarQubeRequestException.class)
+    public void executeFaultyGetQualityProfilesPlugin() throws SonarQubeException, BadSonarQubeRequestException {
+        final QualityprofilesService service = Mockito.mock(QualityprofilesService.class);
+        Mockito.when(service.search(Mockito.any()))
+                .thenThrow(new HttpException("api/qualityprofiles/search", 404, "Project not found"));
+        final WsClient wsClient = Mockito.mock(WsClient.class);
+        Mockito.when(wsClient.qualityprofiles()).thenReturn(service);
+        new QualityProfileProviderPlugin(wsClient, PROJECT_KEY).getQualityProfiles();
+    }
+}
@@ -20,8 +20,11 @@ package fr.cnes.sonar.report.providers.securityhotspots;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
@@ -105,6 +108,157 @@ public class AbstractSecurityHotspotsProviderTest {
             assertSame("MAJOR", sec.getSeverity());
             assertSame("rule_1", sec.getRule());
         }
+
+        // the rule shared by all the security hotspots is requested once
+        assertEquals(1, provider.getRulesRequests());
+    }
+
+    @Test
+    public void getSecurityHotspotsRulesByBatchTest() throws BadSonarQubeRequestException, SonarQubeException {
+        // Create a page of security hotspots, each one with its own rule
+        JsonArray hotspotsList = new JsonArray();
+        for (int i = 0; i < 250; i++) {
+            JsonObject hotspot = new JsonObject();
+            hotspot.addProperty("key", "key_" + i);
+            hotspotsList.add(hotspot);
+        }
+        JsonObject paging = new JsonObject();
+        paging.addProperty("total", 250);
+        JsonObject hotspots = new JsonObject();
+        hotspots.add("hotspots", hotspotsList);
+        hotspots.add("paging", paging);
+
+        JsonObject rule = new JsonObject();
+        rule.addProperty("severity", "MINOR");
+        rule.addProperty("langName", "Python");
+        JsonObject ruleDetails = new JsonObject();
+        ruleDetails.add("rule", rule);
+
+        SecurityHotspotsProviderWrapper provider = new SecurityHotspotsProviderWrapper() {
+            @Override
+            protected JsonObject getSecurityHotspotAsJsonObject(final String securityHotspotKey) {
+                JsonObject hotspotRule = new JsonObject();
+                hotspotRule.addProperty("key", "rule_" + securityHotspotKey);
+                JsonObject hotspotDetails = new JsonObject();
+                hotspotDetails.add("rule", hotspotRule);
+                return hotspotDetails;
+            }
+        };
+        provider.setFakeHotspots(hotspots);
+        provider.setFakeRule(ruleDetails);
+
+        List<SecurityHotspot> result = provider.getSecurityHotspotsByStatus("TO_REVIEW");
+        assertEquals(250, result.size());
+        assertEquals("rule_key_249", result.get(249).getRule());
+        assertEquals("Python", result.get(249).getLanguage());
+        assertEquals("MINOR", result.get(249).getSeverity());
+        // 250 distinct rules are requested by batches of 100
+        assertEquals(3, provider.getRulesRequests());
+    }
+
+    @Test
+    public void getSecurityHotspotsRemovedRulesTest() throws BadSonarQubeRequestException, SonarQubeException {
+        // Create a page of security hotspots with a known rule, a removed one and an unknown one
+        JsonArray hotspotsList = new JsonArray();
+        for (String key : Arrays.asList("known", "removed", "unknown")) {
+            JsonObject hotspot = new JsonObject();
+            hotspot.addProperty("key", key);
+            hotspotsList.add(hotspot);
+        }
+        JsonObject paging = new JsonObject();
+        paging.addProperty("total", 3);
+        JsonObject hotspots = new JsonObject();
+        hotspots.add("hotspots", hotspotsList);
+        hotspots.add("paging", paging);
+
+        JsonObject rule = new JsonObject();
+        rule.addProperty("severity", "CRITICAL");
+        rule.addProperty("langName", "C++");
+        JsonObject ruleDetails = new JsonObject();
+        ruleDetails.add("rule", rule);
+
+        SecurityHotspotsProviderWrapper provider = new SecurityHotspotsProviderWrapper() {
+            @Override
+            protected JsonObject getSecurityHotspotAsJsonObject(final String securityHotspotKey) {
+                JsonObject hotspotRule = new JsonObject();
+                hotspotRule.addProperty("key", "rule_" + securityHotspotKey);
+                JsonObject hotspotDetails = new JsonObject();
+                hotspotDetails.add("rule", hotspotRule);
+                return hotspotDetails;
+            }
+        };
+        provider.setFakeHotspots(hotspots);
+        provider.setFakeRule(ruleDetails);
+        provider.setMissingRules(Arrays.asList("rule_removed", "rule_unknown"));
+
+        List<SecurityHotspot> result = provider.getSecurityHotspotsByStatus("TO_REVIEW");
+        assertEquals(3, result.size());
+        assertEquals("CRITICAL", result.get(0).getSeverity());
+        // the removed rule is not found by the search but it is shown
+        assertEquals("CRITICAL", result.get(1).getSeverity());
+        assertEquals("C++", result.get(1).getLanguage());
+        // the rule unknown to SonarQube is left empty
+        assertEquals("", result.get(2).getSeverity());
+        assertEquals("", result.get(2).getLanguage());
+        assertEquals(2, provider.getRuleShows());
+
+        // missing rules are not shown again
+        provider.getSecurityHotspotsByStatus("TO_REVIEW");
+        assertEquals(2, provider.getRuleShows());
+    }
+
+    @Test
+    public void getSecurityHotspotsDetailsInOrderTest() throws BadSonarQubeRequestException, SonarQubeException {
+        // Create two pages of security hotspots
+        JsonArray hotspotsList = new JsonArray();
+        for (int i = 0; i < 20; i++) {
+            JsonObject hotspot = new JsonObject();
+            hotspot.addProperty("key", "key_" + i);
+            hotspotsList.add(hotspot);
+        }
+        JsonObject paging = new JsonObject();
+        paging.addProperty("total", 520);
+        JsonObject hotspots = new JsonObject();
+        hotspots.add("hotspots", hotspotsList);
+        hotspots.add("paging", paging);
+
+        JsonObject rule = new JsonObject();
+        rule.addProperty("severity", "MAJOR");
+        rule.addProperty("langName", "Java");
+        JsonObject ruleDetails = new JsonObject();
+        ruleDetails.add("rule", rule);
+
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        SecurityHotspotsProviderWrapper provider = new SecurityHotspotsProviderWrapper() {
+            @Override
+            protected JsonObject getSecurityHotspotAsJsonObject(final String securityHotspotKey) {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                // first security hotspots of a page are the slowest
+                int index = Integer.parseInt(securityHotspotKey.substring(4));
+                try {
+                    Thread.sleep(20 - index);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                inFlight.decrementAndGet();
+                JsonObject hotspotRule = new JsonObject();
+                hotspotRule.addProperty("key", "rule_" + securityHotspotKey);
+                JsonObject hotspotDetails = new JsonObject();
+                hotspotDetails.add("rule", hotspotRule);
+                return hotspotDetails;
+            }
+        };
+        provider.setFakeHotspots(hotspots);
+        provider.setFakeRule(ruleDetails);
+
+        List<SecurityHotspot> result = provider.getSecurityHotspotsByStatus("TO_REVIEW");
+        assertEquals(40, result.size());
+        for (int i = 0; i < 40; i++) {
+            assertEquals("key_" + (i % 20), result.get(i).getKey());
+            assertEquals("rule_key_" + (i % 20), result.get(i).getRule());
+        }
+        assertTrue(maxInFlight.get() <= 4);
     }
 
     /**
@@ -115,6 +269,9 @@ public class AbstractSecurityHotspotsProviderTest {
         JsonObject hotspots;
         JsonObject hotspot;
         JsonObject rule;
+        int rulesRequests;
+        List<String> missingRules = Arrays.asList();
+        int ruleShows;
 
         public SecurityHotspotsProviderWrapper() {
             super("server", "token", "project", "branch");
@@ -137,6 +294,15 @@ public class AbstractSecurityHotspotsProviderTest {
             this.rule = pFake;
         }
 
+        /**
+         * Sets the rules which are not found by the search of rules
+         * 
+         * @param pKeys The keys of the rules, shown only if they do not start with "rule_unknown"
+         */
+        public void setMissingRules(List<String> pKeys) {
+            this.missingRules = pKeys;
+        }
+
         /**
          * Wrapper methods to mock the API response
          */
@@ -150,9 +316,43 @@ public class AbstractSecurityHotspotsProviderTest {
             return this.hotspot;
         }
 
-        protected JsonObject getRuleAsJsonObject(final String securityHotspotRule)
+        protected JsonObject getRulesAsJsonObject(final String ruleKeys)
+                throws BadSonarQubeRequestException, SonarQubeException {
+            this.rulesRequests++;
+            // one copy of the fake rule for each requested key
+            JsonArray rules = new JsonArray();
+            for (String key : ruleKeys.split(",")) {
+                if (this.missingRules.contains(key)) {
+                    continue;
+                }
+                JsonObject copy = this.rule.getAsJsonObject("rule").deepCopy();
+                copy.addProperty("key", key);
+                rules.add(copy);
+            }
+            JsonObject response = new JsonObject();
+            response.add("rules", rules);
+            return response;
+        }
+
+        protected JsonObject getRuleAsJsonObject(final String ruleKey)
                 throws BadSonarQubeRequestException, SonarQubeException {
-            return this.rule;
+            this.ruleShows++;
+            if (ruleKey.startsWith("rule_unknown")) {
+                throw new BadSonarQubeRequestException("Not found error sent by SonarQube server (code 404)");
+            }
+            JsonObject copy = this.rule.getAsJsonObject("rule").deepCopy();
+            copy.addProperty("key", ruleKey);
+            JsonObject response = new JsonObject();
+            response.add("rule", copy);
+            return response;
+        }
+
+        public int getRulesRequests() {
+            return this.rulesRequests;
+        }
+
+        public int getRuleShows() {
+            return this.ruleShows;
         }
 
         /**
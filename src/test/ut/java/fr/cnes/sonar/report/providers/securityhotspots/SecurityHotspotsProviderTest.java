@@ -1,10 +1,29 @@
 package fr.cnes.sonar.report.providers.securityhotspots;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
 import fr.cnes.sonar.report.CommonTest;
 import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
 import fr.cnes.sonar.report.exceptions.SonarQubeException;
+import fr.cnes.sonar.report.model.SecurityHotspot;
 
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.sonarqube.ws.Common;
+import org.sonarqube.ws.Hotspots;
+import org.sonarqube.ws.Rules;
+import org.sonarqube.ws.client.HttpException;
+import org.sonarqube.ws.client.WsClient;
+import org.sonarqube.ws.client.WsConnector;
+import org.sonarqube.ws.client.WsRequest;
+import org.sonarqube.ws.client.WsResponse;
+import org.sonarqube.ws.client.hotspots.HotspotsService;
+import org.sonarqube.ws.client.hotspots.SearchRequest;
 
 public class SecurityHotspotsProviderTest extends CommonTest {
 
@@ -22,4 +41,109 @@ public class SecurityHotspotsProviderTest extends CommonTest {
         securityHotspotsProvider.getReviewedSecurityHotspots();
     }
 
-}
\ No newline at end of file
+    /**
+     * Mock a web client with two security hotspots: the rule of the first one is found by the search of rules,
+     * the rule of the second one is only found by its key.
+     * @param hotspots the service of security hotspots of the client
+     * @param requests receives the paths of the requests of rules sent to the connector
+     * @return the web client
+     */
+    // severity is deprecated by SonarQube but it is still reported
+    @SuppressWarnings("deprecation")
+    private static WsClient mockWsClient(final HotspotsService hotspots, final List<String> requests) {
+        Mockito.when(hotspots.search(Mockito.any())).thenReturn(Hotspots.SearchWsResponse.newBuilder()
+                .setPaging(Common.Paging.newBuilder().setPageIndex(1).setPageSize(500).setTotal(2))
+                .addHotspots(Hotspots.SearchWsResponse.Hotspot.newBuilder().setKey("AXh1").setComponent("a.java")
+                        .setSecurityCategory("sql-injection").setVulnerabilityProbability("HIGH").setLine(12))
+                .addHotspots(Hotspots.SearchWsResponse.Hotspot.newBuilder().setKey("AXh2").setComponent("b.java")
+                        .setSecurityCategory("weak-cryptography").setVulnerabilityProbability("LOW"))
+                .build());
+        Mockito.when(hotspots.show(Mockito.any())).thenAnswer(invocation -> {
+            final String key = invocation.<org.sonarqube.ws.client.hotspots.ShowRequest>getArgument(0).getHotspot();
+            return Hotspots.ShowWsResponse.newBuilder().setKey(key).setResolution("SAFE")
+                    .setRule(Hotspots.Rule.newBuilder().setKey("AXh1".equals(key) ? "java:S1" : "java:S2"))
+                    .addComment(Common.Comment.newBuilder().setKey("c1").setLogin("admin").setMarkdown("checked"))
+                    .build();
+        });
+
+        // the rules are read with requests of the connector as the typed search cannot search several rules
+        final WsConnector connector = Mockito.mock(WsConnector.class);
+        Mockito.when(connector.call(Mockito.any())).thenAnswer(invocation -> {
+            final WsRequest request = invocation.getArgument(0);
+            requests.add(request.getPath());
+            final byte[] body;
+            if ("api/rules/search".equals(request.getPath())) {
+                body = Rules.SearchResponse.newBuilder()
+                        .addRules(Rules.Rule.newBuilder().setKey("java:S1").setSeverity("CRITICAL").setLangName("Java"))
+                        .build().toByteArray();
+            } else {
+                body = Rules.ShowResponse.newBuilder()
+                        .setRule(Rules.Rule.newBuilder().setKey("java:S2").setSeverity("MINOR").setLangName("Java"))
+                        .build().toByteArray();
+            }
+            final WsResponse response = Mockito.mock(WsResponse.class);
+            Mockito.when(response.failIfNotSuccessful()).thenReturn(response);
+            Mockito.when(response.contentStream()).thenReturn(new ByteArrayInputStream(body));
+            return response;
+        });
+
+        final WsClient wsClient = Mockito.mock(WsClient.class);
+        Mockito.when(wsClient.hotspots()).thenReturn(hotspots);
+        Mockito.when(wsClient.wsConnector()).thenReturn(connector);
+        return wsClient;
+    }
+
+    @Test
+    public void executeGetToReviewSecurityHotspotsPlugin() throws SonarQubeException, BadSonarQubeRequestException {
+        final HotspotsService service = Mockito.mock(HotspotsService.class);
+        final List<String> requests = new ArrayList<>();
+        final SecurityHotspotsProvider securityHotspotsProvider =
+                new SecurityHotspotsProviderPlugin(mockWsClient(service, requests), PROJECT_KEY, BRANCH);
+
+        final List<SecurityHotspot> hotspots = securityHotspotsProvider.getToReviewSecurityHotspots();
+        assertEquals(2, hotspots.size());
+        assertEquals("AXh1", hotspots.get(0).getKey());
+        assertEquals("12", hotspots.get(0).getLine());
+        assertEquals("java:S1", hotspots.get(0).getRule());
+        assertEquals("CRITICAL", hotspots.get(0).getSeverity());
+        assertEquals("Java", hotspots.get(0).getLanguage());
+        assertEquals("[admin] checked\n", hotspots.get(0).getComments());
+        // the rule missing from the search is shown by its key
+        assertEquals("java:S2", hotspots.get(1).getRule());
+        assertEquals("MINOR", hotspots.get(1).getSeverity());
+        assertEquals(2, requests.size());
+        assertEquals("api/rules/show", requests.get(1));
+
+        final ArgumentCaptor<SearchRequest> request = ArgumentCaptor.forClass(SearchRequest.class);
+        Mockito.verify(service).search(request.capture());
+        assertEquals(PROJECT_KEY, request.getValue().getProjectKey());
+        assertEquals(BRANCH, request.getValue().getBranch());
+        assertEquals("TO_REVIEW", request.getValue().getStatus());
+        Mockito.verify(service, Mockito.times(2)).show(Mockito.any());
+    }
+
+    @Test
+    public void executeGetReviewedSecurityHotspotsPlugin() throws SonarQubeException, BadSonarQubeRequestException {
+        final HotspotsService service = Mockito.mock(HotspotsService.class);
+        final SecurityHotspotsProvider securityHotspotsProvider =
+                new SecurityHotspotsProviderPlugin(mockWsClient(service, new ArrayList<>()), PROJECT_KEY, BRANCH);
+
+        final List<SecurityHotspot> hotspots = securityHotspotsProvider.getReviewedSecurityHotspots();
+        assertEquals(2, hotspots.size());
+        assertEquals("SAFE", hotspots.get(0).getResolution());
+
+        final ArgumentCaptor<SearchRequest> request = ArgumentCaptor.forClass(SearchRequest.class);
+        Mockito.verify(service).search(request.capture());
+        assertEquals("REVIEWED", request.getValue().getStatus());
+    }
+
+    @Test(expected = BadSonarQubeRequestException.class)
+    public void executeFaultyGetSecurityHotspotsPlugin() throws SonarQubeException, BadSonarQubeRequestException {
+        final HotspotsService service = Mockito.mock(HotspotsService.class);
+        Mockito.when(service.search(Mockito.any()))
+                .thenThrow(new HttpException("api/hotspots/search", 403, "Insufficient privileges"));
+        final WsClient wsClient = Mockito.mock(WsClient.class);
+        Mockito.when(wsClient.hotspots()).thenReturn(service);
+        new SecurityHotspotsProviderPlugin(wsClient, PROJECT_KEY, BRANCH).getToReviewSecurityHotspots();
+    }
+}
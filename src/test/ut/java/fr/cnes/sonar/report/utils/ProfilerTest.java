@@ -0,0 +1,164 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+public class ProfilerTest {
+
+    private final Profiler profiler = Profiler.getInstance();
+
+    /**
+     * Read a stream to its end.
+     * @param input the stream
+     */
+    private static void readAll(final InputStream input) throws IOException {
+        final byte[] buffer = new byte[16];
+        while (input.read(buffer) >= 0) {
+            // counted by the profiler
+        }
+    }
+
+    @Test
+    public void testNothingIsMeasuredWhenNotStarted() throws IOException {
+        final Profiler.Phase root = profiler.start("root");
+        root.close();
+        assertFalse(profiler.isMeasured());
+        try (Profiler.Phase phase = profiler.phase("ignored")) {
+            profiler.recordHttpCall();
+            readAll(profiler.count(new ByteArrayInputStream(new byte[100])));
+            assertFalse(profiler.isMeasured());
+        }
+        assertTrue(root.getChildren().isEmpty());
+        assertEquals(0, root.getHttpCalls());
+    }
+
+    @Test
+    public void testCountersAddUpInParentPhases() throws Exception {
+        final Profiler.Phase root = profiler.start("root");
+        try {
+            try (Profiler.Phase child = profiler.phase("child")) {
+                profiler.recordPage();
+                profiler.recordHttpCall();
+                readAll(profiler.count(new ByteArrayInputStream(new byte[100])));
+            }
+            // work of another thread is attributed to the phase which gave it
+            final ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                executor.submit(profiler.propagate(() -> {
+                    try (Profiler.Phase worker = profiler.phase("worker")) {
+                        profiler.recordPage();
+                        profiler.recordHttpCall();
+                        readAll(profiler.count(new ByteArrayInputStream(new byte[50])));
+                    }
+                    return null;
+                })).get();
+            } finally {
+                executor.shutdownNow();
+            }
+            profiler.recordPage();
+        } finally {
+            root.close();
+        }
+
+        assertEquals(2, root.getChildren().size());
+        assertEquals(3, root.getPages());
+        assertEquals(2, root.getHttpCalls());
+        assertEquals(150, root.getBytesReceived());
+        assertEquals(100, root.find("child").getBytesReceived());
+        assertEquals(50, root.find("worker").getBytesReceived());
+        assertTrue(root.getPeakHeap() > 0);
+        assertTrue(root.getAllocatedBytes() >= root.find("child").getAllocatedBytes());
+
+        final JsonObject worker = JsonParser.parseString(root.toJson()).getAsJsonObject()
+                .getAsJsonArray("phases").get(2).getAsJsonObject();
+        assertEquals("root", worker.get("parent").getAsString());
+        assertEquals(1, worker.get("httpCalls").getAsLong());
+        assertTrue(root.summary().contains("  worker"));
+    }
+
+    @Test
+    public void testGenerationsAreMeasuredApart() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Profiler.Phase first = executor.submit(() -> {
+                try (Profiler.Phase root = profiler.start("first")) {
+                    profiler.recordHttpCall();
+                    return root;
+                }
+            }).get();
+            final Profiler.Phase second = executor.submit(() -> {
+                try (Profiler.Phase root = profiler.start("second")) {
+                    profiler.recordHttpCall();
+                    profiler.recordHttpCall();
+                    return root;
+                }
+            }).get();
+            assertEquals(1, first.getHttpCalls());
+            assertEquals(2, second.getHttpCalls());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testDetachedPhaseIsClosedByAnotherThread() throws Exception {
+        final Profiler.Phase root = profiler.start("root");
+        profiler.recordHttpCall();
+        final Callable<Void> task = profiler.propagate(() -> {
+            try (Profiler.Phase worker = profiler.phase("worker")) {
+                profiler.recordHttpCall();
+            }
+            return null;
+        });
+        profiler.detach(root);
+        assertFalse(profiler.isMeasured());
+        assertTrue(root.isOpen());
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> {
+                try (Profiler.Phase phase = root) {
+                    task.call();
+                }
+                return profiler.isMeasured();
+            }).get();
+            assertFalse(executor.submit(profiler::isMeasured).get());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertFalse(root.isOpen());
+        assertFalse(profiler.isMeasured());
+        assertEquals(2, root.getHttpCalls());
+        assertEquals(1, root.find("worker").getHttpCalls());
+    }
+}